@@ -16,7 +16,14 @@ import com.onarandombox.MultiverseCore.configuration.SpawnSettings;
 import com.onarandombox.MultiverseCore.configuration.WorldPropertyValidator;
 import com.onarandombox.MultiverseCore.enums.AllowedPortalType;
 import com.onarandombox.MultiverseCore.enums.EnglishChatColor;
+import com.onarandombox.MultiverseCore.enums.EnglishChatStyle;
 import com.onarandombox.MultiverseCore.exceptions.PropertyDoesNotExistException;
+import com.onarandombox.MultiverseCore.utils.EntityBudget;
+import com.onarandombox.MultiverseCore.utils.PermissionBatch;
+import com.onarandombox.MultiverseCore.utils.SpawnRules;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker.Feature;
+import com.onarandombox.MultiverseCore.utils.WorldFlags;
 import me.main__.util.SerializationConfig.ChangeDeniedException;
 import me.main__.util.SerializationConfig.NoSuchPropertyException;
 import me.main__.util.SerializationConfig.VirtualProperty;
@@ -41,6 +48,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 
 /**
@@ -92,6 +102,8 @@ public class MVWorld implements MultiverseWorld {
         this.props.flushChanges();
 
         validateProperties();
+        this.plugin.getWorldFlags().publish(world, WorldFlags.of(this));
+        this.publishChatPrefix(props.isHidden(), props.getAlias(), props.getColor(), props.getStyle());
     }
 
     private void setupProperties() {
@@ -183,6 +195,20 @@ public class MVWorld implements MultiverseWorld {
         this.props.setValidator("allowWeather", new AllowWeatherPropertyValidator());
         this.props.setValidator("spawning", new SpawningPropertyValidator());
         this.props.setValidator("gameMode", new GameModePropertyValidator());
+        this.props.setValidator("hunger", new FeaturePropertyValidator<Boolean>(Feature.HUNGER, hunger -> !hunger,
+                (flags, hunger) -> flags.with(WorldFlags.HUNGER, hunger)));
+        this.props.setValidator("autoHeal", new FeaturePropertyValidator<Boolean>(Feature.AUTO_HEAL, heal -> !heal,
+                (flags, heal) -> flags.with(WorldFlags.AUTO_HEAL, heal)));
+        this.props.setValidator("portalForm", new FeaturePropertyValidator<AllowedPortalType>(Feature.PORTAL_FORM,
+                portals -> portals != AllowedPortalType.ALL, WorldFlags::withPortals));
+        this.props.setValidator("hidden", new ChatPrefixPropertyValidator<Boolean>(
+                hidden -> publishChatPrefix(hidden, props.getAlias(), props.getColor(), props.getStyle())));
+        this.props.setValidator("alias", new ChatPrefixPropertyValidator<String>(
+                alias -> publishChatPrefix(props.isHidden(), alias, props.getColor(), props.getStyle())));
+        this.props.setValidator("color", new ChatPrefixPropertyValidator<EnglishChatColor>(
+                color -> publishChatPrefix(props.isHidden(), props.getAlias(), color, props.getStyle())));
+        this.props.setValidator("style", new ChatPrefixPropertyValidator<EnglishChatStyle>(
+                style -> publishChatPrefix(props.isHidden(), props.getAlias(), props.getColor(), style)));
 
         //this.props.validate();
     }
@@ -196,6 +222,37 @@ public class MVWorld implements MultiverseWorld {
         setAllowMonsterSpawn(canMonstersSpawn());
     }
 
+    private void compileSpawnRules() {
+        this.spawnRules = SpawnRules.compile(this.plugin.getEntityCategories(), this);
+        this.entityBudget = EntityBudget.compile(this.props.getChunkEntityLimit(), this.props.getTypeLimits());
+    }
+
+    /**
+     * Gets the spawn settings of this world compiled into the entity types that may not spawn.
+     * They're recompiled whenever the spawn settings or the entity category overrides change.
+     *
+     * @return The {@link SpawnRules}.
+     */
+    public SpawnRules getSpawnRules() {
+        SpawnRules rules = this.spawnRules;
+        if (rules == null || rules.getCategories() != this.plugin.getEntityCategories()) {
+            this.compileSpawnRules();
+        }
+        return this.spawnRules;
+    }
+
+    /**
+     * Gets the entity limits of this world. They're recompiled whenever the spawn settings change.
+     *
+     * @return The {@link EntityBudget}.
+     */
+    public EntityBudget getEntityBudget() {
+        if (this.entityBudget == null) {
+            this.compileSpawnRules();
+        }
+        return this.entityBudget;
+    }
+
     private void validateProperties() {
         setPVPMode(isPVPEnabled());
         setDifficulty(getDifficulty());
@@ -250,7 +307,10 @@ public class MVWorld implements MultiverseWorld {
                     world.setThundering(false);
                 }
             }
-            return super.validateChange(property, newValue, oldValue, object);
+            plugin.getWorldFeatures().propertyChanged(Feature.WEATHER, !newValue);
+            Boolean value = super.validateChange(property, newValue, oldValue, object);
+            publishFlags(WorldFlags.of(MVWorld.this).with(WorldFlags.WEATHER, value));
+            return value;
         }
     }
 
@@ -272,6 +332,10 @@ public class MVWorld implements MultiverseWorld {
             } else {
                 allowMonsters = true;
             }
+            MVWorld.this.spawnRules = SpawnRules.compile(plugin.getEntityCategories(), newValue);
+            MVWorld.this.entityBudget = EntityBudget.compile(newValue);
+            // Registers the spawn handler right away, the next count drops it again if no world needs it.
+            plugin.getWorldFeatures().propertyChanged(Feature.SPAWNING, true);
             final World world = getCBWorld();
             if (world != null) {
                 if (MVWorld.this.props.getAnimalSpawnRate() != -1) {
@@ -283,12 +347,70 @@ public class MVWorld implements MultiverseWorld {
                 world.setSpawnFlags(allowMonsters, allowAnimals);
             }
             if (MultiverseCoreConfiguration.getInstance().isAutoPurgeEnabled()) {
-                plugin.getMVWorldManager().getTheWorldPurger().purgeWorld(MVWorld.this);
+                plugin.getMVWorldManager().getTheWorldPurger().purgeWorldIncrementally(MVWorld.this);
             }
             return super.validateChange(property, newValue, oldValue, object);
         }
     }
 
+    /**
+     * Publishes the {@link WorldFlags} of this world. Validators run before the new value is stored,
+     * so they pass the flags with the new value already applied.
+     */
+    private void publishFlags(WorldFlags flags) {
+        final World world = this.plugin.getServer().getWorld(this.worldUID);
+        if (world != null) {
+            this.plugin.getWorldFlags().publish(world, flags);
+        }
+    }
+
+    /**
+     * Lets the {@link WorldFeatureTracker} know about changes to a property that needs event handlers
+     * and publishes the changed {@link WorldFlags}.
+     */
+    private final class FeaturePropertyValidator<T> extends WorldPropertyValidator<T> {
+        private final Feature feature;
+        private final Predicate<T> needed;
+        private final BiFunction<WorldFlags, T, WorldFlags> flags;
+
+        private FeaturePropertyValidator(Feature feature, Predicate<T> needed,
+                BiFunction<WorldFlags, T, WorldFlags> flags) {
+            this.feature = feature;
+            this.needed = needed;
+            this.flags = flags;
+        }
+
+        @Override
+        public T validateChange(String property, T newValue, T oldValue, MVWorld object) throws ChangeDeniedException {
+            T value = super.validateChange(property, newValue, oldValue, object);
+            if (value != null) {
+                plugin.getWorldFeatures().propertyChanged(this.feature, this.needed.test(value));
+                publishFlags(this.flags.apply(WorldFlags.of(MVWorld.this), value));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Publishes the chat prefix again when a property it's built from changes.
+     */
+    private final class ChatPrefixPropertyValidator<T> extends WorldPropertyValidator<T> {
+        private final Consumer<T> publish;
+
+        private ChatPrefixPropertyValidator(Consumer<T> publish) {
+            this.publish = publish;
+        }
+
+        @Override
+        public T validateChange(String property, T newValue, T oldValue, MVWorld object) throws ChangeDeniedException {
+            T value = super.validateChange(property, newValue, oldValue, object);
+            if (value != null) {
+                this.publish.accept(value);
+            }
+            return value;
+        }
+    }
+
     /**
      * Used to apply the gameMode-property.
      */
@@ -335,6 +457,8 @@ public class MVWorld implements MultiverseWorld {
         }
     }
 
+    private volatile SpawnRules spawnRules;
+    private volatile EntityBudget entityBudget;
     private Permission permission;
     private Permission exempt;
     private Permission ignoreperm;
@@ -479,8 +603,10 @@ public class MVWorld implements MultiverseWorld {
         all.getChildren().put("multiverse.access.*", true);
         all.getChildren().put("multiverse.exempt.*", true);
 
-        this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(all);
-        this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(allWorlds);
+        PermissionBatch batch = this.plugin.getPermissionBatch();
+        batch.recalculate(all);
+        batch.recalculate(allWorlds);
+        batch.recalculate(allExemption);
     }
 
     /**
@@ -489,6 +615,7 @@ public class MVWorld implements MultiverseWorld {
      */
     public void copyValues(MVWorld other) {
         props.copyValues(other.props);
+        this.valuesCopied();
     }
 
     /**
@@ -497,6 +624,26 @@ public class MVWorld implements MultiverseWorld {
      */
     public void copyValues(WorldProperties other) {
         props.copyValues(other);
+        this.valuesCopied();
+    }
+
+    /**
+     * The blacklist, entry fee or player limit may have changed, so what was worked out from them is dropped.
+     */
+    private void accessRulesChanged() {
+        this.plugin.getTravelMatrix().invalidate(this);
+        this.plugin.getMVPerms().getDecisionCache().invalidateWorld(this.getName());
+    }
+
+    /**
+     * Copying values doesn't run the validators, so everything they'd keep up to date is updated here.
+     */
+    private void valuesCopied() {
+        this.accessRulesChanged();
+        this.compileSpawnRules();
+        this.publishFlags(WorldFlags.of(this));
+        this.publishChatPrefix(props.isHidden(), props.getAlias(), props.getColor(), props.getStyle());
+        this.plugin.getWorldFeatures().scheduleUpdate();
     }
 
     /**
@@ -516,20 +663,33 @@ public class MVWorld implements MultiverseWorld {
      */
     @Override
     public String getColoredWorldString() {
-        if (props.getAlias().length() == 0) {
-            props.setAlias(this.getName());
-        }
+        return this.buildColoredWorldString(props.getAlias(), props.getColor(), props.getStyle());
+    }
 
-        if ((props.getColor() == null) || (props.getColor().getColor() == null)) {
-            this.props.setColor(EnglishChatColor.WHITE);
+    /**
+     * Builds the colored name of this world. This doesn't change any properties, so it's safe to call
+     * from any thread; a missing alias or color falls back to the world's name and white.
+     */
+    private String buildColoredWorldString(String alias, EnglishChatColor color, EnglishChatStyle style) {
+        if (alias == null || alias.length() == 0) {
+            alias = this.name;
         }
+        if ((color == null) || (color.getColor() == null)) {
+            color = EnglishChatColor.WHITE;
+        }
+        StringBuilder nameBuilder = new StringBuilder().append(color.getColor());
+        if (style != null && style.getColor() != null)
+            nameBuilder.append(style.getColor());
+        return nameBuilder.append(alias).append(ChatColor.WHITE).toString();
+    }
 
-        StringBuilder nameBuilder = new StringBuilder().append(props.getColor().getColor());
-        if (props.getStyle().getColor() != null)
-            nameBuilder.append(props.getStyle().getColor());
-        nameBuilder.append(props.getAlias()).append(ChatColor.WHITE).toString();
-
-        return nameBuilder.toString();
+    /**
+     * Publishes the chat prefix of this world. Validators run before the new value is stored,
+     * so they pass the new value together with the current ones.
+     */
+    private void publishChatPrefix(boolean hidden, String alias, EnglishChatColor color, EnglishChatStyle style) {
+        this.plugin.getChatPrefixes().publish(this.name,
+                hidden ? null : this.buildColoredWorldString(alias, color, style));
     }
 
     /**
@@ -556,6 +716,7 @@ public class MVWorld implements MultiverseWorld {
             return false;
         list.clear();
         validateEntitySpawns();
+        this.accessRulesChanged();
         return true;
     }
 
@@ -572,6 +733,7 @@ public class MVWorld implements MultiverseWorld {
             return false;
         list.add(value);
         validateEntitySpawns();
+        this.accessRulesChanged();
         return true;
     }
 
@@ -588,6 +750,7 @@ public class MVWorld implements MultiverseWorld {
             return false;
         list.remove(value);
         validateEntitySpawns();
+        this.accessRulesChanged();
         return true;
     }
 
@@ -602,6 +765,8 @@ public class MVWorld implements MultiverseWorld {
             return this.props.getAnimalList();
         else if (property.equalsIgnoreCase("monsters"))
             return this.props.getMonsterList();
+        else if (property.equalsIgnoreCase("typelimits"))
+            return this.props.getTypeLimits();
         return null;
     }
 
@@ -623,7 +788,11 @@ public class MVWorld implements MultiverseWorld {
     @Override
     public boolean setPropertyValue(String property, String value) throws PropertyDoesNotExistException {
         try {
-            return this.props.setProperty(property, value, true);
+            boolean success = this.props.setProperty(property, value, true);
+            // The world's blacklist, entry fee, player limit or spawn settings may have changed.
+            this.accessRulesChanged();
+            this.compileSpawnRules();
+            return success;
         } catch (NoSuchPropertyException e) {
             throw new PropertyDoesNotExistException(property, e);
         }
@@ -713,6 +882,7 @@ public class MVWorld implements MultiverseWorld {
     @Override
     public void setPlayerLimit(int limit) {
         this.props.setPlayerLimit(limit);
+        this.accessRulesChanged();
     }
 
     /**
@@ -765,6 +935,7 @@ public class MVWorld implements MultiverseWorld {
     @Override
     public void setAllowAnimalSpawn(boolean animals) {
         this.props.setAllowAnimalSpawn(animals);
+        this.compileSpawnRules();
     }
 
     /**
@@ -790,6 +961,7 @@ public class MVWorld implements MultiverseWorld {
     @Override
     public void setAllowMonsterSpawn(boolean monsters) {
         this.props.setAllowMonsterSpawn(monsters);
+        this.compileSpawnRules();
     }
 
     /**
@@ -950,6 +1122,7 @@ public class MVWorld implements MultiverseWorld {
     @Override
     public void setPrice(double price) {
         this.props.setPrice(price);
+        this.accessRulesChanged();
     }
 
     /**
@@ -960,6 +1133,22 @@ public class MVWorld implements MultiverseWorld {
         return this.exempt;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Permission getGameModeBypassPermission() {
+        return this.ignoreperm;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Permission getPlayerLimitBypassPermission() {
+        return this.limitbypassperm;
+    }
+
     /**
      * {@inheritDoc}
      */
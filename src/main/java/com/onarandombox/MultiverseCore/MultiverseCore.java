@@ -16,7 +16,6 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +31,7 @@ import com.onarandombox.MultiverseCore.api.MVPlugin;
 import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
 import com.onarandombox.MultiverseCore.api.MultiverseMessaging;
+import com.onarandombox.MultiverseCore.api.PortalIndex;
 import com.onarandombox.MultiverseCore.api.SafeTTeleporter;
 import com.onarandombox.MultiverseCore.commands.AnchorCommand;
 import com.onarandombox.MultiverseCore.commands.CheckCommand;
@@ -41,12 +41,14 @@ import com.onarandombox.MultiverseCore.commands.ConfirmCommand;
 import com.onarandombox.MultiverseCore.commands.CoordCommand;
 import com.onarandombox.MultiverseCore.commands.CreateCommand;
 import com.onarandombox.MultiverseCore.commands.DebugCommand;
+import com.onarandombox.MultiverseCore.commands.DebugDumpCommand;
 import com.onarandombox.MultiverseCore.commands.DeleteCommand;
 import com.onarandombox.MultiverseCore.commands.EnvironmentCommand;
 import com.onarandombox.MultiverseCore.commands.GameruleCommand;
 import com.onarandombox.MultiverseCore.commands.GamerulesCommand;
 import com.onarandombox.MultiverseCore.commands.GeneratorCommand;
 import com.onarandombox.MultiverseCore.commands.HelpCommand;
+import com.onarandombox.MultiverseCore.commands.HotChunksCommand;
 import com.onarandombox.MultiverseCore.commands.ImportCommand;
 import com.onarandombox.MultiverseCore.commands.InfoCommand;
 import com.onarandombox.MultiverseCore.commands.ListCommand;
@@ -89,23 +91,39 @@ import com.onarandombox.MultiverseCore.listeners.MVWeatherListener;
 import com.onarandombox.MultiverseCore.listeners.MVWorldInitListener;
 import com.onarandombox.MultiverseCore.listeners.MVWorldListener;
 import com.onarandombox.MultiverseCore.utils.AnchorManager;
+import com.onarandombox.MultiverseCore.utils.ChatPrefixTable;
 import com.onarandombox.MultiverseCore.utils.CompatibilityLayer;
+import com.onarandombox.MultiverseCore.utils.EntityCategories;
+import com.onarandombox.MultiverseCore.utils.EntityCounter;
+import com.onarandombox.MultiverseCore.utils.FlightRecorder;
+import com.onarandombox.MultiverseCore.utils.HotChunkTracker;
 import com.onarandombox.MultiverseCore.utils.MVEconomist;
 import com.onarandombox.MultiverseCore.utils.MVMessaging;
 import com.onarandombox.MultiverseCore.utils.MVPermissions;
 import com.onarandombox.MultiverseCore.utils.MVPlayerSession;
 import com.onarandombox.MultiverseCore.utils.MaterialConverter;
+import com.onarandombox.MultiverseCore.utils.PermissionBatch;
+import com.onarandombox.MultiverseCore.utils.PlayerSessionStore;
+import com.onarandombox.MultiverseCore.utils.PlayerStateApplicator;
 import com.onarandombox.MultiverseCore.utils.TestingMode;
 import com.onarandombox.MultiverseCore.utils.metrics.MetricsConfigurator;
 import com.onarandombox.MultiverseCore.utils.SimpleBlockSafety;
 import com.onarandombox.MultiverseCore.utils.SimpleLocationManipulation;
+import com.onarandombox.MultiverseCore.utils.SimplePortalIndex;
 import com.onarandombox.MultiverseCore.utils.SimpleSafeTTeleporter;
+import com.onarandombox.MultiverseCore.utils.SpawnGovernor;
+import com.onarandombox.MultiverseCore.utils.TeleportRegistry;
 import com.onarandombox.MultiverseCore.utils.UnsafeCallWrapper;
 import com.onarandombox.MultiverseCore.utils.VaultHandler;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker;
+import com.onarandombox.MultiverseCore.utils.WorldFlagTable;
+import com.onarandombox.MultiverseCore.utils.WorldGroupManager;
 import com.onarandombox.MultiverseCore.utils.WorldManager;
+import com.onarandombox.MultiverseCore.utils.WorldTravelMatrix;
 import com.pneumaticraft.commandhandler.CommandHandler;
 import me.main__.util.SerializationConfig.NoSuchPropertyException;
 import me.main__.util.SerializationConfig.SerializationConfig;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Difficulty;
 import org.bukkit.GameMode;
@@ -118,6 +136,10 @@ import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.world.ChunkEvent;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -128,9 +150,8 @@ import org.bukkit.plugin.java.JavaPluginLoader;
  */
 public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
     private static final int PROTOCOL = 24;
-    // TODO: Investigate if this one is really needed to be static.
-    // Doubt it. -- FernFerret
-    private static Map<String, String> teleportQueue = new HashMap<String, String>();
+    // Static because of the deprecated static accessors below.
+    private static final TeleportRegistry teleportRegistry = new TeleportRegistry();
 
     private AnchorManager anchorManager = new AnchorManager(this);
     // TODO please let's make this non-static
@@ -155,14 +176,16 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
      * This method is used to find out who is teleporting a player.
      * @param playerName The teleported player (the teleportee).
      * @return The player that teleported the other one (the teleporter).
+     * @deprecated Use {@link TeleportRegistry#claim(java.util.UUID, Location)} instead.
      */
+    @Deprecated
     public static String getPlayerTeleporter(String playerName) {
-        if (teleportQueue.containsKey(playerName)) {
-            String teleportee = teleportQueue.get(playerName);
-            teleportQueue.remove(playerName);
-            return teleportee;
+        Player teleportee = Bukkit.getPlayerExact(playerName);
+        if (teleportee == null) {
+            return null;
         }
-        return null;
+        TeleportRegistry.PendingTeleport pending = teleportRegistry.claim(teleportee.getUniqueId(), null);
+        return (pending != null) ? pending.getTeleporterName() : null;
     }
 
     /**
@@ -170,10 +193,28 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
      *
      * @param teleporter The name of the player that initiated the teleportation.
      * @param teleportee The name of the player that was teleported.
+     * @deprecated Use {@link TeleportRegistry#register(CommandSender, java.util.UUID, Location)} instead.
      */
+    @Deprecated
     public static void addPlayerToTeleportQueue(String teleporter, String teleportee) {
-        Logging.finest("Adding mapping '%s' => '%s' to teleport queue", teleporter, teleportee);
-        teleportQueue.put(teleportee, teleporter);
+        Player teleporteePlayer = Bukkit.getPlayerExact(teleportee);
+        if (teleporteePlayer == null) {
+            return;
+        }
+        CommandSender teleporterSender = "CONSOLE".equals(teleporter)
+                ? Bukkit.getConsoleSender() : Bukkit.getPlayerExact(teleporter);
+        if (teleporterSender != null) {
+            teleportRegistry.register(teleporterSender, teleporteePlayer.getUniqueId(), null);
+        }
+    }
+
+    /**
+     * Gets the registry that keeps track of who initiated which teleport.
+     *
+     * @return The {@link TeleportRegistry}.
+     */
+    public TeleportRegistry getTeleportRegistry() {
+        return teleportRegistry;
     }
 
     /**
@@ -223,10 +264,23 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
     private final MVWeatherListener weatherListener = new MVWeatherListener(this);
     private final MVPortalListener portalListener = new MVPortalListener(this);
     private final MVWorldListener worldListener = new MVWorldListener(this);
+    private final PortalIndex portalIndex = new SimplePortalIndex();
+    private final HotChunkTracker hotChunkTracker = new HotChunkTracker(this);
+    private final PermissionBatch permissionBatch = new PermissionBatch(this);
+    private final WorldTravelMatrix travelMatrix = new WorldTravelMatrix();
+    private final WorldGroupManager worldGroupManager = new WorldGroupManager(this);
+    private volatile EntityCategories entityCategories;
+    private final EntityCounter entityCounter = new EntityCounter();
+    private final SpawnGovernor spawnGovernor = new SpawnGovernor(this);
+    private final WorldFeatureTracker worldFeatures = new WorldFeatureTracker(this);
+    private final WorldFlagTable worldFlags = new WorldFlagTable();
+    private final PlayerStateApplicator playerStateApplicator = new PlayerStateApplicator(this);
+    private final ChatPrefixTable chatPrefixes = new ChatPrefixTable();
+    private final FlightRecorder flightRecorder = new FlightRecorder(FlightRecorder.DEFAULT_CAPACITY);
     private MVChatListener chatListener;
 
-    // HashMap to contain information relating to the Players.
-    private HashMap<String, MVPlayerSession> playerSessions;
+    // The sessions of the online players.
+    private final PlayerSessionStore playerSessions = new PlayerSessionStore(this);
     private MVEconomist economist;
     private Buscript buscript;
     private int pluginCount;
@@ -279,7 +333,7 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
     public void onEnable() {
         getServer().getPluginManager().registerEvents(new MVWorldInitListener(this), this);
 
-        this.messaging = new MVMessaging();
+        this.messaging = new MVMessaging(this.playerSessions);
         this.economist = new MVEconomist(this);
         // Load the defaultWorldGenerators
         this.worldManager.getDefaultWorldGenerators();
@@ -297,7 +351,7 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
         // Initialize the Destination factor AFTER the commands
         this.initializeDestinationFactory();
 
-        this.playerSessions = new HashMap<String, MVPlayerSession>();
+        this.playerSessions.clear();
 
         // Start the Update Checker
         // updateCheck = new UpdateChecker(this.getDescription().getName(), this.getDescription().getVersion());
@@ -315,6 +369,11 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
             Logging.severe("Your configs were not loaded. Very little will function in Multiverse.");
         }
         this.anchorManager.loadAnchors();
+        this.worldGroupManager.loadGroups();
+        this.hotChunkTracker.start();
+        this.entityCounter.start(this);
+        this.spawnGovernor.start();
+        this.worldFeatures.start();
 
         // Now set the firstspawnworld (after the worlds are loaded):
         this.worldManager.setFirstSpawnWorld(getMVConfig().getFirstSpawnWorld());
@@ -376,13 +435,18 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
 
     private void initializeDestinationFactory() {
         this.destFactory = new DestinationFactory(this);
-        this.destFactory.registerDestinationType(WorldDestination.class, "");
-        this.destFactory.registerDestinationType(WorldDestination.class, "w");
-        this.destFactory.registerDestinationType(ExactDestination.class, "e");
-        this.destFactory.registerDestinationType(PlayerDestination.class, "pl");
-        this.destFactory.registerDestinationType(CannonDestination.class, "ca");
-        this.destFactory.registerDestinationType(BedDestination.class, "b");
-        this.destFactory.registerDestinationType(AnchorDestination.class, "a");
+        this.permissionBatch.begin();
+        try {
+            this.destFactory.registerDestinationType(WorldDestination.class, "");
+            this.destFactory.registerDestinationType(WorldDestination.class, "w");
+            this.destFactory.registerDestinationType(ExactDestination.class, "e");
+            this.destFactory.registerDestinationType(PlayerDestination.class, "pl");
+            this.destFactory.registerDestinationType(CannonDestination.class, "ca");
+            this.destFactory.registerDestinationType(BedDestination.class, "b");
+            this.destFactory.registerDestinationType(AnchorDestination.class, "a");
+        } finally {
+            this.permissionBatch.end();
+        }
     }
 
     /**
@@ -392,10 +456,34 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
         PluginManager pm = getServer().getPluginManager();
         pm.registerEvents(this.playerListener, this);
         pm.registerEvents(this.entityListener, this);
-        pm.registerEvents(this.weatherListener, this);
+        // The weather handlers and a few others are registered by the WorldFeatureTracker once a world needs them.
         pm.registerEvents(this.portalListener, this);
         Logging.info(ChatColor.GREEN + "We are aware of the warning about the deprecated event. There is no alternative that allows us to do what we need to do and performance impact is negligible. It is safe to ignore.");
         pm.registerEvents(this.worldListener, this);
+        Class<? extends Event> entitiesLoad = CompatibilityLayer.getEntitiesLoadEvent();
+        if (entitiesLoad != null) {
+            pm.registerEvent(entitiesLoad, this.worldListener, EventPriority.MONITOR, (listener, event) -> {
+                if (entitiesLoad.isInstance(event)) {
+                    this.worldListener.entitiesLoad((ChunkEvent) event);
+                }
+            }, this);
+        }
+        Class<? extends Event> entitiesUnload = CompatibilityLayer.getEntitiesUnloadEvent();
+        if (entitiesUnload != null) {
+            pm.registerEvent(entitiesUnload, this.worldListener, EventPriority.MONITOR, (listener, event) -> {
+                if (entitiesUnload.isInstance(event)) {
+                    this.worldListener.entitiesUnload((ChunkEvent) event);
+                }
+            }, this);
+        }
+        Class<? extends Event> entityRemove = CompatibilityLayer.getEntityRemoveEvent();
+        if (entityRemove != null) {
+            pm.registerEvent(entityRemove, this.entityListener, EventPriority.MONITOR, (listener, event) -> {
+                if (entityRemove.isInstance(event)) {
+                    this.entityListener.entityRemoved((EntityEvent) event);
+                }
+            }, this);
+        }
         pm.registerEvents(new MVMapListener(this), this);
     }
 
@@ -433,6 +521,8 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
         this.worldManager.loadWorldConfig(new File(getDataFolder(), "worlds.yml"));
 
         this.messaging.setCooldown(getMVConfig().getMessageCooldown());
+        // Build the entity category table now instead of on the first spawn.
+        this.getEntityCategories();
 
         // Remove old values.
         this.multiverseConfig.set("enforcegamemodes", null);
@@ -786,12 +876,14 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
         // Misc Commands
         this.commandHandler.registerCommand(new EnvironmentCommand(this));
         this.commandHandler.registerCommand(new DebugCommand(this));
+        this.commandHandler.registerCommand(new DebugDumpCommand(this));
         this.commandHandler.registerCommand(new SilentCommand(this));
         this.commandHandler.registerCommand(new GeneratorCommand(this));
         this.commandHandler.registerCommand(new CheckCommand(this));
         this.commandHandler.registerCommand(new ScriptCommand(this));
         this.commandHandler.registerCommand(new GameruleCommand(this));
         this.commandHandler.registerCommand(new GamerulesCommand(this));
+        this.commandHandler.registerCommand(new HotChunksCommand(this));
     }
 
     /**
@@ -799,6 +891,11 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
      */
     @Override
     public void onDisable() {
+        this.hotChunkTracker.stop();
+        this.entityCounter.stop();
+        this.spawnGovernor.stop();
+        this.worldFeatures.stop();
+        this.playerStateApplicator.stop();
         this.saveMVConfigs();
         Logging.shutdown();
     }
@@ -808,12 +905,25 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
      */
     @Override
     public MVPlayerSession getPlayerSession(Player player) {
-        if (this.playerSessions.containsKey(player.getName())) {
-            return this.playerSessions.get(player.getName());
-        } else {
-            this.playerSessions.put(player.getName(), new MVPlayerSession(player, getMVConfig()));
-            return this.playerSessions.get(player.getName());
-        }
+        return this.playerSessions.get(player);
+    }
+
+    /**
+     * Gets the sessions of all online players.
+     *
+     * @return The {@link PlayerSessionStore}.
+     */
+    public PlayerSessionStore getPlayerSessions() {
+        return this.playerSessions;
+    }
+
+    /**
+     * Gets the recorder of the latest teleport, access and spawn decisions.
+     *
+     * @return The {@link FlightRecorder}.
+     */
+    public FlightRecorder getFlightRecorder() {
+        return this.flightRecorder;
     }
 
     /**
@@ -958,9 +1068,7 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
      * @param player The {@link Player} that owned the session.
      */
     public void removePlayerSession(Player player) {
-        if (this.playerSessions.containsKey(player.getName())) {
-            this.playerSessions.remove(player.getName());
-        }
+        this.playerSessions.quit(player);
     }
 
     /**
@@ -1072,6 +1180,15 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
         return this.weatherListener;
     }
 
+    /**
+     * Gets the {@link MVPortalListener}.
+     *
+     * @return The {@link MVPortalListener}.
+     */
+    public MVPortalListener getPortalListener() {
+        return this.portalListener;
+    }
+
     /**
      * Saves the Multiverse-Config.
      *
@@ -1232,6 +1349,123 @@ public class MultiverseCore extends JavaPlugin implements MVPlugin, Core {
         return buscript;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PortalIndex getPortalIndex() {
+        return this.portalIndex;
+    }
+
+    /**
+     * Gets the tracker that keeps popular teleport destinations loaded.
+     *
+     * @return The {@link HotChunkTracker}.
+     */
+    public HotChunkTracker getHotChunkTracker() {
+        return this.hotChunkTracker;
+    }
+
+    /**
+     * Gets the batch that permission default recalculations go through.
+     *
+     * @return The {@link PermissionBatch}.
+     */
+    public PermissionBatch getPermissionBatch() {
+        return this.permissionBatch;
+    }
+
+    /**
+     * Gets the precomputed blacklist and entry fee checks between worlds.
+     *
+     * @return The {@link WorldTravelMatrix}.
+     */
+    public WorldTravelMatrix getTravelMatrix() {
+        return this.travelMatrix;
+    }
+
+    /**
+     * Gets the manager of the world groups defined in groups.yml.
+     *
+     * @return The {@link WorldGroupManager}.
+     */
+    public WorldGroupManager getWorldGroupManager() {
+        return this.worldGroupManager;
+    }
+
+    /**
+     * Gets the table that tells which entities count as animals or monsters.
+     * It's rebuilt whenever the entity category overrides in the config change.
+     *
+     * @return The {@link EntityCategories}.
+     */
+    public EntityCategories getEntityCategories() {
+        String overrides = (this.config == null) ? null : this.config.getEntityCategoryOverrides();
+        if (overrides == null) {
+            overrides = "";
+        }
+        EntityCategories categories = this.entityCategories;
+        if (categories == null || !categories.getOverrides().equals(overrides)) {
+            categories = EntityCategories.build(overrides);
+            this.entityCategories = categories;
+        }
+        return categories;
+    }
+
+    /**
+     * Gets the living entity counts per chunk and per type of all worlds.
+     *
+     * @return The {@link EntityCounter}.
+     */
+    public EntityCounter getEntityCounter() {
+        return this.entityCounter;
+    }
+
+    /**
+     * Gets the governor that slows down spawning while the server can't keep up.
+     *
+     * @return The {@link SpawnGovernor}.
+     */
+    public SpawnGovernor getSpawnGovernor() {
+        return this.spawnGovernor;
+    }
+
+    /**
+     * Gets the tracker that only registers the handlers of world features some world uses.
+     *
+     * @return The {@link WorldFeatureTracker}.
+     */
+    public WorldFeatureTracker getWorldFeatures() {
+        return this.worldFeatures;
+    }
+
+    /**
+     * Gets the flags of all worlds that frequent event handlers read.
+     *
+     * @return The {@link WorldFlagTable}.
+     */
+    public WorldFlagTable getWorldFlags() {
+        return this.worldFlags;
+    }
+
+    /**
+     * Gets the queue that applies the gamemode and flight settings of worlds to players.
+     *
+     * @return The {@link PlayerStateApplicator}.
+     */
+    public PlayerStateApplicator getPlayerStateApplicator() {
+        return this.playerStateApplicator;
+    }
+
+    /**
+     * Gets the precompiled chat prefixes of all worlds.
+     *
+     * @return The {@link ChatPrefixTable}.
+     */
+    public ChatPrefixTable getChatPrefixes() {
+        return this.chatPrefixes;
+    }
+
     public UnsafeCallWrapper getUnsafeCallWrapper() {
         return this.unsafeCallWrapper;
     }
@@ -77,6 +77,26 @@ public class MultiverseCoreConfiguration extends SerializationConfig implements
     private volatile boolean autopurge;
     @Property
     private volatile boolean idonotwanttodonate;
+    @Property
+    private volatile int teleportspertick;
+    @Property
+    private volatile int portalsnapradius;
+    @Property
+    private volatile int keepwarmchunks;
+    @Property
+    private volatile int keepwarmmemory;
+    @Property
+    private volatile String entitycategories;
+    @Property
+    private volatile int purgetickbudget;
+    @Property
+    private volatile boolean spawngovernor;
+    @Property
+    private volatile int governorslowtick;
+    @Property
+    private volatile int governorfasttick;
+    @Property
+    private volatile int governorminpercent;
 
     public MultiverseCoreConfiguration() {
         super();
@@ -111,6 +131,16 @@ public class MultiverseCoreConfiguration extends SerializationConfig implements
         portalsearchradius = 128;
         autopurge = true;
         idonotwanttodonate = false;
+        teleportspertick = 10;
+        portalsnapradius = 2;
+        keepwarmchunks = 8;
+        keepwarmmemory = 16;
+        entitycategories = "";
+        purgetickbudget = 5;
+        spawngovernor = false;
+        governorslowtick = 55;
+        governorfasttick = 45;
+        governorminpercent = 25;
         // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
     }
 
@@ -382,4 +412,104 @@ public class MultiverseCoreConfiguration extends SerializationConfig implements
     public void setShowDonateMessage(boolean showDonateMessage) {
         this.idonotwanttodonate = !showDonateMessage;
     }
+
+    @Override
+    public int getTeleportsPerTick() {
+        return this.teleportspertick;
+    }
+
+    @Override
+    public void setTeleportsPerTick(int teleportsPerTick) {
+        this.teleportspertick = teleportsPerTick;
+    }
+
+    @Override
+    public int getPortalSnapRadius() {
+        return this.portalsnapradius;
+    }
+
+    @Override
+    public void setPortalSnapRadius(int portalSnapRadius) {
+        this.portalsnapradius = portalSnapRadius;
+    }
+
+    @Override
+    public int getKeepWarmChunks() {
+        return this.keepwarmchunks;
+    }
+
+    @Override
+    public void setKeepWarmChunks(int keepWarmChunks) {
+        this.keepwarmchunks = keepWarmChunks;
+    }
+
+    @Override
+    public int getKeepWarmMemory() {
+        return this.keepwarmmemory;
+    }
+
+    @Override
+    public void setKeepWarmMemory(int keepWarmMemory) {
+        this.keepwarmmemory = keepWarmMemory;
+    }
+
+    @Override
+    public String getEntityCategoryOverrides() {
+        return this.entitycategories;
+    }
+
+    @Override
+    public void setEntityCategoryOverrides(String entityCategoryOverrides) {
+        this.entitycategories = entityCategoryOverrides;
+    }
+
+    @Override
+    public int getPurgeTickBudget() {
+        return this.purgetickbudget;
+    }
+
+    @Override
+    public void setPurgeTickBudget(int purgeTickBudget) {
+        this.purgetickbudget = purgeTickBudget;
+    }
+
+    @Override
+    public boolean isSpawnGovernorEnabled() {
+        return this.spawngovernor;
+    }
+
+    @Override
+    public void setSpawnGovernorEnabled(boolean spawnGovernor) {
+        this.spawngovernor = spawnGovernor;
+    }
+
+    @Override
+    public int getGovernorSlowTick() {
+        return this.governorslowtick;
+    }
+
+    @Override
+    public void setGovernorSlowTick(int governorSlowTick) {
+        this.governorslowtick = governorSlowTick;
+    }
+
+    @Override
+    public int getGovernorFastTick() {
+        return this.governorfasttick;
+    }
+
+    @Override
+    public void setGovernorFastTick(int governorFastTick) {
+        this.governorfasttick = governorFastTick;
+    }
+
+    @Override
+    public int getGovernorMinPercent() {
+        return this.governorminpercent;
+    }
+
+    @Override
+    public void setGovernorMinPercent(int governorMinPercent) {
+        this.governorminpercent = governorMinPercent;
+    }
 }
@@ -61,6 +61,7 @@ public class WorldProperties extends SerializationConfig {
         PROPERTY_ALIASES.put("monsters", "spawning.monsters.spawn");
         PROPERTY_ALIASES.put("animalsrate", "spawning.animals.spawnrate");
         PROPERTY_ALIASES.put("monstersrate", "spawning.monsters.spawnrate");
+        PROPERTY_ALIASES.put("chunklimit", "spawning.chunklimit");
         PROPERTY_ALIASES.put("flight", "allowFlight");
         PROPERTY_ALIASES.put("fly", "allowFlight");
         PROPERTY_ALIASES.put("allowfly", "allowFlight");
@@ -450,6 +451,15 @@ public class WorldProperties extends SerializationConfig {
         return this.spawning.getMonsterSettings().getExceptions();
     }
 
+    public int getChunkEntityLimit() {
+        return this.spawning.getChunkLimit();
+    }
+
+    public List<String> getTypeLimits() {
+        // These don't fire events at the moment. Should they?
+        return this.spawning.getTypeLimits();
+    }
+
     public boolean isPVPEnabled() {
         return this.pvp.get();
     }
@@ -16,6 +16,7 @@ import com.onarandombox.MultiverseCore.utils.MVPermissions;
 import com.onarandombox.MultiverseCore.utils.MVPlayerSession;
 import com.onarandombox.MultiverseCore.utils.SimpleBlockSafety;
 import com.onarandombox.MultiverseCore.utils.SimpleLocationManipulation;
+import com.onarandombox.MultiverseCore.utils.SimplePortalIndex;
 import com.onarandombox.MultiverseCore.utils.SimpleSafeTTeleporter;
 import com.onarandombox.MultiverseCore.utils.VaultHandler;
 import com.pneumaticraft.commandhandler.CommandHandler;
@@ -230,6 +231,14 @@ public interface Core {
      */
     void setSafeTTeleporter(SafeTTeleporter safeTTeleporter);
 
+    /**
+     * Gets the {@link PortalIndex} that keeps track of the portal blocks in all worlds.
+     * @return The {@link PortalIndex}.
+     * @see PortalIndex
+     * @see SimplePortalIndex
+     */
+    PortalIndex getPortalIndex();
+
     /**
      * Gets the {@link MultiverseCoreConfig}.
      * @return The configuration.
@@ -18,6 +18,7 @@ import org.bukkit.generator.ChunkGenerator;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Multiverse 2 World Manager API
@@ -114,6 +115,19 @@ public interface MVWorldManager {
      */
     boolean deleteWorld(String name, boolean removeFromConfig, boolean deleteWorldFolder);
 
+    /**
+     * Same as {@link #deleteWorld(String, boolean, boolean)}, but the players in the world are moved out
+     * over several ticks first (see {@link MultiverseCoreConfig#getTeleportsPerTick()}).
+     *
+     * @param name The name of the world to remove
+     * @param removeFromConfig If true(default), we'll remove the entries from the
+     *                         config. If false, they'll stay and the world may come back.
+     * @param deleteWorldFolder If true the world folder will be completely deleted. If false
+     *                          only the contents of the world folder will be deleted
+     * @return A future completed with true if success, false if failure.
+     */
+    CompletableFuture<Boolean> deleteWorldAsync(String name, boolean removeFromConfig, boolean deleteWorldFolder);
+
     /**
      * Unload a world from Multiverse.
      *
@@ -131,6 +145,16 @@ public interface MVWorldManager {
      */
     boolean unloadWorld(String name, boolean unloadBukkit);
 
+    /**
+     * Same as {@link #unloadWorld(String, boolean)}, but the players in the world are moved out
+     * over several ticks first (see {@link MultiverseCoreConfig#getTeleportsPerTick()}).
+     *
+     * @param name Name of the world to unload
+     * @param unloadBukkit True if Bukkit world should be unloaded
+     * @return A future completed with true if the world was unloaded, false if not.
+     */
+    CompletableFuture<Boolean> unloadWorldAsync(String name, boolean unloadBukkit);
+
     /**
      * Loads the world. Only use this if the world has been
      * unloaded with {@link #unloadWorld(String)}.
@@ -147,6 +171,25 @@ public interface MVWorldManager {
      */
     void removePlayersFromWorld(String name);
 
+    /**
+     * Removes all players from the specified world, spreading the teleports over several ticks.
+     * The safe location they're sent to is only looked up once.
+     *
+     * @param name World to remove players from.
+     * @return A future that is completed once every player has been moved.
+     */
+    CompletableFuture<Void> removePlayersFromWorldAsync(String name);
+
+    /**
+     * Checks whether a world is being unloaded, deleted or regenerated. Nobody may enter it meanwhile.
+     *
+     * @param name The name of the world.
+     * @return True if it is.
+     */
+    default boolean isBeingUnloaded(String name) {
+        return false;
+    }
+
     /**
      * Test if a given chunk generator is valid.
      *
@@ -335,6 +378,21 @@ public interface MVWorldManager {
      */
     boolean regenWorld(String name, boolean useNewSeed, boolean randomSeed, String seed, boolean keepGameRules);
 
+    /**
+     * Same as {@link #regenWorld(String, boolean, boolean, String, boolean)}, but the players are moved out
+     * of and back into the world over several ticks (see {@link MultiverseCoreConfig#getTeleportsPerTick()}).
+     *
+     * @param name          Name of the world to regenerate
+     * @param useNewSeed    If a new seed should be used
+     * @param randomSeed    If the new seed should be random
+     * @param seed          The seed of the world.
+     * @param keepGameRules If GameRules should be kept on world regen.
+     *
+     * @return A future completed with true if success, false if fail.
+     */
+    CompletableFuture<Boolean> regenWorldAsync(String name, boolean useNewSeed, boolean randomSeed, String seed,
+            boolean keepGameRules);
+
     boolean isKeepingSpawnInMemory(World world);
     
     /**
@@ -239,4 +239,150 @@ public interface MultiverseCoreConfig extends ConfigurationSerializable {
      * @param idonotwanttodonate True if donation/patreon messages should be shown.
      */
     void setShowDonateMessage(boolean idonotwanttodonate);
+
+    /**
+     * Gets the maximum number of players moved per tick when a whole world is evacuated,
+     * e.g. when it's unloaded, deleted or regenerated.
+     *
+     * @return The number of teleports per tick.
+     */
+    int getTeleportsPerTick();
+
+    /**
+     * Sets the maximum number of players moved per tick when a whole world is evacuated.
+     *
+     * @param teleportsPerTick The number of teleports per tick. Anything less than 1 moves everyone at once.
+     */
+    void setTeleportsPerTick(int teleportsPerTick);
+
+    /**
+     * Gets how many blocks away from a player entering a portal we look for the actual portal block.
+     *
+     * @return The portal snap radius.
+     */
+    int getPortalSnapRadius();
+
+    /**
+     * Sets how many blocks away from a player entering a portal we look for the actual portal block.
+     *
+     * @param portalSnapRadius The portal snap radius.
+     */
+    void setPortalSnapRadius(int portalSnapRadius);
+
+    /**
+     * Gets how many of the most popular teleport destination chunks are kept loaded.
+     *
+     * @return The number of chunks, 0 if none are kept loaded.
+     */
+    int getKeepWarmChunks();
+
+    /**
+     * Sets how many of the most popular teleport destination chunks are kept loaded.
+     *
+     * @param keepWarmChunks The number of chunks, 0 to disable.
+     */
+    void setKeepWarmChunks(int keepWarmChunks);
+
+    /**
+     * Gets how much memory, in megabytes, the chunks kept loaded for popular destinations may use.
+     *
+     * @return The memory budget in megabytes.
+     */
+    int getKeepWarmMemory();
+
+    /**
+     * Sets how much memory, in megabytes, the chunks kept loaded for popular destinations may use.
+     *
+     * @param keepWarmMemory The memory budget in megabytes.
+     */
+    void setKeepWarmMemory(int keepWarmMemory);
+
+    /**
+     * Gets the overrides for entities that don't count as the animal or monster their class suggests,
+     * in the format {@code type:category,type:category}.
+     *
+     * @return The entity category overrides.
+     */
+    String getEntityCategoryOverrides();
+
+    /**
+     * Sets the overrides for entities that don't count as the animal or monster their class suggests.
+     *
+     * @param entityCategoryOverrides The overrides, e.g. {@code hoglin:monster,shulker:monster}.
+     */
+    void setEntityCategoryOverrides(String entityCategoryOverrides);
+
+    /**
+     * Gets how many milliseconds per tick may be spent purging big worlds in the background.
+     *
+     * @return The budget in milliseconds, 0 if worlds are purged all at once.
+     */
+    int getPurgeTickBudget();
+
+    /**
+     * Sets how many milliseconds per tick may be spent purging big worlds in the background.
+     *
+     * @param purgeTickBudget The budget in milliseconds, 0 to purge worlds all at once.
+     */
+    void setPurgeTickBudget(int purgeTickBudget);
+
+    /**
+     * Gets whether spawning is slowed down in the busiest worlds while the server can't keep up.
+     *
+     * @return True if the spawn governor is enabled.
+     */
+    boolean isSpawnGovernorEnabled();
+
+    /**
+     * Sets whether spawning is slowed down in the busiest worlds while the server can't keep up.
+     *
+     * @param spawnGovernor True to enable the spawn governor.
+     */
+    void setSpawnGovernorEnabled(boolean spawnGovernor);
+
+    /**
+     * Gets how long ticks may take on average, in milliseconds, before the spawn governor slows down spawning.
+     *
+     * @return The tick length in milliseconds.
+     */
+    int getGovernorSlowTick();
+
+    /**
+     * Sets how long ticks may take on average, in milliseconds, before the spawn governor slows down spawning.
+     *
+     * @param governorSlowTick The tick length in milliseconds.
+     */
+    void setGovernorSlowTick(int governorSlowTick);
+
+    /**
+     * Gets how short ticks have to be on average, in milliseconds, before the spawn governor speeds spawning
+     * back up. Should be lower than {@link #getGovernorSlowTick()}. On servers that don't tell how long they
+     * work on a tick, the tick length is measured by the clock and never gets below 50 ms, so anything lower
+     * than 51 ms counts as 51 ms there.
+     *
+     * @return The tick length in milliseconds.
+     */
+    int getGovernorFastTick();
+
+    /**
+     * Sets how short ticks have to be on average, in milliseconds, before the spawn governor speeds spawning
+     * back up.
+     *
+     * @param governorFastTick The tick length in milliseconds.
+     */
+    void setGovernorFastTick(int governorFastTick);
+
+    /**
+     * Gets the lowest percentage of their own spawn settings the spawn governor may throttle worlds to.
+     *
+     * @return The percentage.
+     */
+    int getGovernorMinPercent();
+
+    /**
+     * Sets the lowest percentage of their own spawn settings the spawn governor may throttle worlds to.
+     *
+     * @param governorMinPercent The percentage.
+     */
+    void setGovernorMinPercent(int governorMinPercent);
 }
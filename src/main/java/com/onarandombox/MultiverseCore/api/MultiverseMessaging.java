@@ -48,6 +48,20 @@ public interface MultiverseMessaging {
      */
     boolean sendMessages(CommandSender sender, Collection<String> messages, boolean ignoreCooldown);
 
+    /**
+     * Sends a message to the specified sender unless a message with the same key was sent to them
+     * within the cooldown. Other messages don't hold it back, so this is meant for messages that
+     * may repeat a lot, like the same failure over and over while a player spams a portal.
+     *
+     * @param sender     The person/console to send the message to.
+     * @param messageKey Identifies the message, usually the message itself.
+     * @param message    The message to send.
+     * @return true if the message was sent, false if not.
+     */
+    default boolean sendDedupedMessage(CommandSender sender, String messageKey, String message) {
+        return this.sendMessage(sender, message, false);
+    }
+
     /**
      * Gets the message-cooldown.
      * @return The message-cooldown.
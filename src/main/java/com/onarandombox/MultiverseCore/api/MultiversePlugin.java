@@ -58,6 +58,10 @@ public abstract class MultiversePlugin extends JavaPlugin implements MVPlugin {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        if (debugLog != null) {
+            // Reloaded, stop the old writer thread.
+            debugLog.close();
+        }
         debugLog = new DebugLog(this.getDescription().getName(), getDataFolder() + File.separator + "debug.log");
         debugLog.setTag(String.format("[%s-Debug]", this.getDescription().getName()));
 
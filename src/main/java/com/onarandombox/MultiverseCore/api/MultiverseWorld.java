@@ -9,6 +9,7 @@ package com.onarandombox.MultiverseCore.api;
 
 import com.onarandombox.MultiverseCore.enums.AllowedPortalType;
 import com.onarandombox.MultiverseCore.exceptions.PropertyDoesNotExistException;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Difficulty;
 import org.bukkit.GameMode;
@@ -18,6 +19,7 @@ import org.bukkit.World;
 import org.bukkit.WorldType;
 import org.bukkit.command.CommandSender;
 import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionDefault;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
@@ -225,6 +227,34 @@ public interface MultiverseWorld {
      * @return The permission required to be exempt when entering.
      */
     Permission getExemptPermission();
+
+    /**
+     * Gets the permission that lets players ignore this world's gamemode.
+     * <p>
+     * Implementations that don't keep it themselves get the registered permission by its name.
+     *
+     * @return The permission to ignore the gamemode of this world.
+     */
+    default Permission getGameModeBypassPermission() {
+        String name = "mv.bypass.gamemode." + this.getName();
+        Permission permission = Bukkit.getPluginManager().getPermission(name);
+        return (permission != null) ? permission : new Permission(name,
+                "Allows players with this permission to ignore gamemode changes.", PermissionDefault.FALSE);
+    }
+
+    /**
+     * Gets the permission that lets players enter this world when it's full.
+     * <p>
+     * Implementations that don't keep it themselves get the registered permission by its name.
+     *
+     * @return The permission to bypass the player limit of this world.
+     */
+    default Permission getPlayerLimitBypassPermission() {
+        String name = "mv.bypass.playerlimit." + this.getName();
+        Permission permission = Bukkit.getPluginManager().getPermission(name);
+        return (permission != null) ? permission : new Permission(name,
+                "A player who can enter this world regardless of wether its full", PermissionDefault.OP);
+    }
     // end of permission stuff
 
     /**
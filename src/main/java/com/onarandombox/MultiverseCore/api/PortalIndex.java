@@ -0,0 +1,62 @@
+package com.onarandombox.MultiverseCore.api;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.List;
+
+/**
+ * Keeps track of where the nether portal blocks in each world are, grouped by chunk.
+ */
+public interface PortalIndex {
+    /**
+     * Finds the portal block closest to the given {@link Location}.
+     * @param l The {@link Location}.
+     * @param radius How many blocks away from the location to look in each direction.
+     * @return The centered {@link Location} of the nearest portal block, or null if there is none in range.
+     */
+    Location findNearestPortal(Location l, int radius);
+
+    /**
+     * Gets all known portal blocks in a chunk.
+     * @param world The {@link World}.
+     * @param chunkX The chunk's x-coordinate.
+     * @param chunkZ The chunk's z-coordinate.
+     * @return The {@link Location}s of the portal blocks, empty if there are none.
+     */
+    List<Location> getPortalBlocks(World world, int chunkX, int chunkZ);
+
+    /**
+     * Adds a portal block to the index.
+     * @param block The portal {@link Block}.
+     */
+    void addPortalBlock(Block block);
+
+    /**
+     * Removes a block from the index.
+     * @param block The {@link Block}.
+     */
+    void removePortalBlock(Block block);
+
+    /**
+     * Drops every indexed block of a chunk that isn't a portal block anymore.
+     * @param world The {@link World}.
+     * @param chunkX The chunk's x-coordinate.
+     * @param chunkZ The chunk's z-coordinate.
+     */
+    void validateChunk(World world, int chunkX, int chunkZ);
+
+    /**
+     * Forgets everything about a world.
+     * @param world The {@link World}.
+     */
+    void clearWorld(World world);
+
+    /**
+     * Gets the number of indexed portal blocks in a world.
+     * @param world The {@link World}.
+     * @return The number of portal blocks.
+     */
+    int getPortalBlockCount(World world);
+}
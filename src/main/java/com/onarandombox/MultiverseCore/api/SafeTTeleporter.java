@@ -6,6 +6,9 @@ import org.bukkit.entity.Entity;
 
 import com.onarandombox.MultiverseCore.enums.TeleportResult;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Used to safely teleport people.
  */
@@ -52,6 +55,76 @@ public interface SafeTTeleporter extends Teleporter {
     TeleportResult safelyTeleport(CommandSender teleporter, Entity teleportee, Location location,
             boolean safely);
 
+    /**
+     * Safely teleport the entity to the MVDestination without forcing a synchronous chunk load.
+     * The chunks around the destination are requested first, the safety checks are run once
+     * they are loaded and only then is the entity teleported.
+     * Implementations that can't do this simply teleport right away.
+     *
+     * @param teleporter Person who performed the teleport command.
+     * @param teleportee Entity to teleport
+     * @param d          Destination to teleport them to
+     * @return A future that is completed on the main thread with the {@link TeleportResult}.
+     */
+    default CompletableFuture<TeleportResult> safelyTeleportAsync(CommandSender teleporter, Entity teleportee,
+            MVDestination d) {
+        return CompletableFuture.completedFuture(this.safelyTeleport(teleporter, teleportee, d));
+    }
+
+    /**
+     * Safely teleport the entity to the Location without forcing a synchronous chunk load.
+     *
+     * @param teleporter Person who issued the teleport command.
+     * @param teleportee Entity to teleport.
+     * @param location   Location to teleport them to.
+     * @param safely     Should the destination be checked for safety before teleport?
+     * @return A future that is completed on the main thread with the {@link TeleportResult}.
+     * @see #safelyTeleportAsync(CommandSender, Entity, MVDestination)
+     */
+    default CompletableFuture<TeleportResult> safelyTeleportAsync(CommandSender teleporter, Entity teleportee,
+            Location location, boolean safely) {
+        return CompletableFuture.completedFuture(this.safelyTeleport(teleporter, teleportee, location, safely));
+    }
+
+    /**
+     * Teleports a group of entities to the same Location. The safe location is only looked up once, and the
+     * teleports are spread over several ticks so that no more than {@code perTick} entities are moved each tick.
+     * Entities that are no longer valid or left the world they were in when this was called are skipped
+     * once it's their turn. Implementations that can't spread them teleport all of them right away.
+     *
+     * @param teleporter  Person who issued the teleport, may be null.
+     * @param teleportees Entities to teleport.
+     * @param location    Location to teleport them to.
+     * @param safely      Should the destination be checked for safety before teleport?
+     * @param perTick     Maximum number of teleports per tick. Anything less than 1 teleports all of them right away.
+     * @return A future that is completed on the main thread with the number of entities that were teleported.
+     */
+    default CompletableFuture<Integer> safelyTeleportAll(CommandSender teleporter,
+            Collection<? extends Entity> teleportees, Location location, boolean safely, int perTick) {
+        Location target = (safely && location != null) ? this.getSafeLocation(location) : location;
+        int teleported = 0;
+        if (target != null) {
+            for (Entity teleportee : teleportees) {
+                if (this.safelyTeleport(teleporter, teleportee, target.clone(), false) == TeleportResult.SUCCESS) {
+                    teleported++;
+                }
+            }
+        }
+        return CompletableFuture.completedFuture(teleported);
+    }
+
+    /**
+     * Requests the chunks a safety check around the given location would touch.
+     * Uses asynchronous chunk loading if the server supports it, else loads one chunk per tick.
+     * Implementations that don't preload anything complete right away.
+     *
+     * @param l A {@link Location}.
+     * @return A future that is completed on the main thread once all chunks are loaded.
+     */
+    default CompletableFuture<Void> preloadChunks(Location l) {
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * Returns a safe location for the entity to spawn at.
      *
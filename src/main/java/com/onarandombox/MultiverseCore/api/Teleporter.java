@@ -5,6 +5,21 @@ import com.onarandombox.MultiverseCore.enums.TeleportResult;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface Teleporter {
     TeleportResult teleport(CommandSender teleporter, Player teleportee, MVDestination destination);
+
+    /**
+     * Teleports the player without blocking on the destination being loaded.
+     * Implementations that can't do this simply teleport right away.
+     *
+     * @param teleporter Person who performed the teleport.
+     * @param teleportee Player to teleport.
+     * @param destination Destination to teleport them to.
+     * @return A future with the {@link TeleportResult}.
+     */
+    default CompletableFuture<TeleportResult> teleportAsync(CommandSender teleporter, Player teleportee, MVDestination destination) {
+        return CompletableFuture.completedFuture(this.teleport(teleporter, teleportee, destination));
+    }
 }
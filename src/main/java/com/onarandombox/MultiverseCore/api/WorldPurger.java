@@ -65,4 +65,29 @@ public interface WorldPurger {
      * @return {@code true} if the creature should be killed, otherwise {@code false}.
      */
     boolean shouldWeKillThisCreature(MultiverseWorld w, Entity e);
+
+    /**
+     * Clear all animals/monsters that do not belong to a world according to the config, spread over several
+     * ticks so big worlds don't stall the server. Implementations that can't do this purge right away.
+     *
+     * @param world The {@link MultiverseWorld}.
+     */
+    default void purgeWorldIncrementally(MultiverseWorld world) {
+        this.purgeWorld(world);
+    }
+
+    /**
+     * Clear all animals/monsters that do not belong to a world, spread over several ticks so big worlds
+     * don't stall the server. Implementations that can't do this purge right away.
+     *
+     * @param mvworld The {@link MultiverseWorld}.
+     * @param thingsToKill A {@link List} of animals/monsters to be killed.
+     * @param negateAnimals Whether the monsters in the list should be negated.
+     * @param negateMonsters Whether the animals in the list should be negated.
+     * @param sender The {@link CommandSender} that initiated the action. He will be notified of the progress.
+     */
+    default void purgeWorldIncrementally(MultiverseWorld mvworld, List<String> thingsToKill, boolean negateAnimals,
+            boolean negateMonsters, CommandSender sender) {
+        this.purgeWorld(mvworld, thingsToKill, negateAnimals, negateMonsters, sender);
+    }
 }
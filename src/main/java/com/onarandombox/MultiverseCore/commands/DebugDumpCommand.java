@@ -0,0 +1,62 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.commands;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.display.ColorAlternator;
+import com.onarandombox.MultiverseCore.display.ContentDisplay;
+import com.onarandombox.MultiverseCore.utils.FlightRecorder;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.PermissionDefault;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows the latest teleport, access and spawn decisions about a player or world.
+ */
+public class DebugDumpCommand extends MultiverseCommand {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    public DebugDumpCommand(MultiverseCore plugin) {
+        super(plugin);
+        this.setName("Show recent decisions about a player or world.");
+        this.setCommandUsage("/mv debug dump" + ChatColor.GOLD + " [PLAYER|WORLD]");
+        this.setArgRange(0, 1);
+        this.addKey("mv debug dump");
+        this.addKey("mv d dump");
+        this.addKey("mvdebug dump");
+        this.addCommandExample("/mv debug dump " + ChatColor.GOLD + "Notch");
+        this.addCommandExample("/mv debug dump " + ChatColor.GOLD + "world_nether");
+        this.setPermission("multiverse.core.debug.dump", "Shows recent teleport, access and spawn decisions.",
+                PermissionDefault.OP);
+    }
+
+    @Override
+    public void runCommand(CommandSender sender, List<String> args) {
+        FlightRecorder recorder = this.plugin.getFlightRecorder();
+        List<FlightRecorder.Record> records = args.isEmpty()
+                ? recorder.dump(record -> true)
+                : recorder.dump(FlightRecorder.involving(args.get(0)));
+        List<String> lines = new ArrayList<String>(records.size());
+        for (FlightRecorder.Record record : records) {
+            lines.add(TIME.format(Instant.ofEpochMilli(record.getTime())) + " " + record);
+        }
+
+        ContentDisplay.forContent(lines)
+                .header("=== Recent decisions%s (%d) ===", args.isEmpty() ? "" : " about " + args.get(0), lines.size())
+                .emptyMessage("Nothing was recorded.")
+                .colorTool(ColorAlternator.with(ChatColor.AQUA, ChatColor.GOLD))
+                .show(sender);
+    }
+}
@@ -49,12 +49,14 @@ public class DeleteCommand extends MultiverseCommand {
 
         return () -> {
             sender.sendMessage(String.format("Deleting world '%s'...", worldName));
-            if (this.plugin.getMVWorldManager().deleteWorld(worldName)) {
-                sender.sendMessage(String.format("%sWorld %s was deleted!", ChatColor.GREEN, worldName));
-                return;
-            }
-            sender.sendMessage(String.format("%sThere was an issue deleting '%s'! Please check console for errors.",
-                    ChatColor.RED, worldName));
+            this.plugin.getMVWorldManager().deleteWorldAsync(worldName, true, true).thenAccept(deleted -> {
+                if (deleted) {
+                    sender.sendMessage(String.format("%sWorld %s was deleted!", ChatColor.GREEN, worldName));
+                    return;
+                }
+                sender.sendMessage(String.format("%sThere was an issue deleting '%s'! Please check console for errors.",
+                        ChatColor.RED, worldName));
+            });
         };
     }
 }
@@ -0,0 +1,58 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.commands;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.display.ColorAlternator;
+import com.onarandombox.MultiverseCore.display.ContentDisplay;
+import com.onarandombox.MultiverseCore.utils.HotChunkTracker;
+import org.bukkit.ChatColor;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.PermissionDefault;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows which popular teleport destinations are being kept loaded, and why.
+ */
+public class HotChunksCommand extends MultiverseCommand {
+
+    public HotChunksCommand(MultiverseCore plugin) {
+        super(plugin);
+        this.setName("List the chunks kept loaded for popular destinations.");
+        this.setCommandUsage("/mv hotchunks");
+        this.setArgRange(0, 0);
+        this.addKey("mv hotchunks");
+        this.addKey("mvhotchunks");
+        this.addCommandExample("/mv hotchunks");
+        this.setPermission("multiverse.core.hotchunks", "Lists the chunks kept loaded for popular destinations.", PermissionDefault.OP);
+    }
+
+    @Override
+    public void runCommand(CommandSender sender, List<String> args) {
+        HotChunkTracker tracker = this.plugin.getHotChunkTracker();
+        long now = System.currentTimeMillis();
+        List<String> lines = new ArrayList<String>();
+        for (HotChunkTracker.HotChunk chunk : tracker.getPinnedChunks()) {
+            World world = this.plugin.getServer().getWorld(chunk.getWorldUID());
+            lines.add(String.format("%s (%d, %d): score %.1f, %d teleports, last one %ds ago",
+                    world != null ? world.getName() : chunk.getWorldUID().toString(), chunk.getX(), chunk.getZ(),
+                    chunk.getScore(), chunk.getTeleports(), TimeUnit.MILLISECONDS.toSeconds(now - chunk.getLastTeleport())));
+        }
+
+        ContentDisplay.forContent(lines)
+                .header("=== Pinned chunks (%d of max %d, %d tracked) ===", lines.size(),
+                        tracker.getMaxPinnedChunks(), tracker.getTrackedChunkCount())
+                .emptyMessage("No chunks are being kept loaded right now.")
+                .colorTool(ColorAlternator.with(ChatColor.AQUA, ChatColor.GOLD))
+                .show(sender);
+    }
+}
@@ -7,21 +7,27 @@
 
 package com.onarandombox.MultiverseCore.commands;
 
+import com.onarandombox.MultiverseCore.MVWorld;
 import com.onarandombox.MultiverseCore.MultiverseCore;
 import com.onarandombox.MultiverseCore.api.FancyText;
 import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.utils.EntityBudget;
+import com.onarandombox.MultiverseCore.utils.EntityCounter;
 import com.onarandombox.MultiverseCore.utils.FancyColorScheme;
 import com.onarandombox.MultiverseCore.utils.FancyHeader;
 import com.onarandombox.MultiverseCore.utils.FancyMessage;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.permissions.PermissionDefault;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 // Will use when we can compile with JDK 6
 //import com.sun.xml.internal.ws.util.StringUtils;
@@ -195,6 +201,27 @@ public class InfoCommand extends MultiverseCommand {
         }
         worldInfo.add(message);
 
+        // Page 5
+        message = new ArrayList<FancyText>();
+        message.add(new FancyHeader("Entity Budget", colors));
+        EntityCounter counter = this.plugin.getEntityCounter();
+        World cbworld = world.getCBWorld();
+        EntityBudget budget = (world instanceof MVWorld) ? ((MVWorld) world).getEntityBudget() : EntityBudget.UNLIMITED;
+        message.add(new FancyMessage("Living entities: ", counter.getTotalCount(cbworld) + "", colors));
+        String chunkLimit = (budget.getChunkLimit() < 0) ? "NONE" : budget.getChunkLimit() + "";
+        message.add(new FancyMessage("Fullest chunk: ",
+                counter.getMaxChunkCount(cbworld) + " / " + chunkLimit, colors));
+        message.add(new FancyMessage("Spawn governor: ", this.plugin.getSpawnGovernor().describe(cbworld), colors));
+        Map<EntityType, Integer> typeLimits = budget.getTypeLimits();
+        if (typeLimits.isEmpty()) {
+            message.add(new FancyMessage("Limited entity types: ", "NONE", colors));
+        }
+        for (Map.Entry<EntityType, Integer> limit : typeLimits.entrySet()) {
+            message.add(new FancyMessage(limit.getKey().name().toLowerCase() + ": ",
+                    counter.getTypeCount(cbworld, limit.getKey()) + " / " + limit.getValue(), colors));
+        }
+        worldInfo.add(message);
+
         return worldInfo;
     }
 
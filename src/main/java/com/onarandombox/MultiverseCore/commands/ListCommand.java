@@ -21,6 +21,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.permissions.PermissionDefault;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -76,10 +77,15 @@ public class ListCommand extends MultiverseCommand {
 
     private Collection<String> getListContents(@NotNull CommandSender sender) {
         Player player = (sender instanceof Player) ? (Player) sender : null;
+        boolean canSeeHidden = player == null
+                || this.plugin.getMVPerms().hasPermission(player, "multiverse.core.modify", true);
+        // Check each group once instead of every world in it.
+        BitSet groupAccess = (player == null) ? new BitSet() : this.plugin.getWorldGroupManager().getAccessibleWorlds(player);
 
         List<String> worldList = this.plugin.getMVWorldManager().getMVWorlds().stream()
-                .filter(world -> player == null || plugin.getMVPerms().canEnterWorld(player, world))
-                .filter(world -> canSeeWorld(player, world))
+                .filter(world -> canSeeHidden || !world.isHidden())
+                .filter(world -> player == null || hasGroupAccess(groupAccess, world)
+                        || plugin.getMVPerms().canEnterWorld(player, world))
                 .map(world -> hiddenText(world) + world.getColoredWorldString() + " - " + parseColouredEnvironment(world.getEnvironment()))
                 .collect(Collectors.toList());
 
@@ -91,10 +97,9 @@ public class ListCommand extends MultiverseCommand {
         return worldList;
     }
 
-    private boolean canSeeWorld(Player player, MultiverseWorld world) {
-        return !world.isHidden()
-                || player == null
-                || this.plugin.getMVPerms().hasPermission(player, "multiverse.core.modify", true);
+    private boolean hasGroupAccess(BitSet groupAccess, MultiverseWorld world) {
+        int id = this.plugin.getTravelMatrix().getId(world);
+        return id >= 0 && groupAccess.get(id);
     }
 
     private String hiddenText(MultiverseWorld world) {
@@ -86,7 +86,7 @@ public class PurgeCommand extends MultiverseCommand {
             Collections.addAll(thingsToKill, deathName.toUpperCase().split(","));
         }
         for (MultiverseWorld w : worldsToRemoveEntitiesFrom) {
-            purger.purgeWorld(w, thingsToKill, false, false, sender);
+            purger.purgeWorldIncrementally(w, thingsToKill, false, false, sender);
         }
     }
 }
@@ -62,11 +62,14 @@ public class RegenCommand extends MultiverseCommand {
                                   boolean keepGamerules) {
 
         return () -> {
-            if (this.plugin.getMVWorldManager().regenWorld(worldName, useSeed, randomSeed, seed, keepGamerules)) {
-                sender.sendMessage(ChatColor.GREEN + "World Regenerated!");
-                return;
-            }
-            sender.sendMessage(ChatColor.RED + "World could NOT be regenerated!");
+            this.plugin.getMVWorldManager().regenWorldAsync(worldName, useSeed, randomSeed, seed, keepGamerules)
+                    .thenAccept(regenerated -> {
+                        if (regenerated) {
+                            sender.sendMessage(ChatColor.GREEN + "World Regenerated!");
+                            return;
+                        }
+                        sender.sendMessage(ChatColor.RED + "World could NOT be regenerated!");
+                    });
         };
     }
 }
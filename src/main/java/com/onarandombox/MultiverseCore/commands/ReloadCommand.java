@@ -39,11 +39,13 @@ public class ReloadCommand extends MultiverseCommand {
         this.plugin.loadConfigs();
         this.plugin.getAnchorManager().loadAnchors();
         this.plugin.getMVWorldManager().loadWorlds(true);
+        this.plugin.getWorldGroupManager().loadGroups();
 
         List<String> configsLoaded = new ArrayList<String>();
         configsLoaded.add("Multiverse-Core - config.yml");
         configsLoaded.add("Multiverse-Core - worlds.yml");
         configsLoaded.add("Multiverse-Core - anchors.yml");
+        configsLoaded.add("Multiverse-Core - groups.yml");
         // Create the event
         MVConfigReloadEvent configReload = new MVConfigReloadEvent(configsLoaded);
         // Fire it off
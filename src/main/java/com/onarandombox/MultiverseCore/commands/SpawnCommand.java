@@ -86,6 +86,6 @@ public class SpawnCommand extends MultiverseCommand {
         } else {
             spawnLocation = player.getWorld().getSpawnLocation();
         }
-        this.plugin.getSafeTTeleporter().safelyTeleport(player, player, spawnLocation, false);
+        this.plugin.getSafeTTeleporter().safelyTeleportAsync(player, player, spawnLocation, false);
     }
 }
@@ -149,7 +149,13 @@ public class TeleportCommand extends MultiverseCommand {
         }
         Teleporter teleportObject = (d instanceof CustomTeleporterDestination) ?
                 ((CustomTeleporterDestination)d).getTeleporter() : this.playerTeleporter;
-        TeleportResult result = teleportObject.teleport(teleporter, teleportee, d);
+        Player target = teleportee;
+        teleportObject.teleportAsync(teleporter, target, d)
+                .thenAccept(result -> this.handleTeleportResult(sender, teleporter, target, d, result));
+    }
+
+    private void handleTeleportResult(CommandSender sender, CommandSender teleporter, Player teleportee,
+            MVDestination d, TeleportResult result) {
         if (result == TeleportResult.FAIL_UNSAFE) {
             Logging.fine("Could not teleport " + teleportee.getName()
                     + " to " + plugin.getLocationManipulation().strCoordsRaw(d.getLocation(teleportee)));
@@ -171,7 +177,7 @@ public class TeleportCommand extends MultiverseCommand {
     }
 
     private Runnable doUnsafeTeleport(CommandSender teleporter, Player player, Location location) {
-        return () -> this.plugin.getSafeTTeleporter().safelyTeleport(teleporter, player, location, false);
+        return () -> this.plugin.getSafeTTeleporter().safelyTeleportAsync(teleporter, player, location, false);
     }
 
     private boolean checkSendPermissions(CommandSender teleporter, Player teleportee, MVDestination destination) {
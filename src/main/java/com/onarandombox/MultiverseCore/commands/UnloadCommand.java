@@ -33,10 +33,12 @@ public class UnloadCommand extends MultiverseCommand {
 
     @Override
     public void runCommand(CommandSender sender, List<String> args) {
-        if (this.plugin.getMVWorldManager().unloadWorld(args.get(0))) {
-            Command.broadcastCommandMessage(sender, "Unloaded world '" + args.get(0) + "'!");
-        } else {
-            sender.sendMessage("Error trying to unload world '" + args.get(0) + "'!");
-        }
+        this.plugin.getMVWorldManager().unloadWorldAsync(args.get(0), true).thenAccept(unloaded -> {
+            if (unloaded) {
+                Command.broadcastCommandMessage(sender, "Unloaded world '" + args.get(0) + "'!");
+            } else {
+                sender.sendMessage("Error trying to unload world '" + args.get(0) + "'!");
+            }
+        });
     }
 }
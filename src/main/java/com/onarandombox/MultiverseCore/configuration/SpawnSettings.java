@@ -1,5 +1,7 @@
 package com.onarandombox.MultiverseCore.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import me.main__.util.SerializationConfig.Property;
@@ -16,6 +18,10 @@ public class SpawnSettings extends SerializationConfig {
     private SubSpawnSettings animals;
     @Property
     private SubSpawnSettings monsters;
+    @Property
+    private int chunklimit;
+    @Property
+    private List<String> typelimits;
 
     public SpawnSettings() {
         super();
@@ -32,6 +38,8 @@ public class SpawnSettings extends SerializationConfig {
     public void setDefaults() {
         animals = new SubSpawnSettings();
         monsters = new SubSpawnSettings();
+        chunklimit = -1;
+        typelimits = new ArrayList<String>();
     }
 
     /**
@@ -47,4 +55,25 @@ public class SpawnSettings extends SerializationConfig {
     public SubSpawnSettings getMonsterSettings() {
         return monsters;
     }
+
+    /**
+     * @return The maximum number of living entities per chunk, -1 if there's no limit.
+     */
+    public int getChunkLimit() {
+        return chunklimit;
+    }
+
+    /**
+     * @param chunkLimit The new maximum number of living entities per chunk, -1 for no limit.
+     */
+    public void setChunkLimit(int chunkLimit) {
+        this.chunklimit = chunkLimit;
+    }
+
+    /**
+     * @return The per type limits in the format {@code type:max}.
+     */
+    public List<String> getTypeLimits() {
+        return typelimits;
+    }
 }
@@ -22,5 +22,9 @@ public enum AddProperties {
     /**
      * Monster-exceptions.
      */
-    monsters
+    monsters,
+    /**
+     * Per-type entity limits.
+     */
+    typelimits
 }
@@ -1,10 +1,8 @@
 package com.onarandombox.MultiverseCore.listeners;
 
 import com.onarandombox.MultiverseCore.MultiverseCore;
-import com.onarandombox.MultiverseCore.api.MVWorldManager;
-import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.utils.MVPlayerSession;
 
-import org.bukkit.ChatColor;
 import org.bukkit.event.Listener;
 
 /**
@@ -12,12 +10,10 @@ import org.bukkit.event.Listener;
  */
 public abstract class MVChatListener implements Listener {
     private final MultiverseCore plugin;
-    private final MVWorldManager worldManager;
     private final MVPlayerListener playerListener;
 
     public MVChatListener(MultiverseCore plugin, MVPlayerListener playerListener) {
         this.plugin = plugin;
-        this.worldManager = plugin.getMVWorldManager();
         this.playerListener = playerListener;
     }
 
@@ -32,28 +28,17 @@ public abstract class MVChatListener implements Listener {
         // Check whether the Server is set to prefix the chat with the World name.
         // If not we do nothing, if so we need to check if the World has an Alias.
         if (plugin.getMVConfig().getPrefixChat()) {
-            String world = playerListener.getPlayerWorld().get(event.getPlayer().getName());
+            MVPlayerSession session = this.plugin.getPlayerSessions().getIfPresent(event.getPlayer().getUniqueId());
+            String world = (session == null) ? null : session.getLastWorld();
             if (world == null) {
                 world = event.getPlayer().getWorld().getName();
-                playerListener.getPlayerWorld().put(event.getPlayer().getName(), world);
             }
-            String prefix = "";
-            // If we're not a MV world, don't do anything
-            if (!this.worldManager.isMVWorld(world)) {
-                return;
+            // Worlds that aren't managed by MV or are hidden don't have a prefix.
+            String format = this.plugin.getChatPrefixes().format(world,
+                    this.plugin.getMVConfig().getPrefixChatFormat(), event.getFormat());
+            if (format != null) {
+                event.setFormat(format);
             }
-            MultiverseWorld mvworld = this.worldManager.getMVWorld(world);
-            if (mvworld.isHidden()) {
-                return;
-            }
-            prefix = mvworld.getColoredWorldString();
-            String chat = event.getFormat();
-            
-            String prefixChatFormat = plugin.getMVConfig().getPrefixChatFormat();
-            prefixChatFormat = prefixChatFormat.replace("%world%", prefix).replace("%chat%", chat);
-            prefixChatFormat = ChatColor.translateAlternateColorCodes('&', prefixChatFormat);
-            
-            event.setFormat(prefixChatFormat);
         }
     }
 }
@@ -8,17 +8,27 @@
 package com.onarandombox.MultiverseCore.listeners;
 
 import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MVWorld;
 import com.onarandombox.MultiverseCore.MultiverseCore;
 import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.api.WorldPurger;
 import com.onarandombox.MultiverseCore.utils.CompatibilityLayer;
+import com.onarandombox.MultiverseCore.utils.EntityBudget;
+import com.onarandombox.MultiverseCore.utils.FlightRecorder;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker;
+import com.onarandombox.MultiverseCore.utils.WorldFlags;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityEvent;
 import org.bukkit.event.entity.EntityPortalEvent;
 import org.bukkit.event.entity.EntityRegainHealthEvent;
 import org.bukkit.event.entity.EntityRegainHealthEvent.RegainReason;
@@ -40,17 +50,17 @@ public class MVEntityListener implements Listener {
 
     /**
      * This method is called when an entity's food level goes higher or lower.
+     * It's only registered while a world has hunger disabled, see {@link WorldFeatureTracker}.
      * @param event The Event that was fired.
      */
-    @EventHandler
     public void foodLevelChange(FoodLevelChangeEvent event) {
         if (event.isCancelled()) {
             return;
         }
         if (event.getEntity() instanceof Player) {
             Player p = (Player) event.getEntity();
-            MultiverseWorld w = this.plugin.getMVWorldManager().getMVWorld(p.getWorld().getName());
-            if (w != null && !w.getHunger()) {
+            WorldFlags flags = this.plugin.getWorldFlags().get(p.getWorld());
+            if (flags != null && !flags.is(WorldFlags.HUNGER)) {
                 // If the world has hunger set to false, do not let the level go down
                 if (event.getFoodLevel() < ((Player) event.getEntity()).getFoodLevel()) {
                     event.setCancelled(true);
@@ -61,25 +71,27 @@ public class MVEntityListener implements Listener {
 
     /**
      * This method is called when an entity's health goes up or down.
+     * It's only registered while a world has autoHeal disabled, see {@link WorldFeatureTracker}.
      * @param event The Event that was fired.
      */
-    @EventHandler
     public void entityRegainHealth(EntityRegainHealthEvent event) {
         if (event.isCancelled()) {
             return;
         }
-        RegainReason reason = event.getRegainReason();
-        MultiverseWorld world = this.worldManager.getMVWorld(event.getEntity().getLocation().getWorld());
-        if (world != null && reason == RegainReason.REGEN && !world.getAutoHeal()) {
+        if (event.getRegainReason() != RegainReason.REGEN) {
+            return;
+        }
+        WorldFlags flags = this.plugin.getWorldFlags().get(event.getEntity().getLocation().getWorld());
+        if (flags != null && !flags.is(WorldFlags.AUTO_HEAL)) {
             event.setCancelled(true);
         }
     }
 
     /**
      * Handle Animal/Monster Spawn settings, seems like a more concrete method than using CraftBukkit.
+     * It's only registered while a world restricts spawning, see {@link WorldFeatureTracker}.
      * @param event The event.
      */
-    @EventHandler
     public void creatureSpawn(CreatureSpawnEvent event) {
         // Check to see if the Creature is spawned by a plugin, we don't want to prevent this behaviour.
         // TODO: Allow the egg thing to be a config param. Doubt this will be per world; seems silly.
@@ -106,7 +118,55 @@ public class MVEntityListener implements Listener {
         }
 
         MultiverseWorld mvworld = this.worldManager.getMVWorld(world.getName());
-        event.setCancelled(this.plugin.getMVWorldManager().getTheWorldPurger().shouldWeKillThisCreature(mvworld, event.getEntity()));
+        WorldPurger purger = this.plugin.getMVWorldManager().getTheWorldPurger();
+        boolean cancel = purger.shouldWeKillThisCreature(mvworld, event.getEntity());
+        String reason = "not allowed in this world";
+        if (!cancel && mvworld instanceof MVWorld) {
+            EntityBudget budget = ((MVWorld) mvworld).getEntityBudget();
+            Location l = event.getLocation();
+            if (budget.isLimited() && l != null) {
+                int chunkX = l.getBlockX() >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                int chunkZ = l.getBlockZ() >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                cancel = budget.isExceeded(this.plugin.getEntityCounter(), world, type, chunkX, chunkZ);
+                if (cancel) {
+                    Logging.finest("Entity budget of world %s is used up, %s can't spawn.", world.getName(), type);
+                    reason = "entity budget is used up";
+                }
+            }
+        }
+        if (cancel) {
+            this.plugin.getFlightRecorder().record(FlightRecorder.Kind.SPAWN, type.name(), world.getName(), null,
+                    event.getSpawnReason().name(), "DENIED", reason);
+        }
+        event.setCancelled(cancel);
+    }
+
+    /**
+     * Counts the creatures that actually spawned for the entity budgets.
+     * @param event The event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void creatureSpawned(CreatureSpawnEvent event) {
+        this.plugin.getEntityCounter().add(event.getEntity());
+    }
+
+    /**
+     * Stops counting creatures that died for the entity budgets.
+     * @param event The event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void entityDeath(EntityDeathEvent event) {
+        this.plugin.getEntityCounter().remove(event.getEntity());
+    }
+
+    /**
+     * Stops counting creatures that left their world without dying, e.g. because they despawned.
+     * <p>
+     * This isn't an {@link EventHandler}, it's registered for the entity remove event where that exists.
+     * @param event The event.
+     */
+    public void entityRemoved(EntityEvent event) {
+        this.plugin.getEntityCounter().remove(event.getEntity());
     }
 
     /**
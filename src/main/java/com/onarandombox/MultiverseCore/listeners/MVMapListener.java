@@ -1,12 +1,20 @@
 package com.onarandombox.MultiverseCore.listeners;
 
 import com.onarandombox.MultiverseCore.MultiverseCore;
-import org.bukkit.Bukkit;
+import com.onarandombox.MultiverseCore.utils.MapHolderIndex;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
 import org.bukkit.event.server.MapInitializeEvent;
 import org.bukkit.map.MapView;
 
@@ -16,9 +24,14 @@ import org.bukkit.map.MapView;
 public class MVMapListener implements Listener {
 
     private final MultiverseCore plugin;
+    private final MapHolderIndex holders;
 
     public MVMapListener(final MultiverseCore plugin) {
         this.plugin = plugin;
+        this.holders = new MapHolderIndex(plugin.getServer());
+        for (final Player player : plugin.getServer().getOnlinePlayers()) {
+            this.holders.markDirty(player);
+        }
     }
 
     /**
@@ -27,17 +40,91 @@ public class MVMapListener implements Listener {
      */
     @EventHandler
     public void mapInitialize(final MapInitializeEvent event) {
-        for (final Player player : Bukkit.getOnlinePlayers()) {
-            if ((player.getItemInHand().getType() == Material.MAP
-                    || player.getItemInHand().getType() == Material.FILLED_MAP)
-                    && player.getItemInHand().getDurability() == event.getMap().getId()) {
-                final Location playerLoc = player.getLocation();
-                final MapView map = event.getMap();
-                map.setCenterX(playerLoc.getBlockX());
-                map.setCenterZ(playerLoc.getBlockZ());
-                map.setWorld(playerLoc.getWorld());
-                return;
-            }
+        final MapView map = event.getMap();
+        final Player player = this.holders.findHolder(map.getId());
+        if (player != null) {
+            final Location playerLoc = player.getLocation();
+            map.setCenterX(playerLoc.getBlockX());
+            map.setCenterZ(playerLoc.getBlockZ());
+            map.setWorld(playerLoc.getWorld());
+        }
+    }
+
+    /**
+     * Starts keeping track of the maps a player holds.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerJoin(final PlayerJoinEvent event) {
+        this.holders.markDirty(event.getPlayer());
+    }
+
+    /**
+     * Stops keeping track of the maps a player holds.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerQuit(final PlayerQuitEvent event) {
+        this.holders.forget(event.getPlayer());
+    }
+
+    /**
+     * A player took another item in their hand.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void itemHeld(final PlayerItemHeldEvent event) {
+        this.holders.markDirty(event.getPlayer());
+    }
+
+    /**
+     * A player swapped the items in their hands.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void swapHandItems(final PlayerSwapHandItemsEvent event) {
+        this.holders.markDirty(event.getPlayer());
+    }
+
+    /**
+     * A player moved items around in an inventory.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void inventoryClick(final InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player) {
+            this.holders.markDirty((Player) event.getWhoClicked());
+        }
+    }
+
+    /**
+     * A player dragged items over an inventory.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void inventoryDrag(final InventoryDragEvent event) {
+        if (event.getWhoClicked() instanceof Player) {
+            this.holders.markDirty((Player) event.getWhoClicked());
         }
     }
+
+    /**
+     * A player picked up an item, it may have gone into their hand.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void pickupItem(final EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player) {
+            this.holders.markDirty((Player) event.getEntity());
+        }
+    }
+
+    /**
+     * A player dropped an item, maybe the one in their hand.
+     * @param event The event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void dropItem(final PlayerDropItemEvent event) {
+        this.holders.markDirty(event.getPlayer());
+    }
 }
@@ -14,16 +14,22 @@ import com.onarandombox.MultiverseCore.api.MultiverseWorld;
 import com.onarandombox.MultiverseCore.enums.RespawnType;
 import com.onarandombox.MultiverseCore.event.MVRespawnEvent;
 import com.onarandombox.MultiverseCore.utils.CompatibilityLayer;
+import com.onarandombox.MultiverseCore.utils.FlightRecorder;
+import com.onarandombox.MultiverseCore.utils.LazyLogging;
+import com.onarandombox.MultiverseCore.utils.MVPlayerSession;
 import com.onarandombox.MultiverseCore.utils.PermissionTools;
-import org.bukkit.GameMode;
+import com.onarandombox.MultiverseCore.utils.PlayerStateApplicator;
+import com.onarandombox.MultiverseCore.utils.TeleportRegistry;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
@@ -31,8 +37,8 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Multiverse's {@link Listener} for players.
@@ -42,8 +48,6 @@ public class MVPlayerListener implements Listener {
     private final MVWorldManager worldManager;
     private final PermissionTools pt;
 
-    private final Map<String, String> playerWorld = new ConcurrentHashMap<String, String>();
-
     public MVPlayerListener(MultiverseCore plugin) {
         this.plugin = plugin;
         worldManager = plugin.getMVWorldManager();
@@ -52,8 +56,17 @@ public class MVPlayerListener implements Listener {
 
     /**
      * @return the playerWorld-map
+     * @deprecated The world players were last seen in is kept in their {@link MVPlayerSession}.
+     * This only returns a copy of it.
      */
+    @Deprecated
     public Map<String, String> getPlayerWorld() {
+        Map<String, String> playerWorld = new HashMap<String, String>();
+        for (MVPlayerSession session : this.plugin.getPlayerSessions().getSessions()) {
+            if (session.getLastWorld() != null) {
+                playerWorld.put(session.getPlayerName(), session.getLastWorld());
+            }
+        }
         return playerWorld;
     }
 
@@ -83,6 +96,36 @@ public class MVPlayerListener implements Listener {
             return;
         }
 
+        world = this.getRespawnWorld(mvWorld, world);
+        // World has been set to the appropriate world
+        Location respawnLocation = getMostAccurateRespawnLocation(world);
+
+        MVRespawnEvent respawnEvent = new MVRespawnEvent(respawnLocation, event.getPlayer(), "compatability");
+        this.plugin.getServer().getPluginManager().callEvent(respawnEvent);
+        event.setRespawnLocation(respawnEvent.getPlayersRespawnLocation());
+    }
+
+    /**
+     * This method is called when a player dies.
+     * <p>
+     * The respawn location has to be handed to the server synchronously, so we request the
+     * chunks around it right away. By the time the player clicks respawn they are loaded.
+     * @param event The Event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerDeath(PlayerDeathEvent event) {
+        World world = event.getEntity().getWorld();
+        MultiverseWorld mvWorld = this.worldManager.getMVWorld(world.getName());
+        if (mvWorld == null) {
+            return;
+        }
+        Location respawnLocation = getMostAccurateRespawnLocation(this.getRespawnWorld(mvWorld, world));
+        if (respawnLocation != null) {
+            this.plugin.getSafeTTeleporter().preloadChunks(respawnLocation);
+        }
+    }
+
+    private World getRespawnWorld(MultiverseWorld mvWorld, World world) {
         // Get the instance of the World the player should respawn at.
         MultiverseWorld respawnWorld = null;
         if (this.worldManager.isMVWorld(mvWorld.getRespawnToWorld())) {
@@ -92,14 +135,9 @@ public class MVPlayerListener implements Listener {
         // If it's null then it either means the World doesn't exist or the value is blank, so we don't handle it.
         // NOW: We'll always handle it to get more accurate spawns
         if (respawnWorld != null) {
-            world = respawnWorld.getCBWorld();
+            return respawnWorld.getCBWorld();
         }
-        // World has been set to the appropriate world
-        Location respawnLocation = getMostAccurateRespawnLocation(world);
-
-        MVRespawnEvent respawnEvent = new MVRespawnEvent(respawnLocation, event.getPlayer(), "compatability");
-        this.plugin.getServer().getPluginManager().callEvent(respawnEvent);
-        event.setRespawnLocation(respawnEvent.getPlayersRespawnLocation());
+        return world;
     }
 
     private Location getMostAccurateRespawnLocation(World w) {
@@ -117,10 +155,12 @@ public class MVPlayerListener implements Listener {
     @EventHandler
     public void playerJoin(PlayerJoinEvent event) {
         Player p = event.getPlayer();
+        this.plugin.getPlayerSessions().join(p);
+        this.plugin.getMVPerms().getDecisionCache().invalidate(p);
         if (!p.hasPlayedBefore()) {
             Logging.finer("Player joined for the FIRST time!");
             if (plugin.getMVConfig().getFirstSpawnOverride()) {
-                Logging.fine("Moving NEW player to(firstspawnoverride): "
+                LazyLogging.fine(() -> "Moving NEW player to(firstspawnoverride): "
                         + worldManager.getFirstSpawnWorld().getSpawnLocation());
                 this.sendPlayerToDefaultWorld(p);
             }
@@ -135,7 +175,7 @@ public class MVPlayerListener implements Listener {
         }
         // Handle the Players GameMode setting for the new world.
         this.handleGameModeAndFlight(event.getPlayer(), event.getPlayer().getWorld());
-        playerWorld.put(p.getName(), p.getWorld().getName());
+        this.plugin.getPlayerSession(p).setLastWorld(p.getWorld().getName());
     }
 
     /**
@@ -144,9 +184,11 @@ public class MVPlayerListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR)
     public void playerChangedWorld(PlayerChangedWorldEvent event) {
+        // Permissions may depend on the world the player is in.
+        this.plugin.getMVPerms().getDecisionCache().invalidate(event.getPlayer());
         // Permissions now determine whether or not to handle a gamemode.
         this.handleGameModeAndFlight(event.getPlayer(), event.getPlayer().getWorld());
-        playerWorld.put(event.getPlayer().getName(), event.getPlayer().getWorld().getName());
+        this.plugin.getPlayerSession(event.getPlayer()).setLastWorld(event.getPlayer().getWorld().getName());
     }
 
     /**
@@ -156,6 +198,7 @@ public class MVPlayerListener implements Listener {
     @EventHandler
     public void playerQuit(PlayerQuitEvent event) {
         this.plugin.removePlayerSession(event.getPlayer());
+        this.plugin.getMVPerms().getDecisionCache().invalidate(event.getPlayer());
     }
 
     /**
@@ -164,50 +207,63 @@ public class MVPlayerListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void playerTeleport(PlayerTeleportEvent event) {
-        Logging.finer("Got teleport event for player '"
-                + event.getPlayer().getName() + "' with cause '" + event.getCause() + "'");
+        LazyLogging.finer("Got teleport event for player '%s' with cause '%s'",
+                event.getPlayer().getName(), event.getCause());
         if (event.isCancelled()) {
             return;
         }
         if (event.getTo() == null) {
-            Logging.fine("Player '" + event.getPlayer().getName() + "' is teleporting to a null location!");
+            LazyLogging.fine("Player '%s' is teleporting to a null location!", event.getPlayer().getName());
             return;
         }
         Player teleportee = event.getPlayer();
         CommandSender teleporter = teleportee;
-        String teleporterName = MultiverseCore.getPlayerTeleporter(teleportee.getName());
-        if (teleporterName != null) {
-            if (teleporterName.equals("CONSOLE")) {
-                Logging.finer("We know the teleporter is the console! Magical!");
+        TeleportRegistry.PendingTeleport pending = this.plugin.getTeleportRegistry()
+                .claim(teleportee.getUniqueId(), event.getTo());
+        String teleporterName = null;
+        if (pending != null) {
+            teleporterName = pending.getTeleporterName();
+            if (pending.getTeleporterId() != null) {
+                teleporter = this.plugin.getServer().getPlayer(pending.getTeleporterId());
+            } else if (teleporterName.equals("CONSOLE")) {
+                LazyLogging.finer("We know the teleporter is the console! Magical!");
                 teleporter = this.plugin.getServer().getConsoleSender();
             } else {
                 teleporter = this.plugin.getServer().getPlayerExact(teleporterName);
             }
         }
-        Logging.finer("Inferred sender '" + teleporter + "' from name '"
-                + teleporterName + "', fetched from name '" + teleportee.getName() + "'");
+        LazyLogging.finer("Inferred sender '%s' from name '%s', fetched from name '%s'",
+                teleporter, teleporterName, teleportee.getName());
         MultiverseWorld fromWorld = this.worldManager.getMVWorld(event.getFrom().getWorld().getName());
         MultiverseWorld toWorld = this.worldManager.getMVWorld(event.getTo().getWorld().getName());
         if (toWorld == null) {
-            Logging.fine("Player '" + teleportee.getName() + "' is teleporting to world '"
-                    + event.getTo().getWorld().getName() + "' which is not managed by Multiverse-Core.  No further "
-                    + "actions will be taken by Multiverse-Core.");
+            LazyLogging.fine("Player '%s' is teleporting to world '%s' which is not managed by Multiverse-Core.  "
+                    + "No further actions will be taken by Multiverse-Core.",
+                    teleportee.getName(), event.getTo().getWorld().getName());
+            this.recordTeleport(event, "IGNORED", "world isn't managed by Multiverse");
             return;
         }
         if (event.getFrom().getWorld().equals(event.getTo().getWorld())) {
             // The player is Teleporting to the same world.
-            Logging.finer("Player '" + teleportee.getName() + "' is teleporting to the same world.");
+            LazyLogging.finer("Player '%s' is teleporting to the same world.", teleportee.getName());
+            // Not recorded, there are far too many of these and we never deny them anyway.
             this.stateSuccess(teleportee.getName(), toWorld.getAlias());
             return;
         }
+        if (this.worldManager.isBeingUnloaded(toWorld.getName())) {
+            event.setCancelled(true);
+            LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because it's being unloaded.",
+                    teleportee.getName(), toWorld.getAlias());
+            this.recordTeleport(event, "DENIED", "world is being unloaded");
+            return;
+        }
         // TODO: Refactor these lines.
         // Charge the teleporter
         event.setCancelled(!pt.playerHasMoneyToEnter(fromWorld, toWorld, teleporter, teleportee, true));
         if (event.isCancelled() && teleporter != null) {
-            Logging.fine("Player '" + teleportee.getName()
-                    + "' was DENIED ACCESS to '" + toWorld.getAlias()
-                    + "' because '" + teleporter.getName()
-                    + "' don't have the FUNDS required to enter it.");
+            LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because '%s' don't have the FUNDS required "
+                    + "to enter it.", teleportee.getName(), toWorld.getAlias(), teleporter.getName());
+            this.recordTeleport(event, "DENIED", "can't pay the entry fee");
             return;
         }
 
@@ -215,15 +271,15 @@ public class MVPlayerListener implements Listener {
         if (plugin.getMVConfig().getEnforceAccess()) {
             event.setCancelled(!pt.playerCanGoFromTo(fromWorld, toWorld, teleporter, teleportee));
             if (event.isCancelled() && teleporter != null) {
-                Logging.fine("Player '" + teleportee.getName()
-                        + "' was DENIED ACCESS to '" + toWorld.getAlias()
-                        + "' because '" + teleporter.getName()
-                        + "' don't have: multiverse.access." + event.getTo().getWorld().getName());
+                LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because '%s' don't have: "
+                        + "multiverse.access.%s", teleportee.getName(), toWorld.getAlias(), teleporter.getName(),
+                        event.getTo().getWorld().getName());
+                this.recordTeleport(event, "DENIED", "no access");
                 return;
             }
         } else {
-            Logging.fine("Player '" + teleportee.getName()
-                    + "' was allowed to go to '" + toWorld.getAlias() + "' because enforceaccess is off.");
+            LazyLogging.fine("Player '%s' was allowed to go to '%s' because enforceaccess is off.",
+                    teleportee.getName(), toWorld.getAlias());
         }
 
         // Does a limit actually exist?
@@ -232,23 +288,29 @@ public class MVPlayerListener implements Listener {
             if (toWorld.getCBWorld().getPlayers().size() >= toWorld.getPlayerLimit()) {
                 // Ouch the world is full, lets see if the player can bypass that limitation
                 if (!pt.playerCanBypassPlayerLimit(toWorld, teleporter, teleportee)) {
-                    Logging.fine("Player '" + teleportee.getName()
-                            + "' was DENIED ACCESS to '" + toWorld.getAlias()
-                            + "' because the world is full and '" + teleporter.getName()
-                            + "' doesn't have: mv.bypass.playerlimit." + event.getTo().getWorld().getName());
+                    LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because the world is full and '%s' "
+                            + "doesn't have: mv.bypass.playerlimit.%s", teleportee.getName(), toWorld.getAlias(),
+                            teleporter.getName(), event.getTo().getWorld().getName());
                     event.setCancelled(true);
+                    this.recordTeleport(event, "DENIED", "world is full");
                     return;
                 }
             }
         }
 
         // By this point anything cancelling the event has returned on the method, meaning the teleport is a success \o/
+        this.recordTeleport(event, "ALLOWED", null);
         this.stateSuccess(teleportee.getName(), toWorld.getAlias());
     }
 
+    private void recordTeleport(PlayerTeleportEvent event, String result, String reason) {
+        this.plugin.getFlightRecorder().record(FlightRecorder.Kind.TELEPORT, event.getPlayer().getName(),
+                event.getFrom().getWorld().getName(), event.getTo().getWorld().getName(), event.getCause().name(),
+                result, reason);
+    }
+
     private void stateSuccess(String playerName, String worldName) {
-        Logging.fine("MV-Core is allowing Player '" + playerName
-                + "' to go to '" + worldName + "'.");
+        LazyLogging.fine("MV-Core is allowing Player '%s' to go to '%s'.", playerName, worldName);
     }
 
     /**
@@ -264,13 +326,17 @@ public class MVPlayerListener implements Listener {
 
         // REMEMBER! getTo MAY be NULL HERE!!!
         // If the player was actually outside of the portal, adjust the from location
-        if (event.getFrom().getWorld().getBlockAt(event.getFrom()).getType() != Material.NETHER_PORTAL) {
-            Location newloc = this.plugin.getSafeTTeleporter().findPortalBlockNextTo(event.getFrom());
+        Block fromBlock = event.getFrom().getBlock();
+        if (fromBlock.getType() != Material.NETHER_PORTAL) {
+            Location newloc = this.plugin.getPortalIndex().findNearestPortal(event.getFrom(),
+                    this.plugin.getMVConfig().getPortalSnapRadius());
             // TODO: Fix this. Currently, we only check for PORTAL blocks. I'll have to figure out what
             // TODO: we want to do here.
             if (newloc != null) {
                 event.setFrom(newloc);
             }
+        } else {
+            this.plugin.getPortalIndex().addPortalBlock(fromBlock);
         }
         // Wait for the adjust, then return!
         if (event.getTo() == null) {
@@ -288,34 +354,38 @@ public class MVPlayerListener implements Listener {
         }
         // The adjust should have happened much earlier.
         if (event.getTo() == null) {
-            Logging.fine("Player '" + event.getPlayer().getName() + "' is portaling to NULL location.");
+            LazyLogging.fine("Player '%s' is portaling to NULL location.", event.getPlayer().getName());
             return;
         }
         MultiverseWorld fromWorld = this.worldManager.getMVWorld(event.getFrom().getWorld().getName());
         MultiverseWorld toWorld = this.worldManager.getMVWorld(event.getTo().getWorld().getName());
         if (event.getFrom().getWorld().equals(event.getTo().getWorld())) {
             // The player is Portaling to the same world.
-            Logging.finer("Player '" + event.getPlayer().getName() + "' is portaling to the same world.");
+            LazyLogging.finer("Player '%s' is portaling to the same world.", event.getPlayer().getName());
+            return;
+        }
+        if (this.worldManager.isBeingUnloaded(event.getTo().getWorld().getName())) {
+            event.setCancelled(true);
+            LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because it's being unloaded.",
+                    event.getPlayer().getName(), event.getTo().getWorld().getName());
             return;
         }
         event.setCancelled(!pt.playerHasMoneyToEnter(fromWorld, toWorld, event.getPlayer(), event.getPlayer(), true));
         if (event.isCancelled()) {
-            Logging.fine("Player '" + event.getPlayer().getName()
-                    + "' was DENIED ACCESS to '" + event.getTo().getWorld().getName()
-                    + "' because they don't have the FUNDS required to enter.");
+            LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because they don't have the FUNDS required "
+                    + "to enter.", event.getPlayer().getName(), event.getTo().getWorld().getName());
             return;
         }
         if (plugin.getMVConfig().getEnforceAccess()) {
             event.setCancelled(!pt.playerCanGoFromTo(fromWorld, toWorld, event.getPlayer(), event.getPlayer()));
             if (event.isCancelled()) {
-                Logging.fine("Player '" + event.getPlayer().getName()
-                        + "' was DENIED ACCESS to '" + event.getTo().getWorld().getName()
-                        + "' because they don't have: multiverse.access." + event.getTo().getWorld().getName());
+                String toWorldName = event.getTo().getWorld().getName();
+                LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because they don't have: multiverse.access.%s",
+                        event.getPlayer().getName(), toWorldName, toWorldName);
             }
         } else {
-            Logging.fine("Player '" + event.getPlayer().getName()
-                    + "' was allowed to go to '" + event.getTo().getWorld().getName()
-                    + "' because enforceaccess is off.");
+            LazyLogging.fine("Player '%s' was allowed to go to '%s' because enforceaccess is off.",
+                    event.getPlayer().getName(), event.getTo().getWorld().getName());
         }
         if (!this.plugin.getMVConfig().isUsingDefaultPortalSearch()) {
             CompatibilityLayer.setPortalSearchRadius(event, this.plugin.getMVConfig().getPortalSearchRadius());
@@ -340,50 +410,20 @@ public class MVPlayerListener implements Listener {
         if (mvWorld != null) {
             this.handleGameModeAndFlight(player, mvWorld);
         } else {
-            Logging.finer("Not handling gamemode and flight for world '" + world.getName()
-                    + "' not managed by Multiverse.");
+            LazyLogging.finer("Not handling gamemode and flight for world '%s' not managed by Multiverse.",
+                    world.getName());
         }
     }
 
     /**
      * Handles the gamemode for the specified {@link Player}.
+     * It's applied from the next tick on, see {@link PlayerStateApplicator}.
      * @param player The {@link Player}.
      * @param world The world the player is in.
      */
     public void handleGameModeAndFlight(final Player player, final MultiverseWorld world) {
-        // We perform this task one tick later to MAKE SURE that the player actually reaches the
+        // We perform this one tick later at the earliest to MAKE SURE that the player actually reaches the
         // destination world, otherwise we'd be changing the player mode if they havent moved anywhere.
-        this.plugin.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin,
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (!MVPlayerListener.this.pt.playerCanIgnoreGameModeRestriction(world, player)) {
-                            // Check that the player is in the new world and they haven't been teleported elsewhere or the event cancelled.
-                            if (player.getWorld() == world.getCBWorld()) {
-                                Logging.fine("Handling gamemode for player: %s, Changing to %s", player.getName(), world.getGameMode().toString());
-                                Logging.finest("From World: %s", player.getWorld());
-                                Logging.finest("To World: %s", world);
-                                player.setGameMode(world.getGameMode());
-                                // Check if their flight mode should change
-                                // TODO need a override permission for this
-                                if (player.getAllowFlight() && !world.getAllowFlight() && player.getGameMode() != GameMode.CREATIVE) {
-                                    player.setAllowFlight(false);
-                                    if (player.isFlying()) {
-                                        player.setFlying(false);
-                                    }
-                                } else if (world.getAllowFlight()) {
-                                    if (player.getGameMode() == GameMode.CREATIVE) {
-                                        player.setAllowFlight(true);
-                                    }
-                                }
-                            } else {
-                                Logging.fine("The gamemode/allowfly was NOT changed for player '%s' because he is now in world '%s' instead of world '%s'",
-                                        player.getName(), player.getWorld().getName(), world.getName());
-                            }
-                        } else {
-                            Logging.fine("Player: " + player.getName() + " is IMMUNE to gamemode changes!");
-                        }
-                    }
-                }, 1L);
+        this.plugin.getPlayerStateApplicator().queue(player, world);
     }
 }
@@ -9,15 +9,26 @@ package com.onarandombox.MultiverseCore.listeners;
 
 import com.dumptruckman.minecraft.util.Logging;
 import com.onarandombox.MultiverseCore.MultiverseCore;
-import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.api.PortalIndex;
+import com.onarandombox.MultiverseCore.utils.CompatibilityLayer;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker;
+import com.onarandombox.MultiverseCore.utils.WorldFlags;
+import org.bukkit.Chunk;
 import org.bukkit.Material;
 import org.bukkit.PortalType;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityCreatePortalEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.PortalCreateEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 import java.util.logging.Level;
 
@@ -42,21 +53,21 @@ public class MVPortalListener implements Listener {
         if (event.isCancelled() || event.getBlocks().size() == 0) {
             return;
         }
-        MultiverseWorld world = this.plugin.getMVWorldManager().getMVWorld(event.getEntity().getWorld());
+        WorldFlags flags = this.plugin.getWorldFlags().get(event.getEntity().getWorld());
         // We have to do it like this due to a bug in 1.1-R3
-        if (world != null && !world.getAllowedPortals().isPortalAllowed(event.getPortalType())) {
+        if (flags != null && !flags.isPortalAllowed(event.getPortalType())) {
             event.setCancelled(true);
         }
     }
 
     /**
      * This is called when a portal is created as the result of another world being linked.
+     * It's only registered while a world restricts portalForm, see {@link WorldFeatureTracker}.
      * @param event The event where a portal was formed due to a world link
      */
-    @EventHandler(ignoreCancelled = true)
     public void portalForm(PortalCreateEvent event) {
-        MultiverseWorld world = this.plugin.getMVWorldManager().getMVWorld(event.getWorld());
-        if (world != null && !world.getAllowedPortals().isPortalAllowed(PortalType.NETHER)) {
+        WorldFlags flags = this.plugin.getWorldFlags().get(event.getWorld());
+        if (flags != null && !flags.isPortalAllowed(PortalType.NETHER)) {
             Logging.fine("Cancelling creation of nether portal because portalForm disallows.");
             event.setCancelled(true);
         }
@@ -64,10 +75,10 @@ public class MVPortalListener implements Listener {
 
     /**
      * This method will prevent ender portals from being created in worlds where they are not allowed due to portalForm.
+     * It's only registered while a world restricts portalForm, see {@link WorldFeatureTracker}.
      *
      * @param event The player interact event.
      */
-    @EventHandler(ignoreCancelled = true)
     public void portalForm(PlayerInteractEvent event) {
         if (event.getAction() != Action.RIGHT_CLICK_BLOCK) {
             return;
@@ -78,10 +89,83 @@ public class MVPortalListener implements Listener {
         if (event.getItem() == null || event.getItem().getType() != Material.ENDER_EYE) {
             return;
         }
-        MultiverseWorld world = this.plugin.getMVWorldManager().getMVWorld(event.getPlayer().getWorld());
-        if (world != null && !world.getAllowedPortals().isPortalAllowed(PortalType.ENDER)) {
+        WorldFlags flags = this.plugin.getWorldFlags().get(event.getPlayer().getWorld());
+        if (flags != null && !flags.isPortalAllowed(PortalType.ENDER)) {
             Logging.fine("Cancelling creation of ender portal because portalForm disallows.");
             event.setCancelled(true);
         }
     }
+
+    /**
+     * Adds the blocks of a newly created portal to the {@link PortalIndex}.
+     *
+     * @param event The event where a portal was created.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void portalCreated(PortalCreateEvent event) {
+        PortalIndex portalIndex = this.plugin.getPortalIndex();
+        for (Block block : CompatibilityLayer.getPortalBlocks(event)) {
+            portalIndex.addPortalBlock(block);
+        }
+    }
+
+    /**
+     * Adds portal blocks placed by hand to the {@link PortalIndex}.
+     *
+     * @param event The block place event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void portalBlockPlaced(BlockPlaceEvent event) {
+        if (event.getBlockPlaced().getType() == Material.NETHER_PORTAL) {
+            this.plugin.getPortalIndex().addPortalBlock(event.getBlockPlaced());
+        }
+    }
+
+    /**
+     * Removes portal blocks from the {@link PortalIndex} when a portal or its frame is broken.
+     *
+     * @param event The block break event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void portalBlockBroken(BlockBreakEvent event) {
+        Material type = event.getBlock().getType();
+        if (type != Material.NETHER_PORTAL && type != Material.OBSIDIAN) {
+            return;
+        }
+        // The rest of the portal only goes away once the block physics ran, so we check on the next tick.
+        final World world = event.getBlock().getWorld();
+        final int chunkX = event.getBlock().getX() >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        final int chunkZ = event.getBlock().getZ() >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        this.plugin.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin, () -> {
+            // A portal can stick out into the neighbouring chunks.
+            for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+                for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                    if (world.isChunkLoaded(x, z)) {
+                        this.plugin.getPortalIndex().validateChunk(world, x, z);
+                    }
+                }
+            }
+        }, 1L);
+    }
+
+    /**
+     * Drops portal blocks that disappeared while a chunk was unloaded from the {@link PortalIndex}.
+     *
+     * @param event The chunk load event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void chunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        this.plugin.getPortalIndex().validateChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Forgets the portals of unloaded worlds.
+     *
+     * @param event The world unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void worldUnload(WorldUnloadEvent event) {
+        this.plugin.getPortalIndex().clearWorld(event.getWorld());
+    }
 }
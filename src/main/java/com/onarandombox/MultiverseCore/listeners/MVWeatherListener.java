@@ -8,14 +8,15 @@
 package com.onarandombox.MultiverseCore.listeners;
 
 import com.onarandombox.MultiverseCore.MultiverseCore;
-import com.onarandombox.MultiverseCore.api.MultiverseWorld;
-import org.bukkit.event.EventHandler;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker;
+import com.onarandombox.MultiverseCore.utils.WorldFlags;
 import org.bukkit.event.Listener;
 import org.bukkit.event.weather.ThunderChangeEvent;
 import org.bukkit.event.weather.WeatherChangeEvent;
 
 /**
  * Multiverse's Weather {@link Listener}.
+ * Its handlers are only registered while a world has weather disabled, see {@link WorldFeatureTracker}.
  */
 public class MVWeatherListener implements Listener {
     private MultiverseCore plugin;
@@ -28,15 +29,14 @@ public class MVWeatherListener implements Listener {
      * This method is called when the weather changes.
      * @param event The Event that was fired.
      */
-    @EventHandler
     public void weatherChange(WeatherChangeEvent event) {
         if (event.isCancelled()) {
             return;
         }
-        MultiverseWorld world = this.plugin.getMVWorldManager().getMVWorld(event.getWorld().getName());
-        if (world != null) {
+        WorldFlags flags = this.plugin.getWorldFlags().get(event.getWorld());
+        if (flags != null) {
             // If it's going to start raining and we have weather disabled
-            event.setCancelled((event.toWeatherState() && !world.isWeatherEnabled()));
+            event.setCancelled((event.toWeatherState() && !flags.is(WorldFlags.WEATHER)));
         }
     }
 
@@ -44,15 +44,14 @@ public class MVWeatherListener implements Listener {
      * This method is called when a big storm is going to start.
      * @param event The Event that was fired.
      */
-    @EventHandler
     public void thunderChange(ThunderChangeEvent event) {
         if (event.isCancelled()) {
             return;
         }
-        MultiverseWorld world = this.plugin.getMVWorldManager().getMVWorld(event.getWorld().getName());
-        if (world != null) {
+        WorldFlags flags = this.plugin.getWorldFlags().get(event.getWorld());
+        if (flags != null) {
             // If it's going to start raining and we have weather disabled
-            event.setCancelled((event.toThunderState() && !world.isWeatherEnabled()));
+            event.setCancelled((event.toThunderState() && !flags.is(WorldFlags.WEATHER)));
         }
     }
 }
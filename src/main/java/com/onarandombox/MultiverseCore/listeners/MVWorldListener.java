@@ -10,9 +10,14 @@ package com.onarandombox.MultiverseCore.listeners;
 import com.onarandombox.MultiverseCore.MultiverseCore;
 import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.utils.CompatibilityLayer;
 import org.bukkit.World;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.event.world.WorldLoadEvent;
 import org.bukkit.event.world.WorldUnloadEvent;
 
@@ -40,6 +45,9 @@ public class MVWorldListener implements Listener {
         if (event.getWorld() instanceof World) {
             World world = (World) event.getWorld();
             if (world != null) {
+                this.plugin.getHotChunkTracker().forgetWorld(world);
+                this.plugin.getEntityCounter().forgetWorld(world);
+                this.plugin.getSpawnGovernor().forgetWorld(world);
                 this.plugin.getMVWorldManager().unloadWorld(world.getName(), false);
             }
         }
@@ -64,4 +72,43 @@ public class MVWorldListener implements Listener {
             }
         }
     }
+
+    /**
+     * Counts the entities of loaded chunks for the entity budgets.
+     * @param event The Event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void chunkLoad(ChunkLoadEvent event) {
+        this.plugin.getEntityCounter().chunkLoaded(event.getChunk());
+    }
+
+    /**
+     * Counts the entities of loaded chunks again once they're loaded, on servers that load them separately.
+     * <p>
+     * This isn't an {@link EventHandler}, it's registered for the EntitiesLoadEvent where that exists.
+     * @param event The Event that was fired.
+     */
+    public void entitiesLoad(ChunkEvent event) {
+        this.plugin.getEntityCounter().chunkLoaded(event.getChunk());
+    }
+
+    /**
+     * Stops counting the entities that are unloaded, on servers that unload them separately from their chunk.
+     * <p>
+     * This isn't an {@link EventHandler}, it's registered for the EntitiesUnloadEvent where that exists.
+     * @param event The Event that was fired.
+     */
+    public void entitiesUnload(ChunkEvent event) {
+        this.plugin.getEntityCounter().entitiesUnloaded(event.getChunk(),
+                CompatibilityLayer.getUnloadedEntities(event));
+    }
+
+    /**
+     * Stops counting the entities of unloaded chunks for the entity budgets.
+     * @param event The Event that was fired.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void chunkUnload(ChunkUnloadEvent event) {
+        this.plugin.getEntityCounter().chunkUnloaded(event.getChunk());
+    }
 }
@@ -0,0 +1,305 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A log {@link Handler} that never makes the logging thread wait for the disk.
+ * <p>
+ * Records go into a bounded buffer and a background thread writes them in batches. When the
+ * buffer is full, records are dropped and counted instead; the writer notes how many were lost
+ * in the log. The file is rotated once it grows too big or gets too old: the old one is
+ * compressed to {@code <name>.<timestamp>.gz} and only the newest archives are kept. The age
+ * counts from the last rotation, or from when the file was created if it was never rotated,
+ * so restarting doesn't keep a file from being rotated.
+ * <p>
+ * This is what {@link DebugLog} writes with. Multiverse-Core's own debug file is written by
+ * {@link com.dumptruckman.minecraft.util.Logging} and doesn't go through this.
+ */
+public class AsyncLogWriter extends Handler {
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    /** The number of records that may wait for the writer by default. */
+    public static final int DEFAULT_CAPACITY = 8192;
+    /** The size in bytes at which the file is rotated by default. */
+    public static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+    /** The age in milliseconds at which the file is rotated by default. */
+    public static final long DEFAULT_ROTATE_INTERVAL = 24L * 60 * 60 * 1000;
+    /** The number of compressed old files that are kept by default. */
+    public static final int DEFAULT_MAX_ARCHIVES = 5;
+
+    private static final int BATCH_SIZE = 256;
+    private static final long POLL_TIMEOUT = 500L;
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private static final String ARCHIVE_EXTENSION = ".gz";
+    private static final DateTimeFormatter ARCHIVE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss")
+            .withZone(ZoneId.systemDefault());
+
+    private final File file;
+    private final BlockingQueue<LogRecord> buffer;
+    private final long maxBytes;
+    private final long rotateInterval;
+    private final int maxArchives;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // Only touched by the writer thread.
+    private Writer out;
+    private long written;
+    private long startedAt;
+    private long reportedDrops;
+
+    /**
+     * Creates a writer with the default buffer size and rotation settings.
+     *
+     * @param file The file to log to.
+     */
+    public AsyncLogWriter(File file) {
+        this(file, DEFAULT_CAPACITY, DEFAULT_MAX_BYTES, DEFAULT_ROTATE_INTERVAL, DEFAULT_MAX_ARCHIVES);
+    }
+
+    /**
+     * Creates a writer and starts its thread.
+     *
+     * @param file           The file to log to. Records are appended if it exists.
+     * @param capacity       The number of records that may wait for the writer.
+     * @param maxBytes       The size in bytes at which the file is rotated.
+     * @param rotateInterval The age in milliseconds at which the file is rotated, 0 to never rotate by age.
+     * @param maxArchives    The number of compressed old files to keep.
+     */
+    public AsyncLogWriter(File file, int capacity, long maxBytes, long rotateInterval, int maxArchives) {
+        this.file = file;
+        this.buffer = new ArrayBlockingQueue<LogRecord>(capacity);
+        this.maxBytes = maxBytes;
+        this.rotateInterval = rotateInterval;
+        this.maxArchives = maxArchives;
+        this.setFormatter(new SimpleFormatter());
+        this.thread = new Thread(this::run, "Multiverse log writer (" + file.getName() + ")");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Hands a record to the writer thread. Never blocks.
+     *
+     * @param record The {@link LogRecord}.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (!this.isLoggable(record)) {
+            return;
+        }
+        if (this.closed || !this.buffer.offer(record)) {
+            this.dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Does nothing, the writer thread flushes after every batch.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes what's still buffered, then closes the file and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.thread.interrupt();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of records that were dropped because the buffer was full or the writer closed.
+     */
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * @return The number of records waiting for the writer.
+     */
+    public int getBufferedCount() {
+        return this.buffer.size();
+    }
+
+    private void run() {
+        List<LogRecord> batch = new ArrayList<LogRecord>(BATCH_SIZE);
+        try {
+            while (!this.closed) {
+                LogRecord first = this.buffer.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    this.buffer.drainTo(batch, BATCH_SIZE - 1);
+                    this.write(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            // We're being closed, write whatever is left below.
+        }
+        this.buffer.drainTo(batch);
+        this.write(batch);
+        this.closeFile();
+    }
+
+    private void write(List<LogRecord> batch) {
+        if (batch.isEmpty() && this.dropped.get() == this.reportedDrops) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            if (this.out == null) {
+                this.open(now);
+            }
+            if (this.rotateInterval > 0L && now - this.startedAt >= this.rotateInterval) {
+                this.rotate(now);
+            }
+            long drops = this.dropped.get();
+            if (drops != this.reportedDrops) {
+                this.append(String.format("[%d log records were dropped because the buffer was full]%n",
+                        drops - this.reportedDrops));
+                this.reportedDrops = drops;
+            }
+            for (LogRecord record : batch) {
+                this.append(this.getFormatter().format(record));
+            }
+            this.out.flush();
+            if (this.written >= this.maxBytes) {
+                this.rotate(now);
+            }
+        } catch (IOException e) {
+            this.reportError("Could not write to " + this.file, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    private void append(String text) throws IOException {
+        this.out.write(text);
+        // Close enough, the limit doesn't have to be exact.
+        this.written += text.length();
+    }
+
+    private void open(long now) throws IOException {
+        this.written = this.file.length();
+        this.startedAt = (this.written > 0L) ? Math.min(now, this.getStartedAt(now)) : now;
+        this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.file, true),
+                StandardCharsets.UTF_8));
+    }
+
+    /*
+     * When the existing file was started: the time of the last rotation, or its creation time if it
+     * was never rotated.
+     */
+    private long getStartedAt(long now) {
+        File[] archives = this.listArchives();
+        if (archives != null && archives.length > 0) {
+            String name = archives[archives.length - 1].getName();
+            String timestamp = name.substring(this.file.getName().length() + 1,
+                    name.length() - ARCHIVE_EXTENSION.length());
+            try {
+                return ZonedDateTime.parse(timestamp, ARCHIVE_TIMESTAMP).toInstant().toEpochMilli();
+            } catch (DateTimeParseException ignore) {
+                // Not one of ours, go by the file.
+            }
+        }
+        try {
+            return Files.readAttributes(this.file.toPath(), BasicFileAttributes.class).creationTime().toMillis();
+        } catch (IOException e) {
+            return now;
+        }
+    }
+
+    private void rotate(long now) throws IOException {
+        this.closeFile();
+        if (this.file.length() > 0L) {
+            String timestamp = ARCHIVE_TIMESTAMP.format(Instant.ofEpochMilli(now));
+            File archive = new File(this.file.getAbsoluteFile().getParentFile(),
+                    this.file.getName() + "." + timestamp + ARCHIVE_EXTENSION);
+            try (OutputStream gzip = new GZIPOutputStream(new FileOutputStream(archive))) {
+                Files.copy(this.file.toPath(), gzip);
+            }
+            Files.delete(this.file.toPath());
+            this.deleteOldArchives();
+        }
+        this.open(now);
+    }
+
+    /*
+     * The archives of the file, oldest first.
+     */
+    private File[] listArchives() {
+        String prefix = this.file.getName() + ".";
+        File[] archives = this.file.getAbsoluteFile().getParentFile().listFiles(
+                (dir, name) -> name.startsWith(prefix) && name.endsWith(ARCHIVE_EXTENSION));
+        if (archives != null) {
+            // The timestamps sort by name.
+            Arrays.sort(archives);
+        }
+        return archives;
+    }
+
+    private void deleteOldArchives() {
+        File[] archives = this.listArchives();
+        if (archives == null || archives.length <= this.maxArchives) {
+            return;
+        }
+        for (int i = 0; i < archives.length - this.maxArchives; i++) {
+            if (!archives[i].delete()) {
+                this.reportError("Could not delete " + archives[i], null, ErrorManager.GENERIC_FAILURE);
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (this.out == null) {
+            return;
+        }
+        try {
+            this.out.close();
+        } catch (IOException e) {
+            this.reportError("Could not close " + this.file, e, ErrorManager.CLOSE_FAILURE);
+        }
+        this.out = null;
+    }
+}
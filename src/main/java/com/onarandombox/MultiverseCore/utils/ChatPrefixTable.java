@@ -0,0 +1,123 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.ChatColor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The chat prefixes of all worlds, compiled ahead of time so the chat listener doesn't have
+ * to build them for every message.
+ * <p>
+ * Worlds publish their colored names whenever their alias, color, style or hidden state changes.
+ * The prefix format is split around {@code %chat%} with the world name filled in and the color
+ * codes translated. Everything is immutable and published as a whole, so the chat thread can read
+ * it without locking. If the format in the config changes, the first message afterwards compiles
+ * the prefixes again.
+ */
+public class ChatPrefixTable {
+    private static final String WORLD = "%world%";
+    private static final String CHAT = "%chat%";
+
+    /** The colored names of all worlds that aren't hidden. */
+    private volatile Map<String, String> worldStrings = Collections.emptyMap();
+    private volatile Compiled compiled = new Compiled(null, Collections.<String, String[]>emptyMap());
+
+    /**
+     * Publishes the colored name of a world.
+     *
+     * @param world       The name of the world.
+     * @param worldString Its colored name, null if it's hidden.
+     */
+    public synchronized void publish(String world, String worldString) {
+        Map<String, String> copy = new HashMap<String, String>(this.worldStrings);
+        if (worldString == null) {
+            copy.remove(world);
+        } else {
+            copy.put(world, worldString);
+        }
+        this.worldStrings = copy;
+        this.compiled = compile(this.compiled.format, copy);
+    }
+
+    /**
+     * Forgets a world that's no longer managed by Multiverse.
+     *
+     * @param world The name of the world.
+     */
+    public void remove(String world) {
+        this.publish(world, null);
+    }
+
+    /**
+     * Formats a chat message.
+     *
+     * @param world  The name of the world the player is in.
+     * @param format The prefix format from the config.
+     * @param chat   The chat format of the message.
+     * @return The prefixed chat format, null if the world doesn't get a prefix.
+     */
+    public String format(String world, String format, String chat) {
+        if (format == null) {
+            return null;
+        }
+        Compiled current = this.compiled;
+        if (!format.equals(current.format)) {
+            current = this.recompile(format);
+        }
+        String[] parts = current.prefixes.get(world);
+        if (parts == null) {
+            return null;
+        }
+        if (chat.indexOf('&') >= 0) {
+            chat = ChatColor.translateAlternateColorCodes('&', chat);
+        }
+        if (parts.length == 2) {
+            return parts[0] + chat + parts[1];
+        }
+        return String.join(chat, parts);
+    }
+
+    private synchronized Compiled recompile(String format) {
+        if (!format.equals(this.compiled.format)) {
+            this.compiled = compile(format, this.worldStrings);
+        }
+        return this.compiled;
+    }
+
+    private static Compiled compile(String format, Map<String, String> worldStrings) {
+        if (format == null) {
+            return new Compiled(null, Collections.<String, String[]>emptyMap());
+        }
+        Map<String, String[]> prefixes = new HashMap<String, String[]>();
+        for (Map.Entry<String, String> entry : worldStrings.entrySet()) {
+            String[] parts = format.replace(WORLD, entry.getValue()).split(CHAT, -1);
+            for (int i = 0; i < parts.length; i++) {
+                parts[i] = ChatColor.translateAlternateColorCodes('&', parts[i]);
+            }
+            prefixes.put(entry.getKey(), parts);
+        }
+        return new Compiled(format, prefixes);
+    }
+
+    /**
+     * The prefixes of all worlds for one format.
+     */
+    private static final class Compiled {
+        private final String format;
+        private final Map<String, String[]> prefixes;
+
+        private Compiled(String format, Map<String, String[]> prefixes) {
+            this.format = format;
+            this.prefixes = prefixes;
+        }
+    }
+}
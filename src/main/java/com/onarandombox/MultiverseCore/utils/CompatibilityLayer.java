@@ -1,11 +1,27 @@
 package com.onarandombox.MultiverseCore.utils;
 
 import com.dumptruckman.minecraft.util.Logging;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.Event;
 import org.bukkit.event.entity.EntityPortalEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.world.PortalCreateEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.MapMeta;
+import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class to enable version specific minecraft features.
@@ -16,6 +32,19 @@ public class CompatibilityLayer {
     private static boolean useTravelAgent;
     private static Method playerPortalSearchRadius;
     private static Method entityPortalSearchRadius;
+    private static Method chunkAtAsync;
+    private static Method portalCreateBlocks;
+    private static Method addPluginChunkTicket;
+    private static Method removePluginChunkTicket;
+    private static Method setChunkForceLoaded;
+    private static Method isChunkForceLoaded;
+    private static Method hasMapId;
+    private static Method getMapId;
+    private static Class<? extends Event> entitiesLoadEvent;
+    private static Class<? extends Event> entitiesUnloadEvent;
+    private static Method unloadedEntities;
+    private static Class<? extends Event> entityRemoveEvent;
+    private static Method averageTickTime;
 
     /**
      * Initialise the reflection class, methods and fields.
@@ -25,6 +54,28 @@ public class CompatibilityLayer {
         useTravelAgent = ReflectHelper.hasClass("org.bukkit.TravelAgent");
         playerPortalSearchRadius = ReflectHelper.getMethod(PlayerPortalEvent.class, "setSearchRadius", int.class);
         entityPortalSearchRadius = ReflectHelper.getMethod(EntityPortalEvent.class, "setSearchRadius", int.class);
+        chunkAtAsync = ReflectHelper.getMethod(World.class, "getChunkAtAsync", int.class, int.class);
+        portalCreateBlocks = ReflectHelper.getMethod(PortalCreateEvent.class, "getBlocks");
+        addPluginChunkTicket = ReflectHelper.getMethod(World.class, "addPluginChunkTicket", int.class, int.class, Plugin.class);
+        removePluginChunkTicket = ReflectHelper.getMethod(World.class, "removePluginChunkTicket", int.class, int.class, Plugin.class);
+        setChunkForceLoaded = ReflectHelper.getMethod(World.class, "setChunkForceLoaded", int.class, int.class, boolean.class);
+        isChunkForceLoaded = ReflectHelper.getMethod(World.class, "isChunkForceLoaded", int.class, int.class);
+        hasMapId = ReflectHelper.getMethod(MapMeta.class, "hasMapId");
+        getMapId = ReflectHelper.getMethod(MapMeta.class, "getMapId");
+        averageTickTime = ReflectHelper.getMethod(Server.class, "getAverageTickTime");
+        entitiesLoadEvent = getEventClass("org.bukkit.event.world.EntitiesLoadEvent");
+        entitiesUnloadEvent = getEventClass("org.bukkit.event.world.EntitiesUnloadEvent");
+        unloadedEntities = (entitiesUnloadEvent != null)
+                ? ReflectHelper.getMethod(entitiesUnloadEvent, "getEntities") : null;
+        entityRemoveEvent = getEventClass("org.bukkit.event.entity.EntityRemoveEvent");
+        if (entityRemoveEvent == null) {
+            entityRemoveEvent = getEventClass("com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent");
+        }
+    }
+
+    private static Class<? extends Event> getEventClass(String classPath) {
+        Class<?> clazz = ReflectHelper.getClass(classPath);
+        return (clazz != null && Event.class.isAssignableFrom(clazz)) ? clazz.asSubclass(Event.class) : null;
     }
 
     /**
@@ -103,4 +154,205 @@ public class CompatibilityLayer {
         ReflectHelper.invokeMethod(event, entityPortalSearchRadius, searchRadius);
         Logging.finer("Used new method to set entity portal search radius.");
     }
+
+    /**
+     * <p>Gets if the server is able to load chunks asynchronously.</p>
+     * <p>Only available on Paper and its forks.</p>
+     *
+     * @return True if chunks can be loaded asynchronously, else false.
+     */
+    public static boolean isAsyncChunkLoadSupported() {
+        return chunkAtAsync != null;
+    }
+
+    /**
+     * <p>Requests a chunk to be loaded (or generated) without blocking the main thread.</p>
+     *
+     * <p>Uses World.getChunkAtAsync(int, int) if available. The returned future is completed
+     * on the main thread once the chunk is ready.</p>
+     *
+     * @param world The world the chunk is in.
+     * @param x     Chunk x coordinate.
+     * @param z     Chunk z coordinate.
+     * @return A future for the chunk, or null if the server can't load chunks asynchronously.
+     */
+    public static CompletableFuture<?> getChunkAtAsync(World world, int x, int z) {
+        if (chunkAtAsync == null) {
+            return null;
+        }
+        CompletableFuture<?> future = ReflectHelper.invokeMethod(world, chunkAtAsync, x, z);
+        if (future == null) {
+            Logging.warning("Unable to load chunk asynchronously!");
+        }
+        return future;
+    }
+
+    /**
+     * <p>Gets the portal blocks of a portal that is being created.</p>
+     *
+     * <p>PortalCreateEvent.getBlocks() returns blocks before minecraft 1.14 and block states
+     * (including the frame) since then, so it's called by reflection.</p>
+     *
+     * @param event A Portal Create Event.
+     * @return The blocks that are going to be portal blocks.
+     */
+    public static List<Block> getPortalBlocks(PortalCreateEvent event) {
+        if (portalCreateBlocks == null) {
+            return Collections.emptyList();
+        }
+        List<?> blocks = ReflectHelper.invokeMethod(event, portalCreateBlocks);
+        if (blocks == null) {
+            Logging.warning("Unable to get the blocks of a new portal!");
+            return Collections.emptyList();
+        }
+        List<Block> portalBlocks = new ArrayList<Block>(blocks.size());
+        for (Object block : blocks) {
+            if (block instanceof Block) {
+                portalBlocks.add((Block) block);
+            } else if (block instanceof BlockState && ((BlockState) block).getType() == Material.NETHER_PORTAL) {
+                portalBlocks.add(((BlockState) block).getBlock());
+            }
+        }
+        return portalBlocks;
+    }
+
+    /**
+     * <p>Gets if the server is able to keep chunks loaded for a plugin.</p>
+     *
+     * @return True if chunks can be pinned, else false.
+     */
+    public static boolean isChunkPinningSupported() {
+        return (addPluginChunkTicket != null && removePluginChunkTicket != null) || setChunkForceLoaded != null;
+    }
+
+    /**
+     * <p>Keeps a chunk loaded, or lets it unload again.</p>
+     *
+     * <p>Uses plugin chunk tickets introduced in minecraft 1.14 if available, else force loads
+     * the chunk with World.setChunkForceLoaded(int, int, boolean) introduced in minecraft 1.13.1</p>
+     *
+     * <p>Force loading isn't kept per plugin, so chunks that are already force loaded, e.g. by
+     * /forceload, are left alone. Only release chunks this returned true for.</p>
+     *
+     * @param world  The world the chunk is in.
+     * @param x      Chunk x coordinate.
+     * @param z      Chunk z coordinate.
+     * @param plugin The plugin holding the chunk.
+     * @param pinned True to keep the chunk loaded, false to release it.
+     * @return True if the chunk was pinned or released, false if it was left alone.
+     */
+    public static boolean setChunkPinned(World world, int x, int z, Plugin plugin, boolean pinned) {
+        if (addPluginChunkTicket != null && removePluginChunkTicket != null) {
+            ReflectHelper.invokeMethod(world, pinned ? addPluginChunkTicket : removePluginChunkTicket, x, z, plugin);
+            return true;
+        }
+        if (setChunkForceLoaded == null) {
+            Logging.warning("Unable to keep chunks loaded!");
+            return false;
+        }
+        if (pinned && (isChunkForceLoaded == null
+                || !Boolean.FALSE.equals(ReflectHelper.invokeMethod(world, isChunkForceLoaded, x, z)))) {
+            // Somebody else force loads it, or we can't tell. Releasing it later would undo that.
+            return false;
+        }
+        ReflectHelper.invokeMethod(world, setChunkForceLoaded, x, z, pinned);
+        return true;
+    }
+
+    /**
+     * <p>Gets the id of the map an item shows.</p>
+     *
+     * <p>Uses MapMeta.getMapId() introduced in minecraft 1.13.2 if available, else the
+     * durability the id was kept in before.</p>
+     *
+     * @param item An item, may be null.
+     * @return The id of the map, or -1 if the item isn't a map.
+     */
+    public static int getMapId(ItemStack item) {
+        if (item == null || (item.getType() != Material.MAP && item.getType() != Material.FILLED_MAP)) {
+            return -1;
+        }
+        if (hasMapId == null || getMapId == null) {
+            return item.getDurability();
+        }
+        ItemMeta meta = item.getItemMeta();
+        if (!(meta instanceof MapMeta) || !Boolean.TRUE.equals(ReflectHelper.invokeMethod(meta, hasMapId))) {
+            return -1;
+        }
+        Integer id = ReflectHelper.invokeMethod(meta, getMapId);
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * <p>Gets the event fired once the entities of a chunk are loaded.</p>
+     *
+     * <p>Since minecraft 1.17 entities are loaded separately from their chunk, so they aren't there
+     * yet when the ChunkLoadEvent fires. The EntitiesLoadEvent introduced then is a ChunkEvent.</p>
+     *
+     * @return The class of the EntitiesLoadEvent, or null if the server loads entities with their chunk.
+     */
+    public static Class<? extends Event> getEntitiesLoadEvent() {
+        return entitiesLoadEvent;
+    }
+
+    /**
+     * <p>Gets the event fired when the entities of a chunk are unloaded.</p>
+     *
+     * <p>Introduced in minecraft 1.17, it's a ChunkEvent.</p>
+     *
+     * @return The class of the EntitiesUnloadEvent, or null if the server unloads entities with their chunk.
+     */
+    public static Class<? extends Event> getEntitiesUnloadEvent() {
+        return entitiesUnloadEvent;
+    }
+
+    /**
+     * <p>Gets the entities that are unloaded with an EntitiesUnloadEvent.</p>
+     *
+     * @param event The EntitiesUnloadEvent.
+     * @return The unloaded entities, or null if they can't be told.
+     */
+    public static List<Entity> getUnloadedEntities(Event event) {
+        if (unloadedEntities == null) {
+            return null;
+        }
+        return ReflectHelper.invokeMethod(event, unloadedEntities);
+    }
+
+    /**
+     * <p>Gets the event fired when an entity leaves its world for whatever reason, e.g. because it despawned.</p>
+     *
+     * <p>That's the EntityRemoveEvent of spigot 1.20.4 or paper's EntityRemoveFromWorldEvent. Both are
+     * EntityEvents.</p>
+     *
+     * @return The class of the event, or null if the server has none.
+     */
+    public static Class<? extends Event> getEntityRemoveEvent() {
+        return entityRemoveEvent;
+    }
+
+    /**
+     * <p>Check if the server tells how long it spends on a tick.</p>
+     * <p>Paper only.</p>
+     *
+     * @return True if {@link #getAverageTickTime(Server)} can be used.
+     */
+    public static boolean hasAverageTickTime() {
+        return averageTickTime != null;
+    }
+
+    /**
+     * <p>Gets how long the server spent on its recent ticks, without waiting for the next one.</p>
+     * <p>Paper only.</p>
+     *
+     * @param server The {@link Server}.
+     * @return The average tick time in milliseconds, or -1 if the server doesn't tell.
+     */
+    public static double getAverageTickTime(Server server) {
+        if (averageTickTime == null) {
+            return -1D;
+        }
+        Double millis = ReflectHelper.invokeMethod(server, averageTickTime);
+        return (millis != null) ? millis : -1D;
+    }
 }
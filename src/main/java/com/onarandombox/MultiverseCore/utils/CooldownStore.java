@@ -0,0 +1,101 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers until when keys are on cooldown. It's safe to use from any thread and never locks:
+ * taking a key is a compare-and-set on its expiry time.
+ * <p>
+ * Expired keys are treated as absent right away and removed by a sweep that runs at most once
+ * every {@link #SWEEP_INTERVAL} milliseconds, piggybacking on whichever call comes along.
+ *
+ * @param <K> The type of the keys.
+ */
+public class CooldownStore<K> {
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private static final long SWEEP_INTERVAL = 60 * 1000L;
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+
+    private final Map<K, Long> expiries = new ConcurrentHashMap<K, Long>();
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    /**
+     * Puts a key on cooldown unless it already is.
+     *
+     * @param key      The key.
+     * @param cooldown How long the key stays on cooldown, in milliseconds.
+     * @return True if the key wasn't on cooldown, i.e. whatever it guards may happen now.
+     */
+    public boolean tryAcquire(K key, long cooldown) {
+        long now = System.currentTimeMillis();
+        this.sweepIfDue(now);
+        Long expiry = now + cooldown;
+        while (true) {
+            Long current = this.expiries.get(key);
+            if (current == null) {
+                if (this.expiries.putIfAbsent(key, expiry) == null) {
+                    return true;
+                }
+            } else if (current > now) {
+                return false;
+            } else if (this.expiries.replace(key, current, expiry)) {
+                return true;
+            }
+            // Another thread got in between, look again.
+        }
+    }
+
+    /**
+     * Checks whether a key is on cooldown.
+     *
+     * @param key The key.
+     * @return True if it is.
+     */
+    public boolean isCoolingDown(K key) {
+        Long expiry = this.expiries.get(key);
+        return expiry != null && expiry > System.currentTimeMillis();
+    }
+
+    /**
+     * Removes all keys whose cooldown is over.
+     *
+     * @param now The current time in milliseconds.
+     */
+    public void sweep(long now) {
+        for (Map.Entry<K, Long> entry : this.expiries.entrySet()) {
+            if (entry.getValue() <= now) {
+                this.expiries.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = this.nextSweep.get();
+        if (now >= due && this.nextSweep.compareAndSet(due, now + SWEEP_INTERVAL)) {
+            this.sweep(now);
+        }
+    }
+
+    /**
+     * @return The number of keys currently stored, including expired ones that weren't swept yet.
+     */
+    public int size() {
+        return this.expiries.size();
+    }
+
+    /**
+     * Forgets all keys.
+     */
+    public void clear() {
+        this.expiries.clear();
+    }
+}
@@ -9,13 +9,14 @@ package com.onarandombox.MultiverseCore.utils;
 
 import com.onarandombox.MultiverseCore.MultiverseCoreConfiguration;
 
-import java.io.IOException;
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.logging.FileHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -24,37 +25,35 @@ import java.util.logging.Logger;
 
 /**
  * The Multiverse debug-logger.
+ * <p>
+ * This is the debug log of plugins built on {@link com.onarandombox.MultiverseCore.api.MultiversePlugin}.
+ * Multiverse-Core itself logs through {@link com.dumptruckman.minecraft.util.Logging}, which writes its
+ * own debug file, so that one isn't written in the background.
  * @deprecated Deprecated in favor of new Logging lib.  See {@link com.dumptruckman.minecraft.util.Logging}.
  */
 @Deprecated
 public class DebugLog extends Logger {
-    private FileHandler fh;
+    private final AsyncLogWriter fh;
     private Logger standardLog = null;
     private String prefix = "[MVCore-Debug] ";
 
     /**
-     * Creates a new debug logger.
+     * Creates a new debug logger. The file is written by a background thread, see {@link AsyncLogWriter}.
      *
      * @param logger The name of the logger.
      * @param file   The file to log to.
      */
     public DebugLog(String logger, String file) {
         super(logger, null);
-        try {
-            this.fh = new FileHandler(file, true);
-            this.setUseParentHandlers(false);
-            List<Handler> toRemove = Arrays.asList(this.getHandlers());
-            for (Handler handler : toRemove) {
-                this.removeHandler(handler);
-            }
-            this.addHandler(this.fh);
-            this.setLevel(Level.ALL);
-            this.fh.setFormatter(new LogFormatter());
-        } catch (SecurityException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
+        this.fh = new AsyncLogWriter(new File(file));
+        this.fh.setFormatter(new LogFormatter());
+        this.setUseParentHandlers(false);
+        List<Handler> toRemove = Arrays.asList(this.getHandlers());
+        for (Handler handler : toRemove) {
+            this.removeHandler(handler);
         }
+        this.addHandler(this.fh);
+        this.setLevel(Level.ALL);
     }
 
     /**
@@ -95,15 +94,16 @@ public class DebugLog extends Logger {
     /**
      * Our log-{@link Formatter}.
      */
-    private class LogFormatter extends Formatter {
-        private final SimpleDateFormat date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static class LogFormatter extends Formatter {
+        private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+                .withZone(ZoneId.systemDefault());
 
         @Override
         public String format(LogRecord record) {
             StringBuilder builder = new StringBuilder();
             Throwable ex = record.getThrown();
 
-            builder.append(this.date.format(record.getMillis()));
+            builder.append(DATE.format(Instant.ofEpochMilli(record.getMillis())));
             builder.append(" [");
             builder.append(record.getLevel().getLocalizedName().toUpperCase());
             builder.append("] ");
@@ -121,7 +121,7 @@ public class DebugLog extends Logger {
     }
 
     /**
-     * Closes this {@link DebugLog}.
+     * Closes this {@link DebugLog}, writing what's still buffered first.
      */
     public void close() {
         this.fh.close();
@@ -0,0 +1,155 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.configuration.SpawnSettings;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The entity limits of a world: how many living entities a chunk may hold and how many of a type
+ * the whole world may hold. Instances are immutable.
+ */
+public final class EntityBudget {
+    /**
+     * A budget without any limits.
+     */
+    public static final EntityBudget UNLIMITED = new EntityBudget(-1, new int[EntityType.values().length]);
+
+    private final int chunkLimit;
+    /** Per {@link EntityType#ordinal()} the maximum, 0 means there's no limit. */
+    private final int[] typeLimits;
+    private final boolean limited;
+
+    private EntityBudget(int chunkLimit, int[] typeLimits) {
+        this.chunkLimit = chunkLimit;
+        this.typeLimits = typeLimits;
+        boolean anyTypeLimit = false;
+        for (int limit : typeLimits) {
+            anyTypeLimit |= limit > 0;
+        }
+        this.limited = chunkLimit >= 0 || anyTypeLimit;
+    }
+
+    private static EntityType parseType(String name) {
+        try {
+            return EntityType.valueOf(name.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return EntityType.fromName(name);
+        }
+    }
+
+    /**
+     * Compiles the limits of {@link SpawnSettings}.
+     *
+     * @param settings The {@link SpawnSettings}.
+     * @return The compiled {@link EntityBudget}.
+     */
+    public static EntityBudget compile(SpawnSettings settings) {
+        return compile(settings.getChunkLimit(), settings.getTypeLimits());
+    }
+
+    /**
+     * Compiles entity limits.
+     *
+     * @param chunkLimit The maximum number of living entities per chunk, -1 for no limit.
+     * @param typeLimits The per type limits in the format {@code type:max}.
+     * @return The compiled {@link EntityBudget}.
+     */
+    public static EntityBudget compile(int chunkLimit, List<String> typeLimits) {
+        int[] limits = new int[EntityType.values().length];
+        if (typeLimits == null) {
+            typeLimits = Collections.emptyList();
+        }
+        for (String entry : typeLimits) {
+            int separator = entry.indexOf(':');
+            EntityType type = (separator < 0) ? null : parseType(entry.substring(0, separator).trim());
+            if (type == null) {
+                Logging.warning("Ignoring entity limit '%s', expected type:max.", entry);
+                continue;
+            }
+            try {
+                // A limit of 0 would mean the type may never spawn, that's what the spawn settings are for.
+                limits[type.ordinal()] = Math.max(1, Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                Logging.warning("Ignoring entity limit '%s', the maximum must be a number.", entry);
+            }
+        }
+        if (chunkLimit < 0 && Arrays.stream(limits).allMatch(limit -> limit == 0)) {
+            return UNLIMITED;
+        }
+        return new EntityBudget(chunkLimit, limits);
+    }
+
+    /**
+     * @return True if this budget has any limit at all.
+     */
+    public boolean isLimited() {
+        return this.limited;
+    }
+
+    /**
+     * @return The maximum number of living entities per chunk, -1 if there's no limit.
+     */
+    public int getChunkLimit() {
+        return this.chunkLimit;
+    }
+
+    /**
+     * Gets the maximum number of living entities of a type.
+     *
+     * @param type The {@link EntityType}.
+     * @return The maximum, -1 if there's no limit.
+     */
+    public int getTypeLimit(EntityType type) {
+        int limit = this.typeLimits[type.ordinal()];
+        return (limit > 0) ? limit : -1;
+    }
+
+    /**
+     * @return All per type limits.
+     */
+    public Map<EntityType, Integer> getTypeLimits() {
+        Map<EntityType, Integer> limits = new EnumMap<EntityType, Integer>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            if (this.typeLimits[type.ordinal()] > 0) {
+                limits.put(type, this.typeLimits[type.ordinal()]);
+            }
+        }
+        return limits;
+    }
+
+    /**
+     * Checks whether another entity may spawn.
+     *
+     * @param counter The {@link EntityCounter} of the world.
+     * @param world   The {@link World} it spawns in.
+     * @param type    The {@link EntityType} of the entity.
+     * @param chunkX  The x coordinate of the chunk it spawns in.
+     * @param chunkZ  The z coordinate of the chunk it spawns in.
+     * @return True if spawning it would go over budget.
+     */
+    public boolean isExceeded(EntityCounter counter, World world, EntityType type, int chunkX, int chunkZ) {
+        if (!this.limited) {
+            return false;
+        }
+        int typeLimit = this.typeLimits[type.ordinal()];
+        if (typeLimit > 0 && counter.getTypeCount(world, type) >= typeLimit) {
+            return true;
+        }
+        return this.chunkLimit >= 0 && counter.getChunkCount(world, chunkX, chunkZ) >= this.chunkLimit;
+    }
+}
@@ -0,0 +1,167 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Ghast;
+import org.bukkit.entity.Golem;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Phantom;
+import org.bukkit.entity.Slime;
+import org.bukkit.entity.Squid;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tells whether an {@link EntityType} counts as an animal or a monster for the spawn settings.
+ * <p>
+ * The table is built once by probing the entity classes and can be corrected with overrides in
+ * the format {@code type:category,type:category}, for entities the class hierarchy gets wrong
+ * (e.g. hoglins are {@link Animals} and shulkers are {@link Golem}s, but both are hostile).
+ * Instances are immutable.
+ */
+public final class EntityCategories {
+    /**
+     * The categories used by the spawn settings.
+     */
+    public enum Category {
+        /**
+         * Controlled by the animal spawn settings.
+         */
+        ANIMAL,
+        /**
+         * Controlled by the monster spawn settings.
+         */
+        MONSTER,
+        /**
+         * Neither, only removed if listed explicitly.
+         */
+        OTHER
+    }
+
+    private static final Map<EntityType, Category> PROBED = probe();
+
+    private final EnumMap<EntityType, Category> categories;
+    private final String overrides;
+
+    private EntityCategories(EnumMap<EntityType, Category> categories, String overrides) {
+        this.categories = categories;
+        this.overrides = overrides;
+    }
+
+    private static Class<?> findAmbientClass() {
+        try {
+            return Class.forName("org.bukkit.entity.Ambient");
+        } catch (ClassNotFoundException ignore) {
+            return null;
+        }
+    }
+
+    private static Map<EntityType, Category> probe() {
+        Class<?> ambientClass = findAmbientClass();
+        EnumMap<EntityType, Category> probed = new EnumMap<EntityType, Category>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            Class<?> c = type.getEntityClass();
+            Category category = Category.OTHER;
+            if (c != null) {
+                boolean ambient = ambientClass != null && ambientClass.isAssignableFrom(c);
+                if (Golem.class.isAssignableFrom(c) || Squid.class.isAssignableFrom(c)
+                        || Animals.class.isAssignableFrom(c) || ambient) {
+                    category = Category.ANIMAL;
+                } else if (Monster.class.isAssignableFrom(c) || Ghast.class.isAssignableFrom(c)
+                        || Slime.class.isAssignableFrom(c) || Phantom.class.isAssignableFrom(c)) {
+                    category = Category.MONSTER;
+                }
+            }
+            probed.put(type, category);
+        }
+        return probed;
+    }
+
+    private static EntityType parseType(String name) {
+        try {
+            return EntityType.valueOf(name.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return EntityType.fromName(name);
+        }
+    }
+
+    /**
+     * Builds the category table with the given overrides applied.
+     * Entries for entity types or categories that don't exist on this server are skipped.
+     *
+     * @param overrides The overrides, e.g. {@code hoglin:monster,shulker:monster}. May be null or empty.
+     * @return The {@link EntityCategories}.
+     */
+    public static EntityCategories build(String overrides) {
+        String normalized = (overrides == null) ? "" : overrides;
+        EnumMap<EntityType, Category> categories = new EnumMap<EntityType, Category>(PROBED);
+        for (String entry : normalized.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                Logging.warning("Ignoring entity category override '%s', expected type:category.", entry);
+                continue;
+            }
+            EntityType type = parseType(entry.substring(0, separator).trim());
+            if (type == null) {
+                Logging.fine("Ignoring entity category override for unknown entity type '%s'.", entry);
+                continue;
+            }
+            Category category;
+            try {
+                category = Category.valueOf(entry.substring(separator + 1).trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                Logging.warning("Ignoring entity category override '%s', expected animal, monster or other.", entry);
+                continue;
+            }
+            categories.put(type, category);
+        }
+        return new EntityCategories(categories, normalized);
+    }
+
+    /**
+     * Gets the category of an entity type.
+     *
+     * @param type The {@link EntityType}.
+     * @return The {@link Category}, {@link Category#OTHER} for null.
+     */
+    public Category getCategory(EntityType type) {
+        if (type == null) {
+            return Category.OTHER;
+        }
+        return this.categories.get(type);
+    }
+
+    /**
+     * Gets the category an entity type has going by its class alone, without any overrides.
+     *
+     * @param type The {@link EntityType}.
+     * @return The {@link Category}, {@link Category#OTHER} for null.
+     */
+    public static Category getProbedCategory(EntityType type) {
+        if (type == null) {
+            return Category.OTHER;
+        }
+        return PROBED.get(type);
+    }
+
+    /**
+     * @return The overrides this table was built with.
+     */
+    public String getOverrides() {
+        return this.overrides;
+    }
+}
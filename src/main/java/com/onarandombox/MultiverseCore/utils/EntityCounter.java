@@ -0,0 +1,343 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps count of the living entities per chunk and per type in every world, so entity budgets
+ * can be checked at spawn time without looking at the world's entities.
+ * <p>
+ * Every entity is remembered with the chunk it was counted in, so it's taken away from that chunk
+ * wherever it leaves. Counts are updated from spawn, death, chunk load (or entities load, since 1.17),
+ * chunk unload (or entities unload) and entity remove events, where the server has those. Servers
+ * without an event for entities that disappear on their own (e.g. despawning mobs) get a few counted
+ * chunks recounted every second instead, see {@link #start(Plugin)}. Players aren't counted.
+ * <p>
+ * The first time a world is looked at, the entities of its chunks that are already loaded are
+ * counted once, because those won't fire a load event anymore. After that nothing is scanned.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class EntityCounter {
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    /** How many counted chunks of each world are recounted per run, without an entity remove event. */
+    private static final int RECONCILE_CHUNKS = 16;
+    private static final long RECONCILE_PERIOD = 20L;
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private static final int TYPES = EntityType.values().length;
+
+    private final Map<UUID, WorldCounts> worlds = new HashMap<UUID, WorldCounts>();
+    private BukkitTask task;
+
+    /**
+     * Packs chunk coordinates into a single key.
+     *
+     * @param chunkX The x coordinate of the chunk.
+     * @param chunkZ The z coordinate of the chunk.
+     * @return The key.
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+    }
+
+    private static boolean isCounted(Entity entity) {
+        return entity instanceof LivingEntity && !(entity instanceof Player) && entity.getUniqueId() != null;
+    }
+
+    private static long chunkKey(Location l) {
+        return chunkKey(l.getBlockX() >> 4, l.getBlockZ() >> 4); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+    }
+
+    /**
+     * Starts recounting a few chunks every second, on servers that don't tell us about entities that
+     * disappear without dying.
+     *
+     * @param plugin The plugin to schedule the recounts for.
+     */
+    public void start(Plugin plugin) {
+        this.stop();
+        if (CompatibilityLayer.getEntityRemoveEvent() == null) {
+            this.task = plugin.getServer().getScheduler().runTaskTimer(plugin,
+                    () -> this.reconcile(plugin.getServer().getWorlds()), RECONCILE_PERIOD, RECONCILE_PERIOD);
+        }
+    }
+
+    /**
+     * Stops recounting chunks.
+     */
+    public void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    private WorldCounts getCounts(World world) {
+        WorldCounts counts = this.worlds.get(world.getUID());
+        if (counts == null) {
+            counts = new WorldCounts();
+            this.worlds.put(world.getUID(), counts);
+            // The one time scan: the chunks that are already loaded won't fire a load event anymore.
+            Chunk[] loaded = world.getLoadedChunks();
+            if (loaded != null) {
+                for (Chunk chunk : loaded) {
+                    counts.load(chunk);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts an entity that was added to its world.
+     *
+     * @param entity The {@link Entity}.
+     */
+    public void add(Entity entity) {
+        if (!isCounted(entity) || entity.getWorld() == null || entity.getLocation() == null) {
+            return;
+        }
+        this.getCounts(entity.getWorld()).count(entity, chunkKey(entity.getLocation()));
+    }
+
+    /**
+     * Stops counting an entity that left its world.
+     *
+     * @param entity The {@link Entity}.
+     */
+    public void remove(Entity entity) {
+        if (!isCounted(entity) || entity.getWorld() == null) {
+            return;
+        }
+        WorldCounts counts = this.worlds.get(entity.getWorld().getUID());
+        if (counts != null) {
+            counts.uncount(entity.getUniqueId());
+        }
+    }
+
+    /**
+     * Counts the entities of a chunk that was just loaded.
+     *
+     * @param chunk The {@link Chunk}.
+     */
+    public void chunkLoaded(Chunk chunk) {
+        WorldCounts counts = this.worlds.get(chunk.getWorld().getUID());
+        if (counts != null) {
+            counts.load(chunk);
+        }
+    }
+
+    /**
+     * Stops counting the entities of a chunk that is being unloaded.
+     *
+     * @param chunk The {@link Chunk}.
+     */
+    public void chunkUnloaded(Chunk chunk) {
+        this.entitiesUnloaded(chunk, null);
+    }
+
+    /**
+     * Stops counting the entities of a chunk that are being unloaded, including the ones that were
+     * counted in another chunk before they walked into this one.
+     *
+     * @param chunk    The {@link Chunk}.
+     * @param entities The entities that are unloaded with it, may be null.
+     */
+    public void entitiesUnloaded(Chunk chunk, Collection<Entity> entities) {
+        WorldCounts counts = this.worlds.get(chunk.getWorld().getUID());
+        if (counts == null) {
+            return;
+        }
+        counts.unload(chunkKey(chunk.getX(), chunk.getZ()));
+        if (entities != null) {
+            for (Entity entity : entities) {
+                if (isCounted(entity)) {
+                    counts.uncount(entity.getUniqueId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Recounts a few of the counted chunks of every world, so entities that disappeared without an
+     * event don't stay counted forever. Each call goes on where the last one stopped.
+     *
+     * @param loadedWorlds The loaded {@link World}s.
+     */
+    public void reconcile(Collection<World> loadedWorlds) {
+        for (World world : loadedWorlds) {
+            WorldCounts counts = this.worlds.get(world.getUID());
+            if (counts == null) {
+                continue;
+            }
+            if (counts.reconcileQueue.isEmpty()) {
+                counts.reconcileQueue.addAll(counts.byChunk.keySet());
+            }
+            for (int i = 0; i < RECONCILE_CHUNKS && !counts.reconcileQueue.isEmpty(); i++) {
+                long key = counts.reconcileQueue.poll();
+                int chunkX = (int) (key >> 32); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                int chunkZ = (int) key;
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    counts.load(world.getChunkAt(chunkX, chunkZ));
+                } else {
+                    counts.unload(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets all counts of a world.
+     *
+     * @param world The {@link World}.
+     */
+    public void forgetWorld(World world) {
+        this.worlds.remove(world.getUID());
+    }
+
+    /**
+     * Gets the number of living entities in a chunk.
+     *
+     * @param world  The {@link World}.
+     * @param chunkX The x coordinate of the chunk.
+     * @param chunkZ The z coordinate of the chunk.
+     * @return The number of living entities.
+     */
+    public int getChunkCount(World world, int chunkX, int chunkZ) {
+        return this.getCounts(world).chunks.get(chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Gets the number of living entities of a type in a world.
+     *
+     * @param world The {@link World}.
+     * @param type  The {@link EntityType}.
+     * @return The number of living entities of that type.
+     */
+    public int getTypeCount(World world, EntityType type) {
+        return this.getCounts(world).types[type.ordinal()];
+    }
+
+    /**
+     * Gets the number of living entities in a world.
+     *
+     * @param world The {@link World}.
+     * @return The number of living entities.
+     */
+    public int getTotalCount(World world) {
+        return this.getCounts(world).total;
+    }
+
+    /**
+     * Gets the number of living entities in the fullest chunk of a world.
+     *
+     * @param world The {@link World}.
+     * @return The number of living entities in that chunk.
+     */
+    public int getMaxChunkCount(World world) {
+        return this.getCounts(world).chunks.max();
+    }
+
+    /**
+     * Where and as what an entity was counted.
+     */
+    private static final class Counted {
+        private final long chunk;
+        private final int ordinal;
+
+        private Counted(long chunk, int ordinal) {
+            this.chunk = chunk;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private static final class WorldCounts {
+        private final LongIntMap chunks = new LongIntMap();
+        private final int[] types = new int[TYPES];
+        private final Map<UUID, Counted> entities = new HashMap<UUID, Counted>();
+        private final Map<Long, Set<UUID>> byChunk = new HashMap<Long, Set<UUID>>();
+        private final Deque<Long> reconcileQueue = new ArrayDeque<Long>();
+        private int total;
+
+        private void count(Entity entity, long chunk) {
+            UUID id = entity.getUniqueId();
+            Counted counted = this.entities.get(id);
+            if (counted != null) {
+                if (counted.chunk == chunk) {
+                    return;
+                }
+                // It walked into another chunk.
+                this.uncount(id);
+            }
+            int ordinal = entity.getType().ordinal();
+            this.entities.put(id, new Counted(chunk, ordinal));
+            this.byChunk.computeIfAbsent(chunk, k -> new HashSet<UUID>()).add(id);
+            this.chunks.add(chunk, 1);
+            this.types[ordinal]++;
+            this.total++;
+        }
+
+        private void uncount(UUID id) {
+            Counted counted = this.entities.remove(id);
+            if (counted == null) {
+                return;
+            }
+            Set<UUID> ids = this.byChunk.get(counted.chunk);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                this.byChunk.remove(counted.chunk);
+            }
+            this.chunks.add(counted.chunk, -1);
+            this.types[counted.ordinal]--;
+            this.total--;
+        }
+
+        /**
+         * Counts the entities of a chunk again from scratch.
+         */
+        private void load(Chunk chunk) {
+            long key = chunkKey(chunk.getX(), chunk.getZ());
+            this.unload(key);
+            for (Entity entity : chunk.getEntities()) {
+                if (isCounted(entity)) {
+                    this.count(entity, key);
+                }
+            }
+        }
+
+        private void unload(long key) {
+            Set<UUID> ids = this.byChunk.remove(key);
+            if (ids == null) {
+                return;
+            }
+            for (UUID id : ids) {
+                Counted counted = this.entities.remove(id);
+                this.types[counted.ordinal]--;
+                this.total--;
+            }
+            this.chunks.remove(key);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Remembers the latest teleport, access and spawn decisions, so "I couldn't get into the world"
+ * can be looked into after the fact without turning on debug logging.
+ * <p>
+ * It's always on, so recording has to be cheap: a record is a single small object put into a
+ * fixed-size ring, overwriting the oldest one. Every {@link Kind} has its own ring, so a flood of
+ * spawn denials can't push the teleports out. It's safe to use from any thread.
+ */
+public class FlightRecorder {
+    /** The number of records kept per {@link Kind} by default. */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * The kinds of decisions.
+     */
+    public enum Kind {
+        /** A player teleporting between worlds, as seen by Multiverse's teleport listener and teleporter. */
+        TELEPORT,
+        /** A permission, payment or player limit check for entering a world. */
+        ACCESS,
+        /** A creature that wasn't allowed to spawn. */
+        SPAWN
+    }
+
+    private final Map<Kind, Ring> rings = new EnumMap<Kind, Ring>(Kind.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates a recorder.
+     *
+     * @param capacity The number of records kept per {@link Kind}.
+     */
+    public FlightRecorder(int capacity) {
+        for (Kind kind : Kind.values()) {
+            this.rings.put(kind, new Ring(capacity));
+        }
+    }
+
+    /**
+     * Records a decision.
+     *
+     * @param kind    The {@link Kind} of decision.
+     * @param subject Who or what it was about, a player name or an entity type.
+     * @param from    The name of the world the subject was in, may be null.
+     * @param to      The name of the world the subject wanted to go to, may be null.
+     * @param cause   What started it, e.g. a teleport cause or the name of the teleporter.
+     * @param result  The outcome, e.g. ALLOWED or DENIED.
+     * @param reason  Why, may be null.
+     */
+    public void record(Kind kind, String subject, String from, String to, String cause, String result, String reason) {
+        this.rings.get(kind).add(new Record(this.sequence.incrementAndGet(), System.currentTimeMillis(), kind,
+                subject, from, to, cause, result, reason));
+    }
+
+    /**
+     * Gets the remembered records that match a filter.
+     *
+     * @param filter The filter.
+     * @return The matching records, oldest first.
+     */
+    public List<Record> dump(Predicate<Record> filter) {
+        List<Record> records = new ArrayList<Record>();
+        for (Ring ring : this.rings.values()) {
+            ring.collect(filter, records);
+        }
+        records.sort(Comparator.comparingLong(Record::getSequence));
+        return records;
+    }
+
+    /**
+     * Creates a filter for the records about a player or a world.
+     *
+     * @param name The name of a player or world, case doesn't matter.
+     * @return The filter.
+     */
+    public static Predicate<Record> involving(String name) {
+        return record -> name.equalsIgnoreCase(record.getSubject()) || name.equalsIgnoreCase(record.getFrom())
+                || name.equalsIgnoreCase(record.getTo());
+    }
+
+    /**
+     * Forgets all records.
+     */
+    public void clear() {
+        for (Ring ring : this.rings.values()) {
+            ring.clear();
+        }
+    }
+
+    /**
+     * A fixed number of records, the newest one replacing the oldest.
+     */
+    private static final class Ring {
+        private final AtomicReferenceArray<Record> slots;
+        private final AtomicLong next = new AtomicLong();
+
+        private Ring(int capacity) {
+            this.slots = new AtomicReferenceArray<Record>(capacity);
+        }
+
+        private void add(Record record) {
+            this.slots.set((int) (this.next.getAndIncrement() % this.slots.length()), record);
+        }
+
+        private void collect(Predicate<Record> filter, List<Record> into) {
+            for (int i = 0; i < this.slots.length(); i++) {
+                Record record = this.slots.get(i);
+                if (record != null && filter.test(record)) {
+                    into.add(record);
+                }
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < this.slots.length(); i++) {
+                this.slots.set(i, null);
+            }
+        }
+    }
+
+    /**
+     * A single decision.
+     */
+    public static final class Record {
+        private final long sequence;
+        private final long time;
+        private final Kind kind;
+        private final String subject;
+        private final String from;
+        private final String to;
+        private final String cause;
+        private final String result;
+        private final String reason;
+
+        private Record(long sequence, long time, Kind kind, String subject, String from, String to, String cause,
+                String result, String reason) {
+            this.sequence = sequence;
+            this.time = time;
+            this.kind = kind;
+            this.subject = subject;
+            this.from = from;
+            this.to = to;
+            this.cause = cause;
+            this.result = result;
+            this.reason = reason;
+        }
+
+        /**
+         * @return The order in which the records were made.
+         */
+        public long getSequence() {
+            return this.sequence;
+        }
+
+        /**
+         * @return When the decision was made, in milliseconds since the epoch.
+         */
+        public long getTime() {
+            return this.time;
+        }
+
+        /**
+         * @return The {@link Kind} of decision.
+         */
+        public Kind getKind() {
+            return this.kind;
+        }
+
+        /**
+         * @return Who or what it was about.
+         */
+        public String getSubject() {
+            return this.subject;
+        }
+
+        /**
+         * @return The name of the world the subject was in, may be null.
+         */
+        public String getFrom() {
+            return this.from;
+        }
+
+        /**
+         * @return The name of the world the subject wanted to go to, may be null.
+         */
+        public String getTo() {
+            return this.to;
+        }
+
+        /**
+         * @return What started it.
+         */
+        public String getCause() {
+            return this.cause;
+        }
+
+        /**
+         * @return The outcome.
+         */
+        public String getResult() {
+            return this.result;
+        }
+
+        /**
+         * @return Why, may be null.
+         */
+        public String getReason() {
+            return this.reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %s -> %s (%s): %s%s", this.kind, this.subject, this.from, this.to, this.cause,
+                    this.result, (this.reason != null) ? ", " + this.reason : "");
+        }
+    }
+}
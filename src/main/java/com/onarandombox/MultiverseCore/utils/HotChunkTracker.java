@@ -0,0 +1,303 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the chunks players teleport to the most loaded, so popular anchors and spawns
+ * don't have to be loaded again every time someone goes there.
+ * <p>
+ * Every teleport adds one to the score of its destination chunk. Scores halve every
+ * {@link #HALF_LIFE} milliseconds, so chunks that stop being visited drop out again.
+ * Every {@link #UPDATE_PERIOD} ticks the hottest chunks are pinned, up to the number of
+ * chunks and the memory budget set in the config.
+ */
+public class HotChunkTracker {
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private static final long HALF_LIFE = 10 * 60 * 1000L;
+    private static final long UPDATE_PERIOD = 30 * 20L;
+    /** Chunks need at least this score to be pinned. */
+    private static final double MIN_PIN_SCORE = 2D;
+    /** Chunks below this score are forgotten. */
+    private static final double FORGET_SCORE = 0.05D;
+    /** A rough estimate of how much memory a loaded chunk takes. */
+    private static final int ESTIMATED_CHUNK_KB = 160;
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+
+    private final MultiverseCore plugin;
+    private final Map<ChunkId, HotChunk> chunks = new ConcurrentHashMap<ChunkId, HotChunk>();
+    private BukkitTask task;
+
+    public HotChunkTracker(MultiverseCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts pinning the hottest chunks periodically.
+     */
+    public void start() {
+        if (!CompatibilityLayer.isChunkPinningSupported()) {
+            Logging.fine("This server can't keep chunks loaded for us, destination chunks won't be kept warm.");
+            return;
+        }
+        this.stop();
+        this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::update, UPDATE_PERIOD, UPDATE_PERIOD);
+    }
+
+    /**
+     * Stops the periodic update and releases all pinned chunks.
+     */
+    public void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        for (HotChunk chunk : this.chunks.values()) {
+            if (chunk.pinned) {
+                this.setPinned(chunk, false);
+            }
+        }
+    }
+
+    /**
+     * Records a teleport to the given {@link Location}.
+     *
+     * @param l The destination of the teleport.
+     */
+    public void recordTeleport(Location l) {
+        this.recordTeleport(l, System.currentTimeMillis());
+    }
+
+    void recordTeleport(Location l, long now) {
+        World world = l.getWorld();
+        if (world == null) {
+            return;
+        }
+        ChunkId id = new ChunkId(world.getUID(), l.getBlockX() >> 4, l.getBlockZ() >> 4); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        HotChunk chunk = this.chunks.computeIfAbsent(id, HotChunk::new);
+        synchronized (chunk) {
+            chunk.decay(now);
+            chunk.score += 1D;
+            chunk.teleports++;
+            chunk.lastTeleport = now;
+        }
+    }
+
+    /**
+     * Gets how many chunks may be pinned at once, taking the memory budget into account.
+     *
+     * @return The maximum number of pinned chunks.
+     */
+    public int getMaxPinnedChunks() {
+        MultiverseCoreConfig config = this.plugin.getMVConfig();
+        int byMemory = config.getKeepWarmMemory() * 1024 / ESTIMATED_CHUNK_KB; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        return Math.max(0, Math.min(config.getKeepWarmChunks(), byMemory));
+    }
+
+    /**
+     * Decays all scores and pins the hottest chunks, releasing the ones that cooled down.
+     */
+    public void update() {
+        this.update(System.currentTimeMillis());
+    }
+
+    void update(long now) {
+        List<HotChunk> candidates = new ArrayList<HotChunk>();
+        Iterator<HotChunk> iterator = this.chunks.values().iterator();
+        while (iterator.hasNext()) {
+            HotChunk chunk = iterator.next();
+            synchronized (chunk) {
+                chunk.decay(now);
+            }
+            if (!chunk.pinned && chunk.score < FORGET_SCORE) {
+                iterator.remove();
+            } else if (chunk.score >= MIN_PIN_SCORE) {
+                candidates.add(chunk);
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(HotChunk::getScore).reversed());
+        List<HotChunk> wanted = candidates.subList(0, Math.min(candidates.size(), this.getMaxPinnedChunks()));
+
+        for (HotChunk chunk : this.chunks.values()) {
+            if (chunk.pinned && !wanted.contains(chunk)) {
+                this.setPinned(chunk, false);
+            }
+        }
+        for (HotChunk chunk : wanted) {
+            if (!chunk.pinned) {
+                // Chunks somebody else force loads aren't pinned, so we don't release them later.
+                this.setPinned(chunk, true);
+            }
+        }
+    }
+
+    private void setPinned(HotChunk chunk, boolean pinned) {
+        World world = this.plugin.getServer().getWorld(chunk.id.world);
+        if (world == null) {
+            this.chunks.remove(chunk.id);
+            return;
+        }
+        if (!CompatibilityLayer.setChunkPinned(world, chunk.id.x, chunk.id.z, this.plugin, pinned)) {
+            return;
+        }
+        chunk.pinned = pinned;
+        Logging.finer("%s chunk (%d, %d) in '%s', score %.2f", pinned ? "Pinned" : "Released",
+                chunk.id.x, chunk.id.z, world.getName(), chunk.score);
+    }
+
+    /**
+     * Releases and forgets all chunks of a world, e.g. because it's being unloaded.
+     *
+     * @param world The {@link World}.
+     */
+    public void forgetWorld(World world) {
+        Iterator<HotChunk> iterator = this.chunks.values().iterator();
+        while (iterator.hasNext()) {
+            HotChunk chunk = iterator.next();
+            if (chunk.id.world.equals(world.getUID())) {
+                if (chunk.pinned) {
+                    CompatibilityLayer.setChunkPinned(world, chunk.id.x, chunk.id.z, this.plugin, false);
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the chunks that are currently being kept loaded, hottest first.
+     *
+     * @return The pinned chunks.
+     */
+    public List<HotChunk> getPinnedChunks() {
+        List<HotChunk> pinned = new ArrayList<HotChunk>();
+        for (HotChunk chunk : this.chunks.values()) {
+            if (chunk.pinned) {
+                pinned.add(chunk);
+            }
+        }
+        pinned.sort(Comparator.comparingDouble(HotChunk::getScore).reversed());
+        return Collections.unmodifiableList(pinned);
+    }
+
+    /**
+     * @return The number of chunks we currently have a score for.
+     */
+    public int getTrackedChunkCount() {
+        return this.chunks.size();
+    }
+
+    private static final class ChunkId {
+        private final UUID world;
+        private final int x;
+        private final int z;
+
+        private ChunkId(UUID world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChunkId)) {
+                return false;
+            }
+            ChunkId other = (ChunkId) o;
+            return this.x == other.x && this.z == other.z && this.world.equals(other.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.world, this.x, this.z);
+        }
+    }
+
+    /**
+     * A destination chunk and how popular it is.
+     */
+    public static final class HotChunk {
+        private final ChunkId id;
+        private volatile double score;
+        private volatile int teleports;
+        private volatile long lastTeleport;
+        private volatile long lastDecay = System.currentTimeMillis();
+        private volatile boolean pinned;
+
+        private HotChunk(ChunkId id) {
+            this.id = id;
+        }
+
+        private void decay(long now) {
+            if (now > this.lastDecay) {
+                this.score *= Math.pow(0.5D, (double) (now - this.lastDecay) / HALF_LIFE); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                this.lastDecay = now;
+            }
+        }
+
+        /**
+         * @return The UUID of the world this chunk is in.
+         */
+        public UUID getWorldUID() {
+            return this.id.world;
+        }
+
+        /**
+         * @return The chunk's x-coordinate.
+         */
+        public int getX() {
+            return this.id.x;
+        }
+
+        /**
+         * @return The chunk's z-coordinate.
+         */
+        public int getZ() {
+            return this.id.z;
+        }
+
+        /**
+         * @return The decayed teleport count as of the last update.
+         */
+        public double getScore() {
+            return this.score;
+        }
+
+        /**
+         * @return The total number of teleports into this chunk since we started tracking it.
+         */
+        public int getTeleports() {
+            return this.teleports;
+        }
+
+        /**
+         * @return The time of the last teleport into this chunk, in milliseconds.
+         */
+        public long getLastTeleport() {
+            return this.lastTeleport;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+
+import java.util.function.Supplier;
+
+/**
+ * Debug logging for hot paths. Every method checks the debug level before doing anything, so
+ * as long as the arguments already exist, a call that isn't logged allocates nothing: no message
+ * string, no varargs array and no boxing.
+ * <p>
+ * Messages with arguments are formatted like {@link String#format(String, Object...)}. Use a
+ * {@link Supplier} or guard the call with {@link #isFineLoggable()} and friends when an argument
+ * has to be computed first.
+ */
+public final class LazyLogging {
+    /** The debug level at which {@link Logging#fine(String, Object...)} messages show up. */
+    public static final int FINE = 1;
+    /** The debug level at which {@link Logging#finer(String, Object...)} messages show up. */
+    public static final int FINER = 2;
+    /** The debug level at which {@link Logging#finest(String, Object...)} messages show up. */
+    public static final int FINEST = 3; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+
+    private LazyLogging() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param debugLevel The debug level to check.
+     * @return True if messages of that level are logged.
+     */
+    public static boolean isLoggable(int debugLevel) {
+        return Logging.getDebugLevel() >= debugLevel;
+    }
+
+    /**
+     * @return True if fine messages are logged.
+     */
+    public static boolean isFineLoggable() {
+        return isLoggable(FINE);
+    }
+
+    /**
+     * @return True if finer messages are logged.
+     */
+    public static boolean isFinerLoggable() {
+        return isLoggable(FINER);
+    }
+
+    /**
+     * @return True if finest messages are logged.
+     */
+    public static boolean isFinestLoggable() {
+        return isLoggable(FINEST);
+    }
+
+    /**
+     * Logs a fine message.
+     *
+     * @param message The message.
+     */
+    public static void fine(String message) {
+        if (isFineLoggable()) {
+            Logging.fine(message);
+        }
+    }
+
+    /**
+     * Logs a fine message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     */
+    public static void fine(String message, Object arg1) {
+        if (isFineLoggable()) {
+            Logging.fine(message, arg1);
+        }
+    }
+
+    /**
+     * Logs a fine message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     */
+    public static void fine(String message, Object arg1, Object arg2) {
+        if (isFineLoggable()) {
+            Logging.fine(message, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs a fine message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     * @param arg3    The third argument.
+     */
+    public static void fine(String message, Object arg1, Object arg2, Object arg3) {
+        if (isFineLoggable()) {
+            Logging.fine(message, arg1, arg2, arg3);
+        }
+    }
+
+    /**
+     * Logs a fine message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     * @param arg3    The third argument.
+     * @param arg4    The fourth argument.
+     */
+    public static void fine(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isFineLoggable()) {
+            Logging.fine(message, arg1, arg2, arg3, arg4);
+        }
+    }
+
+    /**
+     * Logs a fine message that's only built if it's logged.
+     *
+     * @param message Builds the message.
+     */
+    public static void fine(Supplier<String> message) {
+        if (isFineLoggable()) {
+            Logging.fine("%s", message.get());
+        }
+    }
+
+    /**
+     * Logs a finer message.
+     *
+     * @param message The message.
+     */
+    public static void finer(String message) {
+        if (isFinerLoggable()) {
+            Logging.finer(message);
+        }
+    }
+
+    /**
+     * Logs a finer message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     */
+    public static void finer(String message, Object arg1) {
+        if (isFinerLoggable()) {
+            Logging.finer(message, arg1);
+        }
+    }
+
+    /**
+     * Logs a finer message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     */
+    public static void finer(String message, Object arg1, Object arg2) {
+        if (isFinerLoggable()) {
+            Logging.finer(message, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs a finer message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     * @param arg3    The third argument.
+     */
+    public static void finer(String message, Object arg1, Object arg2, Object arg3) {
+        if (isFinerLoggable()) {
+            Logging.finer(message, arg1, arg2, arg3);
+        }
+    }
+
+    /**
+     * Logs a finer message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     * @param arg3    The third argument.
+     * @param arg4    The fourth argument.
+     */
+    public static void finer(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isFinerLoggable()) {
+            Logging.finer(message, arg1, arg2, arg3, arg4);
+        }
+    }
+
+    /**
+     * Logs a finer message that's only built if it's logged.
+     *
+     * @param message Builds the message.
+     */
+    public static void finer(Supplier<String> message) {
+        if (isFinerLoggable()) {
+            Logging.finer("%s", message.get());
+        }
+    }
+
+    /**
+     * Logs a finest message.
+     *
+     * @param message The message.
+     */
+    public static void finest(String message) {
+        if (isFinestLoggable()) {
+            Logging.finest(message);
+        }
+    }
+
+    /**
+     * Logs a finest message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     */
+    public static void finest(String message, Object arg1) {
+        if (isFinestLoggable()) {
+            Logging.finest(message, arg1);
+        }
+    }
+
+    /**
+     * Logs a finest message.
+     *
+     * @param message The format of the message.
+     * @param arg1    The first argument.
+     * @param arg2    The second argument.
+     */
+    public static void finest(String message, Object arg1, Object arg2) {
+        if (isFinestLoggable()) {
+            Logging.finest(message, arg1, arg2);
+        }
+    }
+
+    /**
+     * Logs a finest message that's only built if it's logged.
+     *
+     * @param message Builds the message.
+     */
+    public static void finest(Supplier<String> message) {
+        if (isFinestLoggable()) {
+            Logging.finest("%s", message.get());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import java.util.Arrays;
+
+/**
+ * A map from {@code long} keys to {@code int} counters that doesn't box either of them.
+ * <p>
+ * Keys whose counter drops to zero or below are removed, so a missing key simply reads as 0.
+ * Uses open addressing with linear probing. This is not thread-safe.
+ */
+public class LongIntMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    public LongIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongIntMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * MAX_LOAD_PERCENT / 100 < expectedSize) {
+            capacity <<= 1;
+        }
+        this.allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.used = new boolean[capacity];
+        this.size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        return (int) (h ^ (h >>> 32)) & (this.keys.length - 1); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+    }
+
+    private int indexOf(long key) {
+        int mask = this.keys.length - 1;
+        for (int i = this.slot(key); this.used[i]; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the counter of a key.
+     *
+     * @param key The key.
+     * @return The counter, 0 if the key isn't present.
+     */
+    public int get(long key) {
+        int i = this.indexOf(key);
+        return (i < 0) ? 0 : this.values[i];
+    }
+
+    /**
+     * Adds to the counter of a key, removing the key if the counter drops to zero or below.
+     *
+     * @param key   The key.
+     * @param delta The amount to add, may be negative.
+     * @return The new counter, never below 0.
+     */
+    public int add(long key, int delta) {
+        int i = this.indexOf(key);
+        if (i >= 0) {
+            int value = this.values[i] + delta;
+            if (value <= 0) {
+                this.removeAt(i);
+                return 0;
+            }
+            this.values[i] = value;
+            return value;
+        }
+        if (delta <= 0) {
+            return 0;
+        }
+        this.put(key, delta);
+        return delta;
+    }
+
+    private void put(long key, int value) {
+        if ((this.size + 1) * 100 > this.keys.length * MAX_LOAD_PERCENT) {
+            this.rehash(this.keys.length << 1);
+        }
+        int mask = this.keys.length - 1;
+        int i = this.slot(key);
+        while (this.used[i]) {
+            i = (i + 1) & mask;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.used[i] = true;
+        this.size++;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key The key.
+     * @return The counter the key had, 0 if it wasn't present.
+     */
+    public int remove(long key) {
+        int i = this.indexOf(key);
+        if (i < 0) {
+            return 0;
+        }
+        int value = this.values[i];
+        this.removeAt(i);
+        return value;
+    }
+
+    private void removeAt(int i) {
+        int mask = this.keys.length - 1;
+        this.used[i] = false;
+        this.size--;
+        // Shift the following entries back so lookups don't stop at the hole.
+        int hole = i;
+        for (int j = (i + 1) & mask; this.used[j]; j = (j + 1) & mask) {
+            int home = this.slot(this.keys[j]);
+            boolean movable = (hole <= j) ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                this.used[hole] = true;
+                this.used[j] = false;
+                hole = j;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        boolean[] oldUsed = this.used;
+        this.allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                this.put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the highest counter of all keys.
+     *
+     * @return The highest counter, 0 if the map is empty.
+     */
+    public int max() {
+        int max = 0;
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.used[i] && this.values[i] > max) {
+                max = this.values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Removes all keys.
+     */
+    public void clear() {
+        Arrays.fill(this.used, false);
+        this.size = 0;
+    }
+}
@@ -13,18 +13,20 @@ import org.bukkit.entity.Player;
 import com.onarandombox.MultiverseCore.api.MultiverseMessaging;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 
 /**
  * The default-implementation of {@link MultiverseMessaging}.
+ * When players were last sent a message is kept in their {@link MVPlayerSession}.
  */
 public class MVMessaging implements MultiverseMessaging {
-    private Map<String, Long> sentList;
+    private final PlayerSessionStore sessions;
+    private final CooldownStore<MessageKey> sentMessages = new CooldownStore<MessageKey>();
     private int cooldown;
 
-    public MVMessaging() {
-        this.sentList = new HashMap<String, Long>();
+    public MVMessaging(PlayerSessionStore sessions) {
+        this.sessions = sessions;
         this.cooldown = 5000; // SUPPRESS CHECKSTYLE: MagicNumberCheck
     }
 
@@ -54,17 +56,9 @@ public class MVMessaging implements MultiverseMessaging {
             sendMessages(sender, messages);
             return true;
         }
-        if (!this.sentList.containsKey(sender.getName())) {
+        if (this.sessions.get((Player) sender).tryMessage(this.cooldown)) {
             sendMessages(sender, messages);
-            this.sentList.put(sender.getName(), System.currentTimeMillis());
             return true;
-        } else {
-            long time = System.currentTimeMillis();
-            if (time >= this.sentList.get(sender.getName()) + this.cooldown) {
-                sendMessages(sender, messages);
-                this.sentList.put(sender.getName(), System.currentTimeMillis());
-                return true;
-            }
         }
         return false;
     }
@@ -77,6 +71,21 @@ public class MVMessaging implements MultiverseMessaging {
         return this.sendMessages(sender, messages.toArray(new String[0]), ignoreCooldown);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean sendDedupedMessage(CommandSender sender, String messageKey, String message) {
+        if (sender instanceof Player) {
+            MessageKey key = new MessageKey(((Player) sender).getUniqueId(), messageKey);
+            if (!this.sentMessages.tryAcquire(key, this.cooldown)) {
+                return false;
+            }
+        }
+        sender.sendMessage(message);
+        return true;
+    }
+
     private static void sendMessages(CommandSender sender, String[] messages) {
         for (String s : messages) {
             sender.sendMessage(s);
@@ -90,4 +99,34 @@ public class MVMessaging implements MultiverseMessaging {
     public int getCooldown() {
         return cooldown;
     }
+
+    /**
+     * A message sent to a player.
+     */
+    private static final class MessageKey {
+        private final UUID playerId;
+        private final String key;
+
+        private MessageKey(UUID playerId, String key) {
+            this.playerId = playerId;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MessageKey)) {
+                return false;
+            }
+            MessageKey other = (MessageKey) o;
+            return Objects.equals(this.playerId, other.playerId) && Objects.equals(this.key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.playerId, this.key);
+        }
+    }
 }
@@ -27,9 +27,9 @@ import java.util.logging.Level;
  * Multiverse's {@link PermissionsInterface}.
  */
 public class MVPermissions implements PermissionsInterface {
-
     private MultiverseCore plugin;
     private MVWorldManager worldMgr;
+    private final PermissionDecisionCache decisionCache = new PermissionDecisionCache();
 
     public MVPermissions(MultiverseCore plugin) {
         this.plugin = plugin;
@@ -45,7 +45,57 @@ public class MVPermissions implements PermissionsInterface {
      * @return True if they should bypass restrictions.
      */
     public boolean canIgnoreGameModeRestriction(Player p, MultiverseWorld w) {
-        return p.hasPermission("mv.bypass.gamemode." + w.getName());
+        return this.hasWorldPermission(p, w, PermissionDecisionCache.Kind.IGNORE_GAMEMODE);
+    }
+
+    /**
+     * Check if a Player can enter a world even if it's full.
+     *
+     * @param p The {@link Player} to check.
+     * @param w The {@link MultiverseWorld} the player wants to enter.
+     * @return True if they can bypass the player limit.
+     */
+    public boolean canBypassPlayerLimit(Player p, MultiverseWorld w) {
+        return this.hasWorldPermission(p, w, PermissionDecisionCache.Kind.BYPASS_PLAYERLIMIT);
+    }
+
+    /**
+     * Check if a {@link CommandSender} doesn't have to pay to enter a world.
+     *
+     * @param sender The {@link CommandSender} to check.
+     * @param w The {@link MultiverseWorld} that's being entered.
+     * @return True if they don't have to pay.
+     */
+    public boolean isExemptFromPrice(CommandSender sender, MultiverseWorld w) {
+        if (!(sender instanceof Player)) {
+            return true;
+        }
+        return this.hasWorldPermission((Player) sender, w, PermissionDecisionCache.Kind.EXEMPT);
+    }
+
+    /**
+     * Checks one of the per-world permissions, answering from the {@link PermissionDecisionCache} if possible.
+     */
+    private boolean hasWorldPermission(Player p, MultiverseWorld w, PermissionDecisionCache.Kind kind) {
+        Boolean cached = this.decisionCache.get(p, w, kind);
+        if (cached != null) {
+            return cached;
+        }
+        boolean decision = this.checkActualPermission(p, kind.getPermission(w).getName());
+        if (!decision && kind == PermissionDecisionCache.Kind.ACCESS) {
+            decision = this.plugin.getWorldGroupManager().hasGroupAccess(p, w);
+        }
+        this.decisionCache.put(p, w, kind, decision);
+        return decision;
+    }
+
+    /**
+     * Gets the cache holding the outcome of the per-world permission checks.
+     *
+     * @return The {@link PermissionDecisionCache}.
+     */
+    public PermissionDecisionCache getDecisionCache() {
+        return this.decisionCache;
     }
 
     /**
@@ -56,18 +106,11 @@ public class MVPermissions implements PermissionsInterface {
      * @return Whether the player can teleport to the given {@link MultiverseWorld}.
      */
     public boolean canTravelFromWorld(Player p, MultiverseWorld w) {
-        List<String> blackList = w.getWorldBlacklist();
-
-        boolean returnValue = true;
-
-        for (String s : blackList) {
-            if (s.equalsIgnoreCase(p.getWorld().getName())) {
-                returnValue = false;
-                break;
-            }
+        if (this.plugin.getTravelMatrix().isBlacklistedIgnoreCase(w, p.getWorld().getName())) {
+            return false;
         }
-
-        return returnValue;
+        MultiverseWorld from = this.worldMgr.getMVWorld(p.getWorld());
+        return from == null || !this.plugin.getWorldGroupManager().isBlacklisted(from, w);
     }
 
     /**
@@ -101,21 +144,21 @@ public class MVPermissions implements PermissionsInterface {
     public boolean canEnterWorld(Player p, MultiverseWorld w) {
         // If we're not enforcing access, anyone can enter.
         if (!plugin.getMVConfig().getEnforceAccess()) {
-            Logging.finest("EnforceAccess is OFF. Player was allowed in " + w.getAlias());
+            LazyLogging.finest("EnforceAccess is OFF. Player was allowed in %s", w.getAlias());
             return true;
         }
-        return this.hasPermission(p, "multiverse.access." + w.getName(), false);
+        return this.hasWorldPermission(p, w, PermissionDecisionCache.Kind.ACCESS);
     }
 
     private boolean canEnterLocation(Player p, Location l) {
         if (l == null) {
             return false;
         }
-        String worldName = l.getWorld().getName();
-        if (!this.plugin.getMVWorldManager().isMVWorld(worldName)) {
+        MultiverseWorld world = this.plugin.getMVWorldManager().getMVWorld(l.getWorld());
+        if (world == null) {
             return false;
         }
-        return this.hasPermission(p, "multiverse.access." + worldName, false);
+        return this.hasWorldPermission(p, world, PermissionDecisionCache.Kind.ACCESS);
     }
 
     /**
@@ -257,16 +300,17 @@ public class MVPermissions implements PermissionsInterface {
         Player player = (Player) sender;
 
         boolean hasPermission = sender.hasPermission(node);
+        if (!LazyLogging.isFinerLoggable()) {
+            // Nobody would see the details, don't bother looking them up.
+            return hasPermission;
+        }
         if (!sender.isPermissionSet(node)) {
-            Logging.finer(String.format("The node [%s%s%s] was %sNOT%s set for [%s%s%s].",
+            Logging.finer("The node [%s%s%s] was %sNOT%s set for [%s%s%s].",
                     ChatColor.RED, node, ChatColor.WHITE, ChatColor.RED, ChatColor.WHITE, ChatColor.AQUA,
-                    player.getDisplayName(), ChatColor.WHITE));
-        }
-        if (hasPermission) {
-            Logging.finer("Checking to see if player [" + player.getName() + "] has permission [" + node + "]... YES");
-        } else {
-            Logging.finer("Checking to see if player [" + player.getName() + "] has permission [" + node + "]... NO");
+                    player.getDisplayName(), ChatColor.WHITE);
         }
+        LazyLogging.finer("Checking to see if player [%s] has permission [%s]... %s",
+                player.getName(), node, hasPermission ? "YES" : "NO");
         return hasPermission;
     }
 
@@ -356,6 +400,7 @@ public class MVPermissions implements PermissionsInterface {
             Permission permission = new Permission(string, defaultValue);
             this.plugin.getServer().getPluginManager().addPermission(permission);
             this.addToParentPerms(string);
+            this.decisionCache.invalidateAll();
         }
         return this.plugin.getServer().getPluginManager().getPermission(string);
     }
@@ -388,7 +433,7 @@ public class MVPermissions implements PermissionsInterface {
         }
         if (!parentPermission.getChildren().containsKey(permString)) {
             parentPermission.getChildren().put(actualPermission.getName(), true);
-            this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(parentPermission);
+            this.plugin.getPermissionBatch().recalculate(parentPermission);
         }
     }
 
@@ -399,7 +444,7 @@ public class MVPermissions implements PermissionsInterface {
             this.plugin.getServer().getPluginManager().addPermission(rootPermission);
         }
         rootPermission.getChildren().put(permStringChopped + ".*", true);
-        this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(rootPermission);
+        this.plugin.getPermissionBatch().recalculate(rootPermission);
     }
 
     /**
@@ -10,29 +10,51 @@ package com.onarandombox.MultiverseCore.utils;
 import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
 import org.bukkit.entity.Player;
 
-import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
- * A player-session.
+ * A player-session. It lives from the moment a player joins until they quit,
+ * see {@link PlayerSessionStore}.
+ * <p>
+ * The fields are read from the chat thread too, so they're all volatile.
  */
 public class MVPlayerSession {
+    private static final AtomicLongFieldUpdater<MVPlayerSession> MESSAGE_LAST =
+            AtomicLongFieldUpdater.newUpdater(MVPlayerSession.class, "messageLast");
 
-    private Player player; // Player holder, may be unnecessary.
+    private final UUID playerId;
+    private final String playerName;
 
-    private long teleportLast = 0L; // Timestamp for the Players last Portal Teleportation.
-    private long messageLast = 0L; // Timestamp for the Players last Alert Message.
+    private volatile long teleportLast = 0L; // Timestamp for the Players last Portal Teleportation.
+    private volatile long messageLast = 0L; // Timestamp for the Players last Alert Message.
+    private volatile String lastWorld; // The name of the world the Player was last seen in.
 
     private MultiverseCoreConfig config; // Configuration file to find out Cooldown Timers.
 
     public MVPlayerSession(Player player, MultiverseCoreConfig config) {
-        this.player = player;
+        this.playerId = player.getUniqueId();
+        this.playerName = player.getName();
         this.config = config;
-        // this.bedSpawn = null;
+    }
+
+    /**
+     * @return The UUID of the {@link Player} this session belongs to.
+     */
+    public UUID getPlayerId() {
+        return this.playerId;
+    }
+
+    /**
+     * @return The name of the {@link Player} this session belongs to.
+     */
+    public String getPlayerName() {
+        return this.playerName;
     }
 
     /** Update the Teleport time. */
     public void teleport() {
-        this.teleportLast = (new Date()).getTime();
+        this.teleportLast = System.currentTimeMillis();
     }
 
     /**
@@ -40,7 +62,37 @@ public class MVPlayerSession {
      * @return True if the {@link Player} associated with this player-session is teleportable.
      */
     public boolean getTeleportable() {
-        long time = (new Date()).getTime();
+        long time = System.currentTimeMillis();
         return ((time - this.teleportLast) > this.config.getTeleportCooldown());
     }
+
+    /**
+     * Checks whether the player may be sent another message and if so, remembers that they were.
+     *
+     * @param cooldown The time in milliseconds that has to pass between two messages.
+     * @return True if the message may be sent.
+     */
+    public boolean tryMessage(long cooldown) {
+        long time = System.currentTimeMillis();
+        long last = this.messageLast;
+        if (last != 0L && time < last + cooldown) {
+            return false;
+        }
+        // Only one of several threads sending a message at the same time wins.
+        return MESSAGE_LAST.compareAndSet(this, last, time);
+    }
+
+    /**
+     * @return The name of the world the player was last seen in, null if it isn't known.
+     */
+    public String getLastWorld() {
+        return this.lastWorld;
+    }
+
+    /**
+     * @param world The name of the world the player is in now.
+     */
+    public void setLastWorld(String world) {
+        this.lastWorld = world;
+    }
 }
@@ -0,0 +1,136 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Knows which player holds which map, in either hand.
+ * <p>
+ * Events that may change what a player holds only mark the player. Their hands are looked at
+ * again the next time a holder is looked up, so players that keep switching items cost next to
+ * nothing and nobody else is looked at at all.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class MapHolderIndex {
+    private static final int MAIN_HAND = 0;
+    private static final int OFF_HAND = 1;
+
+    private final Server server;
+    private final Map<Integer, UUID> holders = new HashMap<Integer, UUID>();
+    private final Map<UUID, int[]> heldMaps = new HashMap<UUID, int[]>();
+    private final Set<UUID> dirty = new LinkedHashSet<UUID>();
+
+    public MapHolderIndex(Server server) {
+        this.server = server;
+    }
+
+    /**
+     * Notes that a player may hold something else now.
+     *
+     * @param player The {@link Player}.
+     */
+    public void markDirty(Player player) {
+        this.dirty.add(player.getUniqueId());
+    }
+
+    /**
+     * Forgets a player that quit.
+     *
+     * @param player The {@link Player}.
+     */
+    public void forget(Player player) {
+        this.dirty.remove(player.getUniqueId());
+        this.update(player.getUniqueId(), -1, -1);
+    }
+
+    /**
+     * Finds an online player holding a map.
+     * <p>
+     * The holder's hands are looked at once more, in case they changed without an event. If the
+     * map isn't there anymore the player is marked and nobody is returned.
+     *
+     * @param mapId The id of the map.
+     * @return The {@link Player}, null if nobody holds it.
+     */
+    public Player findHolder(int mapId) {
+        this.refresh();
+        UUID holder = this.holders.get(mapId);
+        if (holder == null) {
+            return null;
+        }
+        Player player = this.server.getPlayer(holder);
+        if (player == null) {
+            this.dirty.add(holder);
+            return null;
+        }
+        PlayerInventory inventory = player.getInventory();
+        if (CompatibilityLayer.getMapId(inventory.getItemInMainHand()) != mapId
+                && CompatibilityLayer.getMapId(inventory.getItemInOffHand()) != mapId) {
+            this.dirty.add(holder);
+            return null;
+        }
+        return player;
+    }
+
+    /**
+     * @return The number of maps that are held by someone.
+     */
+    public int size() {
+        this.refresh();
+        return this.holders.size();
+    }
+
+    private void refresh() {
+        if (this.dirty.isEmpty()) {
+            return;
+        }
+        for (UUID playerId : this.dirty) {
+            Player player = this.server.getPlayer(playerId);
+            if (player == null) {
+                this.update(playerId, -1, -1);
+                continue;
+            }
+            PlayerInventory inventory = player.getInventory();
+            this.update(playerId, CompatibilityLayer.getMapId(inventory.getItemInMainHand()),
+                    CompatibilityLayer.getMapId(inventory.getItemInOffHand()));
+        }
+        this.dirty.clear();
+    }
+
+    private void update(UUID playerId, int mainHand, int offHand) {
+        int[] old = this.heldMaps.get(playerId);
+        if (old != null) {
+            if (old[MAIN_HAND] == mainHand && old[OFF_HAND] == offHand) {
+                return;
+            }
+            this.holders.remove(old[MAIN_HAND], playerId);
+            this.holders.remove(old[OFF_HAND], playerId);
+        }
+        if (mainHand < 0 && offHand < 0) {
+            this.heldMaps.remove(playerId);
+            return;
+        }
+        this.heldMaps.put(playerId, new int[] {mainHand, offHand});
+        if (offHand >= 0) {
+            this.holders.put(offHand, playerId);
+        }
+        if (mainHand >= 0) {
+            this.holders.put(mainHand, playerId);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import org.bukkit.permissions.Permission;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Defers recalculating permission defaults while lots of permissions are being registered.
+ * <p>
+ * Every world adds its nodes as children of the same few parents (multiverse.access.* and so on),
+ * so recalculating those parents after each world makes loading many worlds quadratic. Between
+ * {@link #begin()} and {@link #end()} all recalculations are collected and each parent is only
+ * recalculated once at the end. Batches may be nested, only the outermost {@link #end()} flushes.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class PermissionBatch {
+    private final Plugin plugin;
+    private final Set<Permission> pending = Collections.newSetFromMap(new IdentityHashMap<Permission, Boolean>());
+    private final List<Permission> order = new ArrayList<Permission>();
+    private int depth;
+    private int deferred;
+
+    public PermissionBatch(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a batch.
+     */
+    public void begin() {
+        this.depth++;
+    }
+
+    /**
+     * Ends a batch, recalculating every collected permission once if this was the outermost batch.
+     */
+    public void end() {
+        if (this.depth == 0) {
+            throw new IllegalStateException("No batch was started!");
+        }
+        this.depth--;
+        if (this.depth == 0) {
+            this.flush();
+        }
+    }
+
+    /**
+     * @return Whether recalculations are currently being collected.
+     */
+    public boolean isActive() {
+        return this.depth > 0;
+    }
+
+    /**
+     * Recalculates the defaults of a permission, or remembers to do so at the end of the batch.
+     *
+     * @param permission The {@link Permission} whose children or default changed.
+     */
+    public void recalculate(Permission permission) {
+        if (permission == null) {
+            return;
+        }
+        if (!this.isActive()) {
+            this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(permission);
+            return;
+        }
+        this.deferred++;
+        if (this.pending.add(permission)) {
+            this.order.add(permission);
+        }
+    }
+
+    private void flush() {
+        for (Permission permission : this.order) {
+            this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(permission);
+        }
+        Logging.finer("Recalculated %d permissions instead of %d.", this.order.size(), this.deferred);
+        this.pending.clear();
+        this.order.clear();
+        this.deferred = 0;
+    }
+}
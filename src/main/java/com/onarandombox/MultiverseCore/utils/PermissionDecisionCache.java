@@ -0,0 +1,203 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permission;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the outcome of the per-world permission checks for each player.
+ * <p>
+ * Bukkit doesn't tell us when a permissions plugin changes someone's permissions, so decisions
+ * are only kept for a short while. They're also dropped when the player joins, quits, changes
+ * worlds or gets (de)opped, and all of them are dropped when our own permissions change. The
+ * decisions for a world are dropped when it's unloaded or its blacklist, entry fee or player limit change.
+ */
+public class PermissionDecisionCache {
+    private static final long DEFAULT_TTL = 5000L;
+
+    /**
+     * The per-world checks that are cached.
+     */
+    public enum Kind {
+        /** multiverse.access.&lt;world&gt; */
+        ACCESS {
+            @Override
+            public Permission getPermission(MultiverseWorld world) {
+                return world.getAccessPermission();
+            }
+        },
+        /** multiverse.exempt.&lt;world&gt; */
+        EXEMPT {
+            @Override
+            public Permission getPermission(MultiverseWorld world) {
+                return world.getExemptPermission();
+            }
+        },
+        /** mv.bypass.gamemode.&lt;world&gt; */
+        IGNORE_GAMEMODE {
+            @Override
+            public Permission getPermission(MultiverseWorld world) {
+                return world.getGameModeBypassPermission();
+            }
+        },
+        /** mv.bypass.playerlimit.&lt;world&gt; */
+        BYPASS_PLAYERLIMIT {
+            @Override
+            public Permission getPermission(MultiverseWorld world) {
+                return world.getPlayerLimitBypassPermission();
+            }
+        };
+
+        /**
+         * Gets the precomputed {@link Permission} of a world for this check.
+         * @param world The {@link MultiverseWorld}.
+         * @return The {@link Permission}.
+         */
+        public abstract Permission getPermission(MultiverseWorld world);
+    }
+
+    private static final int KINDS = Kind.values().length;
+
+    private final Map<UUID, PlayerDecisions> players = new ConcurrentHashMap<UUID, PlayerDecisions>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final long ttl;
+
+    public PermissionDecisionCache() {
+        this(DEFAULT_TTL);
+    }
+
+    /**
+     * @param ttl Time in milliseconds after which a player's decisions are checked again.
+     */
+    public PermissionDecisionCache(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Gets a cached decision.
+     *
+     * @param player The {@link Player}.
+     * @param world  The {@link MultiverseWorld}.
+     * @param kind   The {@link Kind} of check.
+     * @return The cached decision or null if there is none.
+     */
+    public Boolean get(Player player, MultiverseWorld world, Kind kind) {
+        UUID id = player.getUniqueId();
+        if (id == null) {
+            return null;
+        }
+        PlayerDecisions decisions = this.players.get(id);
+        if (decisions == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+        if (!decisions.isValidFor(player, System.currentTimeMillis())) {
+            this.players.remove(id, decisions);
+            this.misses.incrementAndGet();
+            return null;
+        }
+        Boolean[] worldDecisions = decisions.worlds.get(world.getName());
+        Boolean decision = (worldDecisions == null) ? null : worldDecisions[kind.ordinal()];
+        if (decision == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return decision;
+    }
+
+    /**
+     * Stores a decision.
+     *
+     * @param player   The {@link Player}.
+     * @param world    The {@link MultiverseWorld}.
+     * @param kind     The {@link Kind} of check.
+     * @param decision The outcome of the check.
+     */
+    public void put(Player player, MultiverseWorld world, Kind kind, boolean decision) {
+        UUID id = player.getUniqueId();
+        if (id == null) {
+            return;
+        }
+        PlayerDecisions decisions = this.players.computeIfAbsent(id,
+                k -> new PlayerDecisions(player.isOp(), System.currentTimeMillis() + this.ttl));
+        decisions.worlds.computeIfAbsent(world.getName(), k -> new Boolean[KINDS])[kind.ordinal()] = decision;
+    }
+
+    /**
+     * Forgets all decisions for a player.
+     * @param player The {@link Player}.
+     */
+    public void invalidate(Player player) {
+        UUID id = player.getUniqueId();
+        if (id != null) {
+            this.players.remove(id);
+        }
+    }
+
+    /**
+     * Forgets all decisions for a world, e.g. because it was unloaded or its access rules changed.
+     * @param worldName The name of the world.
+     */
+    public void invalidateWorld(String worldName) {
+        for (PlayerDecisions decisions : this.players.values()) {
+            decisions.worlds.remove(worldName);
+        }
+    }
+
+    /**
+     * Forgets all decisions.
+     */
+    public void invalidateAll() {
+        this.players.clear();
+    }
+
+    /**
+     * @return The number of players we have decisions for.
+     */
+    public int size() {
+        return this.players.size();
+    }
+
+    /**
+     * @return The number of lookups that were answered from the cache.
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return The number of lookups that had to check the permission.
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    private static final class PlayerDecisions {
+        private final Map<String, Boolean[]> worlds = new ConcurrentHashMap<String, Boolean[]>();
+        private final boolean op;
+        private final long expiresAt;
+
+        private PlayerDecisions(boolean op, long expiresAt) {
+            this.op = op;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isValidFor(Player player, long now) {
+            return now <= this.expiresAt && this.op == player.isOp();
+        }
+    }
+}
@@ -60,7 +60,7 @@ public class PermissionTools {
         }
         if (!parentPermission.getChildren().containsKey(permString)) {
             parentPermission.getChildren().put(actualPermission.getName(), true);
-            this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(parentPermission);
+            this.plugin.getPermissionBatch().recalculate(parentPermission);
         }
     }
 
@@ -71,7 +71,7 @@ public class PermissionTools {
             this.plugin.getServer().getPluginManager().addPermission(rootPermission);
         }
         rootPermission.getChildren().put(permStringChopped + ".*", true);
-        this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(rootPermission);
+        this.plugin.getPermissionBatch().recalculate(rootPermission);
     }
 
     /**
@@ -112,6 +112,7 @@ public class PermissionTools {
             }
 
             if (!(teleporter instanceof Player)) {
+                this.recordDenial(fromWorld, toWorld, teleporter, teleportee, "teleporter can't pay");
                 return false;
             }
             teleporterPlayer = (Player) teleporter;
@@ -136,13 +137,13 @@ public class PermissionTools {
 
         // Only check payments if it's a different world:
         if (!toWorld.equals(fromWorld)) {
-            final double price = toWorld.getPrice();
             // Don't bother checking economy stuff if it doesn't even cost to enter.
-            if (price == 0D) {
+            if (this.plugin.getTravelMatrix().isPriceFree(fromWorld, toWorld)) {
                 return true;
             }
+            final double price = toWorld.getPrice();
             // If the player does not have to pay, return now.
-            if (this.plugin.getMVPerms().hasPermission(teleporter, toWorld.getExemptPermission().getName(), true)) {
+            if (this.plugin.getMVPerms().isExemptFromPrice(teleporter, toWorld)) {
                 return true;
             }
 
@@ -167,6 +168,7 @@ public class PermissionTools {
                     teleporterPlayer.sendMessage(economist.getNSFMessage(currency,
                             "You need " + formattedAmount + " to send " + teleportee.getName() + " to " + toWorld.getColoredWorldString()));
                 }
+                this.recordDenial(fromWorld, toWorld, teleporter, teleportee, "can't afford " + formattedAmount);
                 return false;
             }
         }
@@ -196,7 +198,7 @@ public class PermissionTools {
      * @return True if they can't go to the world, False if they can.
      */
     public boolean playerCanGoFromTo(MultiverseWorld fromWorld, MultiverseWorld toWorld, CommandSender teleporter, Player teleportee) {
-        Logging.finest("Checking '" + teleporter + "' can send '" + teleportee + "' somewhere");
+        LazyLogging.finest("Checking '%s' can send '%s' somewhere", teleporter, teleportee);
 
         Player teleporterPlayer;
         if (plugin.getMVConfig().getTeleportIntercept()) {
@@ -212,6 +214,7 @@ public class PermissionTools {
 
             // Now make sure we can cast the teleporter to a player, 'cause I'm tired of console things now
             if (!(teleporter instanceof Player)) {
+                this.recordDenial(fromWorld, toWorld, teleporter, teleportee, "teleporter isn't a player");
                 return false;
             }
             teleporterPlayer = (Player) teleporter;
@@ -236,6 +239,8 @@ public class PermissionTools {
                 } else {
                     teleporter.sendMessage("You can't send " + teleportee.getName() + " here...");
                 }
+                this.recordDenial(fromWorld, toWorld, teleporter, teleportee,
+                        "no permission multiverse.access." + toWorld.getName());
 
                 return false;
             }
@@ -245,13 +250,15 @@ public class PermissionTools {
             return true;
         }
         if (fromWorld != null) {
-            if (fromWorld.getWorldBlacklist().contains(toWorld.getName())) {
+            if (this.plugin.getTravelMatrix().isBlacklisted(fromWorld, toWorld)
+                    || this.plugin.getWorldGroupManager().isBlacklisted(fromWorld, toWorld)) {
                 if (teleportee.equals(teleporter)) {
                     teleporter.sendMessage("You don't have access to go to " + toWorld.getColoredWorldString() + " from " + fromWorld.getColoredWorldString());
                 } else {
                     teleporter.sendMessage("You don't have access to send " + teleportee.getName() + " from "
                          + fromWorld.getColoredWorldString() + " to " + toWorld.getColoredWorldString());
                 }
+                this.recordDenial(fromWorld, toWorld, teleporter, teleportee, "travel between the worlds is blocked");
                 return false;
             }
         }
@@ -275,15 +282,22 @@ public class PermissionTools {
             return true;
         }
 
-        MVPermissions perms = plugin.getMVPerms();
-        if (perms.hasPermission(teleportee, "mv.bypass.playerlimit." + toWorld.getName(), false)) {
+        if (plugin.getMVPerms().canBypassPlayerLimit(teleportee, toWorld)) {
             return true;
         } else {
             teleporter.sendMessage("The world " + toWorld.getColoredWorldString() + " is full");
+            this.recordDenial(null, toWorld, teleporter, teleportee, "world is full");
             return false;
         }
     }
 
+    private void recordDenial(MultiverseWorld fromWorld, MultiverseWorld toWorld, CommandSender teleporter,
+            Player teleportee, String reason) {
+        this.plugin.getFlightRecorder().record(FlightRecorder.Kind.ACCESS, teleportee.getName(),
+                (fromWorld != null) ? fromWorld.getName() : null, (toWorld != null) ? toWorld.getName() : null,
+                (teleporter != null) ? teleporter.getName() : null, "DENIED", reason);
+    }
+
     /**
      * Checks to see if a player should bypass game mode restrictions.
      *
@@ -0,0 +1,112 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link MVPlayerSession}s of all online players, keyed by their UUID.
+ * <p>
+ * A session is started when a player joins and everything Multiverse remembers about the player
+ * is dropped again when they quit, so nothing piles up on servers with a lot of players coming
+ * and going. Players that were already online when the plugin was enabled get a session the first
+ * time it's needed, players that already quit only get one that isn't kept. It's safe to use from
+ * any thread.
+ */
+public class PlayerSessionStore {
+    private final MultiverseCore plugin;
+    private final Map<UUID, MVPlayerSession> sessions = new ConcurrentHashMap<UUID, MVPlayerSession>();
+
+    public PlayerSessionStore(MultiverseCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a new session for a player that joined.
+     *
+     * @param player The {@link Player}.
+     * @return The new {@link MVPlayerSession}.
+     */
+    public MVPlayerSession join(Player player) {
+        MVPlayerSession session = new MVPlayerSession(player, this.plugin.getMVConfig());
+        if (player.getUniqueId() != null) {
+            this.sessions.put(player.getUniqueId(), session);
+        }
+        return session;
+    }
+
+    /**
+     * Ends the session of a player that quit, along with a teleport of theirs nobody picked up.
+     *
+     * @param player The {@link Player}.
+     */
+    public void quit(Player player) {
+        if (player.getUniqueId() != null) {
+            this.sessions.remove(player.getUniqueId());
+            this.plugin.getTeleportRegistry().forget(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Gets the session of a player, starting one if they don't have one yet and are online.
+     *
+     * @param player The {@link Player}.
+     * @return The {@link MVPlayerSession}.
+     */
+    public MVPlayerSession get(Player player) {
+        MVPlayerSession session = this.getIfPresent(player.getUniqueId());
+        if (session != null) {
+            return session;
+        }
+        if (player.getUniqueId() == null || !player.isOnline()) {
+            // Fake players of other plugins may not have a UUID, and a session started for a player
+            // that already quit would never be removed. They just don't get a lasting session.
+            return new MVPlayerSession(player, this.plugin.getMVConfig());
+        }
+        return this.sessions.computeIfAbsent(player.getUniqueId(),
+                id -> new MVPlayerSession(player, this.plugin.getMVConfig()));
+    }
+
+    /**
+     * Gets the session of a player if they have one.
+     *
+     * @param playerId The UUID of the player.
+     * @return The {@link MVPlayerSession}, null if there is none.
+     */
+    public MVPlayerSession getIfPresent(UUID playerId) {
+        return (playerId == null) ? null : this.sessions.get(playerId);
+    }
+
+    /**
+     * @return All current sessions.
+     */
+    public Collection<MVPlayerSession> getSessions() {
+        return Collections.unmodifiableCollection(this.sessions.values());
+    }
+
+    /**
+     * @return The number of current sessions.
+     */
+    public int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Ends all sessions.
+     */
+    public void clear() {
+        this.sessions.clear();
+    }
+}
@@ -0,0 +1,134 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.bukkit.GameMode;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies the gamemode and flight settings of worlds to the players in them.
+ * <p>
+ * Players are queued when they join, change worlds or when the gamemode of their world changes.
+ * A single repeating task works through the queue from the next tick on, at most
+ * {@link #PLAYERS_PER_TICK} players per tick, and stops again once the queue is empty.
+ * A player that's queued again before being handled only gets handled once, for the latest world.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class PlayerStateApplicator {
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private static final int PLAYERS_PER_TICK = 50;
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+
+    private final MultiverseCore plugin;
+    private final PermissionTools pt;
+    private final Map<UUID, Pending> queue = new LinkedHashMap<UUID, Pending>();
+    private BukkitTask task;
+
+    public PlayerStateApplicator(MultiverseCore plugin) {
+        this.plugin = plugin;
+        this.pt = new PermissionTools(plugin);
+    }
+
+    /**
+     * Queues a player to get the gamemode and flight settings of a world.
+     *
+     * @param player The {@link Player}.
+     * @param world  The world the player is in.
+     */
+    public void queue(Player player, MultiverseWorld world) {
+        // Removing first moves players that were queued before to the back, behind everyone queued since.
+        this.queue.remove(player.getUniqueId());
+        this.queue.put(player.getUniqueId(), new Pending(player, world));
+        if (this.task == null) {
+            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops handling players and forgets everyone still queued.
+     */
+    public void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        this.queue.clear();
+    }
+
+    /**
+     * @return How many players are waiting to be handled.
+     */
+    public int getQueueSize() {
+        return this.queue.size();
+    }
+
+    private void tick() {
+        Iterator<Pending> it = this.queue.values().iterator();
+        for (int handled = 0; handled < PLAYERS_PER_TICK && it.hasNext(); handled++) {
+            Pending pending = it.next();
+            it.remove();
+            if (pending.player.isOnline()) {
+                this.apply(pending.player, pending.world);
+            }
+        }
+        if (this.queue.isEmpty()) {
+            this.stop();
+        }
+    }
+
+    private void apply(Player player, MultiverseWorld world) {
+        if (this.pt.playerCanIgnoreGameModeRestriction(world, player)) {
+            Logging.fine("Player: %s is IMMUNE to gamemode changes!", player.getName());
+            return;
+        }
+        // Check that the player is in the new world and they haven't been teleported elsewhere or the event cancelled.
+        if (player.getWorld() != world.getCBWorld()) {
+            Logging.fine("The gamemode/allowfly was NOT changed for player '%s' because he is now in world '%s' "
+                    + "instead of world '%s'", player.getName(), player.getWorld().getName(), world.getName());
+            return;
+        }
+        Logging.fine("Handling gamemode for player: %s, Changing to %s", player.getName(), world.getGameMode());
+        Logging.finest("To World: %s", world);
+        player.setGameMode(world.getGameMode());
+        // Check if their flight mode should change
+        // TODO need a override permission for this
+        if (player.getAllowFlight() && !world.getAllowFlight() && player.getGameMode() != GameMode.CREATIVE) {
+            player.setAllowFlight(false);
+            if (player.isFlying()) {
+                player.setFlying(false);
+            }
+        } else if (world.getAllowFlight()) {
+            if (player.getGameMode() == GameMode.CREATIVE) {
+                player.setAllowFlight(true);
+            }
+        }
+    }
+
+    /**
+     * A player waiting to get the settings of a world.
+     */
+    private static final class Pending {
+        private final Player player;
+        private final MultiverseWorld world;
+
+        private Pending(Player player, MultiverseWorld world) {
+            this.player = player;
+            this.world = world;
+        }
+    }
+}
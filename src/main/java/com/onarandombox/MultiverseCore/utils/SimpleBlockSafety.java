@@ -7,7 +7,6 @@
 
 package com.onarandombox.MultiverseCore.utils;
 
-import com.dumptruckman.minecraft.util.Logging;
 import com.onarandombox.MultiverseCore.api.BlockSafety;
 import com.onarandombox.MultiverseCore.api.Core;
 import org.bukkit.Location;
@@ -83,26 +82,36 @@ public class SimpleBlockSafety implements BlockSafety {
 
         if (isSolidBlock(world.getBlockAt(actual).getType())
                 || isSolidBlock(upOne.getBlock().getType())) {
-            Logging.finer("Error Here (Actual)? (%s)[%s]", actual.getBlock().getType(),
-                    isSolidBlock(actual.getBlock().getType()));
-            Logging.finer("Error Here (upOne)? (%s)[%s]", upOne.getBlock().getType(),
-                    isSolidBlock(upOne.getBlock().getType()));
+            if (LazyLogging.isFinerLoggable()) {
+                LazyLogging.finer("Error Here (Actual)? (%s)[%s]", actual.getBlock().getType(),
+                        isSolidBlock(actual.getBlock().getType()));
+                LazyLogging.finer("Error Here (upOne)? (%s)[%s]", upOne.getBlock().getType(),
+                        isSolidBlock(upOne.getBlock().getType()));
+            }
             return false;
         }
 
         if (downOne.getBlock().getType() == Material.LAVA) {
-            Logging.finer("Error Here (downOne)? (%s)[%s]", downOne.getBlock().getType(), isSolidBlock(downOne.getBlock().getType()));
+            if (LazyLogging.isFinerLoggable()) {
+                LazyLogging.finer("Error Here (downOne)? (%s)[%s]", downOne.getBlock().getType(),
+                        isSolidBlock(downOne.getBlock().getType()));
+            }
             return false;
         }
 
         if (downOne.getBlock().getType() == Material.FIRE) {
-            Logging.finer("There's fire below! (%s)[%s]", actual.getBlock().getType(), isSolidBlock(actual.getBlock().getType()));
+            if (LazyLogging.isFinerLoggable()) {
+                LazyLogging.finer("There's fire below! (%s)[%s]", actual.getBlock().getType(),
+                        isSolidBlock(actual.getBlock().getType()));
+            }
             return false;
         }
 
         if (isBlockAboveAir(actual)) {
-            Logging.finer("Is block above air [%s]", isBlockAboveAir(actual));
-            Logging.finer("Has 2 blocks of water below [%s]", this.hasTwoBlocksofWaterBelow(actual));
+            if (LazyLogging.isFinerLoggable()) {
+                LazyLogging.finer("Is block above air [%s]", isBlockAboveAir(actual));
+                LazyLogging.finer("Has 2 blocks of water below [%s]", this.hasTwoBlocksofWaterBelow(actual));
+            }
             return this.hasTwoBlocksofWaterBelow(actual);
         }
         return true;
@@ -27,6 +27,13 @@ import java.util.Map;
  */
 public class SimpleLocationManipulation implements LocationManipulation {
     private static final Map<String, Integer> ORIENTATION_INTS;
+    // DecimalFormat isn't thread-safe but expensive to create, so every thread gets its own.
+    private static final ThreadLocal<DecimalFormat> COORDS_FORMAT = ThreadLocal.withInitial(() -> {
+        DecimalFormat df = new DecimalFormat();
+        df.setMinimumFractionDigits(0);
+        df.setMaximumFractionDigits(2);
+        return df;
+    });
 
     static {
         Map<String, Integer> orientationInts = new HashMap<String, Integer>();
@@ -128,9 +135,7 @@ public class SimpleLocationManipulation implements LocationManipulation {
     @Override
     public String strCoords(Location l) {
         String result = "";
-        DecimalFormat df = new DecimalFormat();
-        df.setMinimumFractionDigits(0);
-        df.setMaximumFractionDigits(2);
+        DecimalFormat df = COORDS_FORMAT.get();
         result += ChatColor.WHITE + "X: " + ChatColor.AQUA + df.format(l.getX()) + " ";
         result += ChatColor.WHITE + "Y: " + ChatColor.AQUA + df.format(l.getY()) + " ";
         result += ChatColor.WHITE + "Z: " + ChatColor.AQUA + df.format(l.getZ()) + " ";
@@ -147,16 +152,14 @@ public class SimpleLocationManipulation implements LocationManipulation {
         if (l == null) {
             return "null";
         }
-        String result = "";
-        DecimalFormat df = new DecimalFormat();
-        df.setMinimumFractionDigits(0);
-        df.setMaximumFractionDigits(2);
-        result += "X: " + df.format(l.getX()) + " ";
-        result += "Y: " + df.format(l.getY()) + " ";
-        result += "Z: " + df.format(l.getZ()) + " ";
-        result += "P: " + df.format(l.getPitch()) + " ";
-        result += "Y: " + df.format(l.getYaw()) + " ";
-        return result;
+        DecimalFormat df = COORDS_FORMAT.get();
+        return new StringBuilder()
+                .append("X: ").append(df.format(l.getX())).append(' ')
+                .append("Y: ").append(df.format(l.getY())).append(' ')
+                .append("Z: ").append(df.format(l.getZ())).append(' ')
+                .append("P: ").append(df.format(l.getPitch())).append(' ')
+                .append("Y: ").append(df.format(l.getYaw())).append(' ')
+                .toString();
     }
 
     /**
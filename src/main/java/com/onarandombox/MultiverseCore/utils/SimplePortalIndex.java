@@ -0,0 +1,321 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.api.PortalIndex;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The default-implementation of {@link PortalIndex}.
+ * <p>
+ * Block positions are packed into longs and grouped per chunk, so a lookup only has to touch
+ * the few chunks overlapping the search radius. Entries are checked against the world before
+ * they're returned, so a stale entry costs a single block lookup and is dropped.
+ * <p>
+ * If nothing is known around a location, the blocks in range are scanned once and the scanned boxes
+ * are remembered per chunk, so a lookup around a spot without portals doesn't scan it over and over.
+ * A chunk is scanned again once a validation finds portal blocks that disappeared without an event,
+ * since others may have appeared the same way.
+ */
+public class SimplePortalIndex implements PortalIndex {
+    /** The most blocks a single lookup scans. Chunks that don't fit are left for later lookups. */
+    private static final int MAX_SCANNED_BLOCKS = 32768;
+    /** The most scanned boxes remembered per chunk, the oldest one is forgotten first. */
+    private static final int MAX_SCANNED_BOXES = 8;
+    private static final int CHUNK_SIZE = 16;
+
+    private final Map<UUID, Map<Long, Set<Long>>> worlds = new HashMap<UUID, Map<Long, Set<Long>>>();
+    /** Per world and chunk the boxes that were scanned, as {minX, minY, minZ, maxX, maxY, maxZ}. */
+    private final Map<UUID, Map<Long, List<int[]>>> scanned = new HashMap<UUID, Map<Long, List<int[]>>>();
+
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int blockX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int blockY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    private static int blockZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+
+    private Set<Long> getChunk(World world, int chunkX, int chunkZ, boolean create) {
+        Map<Long, Set<Long>> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            if (!create) {
+                return null;
+            }
+            chunks = new HashMap<Long, Set<Long>>();
+            this.worlds.put(world.getUID(), chunks);
+        }
+        long key = chunkKey(chunkX, chunkZ);
+        Set<Long> blocks = chunks.get(key);
+        if (blocks == null && create) {
+            blocks = new HashSet<Long>();
+            chunks.put(key, blocks);
+        }
+        return blocks;
+    }
+
+    private static boolean isPortal(World world, int x, int y, int z) {
+        return world.getBlockAt(x, y, z).getType() == Material.NETHER_PORTAL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Location findNearestPortal(Location l, int radius) {
+        World world = l.getWorld();
+        if (world == null) {
+            return null;
+        }
+        Location found = this.findIndexedPortal(world, l, radius);
+        if (found != null) {
+            return found;
+        }
+
+        // Nothing known around here, have a look at the parts of the radius we haven't scanned yet.
+        int bx = l.getBlockX();
+        int bz = l.getBlockZ();
+        int minY = l.getBlockY() - radius;
+        int maxY = l.getBlockY() + radius;
+        int scannedBlocks = 0;
+        for (int cx = (bx - radius) >> 4; cx <= (bx + radius) >> 4; cx++) { // SUPPRESS CHECKSTYLE: MagicNumberCheck
+            for (int cz = (bz - radius) >> 4; cz <= (bz + radius) >> 4; cz++) { // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                // Only the part of the chunk that's within the radius.
+                int[] box = {
+                        Math.max(bx - radius, cx * CHUNK_SIZE), minY, Math.max(bz - radius, cz * CHUNK_SIZE),
+                        Math.min(bx + radius, cx * CHUNK_SIZE + CHUNK_SIZE - 1), maxY,
+                        Math.min(bz + radius, cz * CHUNK_SIZE + CHUNK_SIZE - 1)
+                };
+                // Looking at the blocks of an unloaded chunk would load it.
+                if (scannedBlocks >= MAX_SCANNED_BLOCKS || !world.isChunkLoaded(cx, cz)
+                        || this.isScanned(world, cx, cz, box)) {
+                    continue;
+                }
+                scannedBlocks += this.scanBox(world, cx, cz, box);
+            }
+        }
+        // Whatever was found is indexed now.
+        return (scannedBlocks > 0) ? this.findIndexedPortal(world, l, radius) : null;
+    }
+
+    private Location findIndexedPortal(World world, Location l, int radius) {
+        int bx = l.getBlockX();
+        int by = l.getBlockY();
+        int bz = l.getBlockZ();
+
+        long best = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int cx = (bx - radius) >> 4; cx <= (bx + radius) >> 4; cx++) { // SUPPRESS CHECKSTYLE: MagicNumberCheck
+            for (int cz = (bz - radius) >> 4; cz <= (bz + radius) >> 4; cz++) { // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                Set<Long> blocks = this.getChunk(world, cx, cz, false);
+                if (blocks == null) {
+                    continue;
+                }
+                Iterator<Long> iterator = blocks.iterator();
+                while (iterator.hasNext()) {
+                    long key = iterator.next();
+                    int x = blockX(key);
+                    int y = blockY(key);
+                    int z = blockZ(key);
+                    if (Math.abs(x - bx) > radius || Math.abs(y - by) > radius || Math.abs(z - bz) > radius) {
+                        continue;
+                    }
+                    double distance = distanceSquared(l, x, y, z);
+                    if (distance >= bestDistance) {
+                        continue;
+                    }
+                    if (!isPortal(world, x, y, z)) {
+                        iterator.remove();
+                        continue;
+                    }
+                    best = key;
+                    bestDistance = distance;
+                }
+            }
+        }
+        if (bestDistance == Double.MAX_VALUE) {
+            return null;
+        }
+        return new Location(world, blockX(best) + .5, blockY(best), blockZ(best) + .5, l.getYaw(), l.getPitch());
+    }
+
+    /**
+     * Indexes the portal blocks in a box within a chunk.
+     *
+     * @return The number of blocks that were looked at.
+     */
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    private int scanBox(World world, int chunkX, int chunkZ, int[] box) {
+        for (int x = box[0]; x <= box[3]; x++) {
+            for (int y = box[1]; y <= box[4]; y++) {
+                for (int z = box[2]; z <= box[5]; z++) {
+                    if (isPortal(world, x, y, z)) {
+                        this.getChunk(world, chunkX, chunkZ, true).add(blockKey(x, y, z));
+                    }
+                }
+            }
+        }
+        List<int[]> boxes = this.scanned.computeIfAbsent(world.getUID(), k -> new HashMap<Long, List<int[]>>())
+                .computeIfAbsent(chunkKey(chunkX, chunkZ), k -> new ArrayList<int[]>());
+        // Boxes inside the new one aren't needed anymore.
+        boxes.removeIf(other -> contains(box, other));
+        if (boxes.size() >= MAX_SCANNED_BOXES) {
+            boxes.remove(0);
+        }
+        boxes.add(box);
+        return (box[3] - box[0] + 1) * (box[4] - box[1] + 1) * (box[5] - box[2] + 1);
+    }
+
+    private static boolean contains(int[] outer, int[] inner) {
+        return outer[0] <= inner[0] && outer[1] <= inner[1] && outer[2] <= inner[2]
+                && outer[3] >= inner[3] && outer[4] >= inner[4] && outer[5] >= inner[5];
+    }
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+
+    private boolean isScanned(World world, int chunkX, int chunkZ, int[] box) {
+        Map<Long, List<int[]>> chunks = this.scanned.get(world.getUID());
+        List<int[]> boxes = (chunks != null) ? chunks.get(chunkKey(chunkX, chunkZ)) : null;
+        if (boxes == null) {
+            return false;
+        }
+        for (int[] other : boxes) {
+            if (contains(other, box)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double distanceSquared(Location l, int x, int y, int z) {
+        double dx = x + .5 - l.getX();
+        double dy = y - l.getY();
+        double dz = z + .5 - l.getZ();
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Location> getPortalBlocks(World world, int chunkX, int chunkZ) {
+        Set<Long> blocks = this.getChunk(world, chunkX, chunkZ, false);
+        if (blocks == null || blocks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Location> locations = new ArrayList<Location>(blocks.size());
+        for (long key : blocks) {
+            locations.add(new Location(world, blockX(key), blockY(key), blockZ(key)));
+        }
+        return locations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addPortalBlock(Block block) {
+        this.getChunk(block.getWorld(), block.getX() >> 4, block.getZ() >> 4, true) // SUPPRESS CHECKSTYLE: MagicNumberCheck
+                .add(blockKey(block.getX(), block.getY(), block.getZ()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removePortalBlock(Block block) {
+        Set<Long> blocks = this.getChunk(block.getWorld(), block.getX() >> 4, block.getZ() >> 4, false); // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        if (blocks != null) {
+            blocks.remove(blockKey(block.getX(), block.getY(), block.getZ()));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validateChunk(World world, int chunkX, int chunkZ) {
+        Set<Long> blocks = this.getChunk(world, chunkX, chunkZ, false);
+        if (blocks == null) {
+            return;
+        }
+        boolean changed = false;
+        Iterator<Long> iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.next();
+            if (!isPortal(world, blockX(key), blockY(key), blockZ(key))) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+        if (blocks.isEmpty()) {
+            this.worlds.get(world.getUID()).remove(chunkKey(chunkX, chunkZ));
+        }
+        if (changed) {
+            // Portals went away without an event, others may have appeared the same way.
+            Map<Long, List<int[]>> scannedChunks = this.scanned.get(world.getUID());
+            if (scannedChunks != null) {
+                scannedChunks.remove(chunkKey(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clearWorld(World world) {
+        this.scanned.remove(world.getUID());
+        if (this.worlds.remove(world.getUID()) != null) {
+            Logging.finer("Cleared portal index of world '%s'", world.getName());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPortalBlockCount(World world) {
+        Map<Long, Set<Long>> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Set<Long> blocks : chunks.values()) {
+            count += blocks.size();
+        }
+        return count;
+    }
+}
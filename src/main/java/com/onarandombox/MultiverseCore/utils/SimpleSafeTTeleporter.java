@@ -16,6 +16,7 @@ import com.onarandombox.MultiverseCore.enums.TeleportResult;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.command.CommandSender;
@@ -23,8 +24,16 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.Minecart;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Vehicle;
+import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The default-implementation of {@link SafeTTeleporter}.
  */
@@ -58,9 +67,11 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
         if (safe != null) {
             safe.setX(safe.getBlockX() + .5); // SUPPRESS CHECKSTYLE: MagicNumberCheck
             safe.setZ(safe.getBlockZ() + .5); // SUPPRESS CHECKSTYLE: MagicNumberCheck
-            Logging.fine("Hey! I found one: " + plugin.getLocationManipulation().strCoordsRaw(safe));
+            if (LazyLogging.isFineLoggable()) {
+                LazyLogging.fine("Hey! I found one: %s", plugin.getLocationManipulation().strCoordsRaw(safe));
+            }
         } else {
-            Logging.fine("Uh oh! No safe place found!");
+            LazyLogging.fine("Uh oh! No safe place found!");
         }
         return safe;
     }
@@ -72,8 +83,10 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
         }
         // We want half of it, so we can go up and down
         tolerance /= 2;
-        Logging.finer("Given Location of: " + plugin.getLocationManipulation().strCoordsRaw(l));
-        Logging.finer("Checking +-" + tolerance + " with a radius of " + radius);
+        if (LazyLogging.isFinerLoggable()) {
+            LazyLogging.finer("Given Location of: %s", plugin.getLocationManipulation().strCoordsRaw(l));
+            LazyLogging.finer("Checking +-%d with a radius of %d", tolerance, radius);
+        }
 
         // For now this will just do a straight up block.
         Location locToCheck = l.clone();
@@ -191,9 +204,17 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
     @Override
     public TeleportResult safelyTeleport(CommandSender teleporter, Entity teleportee, MVDestination d) {
         if (d instanceof InvalidDestination) {
-            Logging.finer("Entity tried to teleport to an invalid destination");
+            LazyLogging.finer("Entity tried to teleport to an invalid destination");
             return TeleportResult.FAIL_INVALID;
         }
+        return this.safelyTeleport(teleporter, teleportee, d, d.getLocation(teleportee));
+    }
+
+    /*
+     * Teleports to a destination whose location was already resolved, so it isn't resolved twice.
+     */
+    private TeleportResult safelyTeleport(CommandSender teleporter, Entity teleportee, MVDestination d,
+            Location target) {
         Player teleporteePlayer = null;
         if (teleportee instanceof Player) {
             teleporteePlayer = ((Player) teleportee);
@@ -204,15 +225,20 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
         if (teleporteePlayer == null) {
             return TeleportResult.FAIL_INVALID;
         }
-        MultiverseCore.addPlayerToTeleportQueue(teleporter.getName(), teleporteePlayer.getName());
 
-        Location safeLoc = d.getLocation(teleportee);
+        Location safeLoc = target;
         if (d.useSafeTeleporter()) {
-            safeLoc = this.getSafeLocation(teleportee, d);
+            safeLoc = this.getSafeLocation(teleportee, target);
         }
 
         if (safeLoc != null) {
-            if (teleportee.teleport(safeLoc)) {
+            TeleportRegistry registry = this.plugin.getTeleportRegistry();
+            long token = registry.register(teleporter, teleporteePlayer.getUniqueId(), safeLoc);
+            boolean teleported = teleportee.teleport(safeLoc);
+            // The teleport listener claims the entry, if it's still there the teleport never went through.
+            registry.complete(teleporteePlayer.getUniqueId(), token);
+            if (teleported) {
+                this.plugin.getHotChunkTracker().recordTeleport(safeLoc);
                 Vector v = d.getVelocity();
                 if (v != null && !DEFAULT_VECTOR.equals(v)) {
                     Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
@@ -221,11 +247,22 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
                 }
                 return TeleportResult.SUCCESS;
             }
+            this.recordFailure(teleporter, teleporteePlayer, target, TeleportResult.FAIL_OTHER,
+                    "teleport was cancelled");
             return TeleportResult.FAIL_OTHER;
         }
+        this.recordFailure(teleporter, teleporteePlayer, target, TeleportResult.FAIL_UNSAFE, "no safe location found");
         return TeleportResult.FAIL_UNSAFE;
     }
 
+    private void recordFailure(CommandSender teleporter, Player teleportee, Location target, TeleportResult result,
+            String reason) {
+        this.plugin.getFlightRecorder().record(FlightRecorder.Kind.TELEPORT, teleportee.getName(),
+                teleportee.getWorld().getName(),
+                (target != null && target.getWorld() != null) ? target.getWorld().getName() : null,
+                (teleporter != null) ? teleporter.getName() : null, result.name(), reason);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -237,6 +274,7 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
 
         if (location != null) {
             if (teleportee.teleport(location)) {
+                this.plugin.getHotChunkTracker().recordTeleport(location);
                 return TeleportResult.SUCCESS;
             }
             return TeleportResult.FAIL_OTHER;
@@ -244,14 +282,188 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
         return TeleportResult.FAIL_UNSAFE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<TeleportResult> safelyTeleportAsync(CommandSender teleporter, Entity teleportee, MVDestination d) {
+        Location l = (d instanceof InvalidDestination) ? null : d.getLocation(teleportee);
+        if (l == null) {
+            return CompletableFuture.completedFuture(this.safelyTeleport(teleporter, teleportee, d));
+        }
+        return this.preloadChunks(l).handle((v, t) -> {
+            if (t != null) {
+                Logging.warning("Unable to preload chunks for teleport: %s", t.getMessage());
+            }
+            return this.safelyTeleport(teleporter, teleportee, d, l);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<TeleportResult> safelyTeleportAsync(CommandSender teleporter, Entity teleportee,
+            Location location, boolean safely) {
+        if (location == null) {
+            return CompletableFuture.completedFuture(this.safelyTeleport(teleporter, teleportee, location, safely));
+        }
+        return this.preloadChunks(location).handle((v, t) -> {
+            if (t != null) {
+                Logging.warning("Unable to preload chunks for teleport: %s", t.getMessage());
+            }
+            return this.safelyTeleport(teleporter, teleportee, location, safely);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Integer> safelyTeleportAll(CommandSender teleporter, Collection<? extends Entity> teleportees,
+            Location location, boolean safely, int perTick) {
+        if (teleportees.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        final Location target = (safely && location != null) ? this.getSafeLocation(location) : location;
+        if (target == null) {
+            Logging.warning("Could not find a safe location to move %d entities to!", teleportees.size());
+            return CompletableFuture.completedFuture(0);
+        }
+        final Deque<QueuedEntity> queue = new ArrayDeque<QueuedEntity>(teleportees.size());
+        for (Entity teleportee : teleportees) {
+            queue.add(new QueuedEntity(teleportee));
+        }
+        if (perTick < 1 || queue.size() <= perTick) {
+            return CompletableFuture.completedFuture(teleportBatch(queue, target, queue.size()));
+        }
+
+        if (LazyLogging.isFineLoggable()) {
+            LazyLogging.fine("Moving %d entities to %s, %d per tick.", queue.size(),
+                    plugin.getLocationManipulation().strCoordsRaw(target), perTick);
+        }
+        final CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+        final int firstBatch = teleportBatch(queue, target, perTick);
+        new BukkitRunnable() {
+            private int teleported = firstBatch;
+
+            @Override
+            public void run() {
+                this.teleported += teleportBatch(queue, target, perTick);
+                if (queue.isEmpty()) {
+                    this.cancel();
+                    future.complete(this.teleported);
+                }
+            }
+        }.runTaskTimer(this.plugin, 1L, 1L);
+        return future;
+    }
+
+    private static int teleportBatch(Deque<QueuedEntity> queue, Location target, int amount) {
+        int attempts = 0;
+        int teleported = 0;
+        while (attempts < amount && !queue.isEmpty()) {
+            QueuedEntity queued = queue.poll();
+            // Entities that are gone or left the world on their own since they were queued are skipped.
+            if (!queued.entity.isValid() || !queued.world.equals(queued.entity.getWorld())) {
+                continue;
+            }
+            attempts++;
+            // Every entity gets its own copy, teleport() may hold on to the instance.
+            if (queued.entity.teleport(target.clone())) {
+                teleported++;
+            }
+        }
+        return teleported;
+    }
+
+    private static final class QueuedEntity {
+        private final Entity entity;
+        private final World world;
+
+        private QueuedEntity(Entity entity) {
+            this.entity = entity;
+            this.world = entity.getWorld();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> preloadChunks(Location l) {
+        World world = l.getWorld();
+        if (world == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // The safety search walks up to half the default radius in every direction.
+        int reach = DEFAULT_RADIUS / 2 + 1;
+        int minX = (l.getBlockX() - reach) >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        int maxX = (l.getBlockX() + reach) >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        int minZ = (l.getBlockZ() - reach) >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+        int maxZ = (l.getBlockZ() + reach) >> 4; // SUPPRESS CHECKSTYLE: MagicNumberCheck
+
+        List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+        Deque<int[]> syncChunks = new ArrayDeque<int[]>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (world.isChunkLoaded(x, z)) {
+                    continue;
+                }
+                CompletableFuture<?> future = CompatibilityLayer.getChunkAtAsync(world, x, z);
+                if (future != null) {
+                    futures.add(future);
+                } else {
+                    syncChunks.add(new int[] { x, z });
+                }
+            }
+        }
+        if (!syncChunks.isEmpty()) {
+            futures.add(this.loadChunksOverTicks(world, syncChunks));
+        }
+        if (futures.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (LazyLogging.isFinerLoggable()) {
+            LazyLogging.finer("Preloading %d chunk request(s) around %s", futures.size(),
+                    plugin.getLocationManipulation().strCoordsRaw(l));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /*
+     * Fallback for servers without async chunk loading: load one chunk per tick so a
+     * teleport into an unloaded area never stalls a single tick with all of them.
+     */
+    private CompletableFuture<Void> loadChunksOverTicks(final World world, final Deque<int[]> chunks) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                int[] chunk = chunks.poll();
+                if (chunk != null) {
+                    world.loadChunk(chunk[0], chunk[1]);
+                }
+                if (chunks.isEmpty()) {
+                    this.cancel();
+                    future.complete(null);
+                }
+            }
+        }.runTaskTimer(this.plugin, 0L, 1L);
+        return future;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Location getSafeLocation(Entity e, MVDestination d) {
-        Location l = d.getLocation(e);
+        return this.getSafeLocation(e, d.getLocation(e));
+    }
+
+    private Location getSafeLocation(Entity e, Location l) {
         if (plugin.getBlockSafety().playerCanSpawnHereSafely(l)) {
-            Logging.fine("The first location you gave me was safe.");
+            LazyLogging.fine("The first location you gave me was safe.");
             return l;
         }
         if (e instanceof Minecart) {
@@ -270,21 +482,22 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
             // Add offset to account for a vehicle on dry land!
             if (e instanceof Minecart && !plugin.getBlockSafety().isEntitiyOnTrack(safeLocation)) {
                 safeLocation.setY(safeLocation.getBlockY() + .5);
-                Logging.finer("Player was inside a minecart. Offsetting Y location.");
+                LazyLogging.finer("Player was inside a minecart. Offsetting Y location.");
             }
-            Logging.finer("Had to look for a bit, but I found a safe place for ya!");
+            LazyLogging.finer("Had to look for a bit, but I found a safe place for ya!");
             return safeLocation;
         }
         if (e instanceof Player) {
             Player p = (Player) e;
-            this.plugin.getMessaging().sendMessage(p, "No safe locations found!", false);
-            Logging.finer("No safe location found for " + p.getName());
+            this.plugin.getMessaging().sendDedupedMessage(p, "No safe locations found!", "No safe locations found!");
+            LazyLogging.finer("No safe location found for %s", p.getName());
         } else if (e.getPassenger() instanceof Player) {
             Player p = (Player) e.getPassenger();
-            this.plugin.getMessaging().sendMessage(p, "No safe locations found!", false);
-            Logging.finer("No safe location found for " + p.getName());
+            this.plugin.getMessaging().sendDedupedMessage(p, "No safe locations found!", "No safe locations found!");
+            LazyLogging.finer("No safe location found for %s", p.getName());
         }
-        Logging.fine("Sorry champ, you're basically trying to teleport into a minefield. I should just kill you now.");
+        LazyLogging.fine("Sorry champ, you're basically trying to teleport into a minefield. "
+                + "I should just kill you now.");
         return null;
     }
 
@@ -337,4 +550,10 @@ public class SimpleSafeTTeleporter implements SafeTTeleporter {
     public TeleportResult teleport(final CommandSender teleporter, final Player teleportee, final MVDestination destination) {
         return this.safelyTeleport(teleporter, teleportee, destination);
     }
+
+    @Override
+    public CompletableFuture<TeleportResult> teleportAsync(final CommandSender teleporter, final Player teleportee,
+            final MVDestination destination) {
+        return this.safelyTeleportAsync(teleporter, teleportee, destination);
+    }
 }
@@ -8,44 +8,45 @@
 package com.onarandombox.MultiverseCore.utils;
 
 import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MVWorld;
 import com.onarandombox.MultiverseCore.MultiverseCore;
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
 import com.onarandombox.MultiverseCore.api.WorldPurger;
+import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Animals;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.EntityType;
-import org.bukkit.entity.Ghast;
-import org.bukkit.entity.Golem;
 import org.bukkit.entity.LivingEntity;
-import org.bukkit.entity.Monster;
-import org.bukkit.entity.Phantom;
 import org.bukkit.entity.Projectile;
-import org.bukkit.entity.Slime;
-import org.bukkit.entity.Squid;
+import org.bukkit.projectiles.ProjectileSource;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class that removes animals from worlds that don't belong there.
  */
 public class SimpleWorldPurger implements WorldPurger {
+    /** Worlds with up to this many loaded chunks are purged right away, even when asked to do it incrementally. */
+    private static final int SYNC_CHUNK_LIMIT = 64;
+    /** How often the sender of an incremental purge is told about its progress. */
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(5L);
 
     private MultiverseCore plugin;
-
-    private Class<Entity> ambientClass = null;
+    private final Deque<PurgeJob> jobs = new ArrayDeque<PurgeJob>();
+    private BukkitTask task;
 
     public SimpleWorldPurger(MultiverseCore plugin) {
         this.plugin = plugin;
-        try {
-            Class entityClass = Class.forName("org.bukkit.entity.Ambient");
-            if (Entity.class.isAssignableFrom(entityClass)) {
-                ambientClass = entityClass;
-            }
-        } catch (ClassNotFoundException ignore) { }
     }
 
     /**
@@ -69,9 +70,18 @@ public class SimpleWorldPurger implements WorldPurger {
         if (world == null) {
             return;
         }
-        ArrayList<String> allMobs = new ArrayList<String>(world.getAnimalList());
-        allMobs.addAll(world.getMonsterList());
-        purgeWorld(world, allMobs, !world.canAnimalsSpawn(), !world.canMonstersSpawn());
+        purgeWorld(world, getSpawnRules(world), null);
+    }
+
+    /**
+     * Gets the compiled spawn rules of a world. Only {@link MVWorld}s keep them around,
+     * for other implementations they're compiled on every call.
+     */
+    private SpawnRules getSpawnRules(MultiverseWorld world) {
+        if (world instanceof MVWorld) {
+            return ((MVWorld) world).getSpawnRules();
+        }
+        return SpawnRules.compile(this.plugin.getEntityCategories(), world);
     }
 
     /**
@@ -79,9 +89,7 @@ public class SimpleWorldPurger implements WorldPurger {
      */
     @Override
     public boolean shouldWeKillThisCreature(MultiverseWorld world, Entity e) {
-        ArrayList<String> allMobs = new ArrayList<String>(world.getAnimalList());
-        allMobs.addAll(world.getMonsterList());
-        return this.shouldWeKillThisCreature(e, allMobs, !world.canAnimalsSpawn(), !world.canMonstersSpawn());
+        return getSpawnRules(world).shouldKill(e.getType());
     }
 
     /**
@@ -93,36 +101,39 @@ public class SimpleWorldPurger implements WorldPurger {
         if (mvworld == null) {
             return;
         }
+        EntityCategories categories = this.plugin.getEntityCategories();
+        purgeWorld(mvworld, SpawnRules.compile(categories, thingsToKill, negateAnimals, negateMonsters), sender);
+    }
+
+    private void purgeWorld(MultiverseWorld mvworld, SpawnRules rules, CommandSender sender) {
         World world = mvworld.getCBWorld();
         if (world == null) {
             return;
         }
         int projectilesKilled = 0;
         int entitiesKilled = 0;
-        boolean specifiedAll = thingsToKill.contains("ALL");
-        boolean specifiedAnimals = thingsToKill.contains("ANIMALS") || specifiedAll;
-        boolean specifiedMonsters = thingsToKill.contains("MONSTERS") || specifiedAll;
         List<Entity> worldEntities = world.getEntities();
         List<LivingEntity> livingEntities = new ArrayList<LivingEntity>(worldEntities.size());
-        List<Projectile> projectiles = new ArrayList<Projectile>(worldEntities.size());
+        // Group the projectiles by their shooter so each purged entity finds its own in one lookup.
+        Map<ProjectileSource, List<Projectile>> projectilesByShooter = new HashMap<>();
         for (final Entity e : worldEntities) {
             if (e instanceof Projectile) {
                 final Projectile p = (Projectile) e;
-                if (p.getShooter() != null) {
-                    projectiles.add((Projectile) e);
+                final ProjectileSource shooter = p.getShooter();
+                if (shooter != null) {
+                    projectilesByShooter.computeIfAbsent(shooter, k -> new ArrayList<Projectile>(1)).add(p);
                 }
             } else if (e instanceof LivingEntity) {
                 livingEntities.add((LivingEntity) e);
             }
         }
         for (final LivingEntity e : livingEntities) {
-            if (killDecision(e, thingsToKill, negateAnimals, negateMonsters, specifiedAnimals, specifiedMonsters)) {
-                final Iterator<Projectile> it = projectiles.iterator();
-                while (it.hasNext()) {
-                    final Projectile p = it.next();
-                    if (p.getShooter().equals(e)) {
+            if (rules.shouldKill(e.getType())) {
+                Logging.finest("Removing an entity from world %s: %s", world.getName(), e);
+                final List<Projectile> projectiles = projectilesByShooter.remove(e);
+                if (projectiles != null) {
+                    for (final Projectile p : projectiles) {
                         p.remove();
-                        it.remove();
                         projectilesKilled++;
                     }
                 }
@@ -135,47 +146,94 @@ public class SimpleWorldPurger implements WorldPurger {
         }
     }
 
-    private boolean killDecision(Entity e, List<String> thingsToKill, boolean negateAnimals,
-            boolean negateMonsters, boolean specifiedAnimals, boolean specifiedMonsters) {
-        boolean negate = false;
-        boolean specified = false;
-        if (e instanceof Golem || e instanceof Squid || e instanceof Animals
-                || (ambientClass != null && ambientClass.isInstance(e))) {
-            // it's an animal
-            if (specifiedAnimals && !negateAnimals) {
-                Logging.finest("Removing an entity because I was told to remove all animals in world %s: %s", e.getWorld().getName(), e);
-                return true;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void purgeWorldIncrementally(MultiverseWorld world) {
+        if (world == null) {
+            return;
+        }
+        // A newer purge from the world's own settings replaces any that hasn't finished yet.
+        Iterator<PurgeJob> it = this.jobs.iterator();
+        while (it.hasNext()) {
+            PurgeJob job = it.next();
+            if (job.fromWorldSettings && job.mvworld == world) {
+                it.remove();
+            }
+        }
+        this.schedule(world, getSpawnRules(world), null, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void purgeWorldIncrementally(MultiverseWorld mvworld, List<String> thingsToKill,
+            boolean negateAnimals, boolean negateMonsters, CommandSender sender) {
+        if (mvworld == null) {
+            return;
+        }
+        EntityCategories categories = this.plugin.getEntityCategories();
+        SpawnRules rules = SpawnRules.compile(categories, thingsToKill, negateAnimals, negateMonsters);
+        this.schedule(mvworld, rules, sender, false);
+    }
+
+    private void schedule(MultiverseWorld mvworld, SpawnRules rules, CommandSender sender, boolean fromWorldSettings) {
+        World world = mvworld.getCBWorld();
+        if (world == null) {
+            return;
+        }
+        Chunk[] chunks = world.getLoadedChunks();
+        boolean incremental = this.plugin.getMVConfig().getPurgeTickBudget() > 0;
+        if (!incremental || chunks == null || chunks.length <= SYNC_CHUNK_LIMIT) {
+            this.purgeWorld(mvworld, rules, sender);
+            return;
+        }
+        this.jobs.add(new PurgeJob(mvworld, world, chunks, rules, sender, fromWorldSettings));
+        if (sender != null) {
+            sender.sendMessage("Purging " + chunks.length + " chunks of the world '" + world.getName()
+                    + "' in the background...");
+        }
+        if (this.task == null) {
+            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Works on the queued purge jobs until this tick's budget is used up.
+     */
+    private void tick() {
+        long budget = TimeUnit.MILLISECONDS.toNanos(this.plugin.getMVConfig().getPurgeTickBudget());
+        long deadline = System.nanoTime() + budget;
+        while (!this.jobs.isEmpty()) {
+            PurgeJob job = this.jobs.peek();
+            if (this.plugin.getServer().getWorld(job.world.getUID()) == null) {
+                // The world was unloaded, there's nothing left to purge.
+                this.jobs.poll();
+                job.cancel();
+                continue;
             }
-            if (specifiedAnimals)
-                specified = true;
-            negate = negateAnimals;
-        } else if (e instanceof Monster || e instanceof Ghast || e instanceof Slime || e instanceof Phantom) {
-            // it's a monster
-            if (specifiedMonsters && !negateMonsters) {
-                Logging.finest("Removing an entity because I was told to remove all monsters in world %s: %s", e.getWorld().getName(), e);
-                return true;
+            if (!job.step(deadline)) {
+                break;
             }
-            if (specifiedMonsters)
-                specified = true;
-            negate = negateMonsters;
-        }
-        for (String s : thingsToKill) {
-            EntityType type = EntityType.fromName(s);
-            if (type != null && type.equals(e.getType())) {
-                specified = true;
-                if (!negate) {
-                    Logging.finest("Removing an entity because it WAS specified and we are NOT negating in world %s: %s", e.getWorld().getName(), e);
-                    return true;
-                }
+            this.jobs.poll();
+            job.finish();
+            if (System.nanoTime() >= deadline) {
                 break;
             }
         }
-        if (!specified && negate) {
-            Logging.finest("Removing an entity because it was NOT specified and we ARE negating in world %s: %s", e.getWorld().getName(), e);
-            return true;
+        if (this.jobs.isEmpty() && this.task != null) {
+            this.task.cancel();
+            this.task = null;
         }
+    }
 
-        return false;
+    /**
+     * @return The number of incremental purges that haven't finished yet.
+     */
+    public int getPendingJobCount() {
+        return this.jobs.size();
     }
 
     /**
@@ -183,10 +241,8 @@ public class SimpleWorldPurger implements WorldPurger {
      */
     @Override
     public boolean shouldWeKillThisCreature(Entity e, List<String> thingsToKill, boolean negateAnimals, boolean negateMonsters) {
-        boolean specifiedAll = thingsToKill.contains("ALL");
-        boolean specifiedAnimals = thingsToKill.contains("ANIMALS") || specifiedAll;
-        boolean specifiedMonsters = thingsToKill.contains("MONSTERS") || specifiedAll;
-        return this.killDecision(e, thingsToKill, negateAnimals, negateMonsters, specifiedAnimals, specifiedMonsters);
+        EntityCategories categories = this.plugin.getEntityCategories();
+        return SpawnRules.compile(categories, thingsToKill, negateAnimals, negateMonsters).shouldKill(e.getType());
     }
 
     /**
@@ -196,4 +252,111 @@ public class SimpleWorldPurger implements WorldPurger {
     public void purgeWorld(MultiverseWorld mvworld, List<String> thingsToKill, boolean negateAnimals, boolean negateMonsters) {
         purgeWorld(mvworld, thingsToKill, negateAnimals, negateMonsters, null);
     }
+
+    /**
+     * A purge that walks the chunks that were loaded when it started a few at a time.
+     * Projectiles are only removed once all chunks are done, because their shooters may be in any chunk.
+     * Jobs of worlds that are unloaded in the meantime are dropped.
+     */
+    private static final class PurgeJob {
+        private final MultiverseWorld mvworld;
+        private final World world;
+        private final Chunk[] chunks;
+        private final SpawnRules rules;
+        private final CommandSender sender;
+        private final boolean fromWorldSettings;
+        private final Set<Entity> killed = new HashSet<Entity>();
+        private final List<Projectile> projectiles = new ArrayList<Projectile>();
+        private final long started = System.nanoTime();
+        private long lastProgress = this.started;
+        private int nextChunk;
+        private int nextProjectile;
+        private int ticks;
+        private int entitiesKilled;
+        private int projectilesKilled;
+
+        private PurgeJob(MultiverseWorld mvworld, World world, Chunk[] chunks, SpawnRules rules,
+                CommandSender sender, boolean fromWorldSettings) {
+            this.mvworld = mvworld;
+            this.world = world;
+            this.chunks = chunks;
+            this.rules = rules;
+            this.sender = sender;
+            this.fromWorldSettings = fromWorldSettings;
+        }
+
+        /**
+         * Does as much work as fits before the deadline, but always at least one chunk.
+         *
+         * @param deadline The {@link System#nanoTime()} to stop at.
+         * @return True if the job is done.
+         */
+        private boolean step(long deadline) {
+            this.ticks++;
+            do {
+                if (this.nextChunk < this.chunks.length) {
+                    this.purgeChunk(this.chunks[this.nextChunk]);
+                    this.chunks[this.nextChunk++] = null;
+                } else if (this.nextProjectile < this.projectiles.size()) {
+                    Projectile p = this.projectiles.get(this.nextProjectile++);
+                    if (p.isValid() && this.killed.contains(p.getShooter())) {
+                        p.remove();
+                        this.projectilesKilled++;
+                    }
+                } else {
+                    return true;
+                }
+            } while (System.nanoTime() < deadline);
+            this.reportProgress();
+            return false;
+        }
+
+        private void purgeChunk(Chunk chunk) {
+            if (!chunk.isLoaded()) {
+                return;
+            }
+            for (Entity e : chunk.getEntities()) {
+                if (e instanceof Projectile) {
+                    if (((Projectile) e).getShooter() != null) {
+                        this.projectiles.add((Projectile) e);
+                    }
+                } else if (e instanceof LivingEntity && this.rules.shouldKill(e.getType())) {
+                    Logging.finest("Removing an entity from world %s: %s", this.world.getName(), e);
+                    this.killed.add(e);
+                    e.remove();
+                    this.entitiesKilled++;
+                }
+            }
+        }
+
+        private void reportProgress() {
+            long now = System.nanoTime();
+            if (this.sender == null || now - this.lastProgress < PROGRESS_INTERVAL) {
+                return;
+            }
+            this.lastProgress = now;
+            this.sender.sendMessage("Purging '" + this.world.getName() + "': " + this.nextChunk + "/"
+                    + this.chunks.length + " chunks done, " + this.entitiesKilled + " entities purged so far.");
+        }
+
+        private void cancel() {
+            Logging.fine("Stopped purging world %s after %d of %d chunks, it was unloaded.",
+                    this.mvworld.getName(), this.nextChunk, this.chunks.length);
+            if (this.sender != null) {
+                this.sender.sendMessage("Stopped purging the world '" + this.world.getName() + "', it was unloaded. "
+                        + this.entitiesKilled + " entities were purged.");
+            }
+        }
+
+        private void finish() {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.started);
+            Logging.fine("Purged %d entities and %d projectiles from %d chunks of world %s over %d ticks (%d ms).",
+                    this.entitiesKilled, this.projectilesKilled, this.chunks.length, this.mvworld.getName(),
+                    this.ticks, millis);
+            if (this.sender != null) {
+                this.sender.sendMessage(this.entitiesKilled + " entities purged from the world '" + this.world.getName()
+                        + "' along with " + this.projectilesKilled + " projectiles that belonged to them.");
+            }
+        }
+    }
 }
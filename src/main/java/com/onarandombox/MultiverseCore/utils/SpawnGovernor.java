@@ -0,0 +1,310 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Slows down natural spawning in the busiest worlds while the server can't keep up.
+ * <p>
+ * Every few seconds the time the server spends on a tick is compared to two thresholds. That's paper's
+ * average tick time where it's available. Elsewhere the length of every tick is sampled and smoothed
+ * instead, which never goes below 50 ms because the server waits for the next tick, so there the fast
+ * threshold is at least 51 ms. Above the slow threshold, the worlds holding at least their share of the
+ * living entities have their spawn limits lowered and their ticks-per-spawn raised by a step, down to a
+ * configured minimum. Below the fast one, throttled worlds get a step back until they're restored to
+ * their own settings.
+ * In between nothing changes, so the server doesn't flip back and forth around a single threshold.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class SpawnGovernor {
+    // BEGIN CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+    /** How many ticks pass between two decisions. */
+    private static final int EVALUATION_PERIOD = 100;
+    /** How much a world is throttled or relaxed per decision, in percent of its own settings. */
+    private static final int STEP_PERCENT = 15;
+    /** How much a single tick moves the smoothed tick length. */
+    private static final double SMOOTHING = 0.05D;
+    private static final double TICK_MILLIS = 50D;
+    /** The lowest fast threshold when ticks are measured by the clock, healthy ticks take just over 50 ms. */
+    private static final double WALL_CLOCK_FAST_TICK = TICK_MILLIS + 1D;
+    private static final double NANOS_PER_MILLI = 1000000D;
+    private static final int FULL_PERCENT = 100;
+    // END CHECKSTYLE-SUPPRESSION: MagicNumberCheck
+
+    private final MultiverseCore plugin;
+    private final Map<UUID, Throttle> throttles = new HashMap<UUID, Throttle>();
+    private BukkitTask task;
+    private long lastTick;
+    private double averageTickMillis = TICK_MILLIS;
+    private int ticks;
+
+    public SpawnGovernor(MultiverseCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts sampling the tick length. The governor only acts while it's enabled in the config.
+     */
+    public void start() {
+        this.stop();
+        this.lastTick = 0L;
+        this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops sampling and restores the spawn settings of all throttled worlds.
+     */
+    public void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        this.restoreAll();
+    }
+
+    private void tick() {
+        this.tick(System.nanoTime());
+    }
+
+    /**
+     * Samples a tick and makes a decision every {@link #EVALUATION_PERIOD} ticks.
+     *
+     * @param now The {@link System#nanoTime()} of the tick.
+     */
+    void tick(long now) {
+        boolean measuresWork = CompatibilityLayer.hasAverageTickTime();
+        if (!measuresWork) {
+            if (this.lastTick != 0L) {
+                double millis = (now - this.lastTick) / NANOS_PER_MILLI;
+                this.averageTickMillis += (millis - this.averageTickMillis) * SMOOTHING;
+            }
+            this.lastTick = now;
+        }
+        if (++this.ticks % EVALUATION_PERIOD != 0) {
+            return;
+        }
+        int fastTick = this.plugin.getMVConfig().getGovernorFastTick();
+        if (measuresWork) {
+            double workMillis = CompatibilityLayer.getAverageTickTime(this.plugin.getServer());
+            if (workMillis >= 0D) {
+                this.averageTickMillis = workMillis;
+                this.evaluate(workMillis, fastTick);
+            }
+        } else {
+            this.evaluate(this.averageTickMillis, Math.max(fastTick, WALL_CLOCK_FAST_TICK));
+        }
+    }
+
+    /**
+     * Decides whether worlds should be throttled or relaxed.
+     *
+     * @param tickMillis The time the server spends on a tick, in milliseconds.
+     */
+    public void evaluate(double tickMillis) {
+        this.evaluate(tickMillis, this.plugin.getMVConfig().getGovernorFastTick());
+    }
+
+    private void evaluate(double tickMillis, double fastTick) {
+        MultiverseCoreConfig config = this.plugin.getMVConfig();
+        if (!config.isSpawnGovernorEnabled()) {
+            this.restoreAll();
+            return;
+        }
+        if (tickMillis > Math.max(config.getGovernorSlowTick(), fastTick)) {
+            List<World> worlds = new ArrayList<World>();
+            for (MultiverseWorld mvworld : this.plugin.getMVWorldManager().getMVWorlds()) {
+                if (mvworld.getCBWorld() != null) {
+                    worlds.add(mvworld.getCBWorld());
+                }
+            }
+            EntityCounter counter = this.plugin.getEntityCounter();
+            int total = 0;
+            for (World world : worlds) {
+                total += counter.getTotalCount(world);
+            }
+            int share = worlds.isEmpty() ? 0 : total / worlds.size();
+            for (World world : worlds) {
+                int count = counter.getTotalCount(world);
+                if (count > 0 && count >= share) {
+                    this.step(world, -STEP_PERCENT, String.format(Locale.ENGLISH,
+                            "ticks took %.1f ms, %d of %d living entities", tickMillis, count, total));
+                }
+            }
+        } else if (tickMillis < fastTick) {
+            for (Throttle throttle : new ArrayList<Throttle>(this.throttles.values())) {
+                this.step(throttle.world, STEP_PERCENT,
+                        String.format(Locale.ENGLISH, "ticks took %.1f ms", tickMillis));
+            }
+        }
+    }
+
+    private void step(World world, int delta, String reason) {
+        int min = Math.max(1, Math.min(FULL_PERCENT, this.plugin.getMVConfig().getGovernorMinPercent()));
+        Throttle throttle = this.throttles.get(world.getUID());
+        int current = (throttle == null) ? FULL_PERCENT : throttle.percent;
+        int percent = Math.max(min, Math.min(FULL_PERCENT, current + delta));
+        if (percent == current) {
+            return;
+        }
+        if (throttle == null) {
+            throttle = new Throttle(world);
+            this.throttles.put(world.getUID(), throttle);
+        }
+        Logging.fine("Spawn governor: world %s now spawns at %d%% (%s).", world.getName(), percent, reason);
+        if (percent == FULL_PERCENT) {
+            throttle.restore();
+            this.throttles.remove(world.getUID());
+            return;
+        }
+        throttle.apply(percent, reason);
+    }
+
+    private void restoreAll() {
+        Iterator<Throttle> it = this.throttles.values().iterator();
+        while (it.hasNext()) {
+            it.next().restore();
+            it.remove();
+        }
+    }
+
+    /**
+     * Forgets a world that was unloaded.
+     *
+     * @param world The {@link World}.
+     */
+    public void forgetWorld(World world) {
+        this.throttles.remove(world.getUID());
+    }
+
+    /**
+     * Gets how much of its own spawn settings a world currently gets.
+     *
+     * @param world The {@link World}.
+     * @return The percentage, 100 if the world isn't throttled.
+     */
+    public int getPercent(World world) {
+        Throttle throttle = this.throttles.get(world.getUID());
+        return (throttle == null) ? FULL_PERCENT : throttle.percent;
+    }
+
+    /**
+     * Describes the last decision about a world.
+     *
+     * @param world The {@link World}.
+     * @return The description.
+     */
+    public String describe(World world) {
+        if (!this.plugin.getMVConfig().isSpawnGovernorEnabled()) {
+            return "disabled";
+        }
+        Throttle throttle = this.throttles.get(world.getUID());
+        if (throttle == null) {
+            return "not throttled";
+        }
+        return throttle.percent + "% (" + throttle.reason + ")";
+    }
+
+    /**
+     * @return The time the server spent on a tick at the last decision, or the smoothed length of a tick,
+     *         in milliseconds.
+     */
+    public double getAverageTickMillis() {
+        return this.averageTickMillis;
+    }
+
+    /**
+     * The spawn settings a world had before it was throttled, and what it was throttled to.
+     * If something else changes the world's settings meanwhile, those become the new originals.
+     */
+    private static final class Throttle {
+        private static final int MONSTER_LIMIT = 0;
+        private static final int ANIMAL_LIMIT = 1;
+        private static final int WATER_LIMIT = 2;
+        private static final int AMBIENT_LIMIT = 3;
+        private static final int ANIMAL_TICKS = 4;
+        private static final int MONSTER_TICKS = 5;
+        private static final int VALUES = 6;
+
+        private final World world;
+        private final long[] original = new long[VALUES];
+        private final long[] applied = new long[VALUES];
+        private int percent = FULL_PERCENT;
+        private String reason;
+
+        private Throttle(World world) {
+            this.world = world;
+            this.read(this.original);
+            System.arraycopy(this.original, 0, this.applied, 0, VALUES);
+        }
+
+        private void read(long[] values) {
+            values[MONSTER_LIMIT] = this.world.getMonsterSpawnLimit();
+            values[ANIMAL_LIMIT] = this.world.getAnimalSpawnLimit();
+            values[WATER_LIMIT] = this.world.getWaterAnimalSpawnLimit();
+            values[AMBIENT_LIMIT] = this.world.getAmbientSpawnLimit();
+            values[ANIMAL_TICKS] = this.world.getTicksPerAnimalSpawns();
+            values[MONSTER_TICKS] = this.world.getTicksPerMonsterSpawns();
+        }
+
+        private void write(long[] values) {
+            this.world.setMonsterSpawnLimit((int) values[MONSTER_LIMIT]);
+            this.world.setAnimalSpawnLimit((int) values[ANIMAL_LIMIT]);
+            this.world.setWaterAnimalSpawnLimit((int) values[WATER_LIMIT]);
+            this.world.setAmbientSpawnLimit((int) values[AMBIENT_LIMIT]);
+            this.world.setTicksPerAnimalSpawns((int) values[ANIMAL_TICKS]);
+            this.world.setTicksPerMonsterSpawns((int) values[MONSTER_TICKS]);
+        }
+
+        private void apply(int newPercent, String newReason) {
+            long[] current = new long[VALUES];
+            this.read(current);
+            for (int i = 0; i < VALUES; i++) {
+                if (current[i] != this.applied[i]) {
+                    this.original[i] = current[i];
+                }
+                if (this.original[i] <= 0) {
+                    // Negative values mean "use the server's default", there's nothing to scale.
+                    this.applied[i] = this.original[i];
+                } else if (i < ANIMAL_TICKS) {
+                    this.applied[i] = Math.max(1L, this.original[i] * newPercent / FULL_PERCENT);
+                } else {
+                    this.applied[i] = this.original[i] * FULL_PERCENT / newPercent;
+                }
+            }
+            this.write(this.applied);
+            this.percent = newPercent;
+            this.reason = newReason;
+        }
+
+        private void restore() {
+            long[] current = new long[VALUES];
+            this.read(current);
+            for (int i = 0; i < VALUES; i++) {
+                if (current[i] != this.applied[i]) {
+                    this.original[i] = current[i];
+                }
+            }
+            this.write(this.original);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.configuration.SpawnSettings;
+import com.onarandombox.MultiverseCore.configuration.SubSpawnSettings;
+import com.onarandombox.MultiverseCore.utils.EntityCategories.Category;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The spawn settings of a world compiled into the set of entity types that get removed.
+ * <p>
+ * Instances are immutable, so a world can swap in a new one whenever its spawn settings change
+ * and spawn events only need a single set lookup.
+ */
+public final class SpawnRules {
+    private final Set<EntityType> killed;
+    private final EntityCategories categories;
+
+    private SpawnRules(EnumSet<EntityType> killed, EntityCategories categories) {
+        this.killed = Collections.unmodifiableSet(killed);
+        this.categories = categories;
+    }
+
+    /**
+     * Compiles the spawn settings of a world.
+     *
+     * @param categories The {@link EntityCategories} that decide what's an animal or a monster.
+     * @param world      The {@link MultiverseWorld}.
+     * @return The compiled {@link SpawnRules}.
+     */
+    public static SpawnRules compile(EntityCategories categories, MultiverseWorld world) {
+        List<String> allMobs = new ArrayList<String>(world.getAnimalList());
+        allMobs.addAll(world.getMonsterList());
+        return compile(categories, allMobs, !world.canAnimalsSpawn(), !world.canMonstersSpawn());
+    }
+
+    /**
+     * Compiles {@link SpawnSettings}.
+     *
+     * @param categories The {@link EntityCategories} that decide what's an animal or a monster.
+     * @param settings   The {@link SpawnSettings}.
+     * @return The compiled {@link SpawnRules}.
+     */
+    public static SpawnRules compile(EntityCategories categories, SpawnSettings settings) {
+        SubSpawnSettings animals = settings.getAnimalSettings();
+        SubSpawnSettings monsters = settings.getMonsterSettings();
+        List<String> allMobs = new ArrayList<String>(animals.getExceptions());
+        allMobs.addAll(monsters.getExceptions());
+        return compile(categories, allMobs, !animals.doSpawn(), !monsters.doSpawn());
+    }
+
+    /**
+     * Compiles a list of things to kill, in the format used by the {@link com.onarandombox.MultiverseCore.api.WorldPurger}.
+     *
+     * @param categories     The {@link EntityCategories} that decide what's an animal or a monster.
+     * @param thingsToKill   A list of animals/monsters to be killed, or ALL, ANIMALS or MONSTERS.
+     * @param negateAnimals  Whether the monsters in the list should be negated.
+     * @param negateMonsters Whether the animals in the list should be negated.
+     * @return The compiled {@link SpawnRules}.
+     */
+    public static SpawnRules compile(EntityCategories categories, List<String> thingsToKill,
+            boolean negateAnimals, boolean negateMonsters) {
+        boolean specifiedAll = thingsToKill.contains("ALL");
+        boolean specifiedAnimals = thingsToKill.contains("ANIMALS") || specifiedAll;
+        boolean specifiedMonsters = thingsToKill.contains("MONSTERS") || specifiedAll;
+        EnumSet<EntityType> listed = EnumSet.noneOf(EntityType.class);
+        for (String s : thingsToKill) {
+            EntityType type = EntityType.fromName(s);
+            if (type != null) {
+                listed.add(type);
+            }
+        }
+
+        EnumSet<EntityType> killed = EnumSet.noneOf(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            Category category = categories.getCategory(type);
+            boolean negate = false;
+            boolean specified = false;
+            if (category == Category.ANIMAL) {
+                if (specifiedAnimals && !negateAnimals) {
+                    killed.add(type);
+                    continue;
+                }
+                specified = specifiedAnimals;
+                negate = negateAnimals;
+            } else if (category == Category.MONSTER) {
+                if (specifiedMonsters && !negateMonsters) {
+                    killed.add(type);
+                    continue;
+                }
+                specified = specifiedMonsters;
+                negate = negateMonsters;
+            }
+            if (listed.contains(type)) {
+                specified = true;
+                if (!negate) {
+                    killed.add(type);
+                    continue;
+                }
+            }
+            if (!specified && negate) {
+                killed.add(type);
+            }
+        }
+        return new SpawnRules(killed, categories);
+    }
+
+    /**
+     * Checks whether entities of a type should be removed.
+     *
+     * @param type The {@link EntityType}.
+     * @return True if they should be removed.
+     */
+    public boolean shouldKill(EntityType type) {
+        return type != null && this.killed.contains(type);
+    }
+
+    /**
+     * @return All {@link EntityType}s that are removed.
+     */
+    public Set<EntityType> getKilledTypes() {
+        return this.killed;
+    }
+
+    /**
+     * @return The {@link EntityCategories} these rules were compiled with.
+     */
+    public EntityCategories getCategories() {
+        return this.categories;
+    }
+}
@@ -0,0 +1,222 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of who initiated which teleport, so the teleport listener can charge and check the right sender.
+ * <p>
+ * Entries are keyed by the UUID of the teleportee and carry a token identifying the exact teleport.
+ * Entries that no PlayerTeleportEvent ever picks up (e.g. because the teleport was cancelled) are removed
+ * again by whoever registered them, or expire after a while. Both cases are counted. Expired entries
+ * are purged by {@link #register(CommandSender, UUID, Location)} at most once per expiry time.
+ */
+public class TeleportRegistry {
+    private static final long DEFAULT_TTL = 5000L;
+
+    private final Map<UUID, PendingTeleport> pending = new ConcurrentHashMap<UUID, PendingTeleport>();
+    private final AtomicLong nextToken = new AtomicLong();
+    private final AtomicLong leaked = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong nextPurge = new AtomicLong();
+    private final long ttl;
+
+    public TeleportRegistry() {
+        this(DEFAULT_TTL);
+    }
+
+    /**
+     * @param ttl Time in milliseconds after which an unclaimed entry expires.
+     */
+    public TeleportRegistry(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Registers a teleport that's about to happen.
+     *
+     * @param teleporter  The sender that initiated the teleport.
+     * @param teleportee  The UUID of the player that's going to be teleported.
+     * @param destination The location the player is going to be teleported to, or null if it isn't known yet.
+     * @return The token identifying this teleport.
+     */
+    public long register(CommandSender teleporter, UUID teleportee, Location destination) {
+        long now = System.currentTimeMillis();
+        this.purgeIfDue(now);
+        long token = this.nextToken.incrementAndGet();
+        UUID teleporterId = (teleporter instanceof Player) ? ((Player) teleporter).getUniqueId() : null;
+        PendingTeleport entry = new PendingTeleport(token, teleporter.getName(), teleporterId, destination,
+                now + this.ttl);
+        PendingTeleport old = this.pending.put(teleportee, entry);
+        if (old != null) {
+            // Nobody picked up the previous one.
+            this.leaked.incrementAndGet();
+        }
+        Logging.finest("Registered teleport #%d of '%s' by '%s'", token, teleportee, teleporter.getName());
+        return token;
+    }
+
+    /**
+     * Takes the pending teleport for a player out of the registry if it matches the destination.
+     *
+     * @param teleportee The UUID of the player being teleported.
+     * @param to         The location the player is being teleported to, or null to accept any destination.
+     * @return The matching {@link PendingTeleport} or null if there is none.
+     */
+    public PendingTeleport claim(UUID teleportee, Location to) {
+        PendingTeleport entry = this.pending.get(teleportee);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (this.pending.remove(teleportee, entry)) {
+                this.expired.incrementAndGet();
+            }
+            return null;
+        }
+        if (to != null && !entry.matches(to)) {
+            Logging.finest("Teleport #%d of '%s' doesn't match the destination, ignoring it.", entry.getToken(), teleportee);
+            return null;
+        }
+        return this.pending.remove(teleportee, entry) ? entry : null;
+    }
+
+    /**
+     * Called by whoever registered a teleport once the teleport call returned. Removes the entry
+     * if it wasn't claimed, which happens when the teleport was cancelled or failed.
+     *
+     * @param teleportee The UUID of the player that was teleported.
+     * @param token      The token returned by {@link #register(CommandSender, UUID, Location)}.
+     * @return True if the entry was still there, i.e. it leaked.
+     */
+    public boolean complete(UUID teleportee, long token) {
+        PendingTeleport entry = this.pending.get(teleportee);
+        if (entry != null && entry.getToken() == token && this.pending.remove(teleportee, entry)) {
+            this.leaked.incrementAndGet();
+            Logging.finest("Teleport #%d of '%s' was never picked up.", token, teleportee);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the entry of a player that left, if nobody picked it up.
+     *
+     * @param teleportee The UUID of the player.
+     */
+    public void forget(UUID teleportee) {
+        if (this.pending.remove(teleportee) != null) {
+            this.leaked.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes all entries that are past their expiry time.
+     */
+    public void purgeExpired() {
+        this.purgeExpired(System.currentTimeMillis());
+    }
+
+    private void purgeIfDue(long now) {
+        long due = this.nextPurge.get();
+        if (now >= due && this.nextPurge.compareAndSet(due, now + this.ttl)) {
+            this.purgeExpired(now);
+        }
+    }
+
+    private void purgeExpired(long now) {
+        for (Map.Entry<UUID, PendingTeleport> entry : this.pending.entrySet()) {
+            if (entry.getValue().isExpired(now) && this.pending.remove(entry.getKey(), entry.getValue())) {
+                this.expired.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return The number of teleports currently waiting to be claimed.
+     */
+    public int size() {
+        return this.pending.size();
+    }
+
+    /**
+     * @return The number of entries that were removed without ever being claimed.
+     */
+    public long getLeakedCount() {
+        return this.leaked.get();
+    }
+
+    /**
+     * @return The number of entries that expired before being claimed.
+     */
+    public long getExpiredCount() {
+        return this.expired.get();
+    }
+
+    /**
+     * A teleport that was registered but not claimed yet.
+     */
+    public static final class PendingTeleport {
+        private final long token;
+        private final String teleporterName;
+        private final UUID teleporterId;
+        private final Location destination;
+        private final long expiresAt;
+
+        private PendingTeleport(long token, String teleporterName, UUID teleporterId, Location destination, long expiresAt) {
+            this.token = token;
+            this.teleporterName = teleporterName;
+            this.teleporterId = teleporterId;
+            this.destination = destination;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now > this.expiresAt;
+        }
+
+        private boolean matches(Location to) {
+            return this.destination == null
+                    || (Objects.equals(this.destination.getWorld(), to.getWorld())
+                    && this.destination.getBlockX() == to.getBlockX()
+                    && this.destination.getBlockY() == to.getBlockY()
+                    && this.destination.getBlockZ() == to.getBlockZ());
+        }
+
+        /**
+         * @return The token identifying this teleport.
+         */
+        public long getToken() {
+            return this.token;
+        }
+
+        /**
+         * @return The name of the sender that initiated the teleport.
+         */
+        public String getTeleporterName() {
+            return this.teleporterName;
+        }
+
+        /**
+         * @return The UUID of the player that initiated the teleport, or null if it wasn't a player.
+         */
+        public UUID getTeleporterId() {
+            return this.teleporterId;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MVWorld;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.enums.AllowedPortalType;
+import com.onarandombox.MultiverseCore.listeners.MVEntityListener;
+import com.onarandombox.MultiverseCore.listeners.MVPortalListener;
+import com.onarandombox.MultiverseCore.listeners.MVWeatherListener;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
+import org.bukkit.event.entity.FoodLevelChangeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.weather.ThunderChangeEvent;
+import org.bukkit.event.weather.WeatherChangeEvent;
+import org.bukkit.event.world.PortalCreateEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of how many worlds use each optional world feature and only registers
+ * the event handlers of a feature while at least one world needs them.
+ * <p>
+ * With the default world properties none of these handlers would ever change an event,
+ * so servers that don't use a feature don't pay for its events at all. Whenever a world is
+ * added or removed, or one of the properties below changes, the worlds are counted again
+ * on the next tick. A property change that needs a handler registers it right away.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class WorldFeatureTracker {
+    /**
+     * A world behaviour that needs its own event handlers.
+     */
+    public enum Feature {
+        /** A world with {@code hunger} disabled. */
+        HUNGER(world -> !world.getHunger()),
+        /** A world with {@code autoHeal} disabled. */
+        AUTO_HEAL(world -> !world.getAutoHeal()),
+        /** A world that doesn't let every creature spawn, or limits how many may. */
+        SPAWNING(world -> !world.canAnimalsSpawn() || !world.canMonstersSpawn()
+                || !world.getAnimalList().isEmpty() || !world.getMonsterList().isEmpty()
+                || (world instanceof MVWorld && ((MVWorld) world).getEntityBudget().isLimited())),
+        /** A world with {@code allowWeather} disabled. */
+        WEATHER(world -> !world.isWeatherEnabled()),
+        /** A world that doesn't allow every kind of portal to form. */
+        PORTAL_FORM(world -> world.getAllowedPortals() != AllowedPortalType.ALL);
+
+        private final Predicate<MultiverseWorld> needed;
+
+        Feature(Predicate<MultiverseWorld> needed) {
+            this.needed = needed;
+        }
+
+        /**
+         * Checks whether a world needs this feature's handlers.
+         *
+         * @param world The {@link MultiverseWorld}.
+         * @return True if it does.
+         */
+        public boolean isNeededBy(MultiverseWorld world) {
+            return this.needed.test(world);
+        }
+    }
+
+    private final MultiverseCore plugin;
+    private final int[] worldCounts = new int[Feature.values().length];
+    /** Per registered feature the listener its handlers are registered under. */
+    private final Map<Feature, Listener> registered = new EnumMap<Feature, Listener>(Feature.class);
+    private boolean started;
+    private boolean updatePending;
+
+    public WorldFeatureTracker(MultiverseCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Counts the loaded worlds and registers the handlers they need.
+     */
+    public void start() {
+        this.started = true;
+        this.update();
+    }
+
+    /**
+     * Unregisters all handlers.
+     */
+    public void stop() {
+        this.started = false;
+        for (Feature feature : Feature.values()) {
+            this.unregister(feature);
+        }
+    }
+
+    /**
+     * Counts the worlds again on the next tick.
+     */
+    public void scheduleUpdate() {
+        if (!this.started || this.updatePending) {
+            return;
+        }
+        this.updatePending = true;
+        this.plugin.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin, this::update);
+    }
+
+    /**
+     * Lets the tracker know a world property belonging to a feature is about to change.
+     *
+     * @param feature The {@link Feature}.
+     * @param needed  Whether the world needs the feature with the new value.
+     */
+    public void propertyChanged(Feature feature, boolean needed) {
+        if (needed && this.started) {
+            this.register(feature);
+        }
+        this.scheduleUpdate();
+    }
+
+    /**
+     * Counts the worlds using each feature and registers or unregisters handlers to match.
+     */
+    public void update() {
+        this.updatePending = false;
+        if (!this.started) {
+            return;
+        }
+        int[] counts = new int[this.worldCounts.length];
+        for (MultiverseWorld world : this.plugin.getMVWorldManager().getMVWorlds()) {
+            for (Feature feature : Feature.values()) {
+                if (feature.isNeededBy(world)) {
+                    counts[feature.ordinal()]++;
+                }
+            }
+        }
+        for (Feature feature : Feature.values()) {
+            this.worldCounts[feature.ordinal()] = counts[feature.ordinal()];
+            if (counts[feature.ordinal()] > 0) {
+                this.register(feature);
+            } else {
+                this.unregister(feature);
+            }
+        }
+    }
+
+    /**
+     * Gets how many worlds used a feature when they were last counted.
+     *
+     * @param feature The {@link Feature}.
+     * @return The number of worlds.
+     */
+    public int getWorldCount(Feature feature) {
+        return this.worldCounts[feature.ordinal()];
+    }
+
+    /**
+     * Checks whether the handlers of a feature are currently registered.
+     *
+     * @param feature The {@link Feature}.
+     * @return True if they are.
+     */
+    public boolean isRegistered(Feature feature) {
+        return this.registered.containsKey(feature);
+    }
+
+    private void register(Feature feature) {
+        if (this.registered.containsKey(feature)) {
+            return;
+        }
+        Listener listener = new Listener() { };
+        switch (feature) {
+            case HUNGER:
+                MVEntityListener hunger = this.plugin.getEntityListener();
+                this.handle(listener, FoodLevelChangeEvent.class, false, hunger::foodLevelChange);
+                break;
+            case AUTO_HEAL:
+                MVEntityListener heal = this.plugin.getEntityListener();
+                this.handle(listener, EntityRegainHealthEvent.class, false, heal::entityRegainHealth);
+                break;
+            case SPAWNING:
+                MVEntityListener spawning = this.plugin.getEntityListener();
+                this.handle(listener, CreatureSpawnEvent.class, false, spawning::creatureSpawn);
+                break;
+            case WEATHER:
+                MVWeatherListener weather = this.plugin.getWeatherListener();
+                this.handle(listener, WeatherChangeEvent.class, false, weather::weatherChange);
+                this.handle(listener, ThunderChangeEvent.class, false, weather::thunderChange);
+                break;
+            case PORTAL_FORM:
+                MVPortalListener portals = this.plugin.getPortalListener();
+                this.handle(listener, PortalCreateEvent.class, true, portals::portalForm);
+                this.handle(listener, PlayerInteractEvent.class, true, portals::portalForm);
+                break;
+            default:
+                return;
+        }
+        this.registered.put(feature, listener);
+        Logging.fine("Registered the handlers of world feature %s.", feature);
+    }
+
+    private void unregister(Feature feature) {
+        Listener listener = this.registered.remove(feature);
+        if (listener != null) {
+            HandlerList.unregisterAll(listener);
+            Logging.fine("Unregistered the handlers of world feature %s, no world uses it.", feature);
+        }
+    }
+
+    private <T extends Event> void handle(Listener listener, Class<T> type, boolean ignoreCancelled,
+            Consumer<T> handler) {
+        this.plugin.getServer().getPluginManager().registerEvent(type, listener, EventPriority.NORMAL,
+                (l, event) -> {
+                    // Events of subclasses that share the handler list end up here too.
+                    if (type.isInstance(event)) {
+                        handler.accept(type.cast(event));
+                    }
+                }, this.plugin, ignoreCancelled);
+    }
+}
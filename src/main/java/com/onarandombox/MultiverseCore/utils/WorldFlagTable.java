@@ -0,0 +1,57 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.World;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The {@link WorldFlags} of all Multiverse worlds, indexed by their Bukkit {@link World}.
+ * <p>
+ * Lookups compare worlds by identity and never lock. Worlds change their flags rarely, so every
+ * change publishes a new copy of the whole table.
+ */
+public class WorldFlagTable {
+    private volatile Map<World, WorldFlags> flags = new IdentityHashMap<World, WorldFlags>();
+
+    /**
+     * Gets the flags of a world.
+     *
+     * @param world The {@link World}.
+     * @return Its {@link WorldFlags}, null if it isn't a Multiverse world.
+     */
+    public WorldFlags get(World world) {
+        return this.flags.get(world);
+    }
+
+    /**
+     * Publishes the flags of a world.
+     *
+     * @param world      The {@link World}.
+     * @param worldFlags Its new {@link WorldFlags}.
+     */
+    public synchronized void publish(World world, WorldFlags worldFlags) {
+        Map<World, WorldFlags> copy = new IdentityHashMap<World, WorldFlags>(this.flags);
+        copy.put(world, worldFlags);
+        this.flags = copy;
+    }
+
+    /**
+     * Forgets the flags of a world that's no longer managed by Multiverse.
+     *
+     * @param name The name of the world.
+     */
+    public synchronized void remove(String name) {
+        Map<World, WorldFlags> copy = new IdentityHashMap<World, WorldFlags>(this.flags);
+        if (copy.keySet().removeIf(world -> name.equals(world.getName()))) {
+            this.flags = copy;
+        }
+    }
+}
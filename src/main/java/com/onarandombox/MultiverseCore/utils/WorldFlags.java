@@ -0,0 +1,108 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.enums.AllowedPortalType;
+import org.bukkit.PortalType;
+
+/**
+ * The world properties that frequent event handlers read, packed into the bits of a single int.
+ * <p>
+ * Instances are immutable. A world publishes a new one in the {@link WorldFlagTable} whenever one
+ * of these properties changes, so handlers don't have to go through the world's property config.
+ */
+public final class WorldFlags {
+    /** Set if players get hungry. */
+    public static final int HUNGER = 1;
+    /** Set if players regenerate health. */
+    public static final int AUTO_HEAL = 1 << 1;
+    /** Set if it may rain or storm. */
+    public static final int WEATHER = 1 << 2;
+    /** The first of the bits that are set per {@link PortalType} that may form. */
+    private static final int PORTAL_SHIFT = 3;
+
+    private final int bits;
+
+    private WorldFlags(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Reads the flags of a world.
+     *
+     * @param world The {@link MultiverseWorld}.
+     * @return Its {@link WorldFlags}.
+     */
+    public static WorldFlags of(MultiverseWorld world) {
+        int bits = 0;
+        if (world.getHunger()) {
+            bits |= HUNGER;
+        }
+        if (world.getAutoHeal()) {
+            bits |= AUTO_HEAL;
+        }
+        if (world.isWeatherEnabled()) {
+            bits |= WEATHER;
+        }
+        return new WorldFlags(bits | portalBits(world.getAllowedPortals()));
+    }
+
+    private static int portalBits(AllowedPortalType allowed) {
+        int bits = 0;
+        if (allowed != null) {
+            for (PortalType type : PortalType.values()) {
+                if (allowed.isPortalAllowed(type)) {
+                    bits |= 1 << (PORTAL_SHIFT + type.ordinal());
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Copies these flags with one of them changed.
+     *
+     * @param flag  The flag, for example {@link #HUNGER}.
+     * @param value Whether it's set.
+     * @return The changed {@link WorldFlags}.
+     */
+    public WorldFlags with(int flag, boolean value) {
+        return new WorldFlags(value ? (this.bits | flag) : (this.bits & ~flag));
+    }
+
+    /**
+     * Copies these flags with other portals allowed.
+     *
+     * @param allowed The {@link AllowedPortalType}.
+     * @return The changed {@link WorldFlags}.
+     */
+    public WorldFlags withPortals(AllowedPortalType allowed) {
+        return new WorldFlags((this.bits & ((1 << PORTAL_SHIFT) - 1)) | portalBits(allowed));
+    }
+
+    /**
+     * Checks a flag.
+     *
+     * @param flag The flag, for example {@link #HUNGER}.
+     * @return True if it's set.
+     */
+    public boolean is(int flag) {
+        return (this.bits & flag) != 0;
+    }
+
+    /**
+     * Checks whether a type of portal may form.
+     *
+     * @param type The {@link PortalType}.
+     * @return True if it may.
+     */
+    public boolean isPortalAllowed(PortalType type) {
+        return (this.bits & (1 << (PORTAL_SHIFT + type.ordinal()))) != 0;
+    }
+}
@@ -0,0 +1,416 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.exceptions.PropertyDoesNotExistException;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionDefault;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Manages world groups, which are defined in groups.yml.
+ * <p>
+ * A group has a list of name patterns (with * and ? wildcards, ignoring case) deciding which worlds
+ * belong to it, a blacklist of other groups its members can't travel to, an access permission
+ * (multiverse.access.group.&lt;name&gt;) that grants access to all its members and default properties
+ * that are applied to worlds created or imported into the group.
+ * <p>
+ * Membership is resolved into {@link BitSet}s over the ids of the {@link WorldTravelMatrix}, so checks
+ * only have to look at the few groups a world belongs to.
+ */
+public class WorldGroupManager {
+    private static final String GROUP_ACCESS_PREFIX = "multiverse.access.group.";
+
+    private final MultiverseCore plugin;
+    private final List<WorldGroup> groups = new ArrayList<WorldGroup>();
+    private final Map<String, WorldGroup> groupsByName = new HashMap<String, WorldGroup>();
+    /** For every world id, the indices of the groups the world is in. */
+    private final List<BitSet> worldGroups = new ArrayList<BitSet>();
+
+    public WorldGroupManager(MultiverseCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Loads all groups from groups.yml and resolves the members of all loaded worlds.
+     */
+    public void loadGroups() {
+        this.clear();
+        FileConfiguration config = YamlConfiguration.loadConfiguration(new File(this.plugin.getDataFolder(), "groups.yml"));
+        ConfigurationSection groupsSection = config.getConfigurationSection("groups");
+        if (groupsSection != null) {
+            for (String name : groupsSection.getKeys(false)) {
+                ConfigurationSection section = groupsSection.getConfigurationSection(name);
+                if (section == null) {
+                    Logging.warning("World group '%s' is not a section, ignoring it.", name);
+                    continue;
+                }
+                Map<String, String> defaults = new LinkedHashMap<String, String>();
+                ConfigurationSection defaultsSection = section.getConfigurationSection("defaults");
+                if (defaultsSection != null) {
+                    for (String key : defaultsSection.getKeys(false)) {
+                        defaults.put(key, defaultsSection.getString(key));
+                    }
+                }
+                this.addGroup(name, section.getStringList("worlds"), section.getStringList("blacklist"), defaults);
+            }
+        }
+        for (MultiverseWorld world : this.plugin.getMVWorldManager().getMVWorlds()) {
+            this.addWorld(world);
+        }
+        Logging.config("%d world group(s) loaded.", this.groups.size());
+    }
+
+    /**
+     * Removes all groups.
+     */
+    public void clear() {
+        Permission allWorlds = this.plugin.getServer().getPluginManager().getPermission("multiverse.access.*");
+        for (WorldGroup group : this.groups) {
+            if (allWorlds != null) {
+                allWorlds.getChildren().remove(group.accessPermission.getName());
+            }
+            this.plugin.getServer().getPluginManager().removePermission(group.accessPermission);
+        }
+        this.plugin.getPermissionBatch().recalculate(allWorlds);
+        this.groups.clear();
+        this.groupsByName.clear();
+        this.worldGroups.clear();
+    }
+
+    /**
+     * Adds a group. Worlds that are already loaded have to be added again with {@link #addWorld(MultiverseWorld)}.
+     *
+     * @param name      The name of the group.
+     * @param patterns  The patterns world names are matched against.
+     * @param blacklist The names of the groups members of this group can't travel to.
+     * @param defaults  The properties applied to new worlds in this group.
+     * @return The new {@link WorldGroup}.
+     */
+    public WorldGroup addGroup(String name, List<String> patterns, List<String> blacklist, Map<String, String> defaults) {
+        Permission access = new Permission(GROUP_ACCESS_PREFIX + name.toLowerCase(Locale.ENGLISH),
+                "Allows access to all worlds in the group " + name, PermissionDefault.OP);
+        WorldGroup group = new WorldGroup(this.groups.size(), name, patterns, blacklist, defaults, access);
+        this.groups.add(group);
+        this.groupsByName.put(name.toLowerCase(Locale.ENGLISH), group);
+        this.registerPermission(group);
+        return group;
+    }
+
+    private void registerPermission(WorldGroup group) {
+        if (this.plugin.getServer().getPluginManager().getPermission(group.accessPermission.getName()) == null) {
+            this.plugin.getServer().getPluginManager().addPermission(group.accessPermission);
+        }
+        Permission allWorlds = this.plugin.getServer().getPluginManager().getPermission("multiverse.access.*");
+        if (allWorlds != null) {
+            allWorlds.getChildren().put(group.accessPermission.getName(), true);
+            this.plugin.getPermissionBatch().recalculate(allWorlds);
+        }
+    }
+
+    /**
+     * Gets a group by its name.
+     *
+     * @param name The name of the group, ignoring case.
+     * @return The {@link WorldGroup} or null if there is none with that name.
+     */
+    public WorldGroup getGroup(String name) {
+        return this.groupsByName.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * @return All groups.
+     */
+    public List<WorldGroup> getGroups() {
+        return Collections.unmodifiableList(this.groups);
+    }
+
+    /**
+     * Adds a world to all groups it matches. Call this after it was added to the {@link WorldTravelMatrix}.
+     *
+     * @param world The {@link MultiverseWorld}.
+     */
+    public void addWorld(MultiverseWorld world) {
+        int id = this.plugin.getTravelMatrix().getId(world);
+        if (id < 0 || this.groups.isEmpty()) {
+            return;
+        }
+        this.removeWorld(id);
+        BitSet memberOf = new BitSet();
+        for (WorldGroup group : this.groups) {
+            if (group.matches(world.getName())) {
+                group.members.set(id);
+                memberOf.set(group.index);
+            }
+        }
+        while (this.worldGroups.size() <= id) {
+            this.worldGroups.add(null);
+        }
+        this.worldGroups.set(id, memberOf);
+        // Groups blacklisting the groups of the new world can't go there.
+        for (WorldGroup group : this.groups) {
+            for (String blacklisted : group.blacklist) {
+                WorldGroup other = this.getGroup(blacklisted);
+                if (other != null && memberOf.get(other.index)) {
+                    group.blocked.set(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a world from all groups. Call this before it's removed from the {@link WorldTravelMatrix}.
+     *
+     * @param world The {@link MultiverseWorld}.
+     */
+    public void removeWorld(MultiverseWorld world) {
+        int id = this.plugin.getTravelMatrix().getId(world);
+        if (id >= 0) {
+            this.removeWorld(id);
+        }
+    }
+
+    /**
+     * Removes all worlds from all groups, keeping the groups themselves.
+     */
+    public void removeAllWorlds() {
+        this.worldGroups.clear();
+        for (WorldGroup group : this.groups) {
+            group.members.clear();
+            group.blocked.clear();
+        }
+    }
+
+    private void removeWorld(int id) {
+        if (id < this.worldGroups.size()) {
+            this.worldGroups.set(id, null);
+        }
+        for (WorldGroup group : this.groups) {
+            group.members.clear(id);
+            group.blocked.clear(id);
+        }
+    }
+
+    /**
+     * Gets the groups a world is in.
+     *
+     * @param world The {@link MultiverseWorld}.
+     * @return The {@link WorldGroup}s.
+     */
+    public List<WorldGroup> getGroups(MultiverseWorld world) {
+        BitSet memberOf = this.getMemberOf(world);
+        if (memberOf == null || memberOf.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<WorldGroup> result = new ArrayList<WorldGroup>(memberOf.cardinality());
+        for (int i = memberOf.nextSetBit(0); i >= 0; i = memberOf.nextSetBit(i + 1)) {
+            result.add(this.groups.get(i));
+        }
+        return result;
+    }
+
+    private BitSet getMemberOf(MultiverseWorld world) {
+        int id = this.plugin.getTravelMatrix().getId(world);
+        if (id < 0 || id >= this.worldGroups.size()) {
+            return null;
+        }
+        return this.worldGroups.get(id);
+    }
+
+    /**
+     * Checks whether a group the source world is in blacklists a group the destination is in.
+     *
+     * @param from The {@link MultiverseWorld} players are coming from.
+     * @param to   The {@link MultiverseWorld} players are going to.
+     * @return True if travelling from one to the other is not allowed.
+     */
+    public boolean isBlacklisted(MultiverseWorld from, MultiverseWorld to) {
+        BitSet memberOf = this.getMemberOf(from);
+        if (memberOf == null || memberOf.isEmpty()) {
+            return false;
+        }
+        int toId = this.plugin.getTravelMatrix().getId(to);
+        if (toId < 0) {
+            return false;
+        }
+        for (int i = memberOf.nextSetBit(0); i >= 0; i = memberOf.nextSetBit(i + 1)) {
+            if (this.groups.get(i).blocked.get(toId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a player can access a world through one of its groups.
+     *
+     * @param player The {@link Player}.
+     * @param world  The {@link MultiverseWorld}.
+     * @return True if the player has the access permission of a group the world is in.
+     */
+    public boolean hasGroupAccess(Player player, MultiverseWorld world) {
+        BitSet memberOf = this.getMemberOf(world);
+        if (memberOf == null) {
+            return false;
+        }
+        for (int i = memberOf.nextSetBit(0); i >= 0; i = memberOf.nextSetBit(i + 1)) {
+            if (player.hasPermission(this.groups.get(i).accessPermission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the ids of all worlds a player can access through groups, checking each group's permission once.
+     *
+     * @param player The {@link Player}.
+     * @return The ids of the accessible worlds, see {@link WorldTravelMatrix#getId(MultiverseWorld)}.
+     */
+    public BitSet getAccessibleWorlds(Player player) {
+        BitSet accessible = new BitSet();
+        for (WorldGroup group : this.groups) {
+            if (!group.members.isEmpty() && player.hasPermission(group.accessPermission)) {
+                accessible.or(group.members);
+            }
+        }
+        return accessible;
+    }
+
+    /**
+     * Applies the default properties of all groups a world is in.
+     *
+     * @param world The new {@link MultiverseWorld}.
+     */
+    public void applyDefaults(MultiverseWorld world) {
+        for (WorldGroup group : this.getGroups(world)) {
+            for (Map.Entry<String, String> entry : group.defaults.entrySet()) {
+                try {
+                    if (!world.setPropertyValue(entry.getKey(), entry.getValue())) {
+                        Logging.warning("Group '%s' has an invalid default for '%s': %s",
+                                group.name, entry.getKey(), entry.getValue());
+                    }
+                } catch (PropertyDoesNotExistException e) {
+                    Logging.warning("Group '%s' has a default for '%s', which is not a world property.",
+                            group.name, entry.getKey());
+                }
+            }
+        }
+    }
+
+    private static Pattern compilePattern(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?') {
+                regex.append(Pattern.quote(pattern.substring(start, i))).append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        regex.append(Pattern.quote(pattern.substring(start)));
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    /**
+     * A named group of worlds.
+     */
+    public static final class WorldGroup {
+        private final int index;
+        private final String name;
+        private final List<String> patterns;
+        private final List<Pattern> compiledPatterns = new ArrayList<Pattern>();
+        private final List<String> blacklist;
+        private final Map<String, String> defaults;
+        private final Permission accessPermission;
+        private final BitSet members = new BitSet();
+        /** The worlds members of this group can't travel to. */
+        private final BitSet blocked = new BitSet();
+
+        private WorldGroup(int index, String name, List<String> patterns, List<String> blacklist,
+                Map<String, String> defaults, Permission accessPermission) {
+            this.index = index;
+            this.name = name;
+            this.patterns = Collections.unmodifiableList(new ArrayList<String>(patterns));
+            this.blacklist = Collections.unmodifiableList(new ArrayList<String>(blacklist));
+            this.defaults = Collections.unmodifiableMap(new LinkedHashMap<String, String>(defaults));
+            this.accessPermission = accessPermission;
+            for (String pattern : patterns) {
+                this.compiledPatterns.add(compilePattern(pattern));
+            }
+        }
+
+        private boolean matches(String worldName) {
+            for (Pattern pattern : this.compiledPatterns) {
+                if (pattern.matcher(worldName).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return The name of this group.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return The patterns deciding which worlds are in this group.
+         */
+        public List<String> getPatterns() {
+            return this.patterns;
+        }
+
+        /**
+         * @return The names of the groups members of this group can't travel to.
+         */
+        public List<String> getBlacklist() {
+            return this.blacklist;
+        }
+
+        /**
+         * @return The properties applied to new worlds in this group.
+         */
+        public Map<String, String> getDefaults() {
+            return this.defaults;
+        }
+
+        /**
+         * @return The permission granting access to all worlds in this group.
+         */
+        public Permission getAccessPermission() {
+            return this.accessPermission;
+        }
+
+        /**
+         * @return The number of loaded worlds in this group.
+         */
+        public int getMemberCount() {
+            return this.members.cardinality();
+        }
+    }
+}
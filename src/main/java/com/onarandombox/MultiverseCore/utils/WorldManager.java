@@ -14,12 +14,10 @@ import com.onarandombox.MultiverseCore.MultiverseCoreConfiguration;
 import com.onarandombox.MultiverseCore.WorldProperties;
 import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
-import com.onarandombox.MultiverseCore.api.SafeTTeleporter;
 import com.onarandombox.MultiverseCore.api.WorldPurger;
 import com.onarandombox.MultiverseCore.event.MVWorldDeleteEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.GameRule;
-import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.World.Environment;
 import org.bukkit.WorldCreator;
@@ -47,7 +45,9 @@ import java.util.Random;
 import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -58,6 +58,8 @@ public class WorldManager implements MVWorldManager {
     private final MultiverseCore plugin;
     private final WorldPurger worldPurger;
     private final Map<String, MultiverseWorld> worlds;
+    /** The worlds that are being unloaded, deleted or regenerated, each with the operation holding it. */
+    private final Map<String, Object> busyWorlds = new ConcurrentHashMap<String, Object>();
     private Map<String, WorldProperties> worldsFromTheConfig;
     private FileConfiguration configWorlds = null;
     private Map<String, String> defaultGens;
@@ -268,7 +270,8 @@ public class WorldManager implements MVWorldManager {
         }
 
         // Important: doLoad() needs the MVWorld-object in worldsFromTheConfig
-        if (!worldsFromTheConfig.containsKey(name)) {
+        boolean isNew = !worldsFromTheConfig.containsKey(name);
+        if (isNew) {
             WorldProperties props = new WorldProperties(useSpawnAdjust, env);
             worldsFromTheConfig.put(name, props);
         }
@@ -292,6 +295,9 @@ public class WorldManager implements MVWorldManager {
 
         // set generator (special case because we can't read it from org.bukkit.World)
         this.worlds.get(name).setGenerator(generator);
+        if (isNew) {
+            this.plugin.getWorldGroupManager().applyDefaults(this.worlds.get(name));
+        }
 
         this.saveWorldsConfig();
         return true;
@@ -327,6 +333,10 @@ public class WorldManager implements MVWorldManager {
         if (!unloadWorld(name)) {
             return false;
         }
+        return this.removeUnloadedWorldFromConfig(name);
+    }
+
+    private boolean removeUnloadedWorldFromConfig(String name) {
         if (this.worldsFromTheConfig.containsKey(name)) {
             this.worldsFromTheConfig.remove(name);
             Logging.info("World '%s' was removed from config.yml", name);
@@ -383,29 +393,53 @@ public class WorldManager implements MVWorldManager {
      */
     @Override
     public boolean unloadWorld(String name, boolean unloadBukkit) {
+        // Without a per tick cap everything happens right now, so the future is already done.
+        return this.unloadWorld(name, unloadBukkit, 0).join();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> unloadWorldAsync(String name, boolean unloadBukkit) {
+        return this.unloadWorld(name, unloadBukkit, this.plugin.getMVConfig().getTeleportsPerTick());
+    }
+
+    private CompletableFuture<Boolean> unloadWorld(String name, boolean unloadBukkit, int teleportsPerTick) {
+        if (!unloadBukkit) {
+            // Nothing to wait for, e.g. Bukkit is unloading the world itself.
+            return this.doUnloadWorld(name, false, teleportsPerTick);
+        }
+        return this.whileBusy(name, token -> this.doUnloadWorld(name, true, teleportsPerTick));
+    }
+
+    private CompletableFuture<Boolean> doUnloadWorld(String name, boolean unloadBukkit, int teleportsPerTick) {
         if (this.worlds.containsKey(name)) {
             this.worldsFromTheConfig.get(name).cacheVirtualProperties();
-            if (unloadBukkit && this.unloadWorldFromBukkit(name, true)) {
-                this.worlds.remove(name);
-                Logging.info("World '%s' was unloaded from Bukkit.", name);
-                return true;
-            } else if (!unloadBukkit){
-                this.worlds.remove(name);
+            if (!unloadBukkit) {
+                this.forgetWorld(name);
                 Logging.info("World '%s' was unloaded from Multiverse.", name);
-                return true;
-            } else {
-                Logging.warning("World '%s' could not be unloaded from Bukkit. Is it a default world?", name);
+                return CompletableFuture.completedFuture(true);
             }
+            return this.unloadWorldFromBukkit(name, true, teleportsPerTick).thenApply(unloaded -> {
+                if (!unloaded) {
+                    Logging.warning("World '%s' could not be unloaded from Bukkit. Is it a default world?", name);
+                    return false;
+                }
+                this.forgetWorld(name);
+                Logging.info("World '%s' was unloaded from Bukkit.", name);
+                return true;
+            });
         } else if (this.plugin.getServer().getWorld(name) != null) {
             Logging.warning("Hmm Multiverse does not know about this world but it's loaded in memory.");
             Logging.warning("To let Multiverse know about it, use:");
             Logging.warning("/mv import %s %s", name, this.plugin.getServer().getWorld(name).getEnvironment().toString());
         } else if (this.worldsFromTheConfig.containsKey(name)) {
-            return true; // it's already unloaded
+            return CompletableFuture.completedFuture(true); // it's already unloaded
         } else {
             Logging.info("Multiverse does not know about '%s' and it's not loaded by Bukkit.", name);
         }
-        return false;
+        return CompletableFuture.completedFuture(false);
     }
 
     /**
@@ -498,25 +532,60 @@ public class WorldManager implements MVWorldManager {
             this.worldPurger.purgeWorld(world);
         }
         this.worlds.put(worldName, world);
+        this.plugin.getTravelMatrix().addWorld(world);
+        this.plugin.getWorldGroupManager().addWorld(world);
+        this.plugin.getWorldFeatures().scheduleUpdate();
         return true;
     }
 
+    private void forgetWorld(String name) {
+        MultiverseWorld world = this.worlds.remove(name);
+        if (world != null) {
+            this.plugin.getWorldGroupManager().removeWorld(world);
+            this.plugin.getWorldFeatures().scheduleUpdate();
+        }
+        this.plugin.getWorldFlags().remove(name);
+        this.plugin.getChatPrefixes().remove(name);
+        this.plugin.getTravelMatrix().removeWorld(name);
+        this.plugin.getMVPerms().getDecisionCache().invalidateWorld(name);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean deleteWorld(String name, boolean removeFromConfig, boolean deleteWorldFolder) {
+        // Without a per tick cap everything happens right now, so the future is already done.
+        return this.deleteWorld(name, removeFromConfig, deleteWorldFolder, 0).join();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteWorldAsync(String name, boolean removeFromConfig, boolean deleteWorldFolder) {
+        return this.deleteWorld(name, removeFromConfig, deleteWorldFolder, this.plugin.getMVConfig().getTeleportsPerTick());
+    }
+
+    private CompletableFuture<Boolean> deleteWorld(String name, boolean removeFromConfig, boolean deleteWorldFolder,
+            int teleportsPerTick) {
+        return this.whileBusy(name, token -> this.doDeleteWorld(name, removeFromConfig, deleteWorldFolder,
+                teleportsPerTick));
+    }
+
+    private CompletableFuture<Boolean> doDeleteWorld(String name, boolean removeFromConfig, boolean deleteWorldFolder,
+            int teleportsPerTick) {
         if (this.hasUnloadedWorld(name, false)) {
             // Attempt to load if unloaded so we can actually delete the world
             if (!this.doLoad(name)) {
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
         }
 
         World world = this.plugin.getServer().getWorld(name);
         if (world == null) {
             // We can only delete loaded worlds
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         // call the event!
@@ -524,19 +593,18 @@ public class WorldManager implements MVWorldManager {
         this.plugin.getServer().getPluginManager().callEvent(mvwde);
         if (mvwde.isCancelled()) {
             Logging.fine("Tried to delete a world, but the event was cancelled!");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        if (removeFromConfig) {
-            if (!removeWorldFromConfig(name)) {
+        return this.doUnloadWorld(name, true, teleportsPerTick).thenApply(unloaded -> {
+            if (!unloaded || (removeFromConfig && !this.removeUnloadedWorldFromConfig(name))) {
                 return false;
             }
-        } else {
-            if (!this.unloadWorld(name)) {
-                return false;
-            }
-        }
+            return this.deleteWorldFiles(name, world, deleteWorldFolder);
+        });
+    }
 
+    private boolean deleteWorldFiles(String name, World world, boolean deleteWorldFolder) {
         try {
             File worldFile = world.getWorldFolder();
             Logging.finer("deleteWorld(): worldFile: " + worldFile.getAbsolutePath());
@@ -578,13 +646,58 @@ public class WorldManager implements MVWorldManager {
     /**
      * Unload a world from Bukkit.
      *
-     * @param name   Name of the world to unload
-     * @param safely Perform this safely. Set to True to save world files before unloading.
-     * @return True if the world was unloaded, false if not.
+     * @param name             Name of the world to unload
+     * @param safely           Perform this safely. Set to True to save world files before unloading.
+     * @param teleportsPerTick Maximum number of players to move out of the world per tick.
+     * @return A future completed with true if the world was unloaded, false if not.
+     */
+    private CompletableFuture<Boolean> unloadWorldFromBukkit(String name, boolean safely, int teleportsPerTick) {
+        return this.removePlayersFromWorld(name, teleportsPerTick).thenApply(v -> {
+            // Players may have come in some other way while the others were moved out over several ticks.
+            World world = this.plugin.getServer().getWorld(name);
+            if (world != null && !world.getPlayers().isEmpty()) {
+                Logging.fine("Moving the %d players that came into '%s' meanwhile out too.",
+                        world.getPlayers().size(), name);
+                this.removePlayersFromWorld(name, 0).join();
+            }
+            return this.plugin.getServer().unloadWorld(name, safely);
+        });
+    }
+
+    /**
+     * Runs an operation that unloads a world, unless another one is already busy with it.
+     * Nobody may enter the world until the operation is done or {@link #release(String, Object) releases} it.
+     *
+     * @param name      The name of the world.
+     * @param operation The operation, given the token it holds the world with.
+     * @return The future of the operation, or one completed with false if the world is busy.
      */
-    private boolean unloadWorldFromBukkit(String name, boolean safely) {
-        this.removePlayersFromWorld(name);
-        return this.plugin.getServer().unloadWorld(name, safely);
+    private CompletableFuture<Boolean> whileBusy(String name, Function<Object, CompletableFuture<Boolean>> operation) {
+        Object token = new Object();
+        if (this.busyWorlds.putIfAbsent(name, token) != null) {
+            Logging.warning("World '%s' is already being unloaded, deleted or regenerated.", name);
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Boolean> future;
+        try {
+            future = operation.apply(token);
+        } catch (RuntimeException e) {
+            this.release(name, token);
+            throw e;
+        }
+        return future.whenComplete((result, error) -> this.release(name, token));
+    }
+
+    private void release(String name, Object token) {
+        this.busyWorlds.remove(name, token);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isBeingUnloaded(String name) {
+        return this.busyWorlds.containsKey(name);
     }
 
     /**
@@ -592,16 +705,28 @@ public class WorldManager implements MVWorldManager {
      */
     @Override
     public void removePlayersFromWorld(String name) {
+        this.removePlayersFromWorld(name, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> removePlayersFromWorldAsync(String name) {
+        return this.removePlayersFromWorld(name, this.plugin.getMVConfig().getTeleportsPerTick());
+    }
+
+    private CompletableFuture<Void> removePlayersFromWorld(String name, int teleportsPerTick) {
         World w = this.plugin.getServer().getWorld(name);
-        if (w != null) {
-            World safeWorld = this.plugin.getServer().getWorlds().get(0);
-            List<Player> ps = w.getPlayers();
-            SafeTTeleporter teleporter = this.plugin.getSafeTTeleporter();
-            for (Player p : ps) {
-                // We're removing players forcefully from a world, they'd BETTER spawn safely.
-                teleporter.safelyTeleport(null, p, safeWorld.getSpawnLocation(), true);
-            }
+        if (w == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        World safeWorld = this.plugin.getServer().getWorlds().get(0);
+        List<Player> ps = w.getPlayers();
+        // We're removing players forcefully from a world, they'd BETTER spawn safely.
+        return this.plugin.getSafeTTeleporter()
+                .safelyTeleportAll(null, ps, safeWorld.getSpawnLocation(), true, teleportsPerTick)
+                .thenAccept(moved -> Logging.fine("Moved %d of %d players out of '%s'.", moved, ps.size(), name));
     }
 
     /**
@@ -731,6 +856,16 @@ public class WorldManager implements MVWorldManager {
      */
     @Override
     public void loadWorlds(boolean forceLoad) {
+        // Every world adds its permissions to the same parents, only recalculate those once at the end.
+        this.plugin.getPermissionBatch().begin();
+        try {
+            this.doLoadWorlds(forceLoad);
+        } finally {
+            this.plugin.getPermissionBatch().end();
+        }
+    }
+
+    private void doLoadWorlds(boolean forceLoad) {
         // Basic Counter to count how many Worlds we are loading.
         int count = 0;
         this.ensureConfigIsPrepared();
@@ -755,9 +890,12 @@ public class WorldManager implements MVWorldManager {
                 this.plugin.getServer().getPluginManager().removePermission("mv.bypass.gamemode." + w.getName());
             }
             // Recalc the all permission
-            this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(allAccess);
-            this.plugin.getServer().getPluginManager().recalculatePermissionDefaults(allExempt);
+            this.plugin.getPermissionBatch().recalculate(allAccess);
+            this.plugin.getPermissionBatch().recalculate(allExempt);
+            this.plugin.getMVPerms().getDecisionCache().invalidateAll();
             this.worlds.clear();
+            this.plugin.getWorldGroupManager().removeAllWorlds();
+            this.plugin.getTravelMatrix().clear();
         }
 
         for (Map.Entry<String, WorldProperties> entry : worldsFromTheConfig.entrySet()) {
@@ -905,10 +1043,32 @@ public class WorldManager implements MVWorldManager {
      */
     @Override
     public boolean regenWorld(String name, boolean useNewSeed, boolean randomSeed, String seed, boolean keepGameRules) {
+        // Without a per tick cap everything happens right now, so the future is already done.
+        return this.regenWorld(name, useNewSeed, randomSeed, seed, keepGameRules, 0).join();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> regenWorldAsync(String name, boolean useNewSeed, boolean randomSeed, String seed,
+            boolean keepGameRules) {
+        return this.regenWorld(name, useNewSeed, randomSeed, seed, keepGameRules,
+                this.plugin.getMVConfig().getTeleportsPerTick());
+    }
+
+    private CompletableFuture<Boolean> regenWorld(String name, boolean useNewSeed, boolean randomSeed, String seed,
+            boolean keepGameRules, int teleportsPerTick) {
+        return this.whileBusy(name, token -> this.doRegenWorld(name, useNewSeed, randomSeed, seed, keepGameRules,
+                teleportsPerTick, token));
+    }
+
+    private CompletableFuture<Boolean> doRegenWorld(String name, boolean useNewSeed, boolean randomSeed, String seed,
+            boolean keepGameRules, int teleportsPerTick, Object token) {
         MultiverseWorld world = this.getMVWorld(name);
         if (world == null) {
             Logging.warning("Unable to regen a world that does not exist!");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         List<Player> ps = world.getCBWorld().getPlayers();
@@ -947,38 +1107,38 @@ public class WorldManager implements MVWorldManager {
         }
 
         // Do the regen.
-        if (!this.deleteWorld(name, false, false)) {
-            Logging.severe("Unable to regen world as world cannot be deleted.");
-            return false;
-        }
-        if (!this.doLoad(name, true, type)) {
-            Logging.severe("Unable to regen world as world cannot be loaded.");
-            return false;
-        }
-
-        // Get new MultiverseWorld reference.
-        world = this.getMVWorld(name);
+        Map<GameRule<?>, Object> savedGameRules = gameRuleMap;
+        return this.doDeleteWorld(name, false, false, teleportsPerTick).thenCompose(deleted -> {
+            if (!deleted) {
+                Logging.severe("Unable to regen world as world cannot be deleted.");
+                return CompletableFuture.completedFuture(false);
+            }
+            if (!this.doLoad(name, true, type)) {
+                Logging.severe("Unable to regen world as world cannot be loaded.");
+                return CompletableFuture.completedFuture(false);
+            }
 
-        // Load back GameRules if needed.
-        if (keepGameRules) {
-            Logging.fine("Restoring previous world's GameRules...");
-            World CBWorld = world.getCBWorld();
-            for (Map.Entry<GameRule<?>, Object> gameRuleEntry : gameRuleMap.entrySet()) {
-                if (!setGameRuleValue(CBWorld, gameRuleEntry.getKey(), gameRuleEntry.getValue())) {
-                    Logging.warning("Unable to set GameRule '%s' to '%s' on regen world.",
-                            gameRuleEntry.getKey().getName(), gameRuleEntry.getValue());
+            // Get new MultiverseWorld reference.
+            MultiverseWorld newWorld = this.getMVWorld(name);
+
+            // Load back GameRules if needed.
+            if (keepGameRules) {
+                Logging.fine("Restoring previous world's GameRules...");
+                World CBWorld = newWorld.getCBWorld();
+                for (Map.Entry<GameRule<?>, Object> gameRuleEntry : savedGameRules.entrySet()) {
+                    if (!setGameRuleValue(CBWorld, gameRuleEntry.getKey(), gameRuleEntry.getValue())) {
+                        Logging.warning("Unable to set GameRule '%s' to '%s' on regen world.",
+                                gameRuleEntry.getKey().getName(), gameRuleEntry.getValue());
+                    }
                 }
             }
-        }
-
-        // Send all players that were in the old world, BACK to it!
-        SafeTTeleporter teleporter = this.plugin.getSafeTTeleporter();
-        Location newSpawn = world.getSpawnLocation();
-        for (Player p : ps) {
-            teleporter.safelyTeleport(null, p, newSpawn, true);
-        }
 
-        return true;
+            // Send all players that were in the old world, BACK to it!
+            this.release(name, token);
+            return this.plugin.getSafeTTeleporter()
+                    .safelyTeleportAll(null, ps, newWorld.getSpawnLocation(), true, teleportsPerTick)
+                    .thenApply(moved -> true);
+        });
     }
 
     private <T> boolean setGameRuleValue(World world, GameRule<T> gameRule, Object value) {
@@ -0,0 +1,245 @@
+/******************************************************************************
+ * Multiverse 2 Copyright (c) the Multiverse Team 2011.                       *
+ * Multiverse 2 is licensed under the BSD License.                            *
+ * For more information please check the README.md file included              *
+ * with this project.                                                         *
+ ******************************************************************************/
+
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Precomputed answers to "may players travel from world A to world B" questions.
+ * <p>
+ * Every world gets a small integer id. For each world we keep a {@link BitSet} of the worlds on
+ * its blacklist and one bit telling whether entering it is free, so checking a pair of worlds
+ * only takes a couple of bit tests instead of walking the blacklists.
+ * <p>
+ * Rows are rebuilt when a world is added, removed or {@link #invalidate(MultiverseWorld) invalidated}.
+ * {@link com.onarandombox.MultiverseCore.MVWorld} invalidates its row whenever its blacklist or entry
+ * fee changes; whoever changes the list returned by {@link MultiverseWorld#getWorldBlacklist()} directly
+ * has to do that themselves. Worlds that aren't indexed are checked the slow way.
+ * <p>
+ * This is only meant to be used from the main thread.
+ */
+public class WorldTravelMatrix {
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final Map<String, BitSet> idsIgnoreCase = new HashMap<String, BitSet>();
+    private final List<Row> rows = new ArrayList<Row>();
+    private final BitSet used = new BitSet();
+    private final BitSet priceFree = new BitSet();
+
+    private static String lower(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Adds a world to the matrix, or replaces the world with the same name.
+     *
+     * @param world The {@link MultiverseWorld}.
+     */
+    public void addWorld(MultiverseWorld world) {
+        String name = world.getName();
+        Integer existing = this.ids.get(name);
+        if (existing != null) {
+            this.rows.get(existing).world = world;
+            this.invalidate(world);
+            return;
+        }
+        int id = this.used.nextClearBit(0);
+        this.used.set(id);
+        this.ids.put(name, id);
+        this.idsIgnoreCase.computeIfAbsent(lower(name), k -> new BitSet()).set(id);
+        while (this.rows.size() <= id) {
+            this.rows.add(null);
+        }
+        this.rows.set(id, new Row(world));
+        this.invalidate(world);
+
+        // Other worlds may already have this one on their blacklist.
+        for (Row row : this.rows) {
+            if (row == null || row.world == world) {
+                continue;
+            }
+            for (String entry : row.blacklist) {
+                if (entry.equals(name)) {
+                    row.exact.set(id);
+                }
+                if (entry.equalsIgnoreCase(name)) {
+                    row.ignoreCase.set(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a world from the matrix.
+     *
+     * @param name The name of the world.
+     */
+    public void removeWorld(String name) {
+        Integer id = this.ids.remove(name);
+        if (id == null) {
+            return;
+        }
+        BitSet sameName = this.idsIgnoreCase.get(lower(name));
+        sameName.clear(id);
+        if (sameName.isEmpty()) {
+            this.idsIgnoreCase.remove(lower(name));
+        }
+        this.rows.set(id, null);
+        this.used.clear(id);
+        this.priceFree.clear(id);
+        for (Row row : this.rows) {
+            if (row != null) {
+                row.exact.clear(id);
+                row.ignoreCase.clear(id);
+            }
+        }
+    }
+
+    /**
+     * Removes all worlds from the matrix.
+     */
+    public void clear() {
+        this.ids.clear();
+        this.idsIgnoreCase.clear();
+        this.rows.clear();
+        this.used.clear();
+        this.priceFree.clear();
+    }
+
+    /**
+     * Rebuilds the row of a world, e.g. because its blacklist or entry fee changed.
+     *
+     * @param world The {@link MultiverseWorld}.
+     */
+    public void invalidate(MultiverseWorld world) {
+        Integer id = this.ids.get(world.getName());
+        if (id == null) {
+            return;
+        }
+        Row row = this.rows.get(id);
+        row.rebuild();
+        this.priceFree.set(id, world.getPrice() == 0D);
+    }
+
+    private Row getRow(MultiverseWorld world) {
+        Integer id = this.ids.get(world.getName());
+        if (id == null) {
+            return null;
+        }
+        Row row = this.rows.get(id);
+        return (row.world == world) ? row : null;
+    }
+
+    /**
+     * Checks whether the destination is on the source world's blacklist.
+     *
+     * @param from The {@link MultiverseWorld} players are coming from.
+     * @param to   The {@link MultiverseWorld} players are going to.
+     * @return True if travelling from one to the other is not allowed.
+     */
+    public boolean isBlacklisted(MultiverseWorld from, MultiverseWorld to) {
+        Row row = this.getRow(from);
+        Integer toId = this.ids.get(to.getName());
+        if (row == null || toId == null) {
+            return from.getWorldBlacklist().contains(to.getName());
+        }
+        return row.exact.get(toId);
+    }
+
+    /**
+     * Checks whether a world name is on a world's blacklist, ignoring case.
+     *
+     * @param world     The {@link MultiverseWorld} whose blacklist is checked.
+     * @param worldName The name of the other world.
+     * @return True if the name is on the blacklist.
+     */
+    public boolean isBlacklistedIgnoreCase(MultiverseWorld world, String worldName) {
+        Row row = this.getRow(world);
+        Integer otherId = this.ids.get(worldName);
+        if (row == null || otherId == null) {
+            for (String entry : world.getWorldBlacklist()) {
+                if (entry.equalsIgnoreCase(worldName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return row.ignoreCase.get(otherId);
+    }
+
+    /**
+     * Checks whether travelling between two worlds costs nothing, i.e. it's the same world or
+     * the destination has no entry fee.
+     *
+     * @param from The {@link MultiverseWorld} players are coming from.
+     * @param to   The {@link MultiverseWorld} players are going to.
+     * @return True if no fee has to be paid.
+     */
+    public boolean isPriceFree(MultiverseWorld from, MultiverseWorld to) {
+        if (to.equals(from)) {
+            return true;
+        }
+        Integer toId = this.ids.get(to.getName());
+        if (toId == null || this.rows.get(toId).world != to) {
+            return to.getPrice() == 0D;
+        }
+        return this.priceFree.get(toId);
+    }
+
+    /**
+     * Gets the id of a world.
+     *
+     * @param world The {@link MultiverseWorld}.
+     * @return The id of the world or -1 if it isn't indexed.
+     */
+    public int getId(MultiverseWorld world) {
+        Integer id = this.ids.get(world.getName());
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * @return The number of indexed worlds.
+     */
+    public int size() {
+        return this.ids.size();
+    }
+
+    private final class Row {
+        private MultiverseWorld world;
+        /** A copy of the blacklist this row was built from. */
+        private List<String> blacklist = new ArrayList<String>();
+        private final BitSet exact = new BitSet();
+        private final BitSet ignoreCase = new BitSet();
+
+        private Row(MultiverseWorld world) {
+            this.world = world;
+        }
+
+        private void rebuild() {
+            this.blacklist = new ArrayList<String>(this.world.getWorldBlacklist());
+            this.exact.clear();
+            this.ignoreCase.clear();
+            for (String entry : this.blacklist) {
+                Integer id = ids.get(entry);
+                if (id != null) {
+                    this.exact.set(id);
+                }
+                BitSet sameName = idsIgnoreCase.get(lower(entry));
+                if (sameName != null) {
+                    this.ignoreCase.or(sameName);
+                }
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ import com.onarandombox.MultiverseCore.configuration.SpawnLocation;
 import com.onarandombox.MultiverseCore.listeners.MVAsyncPlayerChatListener;
 import com.onarandombox.MultiverseCore.utils.MockWorldFactory;
 import com.onarandombox.MultiverseCore.utils.TestInstanceCreator;
+import com.onarandombox.MultiverseCore.utils.WorldFlags;
 import org.bukkit.ChatColor;
 import org.bukkit.Difficulty;
 import org.bukkit.GameMode;
@@ -339,6 +340,30 @@ public class TestWorldProperties {
         assertEquals(false, mvWorld.getBedRespawn());
         assertEquals(false, mvWorld.getAutoLoad());
         assertEquals(new SpawnLocation(1, 1, 1), mvWorld.getSpawnLocation());
+
+        /* ****************************************** *
+         *   Test reloading edited values
+         * ****************************************** */
+        config = YamlConfiguration.loadConfiguration(new File(core.getDataFolder(), "worlds.yml"));
+        worldObj = (WorldProperties) config.get("worlds.world");
+        worldObj.setHunger(true);
+        worldObj.setAutoHeal(true);
+        worldObj.setEnableWeather(true);
+        worldObj.setAlias("reloaded");
+        config.set("worlds.world", worldObj);
+        config.save(new File(core.getDataFolder(), "worlds.yml"));
+        core.loadConfigs();
+
+        // The handlers act on the reloaded values.
+        WorldFlags flags = core.getWorldFlags().get(mvWorld.getCBWorld());
+        assertTrue(flags.is(WorldFlags.HUNGER));
+        assertTrue(flags.is(WorldFlags.AUTO_HEAL));
+        assertTrue(flags.is(WorldFlags.WEATHER));
+        core.getEntityListener().entityRegainHealth(entityRegainHealthEvent);
+        verify(entityRegainHealthEvent, times(1)).setCancelled(true);
+        assertEquals("reloaded", mvWorld.getAlias());
+        assertEquals("[" + mvWorld.getColoredWorldString() + "]format",
+                core.getChatPrefixes().format(mvWorld.getName(), "[%world%]%chat%", "format"));
     }
 
     public void createEvents(MultiverseWorld mvWorld) {
@@ -2,22 +2,45 @@ package com.onarandombox.MultiverseCore;
 
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
 import com.onarandombox.MultiverseCore.api.WorldPurger;
+import com.onarandombox.MultiverseCore.utils.MockWorldFactory;
+import com.onarandombox.MultiverseCore.utils.SimpleWorldPurger;
 import com.onarandombox.MultiverseCore.utils.TestInstanceCreator;
+import org.bukkit.Chunk;
 import org.bukkit.World;
+import org.bukkit.WorldType;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Arrow;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Sheep;
+import org.bukkit.entity.Skeleton;
 import org.bukkit.entity.Zombie;
+import org.bukkit.plugin.Plugin;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class TestWorldPurger {
     TestInstanceCreator creator;
@@ -30,6 +53,9 @@ public class TestWorldPurger {
     Sheep sheep;
     Zombie zombie;
 
+    List<Chunk> chunks;
+    List<Zombie> zombies;
+
     @Before
     public void setUp() throws Exception {
         creator = new TestInstanceCreator();
@@ -116,4 +142,139 @@ public class TestWorldPurger {
         when(zombie.getWorld()).thenReturn(world);
         when(cbworld.getEntities()).thenReturn(Arrays.asList(sheep, zombie));
     }
+
+    @Test
+    public void purgesProjectilesOfPurgedShootersOnly() {
+        final int mobs = 12;
+        final int projectiles = 36;
+        Random random = new Random(42L);
+        final Set<Entity> removed = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+        List<Entity> entities = new ArrayList<Entity>(mobs + projectiles);
+        List<LivingEntity> shooters = new ArrayList<LivingEntity>(mobs);
+        for (int i = 0; i < mobs; i++) {
+            final LivingEntity mob;
+            if (i % 2 == 0) {
+                mob = mock(Skeleton.class, withSettings().stubOnly());
+                when(mob.getType()).thenReturn(EntityType.SKELETON);
+            } else {
+                mob = mock(Sheep.class, withSettings().stubOnly());
+                when(mob.getType()).thenReturn(EntityType.SHEEP);
+            }
+            doAnswer(invocation -> removed.add(mob)).when(mob).remove();
+            shooters.add(mob);
+            entities.add(mob);
+        }
+        Set<Entity> expected = new HashSet<Entity>();
+        for (int i = 0; i < projectiles; i++) {
+            final Arrow arrow = mock(Arrow.class, withSettings().stubOnly());
+            // Some arrows were shot by dispensers or have lost their shooter, the others by every kind of mob.
+            LivingEntity shooter = (i % 10 == 0) ? null : shooters.get(i % mobs);
+            when(arrow.getShooter()).thenReturn(shooter);
+            doAnswer(invocation -> removed.add(arrow)).when(arrow).remove();
+            if (shooter != null && shooter.getType() == EntityType.SKELETON) {
+                expected.add(arrow);
+            }
+            entities.add(arrow);
+        }
+        Collections.shuffle(entities, random);
+        when(cbworld.getEntities()).thenReturn(entities);
+
+        purger.purgeWorld(mvWorld, Arrays.asList("MONSTERS"), false, false);
+
+        for (LivingEntity mob : shooters) {
+            if (mob.getType() == EntityType.SKELETON) {
+                expected.add(mob);
+            }
+        }
+        assertEquals(expected.size(), removed.size());
+        assertTrue(expected.containsAll(removed));
+    }
+
+    private Runnable startIncrementalPurge(CommandSender sender) {
+        final int chunkCount = 70;
+        World world = MockWorldFactory.makeNewMockWorld("purged", World.Environment.NORMAL, WorldType.NORMAL);
+        when(mvWorld.getName()).thenReturn("purged");
+        when(mvWorld.getCBWorld()).thenReturn(world);
+        chunks = new ArrayList<Chunk>(chunkCount);
+        zombies = new ArrayList<Zombie>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            Zombie chunkZombie = mock(Zombie.class);
+            when(chunkZombie.getType()).thenReturn(EntityType.ZOMBIE);
+            zombies.add(chunkZombie);
+            Sheep chunkSheep = mock(Sheep.class);
+            when(chunkSheep.getType()).thenReturn(EntityType.SHEEP);
+            Entity[] entities = new Entity[] { chunkZombie, chunkSheep };
+            Chunk chunk = mock(Chunk.class);
+            when(chunk.isLoaded()).thenReturn(true);
+            // Every chunk takes longer than the budget, so each tick gets through just one.
+            when(chunk.getEntities()).thenAnswer(invocation -> {
+                Thread.sleep(2L);
+                return entities;
+            });
+            chunks.add(chunk);
+        }
+        when(world.getLoadedChunks()).thenReturn(chunks.toArray(new Chunk[0]));
+
+        core.getMVConfig().setPurgeTickBudget(1);
+        purger.purgeWorldIncrementally(mvWorld, Arrays.asList("MONSTERS"), false, false, sender);
+        verify(sender).sendMessage("Purging 70 chunks of the world 'purged' in the background...");
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(core.getServer().getScheduler()).runTaskTimer(any(Plugin.class), task.capture(), eq(1L), eq(1L));
+        return task.getValue();
+    }
+
+    @Test
+    public void purgesIncrementallyAcrossTicks() {
+        CommandSender sender = mock(CommandSender.class);
+        Runnable tick = startIncrementalPurge(sender);
+        // Arrows are only looked at once all chunks are done, wherever their shooters are.
+        Arrow zombieArrow = mock(Arrow.class);
+        when(zombieArrow.getShooter()).thenReturn(zombies.get(69));
+        when(zombieArrow.isValid()).thenReturn(true);
+        Sheep shooter = mock(Sheep.class);
+        Arrow sheepArrow = mock(Arrow.class);
+        when(sheepArrow.getShooter()).thenReturn(shooter);
+        when(sheepArrow.isValid()).thenReturn(true);
+        Entity[] firstChunk = new Entity[] { zombies.get(0), zombieArrow, sheepArrow };
+        when(chunks.get(0).getEntities()).thenAnswer(invocation -> {
+            Thread.sleep(2L);
+            return firstChunk;
+        });
+
+        tick.run();
+        verify(zombies.get(0)).remove();
+        verify(zombies.get(1), never()).remove();
+        assertEquals(1, ((SimpleWorldPurger) purger).getPendingJobCount());
+
+        int ticks = 1;
+        while (((SimpleWorldPurger) purger).getPendingJobCount() > 0 && ticks < 1000) {
+            tick.run();
+            ticks++;
+        }
+        assertEquals(0, ((SimpleWorldPurger) purger).getPendingJobCount());
+        assertTrue(ticks >= chunks.size());
+        for (Zombie chunkZombie : zombies) {
+            verify(chunkZombie).remove();
+        }
+        verify(zombieArrow).remove();
+        verify(sheepArrow, never()).remove();
+        verify(sender).sendMessage(
+                "70 entities purged from the world 'purged' along with 1 projectiles that belonged to them.");
+    }
+
+    @Test
+    public void stopsPurgingWorldsThatWereUnloaded() {
+        CommandSender sender = mock(CommandSender.class);
+        Runnable tick = startIncrementalPurge(sender);
+        tick.run();
+        verify(zombies.get(0)).remove();
+
+        World world = mvWorld.getCBWorld();
+        when(core.getServer().getWorld(world.getUID())).thenReturn(null);
+        tick.run();
+        assertEquals(0, ((SimpleWorldPurger) purger).getPendingJobCount());
+        verify(chunks.get(1), never()).getEntities();
+        verify(zombies.get(1), never()).remove();
+        verify(sender).sendMessage("Stopped purging the world 'purged', it was unloaded. 1 entities were purged.");
+    }
 }
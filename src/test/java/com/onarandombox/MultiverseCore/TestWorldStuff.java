@@ -7,17 +7,23 @@
 
 package com.onarandombox.MultiverseCore;
 
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.api.SafeTTeleporter;
 import com.onarandombox.MultiverseCore.exceptions.PropertyDoesNotExistException;
 import com.onarandombox.MultiverseCore.utils.MockWorldFactory;
 import com.onarandombox.MultiverseCore.utils.TestInstanceCreator;
 import com.onarandombox.MultiverseCore.utils.WorldCreatorMatcher;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.Server;
+import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.Plugin;
 import org.junit.After;
 import org.junit.Before;
@@ -26,11 +32,22 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.internal.verification.VerificationModeFactory;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -277,6 +294,50 @@ public class TestWorldStuff {
         verify(mockCommandSender).sendMessage(ChatColor.RED + "Sorry, You can't set: '" + ChatColor.GRAY + "blah" + ChatColor.RED + "'");
     }
 
+    @Test
+    public void testWorldIsBusyWhileUnloading() {
+        Plugin plugin = mockServer.getPluginManager().getPlugin("Multiverse-Core");
+        Command mockCommand = mock(Command.class);
+        when(mockCommand.getName()).thenReturn("mv");
+        createInitialWorlds(plugin, mockCommand);
+        MultiverseCore core = creator.getCore();
+        MVWorldManager worldManager = core.getMVWorldManager();
+        World nether = mockServer.getWorld("world_nether");
+
+        // Moving the players out takes a few ticks.
+        CompletableFuture<Integer> evacuation = new CompletableFuture<Integer>();
+        SafeTTeleporter teleporter = mock(SafeTTeleporter.class);
+        when(teleporter.safelyTeleportAll(any(), anyCollection(), any(), anyBoolean(), anyInt()))
+                .thenReturn(evacuation, CompletableFuture.completedFuture(1));
+        core.setSafeTTeleporter(teleporter);
+        CompletableFuture<Boolean> unload = worldManager.unloadWorldAsync("world_nether", true);
+        assertFalse(unload.isDone());
+        assertTrue(worldManager.isBeingUnloaded("world_nether"));
+
+        // Nothing else may unload, delete or regenerate the world meanwhile.
+        assertFalse(worldManager.unloadWorldAsync("world_nether", true).join());
+        assertFalse(worldManager.deleteWorldAsync("world_nether", true, true).join());
+        assertFalse(worldManager.regenWorldAsync("world_nether", false, false, null, false).join());
+        assertFalse(worldManager.isBeingUnloaded("world"));
+
+        // Nobody may enter it either.
+        Player player = mock(Player.class);
+        when(player.getName()).thenReturn("Notch");
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        PlayerTeleportEvent teleportEvent = new PlayerTeleportEvent(player,
+                new Location(mockServer.getWorld("world"), 0, 64, 0), new Location(nether, 0, 64, 0));
+        core.getPlayerListener().playerTeleport(teleportEvent);
+        assertTrue(teleportEvent.isCancelled());
+
+        // Someone got in anyway, they're moved out right away before the world is unloaded.
+        when(nether.getPlayers()).thenReturn(Collections.singletonList(player));
+        evacuation.complete(0);
+        assertTrue(unload.join());
+        verify(teleporter).safelyTeleportAll(isNull(), eq(Collections.singletonList(player)), any(), eq(true), eq(0));
+        assertFalse(worldManager.isBeingUnloaded("world_nether"));
+        assertNull(worldManager.getMVWorld("world_nether"));
+    }
+
     private void createInitialWorlds(Plugin plugin, Command command) {
         MockWorldFactory.createWorldDirectory("world");
         MockWorldFactory.createWorldDirectory("world_nether");
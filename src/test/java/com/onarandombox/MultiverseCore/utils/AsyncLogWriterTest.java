@@ -0,0 +1,98 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLogWriterTest {
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static AsyncLogWriter createWriter(File file, long maxBytes, int maxArchives) {
+        return createWriter(file, maxBytes, 0L, maxArchives);
+    }
+
+    private static AsyncLogWriter createWriter(File file, long maxBytes, long rotateInterval, int maxArchives) {
+        AsyncLogWriter writer = new AsyncLogWriter(file, 1024, maxBytes, rotateInterval, maxArchives);
+        writer.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + "\n";
+            }
+        });
+        return writer;
+    }
+
+    @Test
+    public void writesEverythingBeforeClosing() throws IOException {
+        File file = new File(folder.getRoot(), "debug.log");
+        Files.write(file.toPath(), "old\n".getBytes(StandardCharsets.UTF_8));
+        AsyncLogWriter writer = createWriter(file, Long.MAX_VALUE, 1);
+        for (int i = 0; i < 100; i++) {
+            writer.publish(new LogRecord(Level.INFO, "line " + i));
+        }
+        writer.close();
+
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.startsWith("old\nline 0\n"));
+        assertTrue(content.endsWith("line 99\n"));
+        assertEquals(0L, writer.getDroppedCount());
+
+        // Nothing gets written after closing.
+        writer.publish(new LogRecord(Level.INFO, "too late"));
+        assertEquals(1L, writer.getDroppedCount());
+    }
+
+    @Test
+    public void rotatesBigFiles() {
+        File file = new File(folder.getRoot(), "debug.log");
+        AsyncLogWriter writer = createWriter(file, 10L, 1);
+        writer.publish(new LogRecord(Level.INFO, "more than ten bytes"));
+        writer.close();
+
+        // The full file was compressed and a new, empty one started.
+        assertEquals(0L, file.length());
+        File[] archives = folder.getRoot().listFiles((dir, name) -> name.endsWith(".gz"));
+        assertEquals(1, archives.length);
+        assertTrue(archives[0].getName().startsWith("debug.log."));
+    }
+
+    @Test
+    public void restartsDontResetTheAge() throws IOException {
+        File file = new File(folder.getRoot(), "debug.log");
+        Files.write(file.toPath(), "old\n".getBytes(StandardCharsets.UTF_8));
+        DateTimeFormatter timestamp = DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss").withZone(ZoneId.systemDefault());
+        Instant twoHoursAgo = Instant.now().minus(2, ChronoUnit.HOURS);
+        new File(folder.getRoot(), "debug.log." + timestamp.format(twoHoursAgo) + ".gz").createNewFile();
+
+        // The last rotation was two hours ago, so a three hour interval isn't up yet.
+        AsyncLogWriter writer = createWriter(file, Long.MAX_VALUE, 3 * HOUR, 5);
+        writer.publish(new LogRecord(Level.INFO, "line"));
+        writer.close();
+        assertEquals(1, folder.getRoot().listFiles((dir, name) -> name.endsWith(".gz")).length);
+
+        // An hour is, even though the writer was only just started.
+        writer = createWriter(file, Long.MAX_VALUE, HOUR, 5);
+        writer.publish(new LogRecord(Level.INFO, "line"));
+        writer.close();
+        assertEquals(2, folder.getRoot().listFiles((dir, name) -> name.endsWith(".gz")).length);
+        assertEquals("line\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+}
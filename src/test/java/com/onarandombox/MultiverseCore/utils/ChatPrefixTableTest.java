@@ -0,0 +1,28 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ChatPrefixTableTest {
+    @Test
+    public void formatsLikeReplacingTheTemplate() {
+        ChatPrefixTable table = new ChatPrefixTable();
+        String worldString = ChatColor.GREEN + "Spawn" + ChatColor.WHITE;
+        table.publish("world", worldString);
+
+        assertEquals("[" + worldString + "]<%1$s> %2$s", table.format("world", "[%world%]%chat%", "<%1$s> %2$s"));
+        assertNull(table.format("world_nether", "[%world%]%chat%", "<%1$s> %2$s"));
+
+        // A new format compiles the prefixes again, color codes get translated.
+        assertEquals(ChatColor.GRAY + worldString + " | chat | chat",
+                table.format("world", "&7%world% | %chat% | %chat%", "chat"));
+        assertEquals(worldString + " " + ChatColor.RED + "chat", table.format("world", "%world% %chat%", "&cchat"));
+
+        // Hidden worlds don't get a prefix.
+        table.publish("world", null);
+        assertNull(table.format("world", "%world% %chat%", "chat"));
+    }
+}
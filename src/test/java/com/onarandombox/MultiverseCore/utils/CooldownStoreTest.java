@@ -0,0 +1,28 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CooldownStoreTest {
+    @Test
+    public void keysCoolDownAndExpire() {
+        CooldownStore<String> store = new CooldownStore<String>();
+        assertTrue(store.tryAcquire("a", 60000L));
+        assertFalse(store.tryAcquire("a", 60000L));
+        assertTrue(store.isCoolingDown("a"));
+        assertTrue(store.tryAcquire("b", 60000L));
+
+        // An expired key can be taken again right away, even before it's swept.
+        assertTrue(store.tryAcquire("c", -1L));
+        assertFalse(store.isCoolingDown("c"));
+        assertTrue(store.tryAcquire("c", 60000L));
+
+        assertTrue(store.tryAcquire("d", -1L));
+        assertEquals(4, store.size());
+        store.sweep(System.currentTimeMillis());
+        assertEquals(3, store.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.utils.EntityCategories.Category;
+import org.bukkit.entity.Ambient;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Ghast;
+import org.bukkit.entity.Golem;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Phantom;
+import org.bukkit.entity.Slime;
+import org.bukkit.entity.Squid;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntityCategoriesTest {
+    private static Category instanceOfChain(EntityType type) {
+        Class<?> c = type.getEntityClass();
+        if (c == null) {
+            return Category.OTHER;
+        }
+        if (Golem.class.isAssignableFrom(c) || Squid.class.isAssignableFrom(c) || Animals.class.isAssignableFrom(c)
+                || Ambient.class.isAssignableFrom(c)) {
+            return Category.ANIMAL;
+        }
+        if (Monster.class.isAssignableFrom(c) || Ghast.class.isAssignableFrom(c)
+                || Slime.class.isAssignableFrom(c) || Phantom.class.isAssignableFrom(c)) {
+            return Category.MONSTER;
+        }
+        return Category.OTHER;
+    }
+
+    @Test
+    public void matchesInstanceOfChainForAllEntityTypes() {
+        EntityCategories categories = EntityCategories.build("");
+        // Every entity type has to get the same answer as the old checks.
+        for (EntityType type : EntityType.values()) {
+            Category category = categories.getCategory(type);
+            assertNotNull(category);
+            assertEquals(type.name(), instanceOfChain(type), category);
+        }
+        assertEquals(Category.ANIMAL, categories.getCategory(EntityType.SHEEP));
+        assertEquals(Category.MONSTER, categories.getCategory(EntityType.ZOMBIE));
+        assertEquals(Category.OTHER, categories.getCategory(EntityType.ARROW));
+        assertEquals(Category.OTHER, categories.getCategory(null));
+    }
+
+    @Test
+    public void overridesReplaceProbedCategories() {
+        assertEquals(Category.ANIMAL, EntityCategories.getProbedCategory(EntityType.HOGLIN));
+        assertEquals(Category.ANIMAL, EntityCategories.getProbedCategory(EntityType.SHULKER));
+
+        EntityCategories categories = EntityCategories.build(" hoglin:monster, SHULKER:Monster,axolotl:other");
+        assertEquals(Category.MONSTER, categories.getCategory(EntityType.HOGLIN));
+        assertEquals(Category.MONSTER, categories.getCategory(EntityType.SHULKER));
+        assertEquals(Category.OTHER, categories.getCategory(EntityType.AXOLOTL));
+        assertEquals(Category.ANIMAL, categories.getCategory(EntityType.SHEEP));
+    }
+
+    @Test
+    public void invalidOverridesAreSkipped() {
+        EntityCategories categories = EntityCategories.build("notanentity:monster,sheep,sheep:plant,,cow:monster");
+        assertEquals(Category.ANIMAL, categories.getCategory(EntityType.SHEEP));
+        assertEquals(Category.MONSTER, categories.getCategory(EntityType.COW));
+        assertEquals("", EntityCategories.build(null).getOverrides());
+    }
+
+    @Test
+    public void spawnRulesUseOverrides() {
+        SpawnRules probed = SpawnRules.compile(EntityCategories.build(""),
+                Collections.singletonList("MONSTERS"), false, false);
+        assertFalse(probed.shouldKill(EntityType.HOGLIN));
+        assertTrue(probed.shouldKill(EntityType.ZOMBIE));
+
+        EntityCategories categories = EntityCategories.build("hoglin:monster");
+        SpawnRules overridden = SpawnRules.compile(categories, Collections.singletonList("MONSTERS"), false, false);
+        assertTrue(overridden.shouldKill(EntityType.HOGLIN));
+        assertTrue(overridden.shouldKill(EntityType.ZOMBIE));
+        assertFalse(overridden.shouldKill(EntityType.SHEEP));
+        assertEquals(categories, overridden.getCategories());
+    }
+}
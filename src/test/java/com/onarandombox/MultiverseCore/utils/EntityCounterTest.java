@@ -0,0 +1,162 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Sheep;
+import org.bukkit.entity.Zombie;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EntityCounterTest {
+    private World world;
+    private Chunk loadedChunk;
+    private EntityCounter counter;
+
+    private <T extends Entity> T createEntity(Class<T> clazz, EntityType type, int x, int z) {
+        T entity = mock(clazz);
+        when(entity.getType()).thenReturn(type);
+        when(entity.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(entity.getWorld()).thenReturn(world);
+        when(entity.getLocation()).thenReturn(new Location(world, x, 64, z));
+        return entity;
+    }
+
+    private Chunk createChunk(int x, int z, Entity... entities) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getX()).thenReturn(x);
+        when(chunk.getZ()).thenReturn(z);
+        when(chunk.getWorld()).thenReturn(world);
+        when(chunk.getEntities()).thenReturn(entities);
+        return chunk;
+    }
+
+    @Before
+    public void setUp() {
+        world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        // Already loaded when counting starts: two zombies and a player in chunk 0,0.
+        loadedChunk = createChunk(0, 0, createEntity(Zombie.class, EntityType.ZOMBIE, 1, 1),
+                createEntity(Zombie.class, EntityType.ZOMBIE, 2, 2), createEntity(Player.class, EntityType.PLAYER, 3, 3));
+        when(world.getLoadedChunks()).thenReturn(new Chunk[] {loadedChunk});
+        counter = new EntityCounter();
+    }
+
+    @Test
+    public void countsSpawnsDeathsAndChunks() {
+        assertEquals(2, counter.getChunkCount(world, 0, 0));
+        assertEquals(2, counter.getTypeCount(world, EntityType.ZOMBIE));
+
+        Sheep sheep = createEntity(Sheep.class, EntityType.SHEEP, 20, -5);
+        counter.add(sheep);
+        assertEquals(1, counter.getChunkCount(world, 1, -1));
+        assertEquals(1, counter.getTypeCount(world, EntityType.SHEEP));
+        assertEquals(3, counter.getTotalCount(world));
+        assertEquals(2, counter.getMaxChunkCount(world));
+
+        counter.remove(sheep);
+        assertEquals(0, counter.getChunkCount(world, 1, -1));
+        assertEquals(0, counter.getTypeCount(world, EntityType.SHEEP));
+
+        // The zombies despawn without an event, unloading their chunk resets the counts.
+        counter.chunkUnloaded(loadedChunk);
+        assertEquals(0, counter.getChunkCount(world, 0, 0));
+        assertEquals(0, counter.getTypeCount(world, EntityType.ZOMBIE));
+        assertEquals(0, counter.getTotalCount(world));
+
+        Chunk other = createChunk(5, 5, createEntity(Sheep.class, EntityType.SHEEP, 80, 80));
+        counter.chunkLoaded(other);
+        counter.chunkLoaded(other);
+        assertEquals(1, counter.getChunkCount(world, 5, 5));
+        assertEquals(1, counter.getTypeCount(world, EntityType.SHEEP));
+    }
+
+    @Test
+    public void wanderingEntitiesAreTakenAwayWhereTheyWereCounted() {
+        Zombie zombie = createEntity(Zombie.class, EntityType.ZOMBIE, 100, 100);
+        // It spawned in chunk 6,6 but died somewhere else.
+        counter.add(zombie);
+        when(zombie.getLocation()).thenReturn(new Location(world, 500, 64, 500));
+        counter.remove(zombie);
+        assertEquals(2, counter.getTypeCount(world, EntityType.ZOMBIE));
+        assertEquals(0, counter.getChunkCount(world, 6, 6));
+        assertEquals(0, counter.getChunkCount(world, 31, 31));
+        // Dying and then leaving the world only counts once.
+        counter.remove(zombie);
+        assertEquals(2, counter.getTotalCount(world));
+
+        // Another one walks into a chunk that holds a sheep and is unloaded with it.
+        Sheep sheep = createEntity(Sheep.class, EntityType.SHEEP, 500, 500);
+        counter.add(sheep);
+        Zombie wanderer = createEntity(Zombie.class, EntityType.ZOMBIE, 100, 100);
+        counter.add(wanderer);
+        when(wanderer.getLocation()).thenReturn(new Location(world, 510, 64, 510));
+        counter.entitiesUnloaded(createChunk(31, 31), Arrays.<Entity>asList(sheep, wanderer));
+        assertEquals(0, counter.getChunkCount(world, 31, 31));
+        assertEquals(0, counter.getChunkCount(world, 6, 6));
+        assertEquals(2, counter.getTypeCount(world, EntityType.ZOMBIE));
+        assertEquals(0, counter.getTypeCount(world, EntityType.SHEEP));
+        assertEquals(2, counter.getTotalCount(world));
+
+        // Being counted again where it is now moves it.
+        counter.add(wanderer);
+        counter.chunkLoaded(createChunk(31, 31, wanderer));
+        assertEquals(1, counter.getChunkCount(world, 31, 31));
+        assertEquals(3, counter.getTotalCount(world));
+    }
+
+    @Test
+    public void entitiesThatDisappearWithoutDyingAreNotCountedForever() {
+        Zombie despawning = createEntity(Zombie.class, EntityType.ZOMBIE, 100, 100);
+        Zombie removed = createEntity(Zombie.class, EntityType.ZOMBIE, 101, 101);
+        counter.add(despawning);
+        counter.add(removed);
+        assertEquals(2, counter.getChunkCount(world, 6, 6));
+
+        // Servers with an entity remove event tell us.
+        counter.remove(removed);
+        assertEquals(1, counter.getChunkCount(world, 6, 6));
+
+        // Everywhere else the chunk is recounted, even though it never unloads.
+        Chunk chunk = createChunk(6, 6);
+        when(world.isChunkLoaded(6, 6)).thenReturn(true);
+        when(world.getChunkAt(6, 6)).thenReturn(chunk);
+        when(world.isChunkLoaded(0, 0)).thenReturn(true);
+        when(world.getChunkAt(0, 0)).thenReturn(loadedChunk);
+        counter.reconcile(Arrays.asList(world));
+        assertEquals(0, counter.getChunkCount(world, 6, 6));
+        assertEquals(2, counter.getChunkCount(world, 0, 0));
+        assertEquals(2, counter.getTypeCount(world, EntityType.ZOMBIE));
+        assertEquals(2, counter.getTotalCount(world));
+    }
+
+    @Test
+    public void budgetsAreEnforced() {
+        EntityBudget budget = EntityBudget.compile(2, Arrays.asList("zombie:3", "SHEEP:10", "nothing:5", "cow:many"));
+        assertTrue(budget.isLimited());
+        assertEquals(3, budget.getTypeLimit(EntityType.ZOMBIE));
+        assertEquals(10, budget.getTypeLimit(EntityType.SHEEP));
+        assertEquals(-1, budget.getTypeLimit(EntityType.COW));
+
+        // Chunk 0,0 already holds two entities.
+        assertTrue(budget.isExceeded(counter, world, EntityType.SHEEP, 0, 0));
+        assertFalse(budget.isExceeded(counter, world, EntityType.ZOMBIE, 1, 0));
+        counter.add(createEntity(Zombie.class, EntityType.ZOMBIE, 20, 0));
+        assertTrue(budget.isExceeded(counter, world, EntityType.ZOMBIE, 2, 0));
+        assertFalse(budget.isExceeded(counter, world, EntityType.SHEEP, 2, 0));
+
+        assertFalse(EntityBudget.compile(-1, Arrays.asList("zombie")).isLimited());
+    }
+}
@@ -0,0 +1,39 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderTest {
+    @Test
+    public void keepsTheLatestRecordsPerKind() {
+        FlightRecorder recorder = new FlightRecorder(2);
+        recorder.record(FlightRecorder.Kind.TELEPORT, "alice", "world", "world_nether", "PLUGIN", "DENIED",
+                "no access");
+        recorder.record(FlightRecorder.Kind.ACCESS, "alice", "world", "world_nether", "alice", "DENIED",
+                "no permission multiverse.access.world_nether");
+        for (int i = 0; i < 10; i++) {
+            recorder.record(FlightRecorder.Kind.SPAWN, "ZOMBIE", "world_nether", null, "NATURAL", "DENIED", null);
+        }
+
+        // The spawns only pushed out older spawns.
+        List<FlightRecorder.Record> records = recorder.dump(record -> true);
+        assertEquals(4, records.size());
+        assertEquals(FlightRecorder.Kind.TELEPORT, records.get(0).getKind());
+        assertEquals(FlightRecorder.Kind.ACCESS, records.get(1).getKind());
+        assertTrue(records.get(2).getSequence() < records.get(3).getSequence());
+
+        List<FlightRecorder.Record> alice = recorder.dump(FlightRecorder.involving("Alice"));
+        assertEquals(2, alice.size());
+        assertEquals("no access", alice.get(0).getReason());
+        assertEquals(4, recorder.dump(FlightRecorder.involving("world_nether")).size());
+        assertNull(recorder.dump(FlightRecorder.involving("ZOMBIE")).get(0).getTo());
+
+        recorder.clear();
+        assertTrue(recorder.dump(record -> true).isEmpty());
+    }
+}
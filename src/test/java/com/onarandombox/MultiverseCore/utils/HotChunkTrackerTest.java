@@ -0,0 +1,127 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HotChunkTrackerTest {
+    private static final long MINUTE = 60 * 1000L;
+
+    private MultiverseCore plugin;
+    private MultiverseCoreConfig config;
+    private World world;
+    private HotChunkTracker tracker;
+    private long start;
+
+    private void teleport(int chunkX, int chunkZ, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordTeleport(new Location(world, chunkX * 16 + 8, 64, chunkZ * 16 + 8), start);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // Uses the plugin chunk tickets of the API the tests run against.
+        CompatibilityLayer.init();
+        world = mock(World.class);
+        UUID worldId = UUID.randomUUID();
+        when(world.getUID()).thenReturn(worldId);
+        Server server = mock(Server.class);
+        when(server.getWorld(worldId)).thenReturn(world);
+        config = mock(MultiverseCoreConfig.class);
+        when(config.getKeepWarmChunks()).thenReturn(2);
+        when(config.getKeepWarmMemory()).thenReturn(64);
+        plugin = mock(MultiverseCore.class);
+        when(plugin.getMVConfig()).thenReturn(config);
+        // getServer() is final, so the server has to be set directly.
+        Field serverField = JavaPlugin.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        serverField.set(plugin, server);
+        tracker = new HotChunkTracker(plugin);
+        start = System.currentTimeMillis();
+    }
+
+    @Test
+    public void pinsTheHottestChunks() {
+        teleport(0, 0, 5);
+        teleport(1, 0, 3);
+        teleport(2, 0, 4);
+        // Not visited often enough to be worth pinning.
+        teleport(3, 0, 1);
+        tracker.update(start);
+
+        List<HotChunkTracker.HotChunk> pinned = tracker.getPinnedChunks();
+        assertEquals(2, pinned.size());
+        assertEquals(0, pinned.get(0).getX());
+        assertEquals(2, pinned.get(1).getX());
+        verify(world).addPluginChunkTicket(0, 0, plugin);
+        verify(world).addPluginChunkTicket(2, 0, plugin);
+        verify(world, never()).addPluginChunkTicket(eq(1), anyInt(), eq(plugin));
+        assertEquals(4, tracker.getTrackedChunkCount());
+
+        // Chunk 1 gets the hottest and takes the place of chunk 2.
+        teleport(1, 0, 3);
+        tracker.update(start);
+        verify(world).removePluginChunkTicket(2, 0, plugin);
+        verify(world).addPluginChunkTicket(1, 0, plugin);
+        assertEquals(1, tracker.getPinnedChunks().get(0).getX());
+        assertEquals(0, tracker.getPinnedChunks().get(1).getX());
+    }
+
+    @Test
+    public void memoryBudgetLimitsThePinnedChunks() {
+        when(config.getKeepWarmChunks()).thenReturn(100);
+        when(config.getKeepWarmMemory()).thenReturn(1);
+        // 1 MB fits 6 chunks of 160 KB.
+        assertEquals(6, tracker.getMaxPinnedChunks());
+        for (int x = 0; x < 10; x++) {
+            teleport(x, 0, 2 + x);
+        }
+        tracker.update(start);
+        assertEquals(6, tracker.getPinnedChunks().size());
+        assertEquals(9, tracker.getPinnedChunks().get(0).getX());
+
+        when(config.getKeepWarmMemory()).thenReturn(0);
+        assertEquals(0, tracker.getMaxPinnedChunks());
+        tracker.update(start);
+        assertTrue(tracker.getPinnedChunks().isEmpty());
+        verify(world).removePluginChunkTicket(9, 0, plugin);
+    }
+
+    @Test
+    public void scoresDecayUntilChunksAreForgotten() {
+        teleport(0, 0, 4);
+        tracker.update(start);
+        assertEquals(4D, tracker.getPinnedChunks().get(0).getScore(), 0.01D);
+
+        // Scores halve every ten minutes.
+        tracker.update(start + 10 * MINUTE);
+        assertEquals(1, tracker.getPinnedChunks().size());
+        assertEquals(2D, tracker.getPinnedChunks().get(0).getScore(), 0.01D);
+        tracker.update(start + 20 * MINUTE);
+        assertTrue(tracker.getPinnedChunks().isEmpty());
+        verify(world).removePluginChunkTicket(0, 0, plugin);
+        assertEquals(1, tracker.getTrackedChunkCount());
+
+        tracker.update(start + 80 * MINUTE);
+        assertEquals(0, tracker.getTrackedChunkCount());
+    }
+}
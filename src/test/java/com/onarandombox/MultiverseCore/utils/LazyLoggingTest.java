@@ -0,0 +1,159 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.dumptruckman.minecraft.util.Logging;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.listeners.MVPlayerListener;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class LazyLoggingTest {
+    private static final int ITERATIONS = 20000;
+
+    private int oldDebugLevel;
+    private MVPlayerListener listener;
+    private World world;
+    private MVWorldManager worldManager;
+    private MVPermissions permissions;
+
+    @Before
+    public void setUp() {
+        oldDebugLevel = Logging.getDebugLevel();
+    }
+
+    @After
+    public void tearDown() {
+        Logging.setDebugLevel(oldDebugLevel);
+    }
+
+    @Test
+    public void levelsFollowTheDebugLevel() {
+        Logging.setDebugLevel(0);
+        assertFalse(LazyLogging.isFineLoggable());
+        Logging.setDebugLevel(LazyLogging.FINER);
+        assertTrue(LazyLogging.isFineLoggable());
+        assertTrue(LazyLogging.isFinerLoggable());
+        assertFalse(LazyLogging.isFinestLoggable());
+    }
+
+    @Test
+    public void loggingAllocatesNothingAtDebugLevelZero() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        Logging.setDebugLevel(0);
+        // Warm up, so class loading and the JIT don't count.
+        log(false);
+        log(true);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        log(false);
+        long baseline = threads.getThreadAllocatedBytes(threadId) - before;
+        before = threads.getThreadAllocatedBytes(threadId);
+        log(true);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Building even a single message, varargs array or boxed value per call would cost far more than this.
+        long difference = allocated - baseline;
+        assertTrue("Allocated " + difference + " bytes more than with the logging calls stubbed out",
+                difference < ITERATIONS);
+    }
+
+    @Test
+    public void crossWorldTeleportsAreCheckedAtDebugLevelZero() {
+        Logging.setDebugLevel(0);
+        createListener();
+        World otherWorld = mock(World.class, withSettings().stubOnly());
+        when(otherWorld.getName()).thenReturn("other");
+        MultiverseWorld other = mock(MultiverseWorld.class, withSettings().stubOnly());
+        when(other.getName()).thenReturn("other");
+        when(other.getAlias()).thenReturn("other");
+        when(other.getPlayerLimit()).thenReturn(-1);
+        when(worldManager.getMVWorld("other")).thenReturn(other);
+
+        Player player = mock(Player.class, withSettings().stubOnly());
+        when(player.getName()).thenReturn("alice");
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        PlayerTeleportEvent event = new PlayerTeleportEvent(player, new Location(world, 0, 64, 0),
+                new Location(otherWorld, 0, 64, 0), TeleportCause.PLUGIN);
+        listener.playerTeleport(event);
+        assertFalse(event.isCancelled());
+
+        when(permissions.canEnterWorld(player, other)).thenReturn(false);
+        event = new PlayerTeleportEvent(player, new Location(world, 0, 64, 0),
+                new Location(otherWorld, 0, 64, 0), TeleportCause.PLUGIN);
+        listener.playerTeleport(event);
+        assertTrue(event.isCancelled());
+    }
+
+    private void log(boolean really) {
+        String first = "alice";
+        String second = "world";
+        String third = "other";
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (really) {
+                LazyLogging.fine("Player '%s' is teleporting to '%s'.", first, second);
+                LazyLogging.fine("Player '%s' was DENIED ACCESS to '%s' because '%s' can't pay.", first, second, third);
+                LazyLogging.finer("Got teleport event for player '%s' with cause '%s'", first, TeleportCause.PLUGIN);
+                LazyLogging.finest("Checking '%s' can send '%s' somewhere", first, second);
+            } else {
+                stubbedOut("Player '%s' is teleporting to '%s'.", first, second);
+                stubbedOut("Player '%s' was DENIED ACCESS to '%s' because '%s' can't pay.", first, second, third);
+                stubbedOut("Got teleport event for player '%s' with cause '%s'", first, TeleportCause.PLUGIN);
+                stubbedOut("Checking '%s' can send '%s' somewhere", first, second);
+            }
+        }
+    }
+
+    private static void stubbedOut(String message, Object arg1, Object arg2) {
+    }
+
+    private static void stubbedOut(String message, Object arg1, Object arg2, Object arg3) {
+    }
+
+    private void createListener() {
+        world = mock(World.class, withSettings().stubOnly());
+        when(world.getName()).thenReturn("world");
+        MultiverseWorld mvWorld = mock(MultiverseWorld.class, withSettings().stubOnly());
+        when(mvWorld.getName()).thenReturn("world");
+        when(mvWorld.getAlias()).thenReturn("world");
+        worldManager = mock(MVWorldManager.class, withSettings().stubOnly());
+        when(worldManager.getMVWorld("world")).thenReturn(mvWorld);
+        MultiverseCoreConfig config = mock(MultiverseCoreConfig.class, withSettings().stubOnly());
+        when(config.getEnforceAccess()).thenReturn(true);
+        when(config.getTeleportIntercept()).thenReturn(true);
+        permissions = mock(MVPermissions.class, withSettings().stubOnly());
+        when(permissions.canEnterWorld(any(Player.class), any(MultiverseWorld.class))).thenReturn(true);
+        MultiverseCore plugin = mock(MultiverseCore.class, withSettings().stubOnly());
+        when(plugin.getMVWorldManager()).thenReturn(worldManager);
+        when(plugin.getMVConfig()).thenReturn(config);
+        when(plugin.getMVPerms()).thenReturn(permissions);
+        when(plugin.getTravelMatrix()).thenReturn(new WorldTravelMatrix());
+        when(plugin.getWorldGroupManager()).thenReturn(mock(WorldGroupManager.class, withSettings().stubOnly()));
+        when(plugin.getTeleportRegistry()).thenReturn(new TeleportRegistry());
+        when(plugin.getFlightRecorder()).thenReturn(new FlightRecorder(16));
+        listener = new MVPlayerListener(plugin);
+    }
+}
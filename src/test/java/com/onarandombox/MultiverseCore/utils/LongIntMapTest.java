@@ -0,0 +1,49 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LongIntMapTest {
+    private static final int OPERATIONS = 200000;
+
+    @Test
+    public void behavesLikeHashMap() {
+        Random random = new Random(42L);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<Long, Integer>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            // Few distinct keys so entries get added, removed and probed over a lot.
+            long key = EntityCounter.chunkKey(random.nextInt(64) - 32, random.nextInt(64) - 32);
+            if (random.nextInt(10) == 0) {
+                assertEquals(expected.getOrDefault(key, 0).intValue(), map.remove(key));
+                expected.remove(key);
+            } else {
+                int delta = random.nextInt(5) - 2;
+                int value = Math.max(0, expected.getOrDefault(key, 0) + delta);
+                if (value == 0) {
+                    expected.remove(key);
+                } else {
+                    expected.put(key, value);
+                }
+                assertEquals(value, map.add(key, delta));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey()));
+        }
+        int max = 0;
+        for (int value : expected.values()) {
+            max = Math.max(max, value);
+        }
+        assertEquals(max, map.max());
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.max());
+    }
+}
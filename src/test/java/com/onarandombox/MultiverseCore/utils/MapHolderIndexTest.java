@@ -0,0 +1,97 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MapHolderIndexTest {
+    private Server server;
+    private MapHolderIndex index;
+
+    private static ItemStack createMap(int id) {
+        ItemStack item = mock(ItemStack.class);
+        when(item.getType()).thenReturn(Material.FILLED_MAP);
+        when(item.getDurability()).thenReturn((short) id);
+        return item;
+    }
+
+    private Player createPlayer(ItemStack mainHand, ItemStack offHand) {
+        Player player = mock(Player.class);
+        UUID id = UUID.randomUUID();
+        when(player.getUniqueId()).thenReturn(id);
+        PlayerInventory inventory = mock(PlayerInventory.class);
+        when(inventory.getItemInMainHand()).thenReturn(mainHand);
+        when(inventory.getItemInOffHand()).thenReturn(offHand);
+        when(player.getInventory()).thenReturn(inventory);
+        when(server.getPlayer(id)).thenReturn(player);
+        return player;
+    }
+
+    @Before
+    public void setUp() {
+        server = mock(Server.class);
+        index = new MapHolderIndex(server);
+    }
+
+    @Test
+    public void findsHoldersOfBothHands() {
+        ItemStack sword = mock(ItemStack.class);
+        when(sword.getType()).thenReturn(Material.DIAMOND_SWORD);
+        Player alice = createPlayer(createMap(3), createMap(7));
+        Player bob = createPlayer(sword, null);
+        index.markDirty(alice);
+        index.markDirty(bob);
+
+        assertSame(alice, index.findHolder(3));
+        assertSame(alice, index.findHolder(7));
+        assertNull(index.findHolder(0));
+        assertEquals(2, index.size());
+
+        // Alice puts the map in her main hand away.
+        ItemStack offHand = alice.getInventory().getItemInOffHand();
+        when(alice.getInventory().getItemInMainHand()).thenReturn(sword);
+        index.markDirty(alice);
+        assertNull(index.findHolder(3));
+        assertSame(alice, index.findHolder(7));
+
+        // Bob takes the map Alice had.
+        when(bob.getInventory().getItemInOffHand()).thenReturn(offHand);
+        index.markDirty(bob);
+        index.forget(alice);
+        assertSame(bob, index.findHolder(7));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void checksTheHolderStillHoldsTheMap() {
+        ItemStack sword = mock(ItemStack.class);
+        when(sword.getType()).thenReturn(Material.DIAMOND_SWORD);
+        Player alice = createPlayer(createMap(3), null);
+        index.markDirty(alice);
+        assertSame(alice, index.findHolder(3));
+
+        // The map leaves her hand without an event.
+        when(alice.getInventory().getItemInMainHand()).thenReturn(sword);
+        assertNull(index.findHolder(3));
+        assertEquals(0, index.size());
+
+        // A holder that went offline isn't returned either.
+        when(alice.getInventory().getItemInMainHand()).thenReturn(createMap(3));
+        index.markDirty(alice);
+        when(server.getPlayer(alice.getUniqueId())).thenReturn(null);
+        assertNull(index.findHolder(3));
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,74 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.Server;
+import org.bukkit.permissions.Permission;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PermissionBatchTest {
+    private static final int WORLDS = 1000;
+
+    private PluginManager pluginManager;
+    private PermissionBatch batch;
+
+    @Before
+    public void setUp() {
+        pluginManager = mock(PluginManager.class);
+        Server server = mock(Server.class);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getServer()).thenReturn(server);
+        batch = new PermissionBatch(plugin);
+    }
+
+    @Test
+    public void recalculatesImmediatelyOutsideOfBatch() {
+        Permission permission = new Permission("multiverse.access.*");
+        assertFalse(batch.isActive());
+        batch.recalculate(permission);
+        batch.recalculate(permission);
+        verify(pluginManager, times(2)).recalculatePermissionDefaults(permission);
+    }
+
+    @Test
+    public void loadingManyWorldsRecalculatesEachParentOnce() {
+        Permission all = new Permission("multiverse.*");
+        Permission allAccess = new Permission("multiverse.access.*");
+        Permission allExempt = new Permission("multiverse.exempt.*");
+
+        batch.begin();
+        // Nested batches, like destinations being registered while worlds load, don't flush early.
+        batch.begin();
+        batch.end();
+        for (int i = 0; i < WORLDS; i++) {
+            allAccess.getChildren().put("multiverse.access.world" + i, true);
+            allExempt.getChildren().put("multiverse.exempt.world" + i, true);
+            batch.recalculate(all);
+            batch.recalculate(allAccess);
+            batch.recalculate(allExempt);
+        }
+        assertTrue(batch.isActive());
+        verify(pluginManager, never()).recalculatePermissionDefaults(allAccess);
+        batch.end();
+
+        verify(pluginManager, times(1)).recalculatePermissionDefaults(all);
+        verify(pluginManager, times(1)).recalculatePermissionDefaults(allAccess);
+        verify(pluginManager, times(1)).recalculatePermissionDefaults(allExempt);
+        assertFalse(batch.isActive());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endWithoutBegin() {
+        batch.end();
+    }
+}
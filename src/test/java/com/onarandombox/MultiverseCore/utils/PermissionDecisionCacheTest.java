@@ -0,0 +1,83 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.utils.PermissionDecisionCache.Kind;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PermissionDecisionCacheTest {
+
+    private Player player;
+    private MultiverseWorld world;
+    private MultiverseWorld otherWorld;
+
+    @Before
+    public void setUp() {
+        player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        world = mock(MultiverseWorld.class);
+        when(world.getName()).thenReturn("world");
+        otherWorld = mock(MultiverseWorld.class);
+        when(otherWorld.getName()).thenReturn("world_nether");
+    }
+
+    @Test
+    public void decisionsAreKeptPerWorldAndKind() {
+        PermissionDecisionCache cache = new PermissionDecisionCache();
+        assertNull(cache.get(player, world, Kind.ACCESS));
+
+        cache.put(player, world, Kind.ACCESS, true);
+        cache.put(player, world, Kind.EXEMPT, false);
+        assertEquals(Boolean.TRUE, cache.get(player, world, Kind.ACCESS));
+        assertEquals(Boolean.FALSE, cache.get(player, world, Kind.EXEMPT));
+        assertNull(cache.get(player, world, Kind.IGNORE_GAMEMODE));
+        assertNull(cache.get(player, otherWorld, Kind.ACCESS));
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void invalidation() {
+        PermissionDecisionCache cache = new PermissionDecisionCache();
+        cache.put(player, world, Kind.ACCESS, true);
+        cache.put(player, otherWorld, Kind.ACCESS, true);
+
+        cache.invalidateWorld("world");
+        assertNull(cache.get(player, world, Kind.ACCESS));
+        assertEquals(Boolean.TRUE, cache.get(player, otherWorld, Kind.ACCESS));
+
+        cache.invalidate(player);
+        assertNull(cache.get(player, otherWorld, Kind.ACCESS));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void opChangeDropsDecisions() {
+        PermissionDecisionCache cache = new PermissionDecisionCache();
+        cache.put(player, world, Kind.ACCESS, false);
+        assertFalse(cache.get(player, world, Kind.ACCESS));
+
+        when(player.isOp()).thenReturn(true);
+        assertNull(cache.get(player, world, Kind.ACCESS));
+    }
+
+    @Test
+    public void decisionsExpire() throws InterruptedException {
+        PermissionDecisionCache cache = new PermissionDecisionCache(1L);
+        cache.put(player, world, Kind.ACCESS, true);
+        assertTrue(cache.size() > 0);
+        Thread.sleep(10L);
+
+        assertNull(cache.get(player, world, Kind.ACCESS));
+        assertEquals(0, cache.size());
+    }
+}
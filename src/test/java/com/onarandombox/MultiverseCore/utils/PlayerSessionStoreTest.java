@@ -0,0 +1,81 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PlayerSessionStoreTest {
+    private TeleportRegistry registry;
+    private PlayerSessionStore store;
+
+    private Player createPlayer(String name) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.getName()).thenReturn(name);
+        when(player.isOnline()).thenReturn(true);
+        return player;
+    }
+
+    @Before
+    public void setUp() {
+        registry = new TeleportRegistry();
+        MultiverseCore plugin = mock(MultiverseCore.class);
+        when(plugin.getMVConfig()).thenReturn(mock(MultiverseCoreConfig.class));
+        when(plugin.getTeleportRegistry()).thenReturn(registry);
+        store = new PlayerSessionStore(plugin);
+    }
+
+    @Test
+    public void sessionsLiveFromJoinToQuit() {
+        Player alice = createPlayer("alice");
+        Player bob = createPlayer("bob");
+        MVPlayerSession session = store.join(alice);
+        assertSame(session, store.get(alice));
+        assertSame(session, store.getIfPresent(alice.getUniqueId()));
+        // Players that were online before the plugin was enabled get one when it's needed.
+        assertNull(store.getIfPresent(bob.getUniqueId()));
+        store.get(bob).setLastWorld("world_nether");
+        assertEquals(2, store.size());
+
+        assertTrue(session.tryMessage(5000L));
+        assertFalse(session.tryMessage(5000L));
+
+        registry.register(mock(CommandSender.class), alice.getUniqueId(), null);
+        store.quit(alice);
+        assertEquals(1, store.size());
+        assertEquals(0, registry.size());
+        assertEquals(1L, registry.getLeakedCount());
+        // Coming back starts over.
+        assertNotSame(session, store.join(alice));
+        assertTrue(store.get(alice).tryMessage(5000L));
+        assertEquals("world_nether", store.get(bob).getLastWorld());
+    }
+
+    @Test
+    public void playersThatQuitDontGetANewSession() {
+        Player alice = createPlayer("alice");
+        store.join(alice);
+        store.quit(alice);
+        when(alice.isOnline()).thenReturn(false);
+
+        // E.g. a message about a teleport that finished after she left.
+        MVPlayerSession session = store.get(alice);
+        assertTrue(session.tryMessage(5000L));
+        assertNull(store.getIfPresent(alice.getUniqueId()));
+        assertEquals(0, store.size());
+    }
+}
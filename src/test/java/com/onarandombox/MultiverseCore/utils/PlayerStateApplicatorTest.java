@@ -0,0 +1,94 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.bukkit.GameMode;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PlayerStateApplicatorTest {
+    private BukkitScheduler scheduler;
+    private World world;
+    private MultiverseWorld mvworld;
+    private PlayerStateApplicator applicator;
+
+    private Player createPlayer(World in) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.isOnline()).thenReturn(true);
+        when(player.getWorld()).thenReturn(in);
+        return player;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = mock(BukkitScheduler.class);
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+                .thenReturn(mock(BukkitTask.class));
+        Server server = mock(Server.class);
+        when(server.getScheduler()).thenReturn(scheduler);
+        MultiverseCore plugin = mock(MultiverseCore.class);
+        when(plugin.getMVPerms()).thenReturn(mock(MVPermissions.class));
+        // getServer() is final, so the server has to be set directly.
+        Field serverField = JavaPlugin.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        serverField.set(plugin, server);
+
+        world = mock(World.class);
+        mvworld = mock(MultiverseWorld.class);
+        when(mvworld.getCBWorld()).thenReturn(world);
+        when(mvworld.getGameMode()).thenReturn(GameMode.CREATIVE);
+        when(mvworld.getAllowFlight()).thenReturn(true);
+        applicator = new PlayerStateApplicator(plugin);
+    }
+
+    @Test
+    public void handlesQueuedPlayersInBatches() {
+        List<Player> players = new ArrayList<Player>();
+        for (int i = 0; i < 120; i++) {
+            Player player = createPlayer(world);
+            players.add(player);
+            applicator.queue(player, mvworld);
+        }
+        // Queued twice, still handled once.
+        applicator.queue(players.get(0), mvworld);
+        Player elsewhere = createPlayer(mock(World.class));
+        applicator.queue(elsewhere, mvworld);
+        assertEquals(121, applicator.getQueueSize());
+
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).runTaskTimer(any(Plugin.class), tick.capture(), anyLong(), anyLong());
+        tick.getValue().run();
+        assertEquals(71, applicator.getQueueSize());
+        verify(players.get(1)).setGameMode(GameMode.CREATIVE);
+        verify(players.get(0), never()).setGameMode(any(GameMode.class));
+
+        tick.getValue().run();
+        tick.getValue().run();
+        assertEquals(0, applicator.getQueueSize());
+        verify(players.get(0)).setGameMode(GameMode.CREATIVE);
+        verify(elsewhere, never()).setGameMode(any(GameMode.class));
+    }
+}
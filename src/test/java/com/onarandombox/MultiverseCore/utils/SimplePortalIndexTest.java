@@ -0,0 +1,188 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.listeners.MVPortalListener;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.PortalCreateEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SimplePortalIndexTest {
+    private final Set<List<Integer>> portals = new HashSet<List<Integer>>();
+    private final AtomicInteger blockLookups = new AtomicInteger();
+    private World world;
+    private Block air;
+    private SimplePortalIndex index;
+    private MVPortalListener listener;
+    private BukkitScheduler scheduler;
+
+    private Block createBlock(int x, int y, int z) {
+        Block block = mock(Block.class);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getX()).thenReturn(x);
+        when(block.getY()).thenReturn(y);
+        when(block.getZ()).thenReturn(z);
+        when(block.getType()).thenAnswer(invocation ->
+                portals.contains(Arrays.asList(x, y, z)) ? Material.NETHER_PORTAL : Material.OBSIDIAN);
+        return block;
+    }
+
+    private Block createPortal(int x, int y, int z) {
+        portals.add(Arrays.asList(x, y, z));
+        return createBlock(x, y, z);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        air = mock(Block.class);
+        when(air.getType()).thenReturn(Material.AIR);
+        when(world.getBlockAt(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            blockLookups.incrementAndGet();
+            int x = invocation.getArgument(0);
+            int y = invocation.getArgument(1);
+            int z = invocation.getArgument(2);
+            return portals.contains(Arrays.asList(x, y, z)) ? createBlock(x, y, z) : air;
+        });
+        index = new SimplePortalIndex();
+
+        scheduler = mock(BukkitScheduler.class);
+        Server server = mock(Server.class);
+        when(server.getScheduler()).thenReturn(scheduler);
+        MultiverseCore plugin = mock(MultiverseCore.class);
+        when(plugin.getPortalIndex()).thenReturn(index);
+        // getServer() is final, so the server has to be set directly.
+        Field serverField = JavaPlugin.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        serverField.set(plugin, server);
+        listener = new MVPortalListener(plugin);
+    }
+
+    @Test
+    public void scansEachBoxOnce() {
+        Location l = new Location(world, 8, 64, 8);
+        assertNull(index.findNearestPortal(l, 2));
+        // Only the blocks in range are scanned.
+        assertEquals(5 * 5 * 5, blockLookups.get());
+
+        blockLookups.set(0);
+        assertNull(index.findNearestPortal(l, 2));
+        assertNull(index.findNearestPortal(new Location(world, 8, 65, 8), 1));
+        assertEquals(0, blockLookups.get());
+        // Somewhere else in the same chunk only that box is scanned, both stay remembered.
+        assertNull(index.findNearestPortal(new Location(world, 2, 65, 12), 1));
+        assertEquals(3 * 3 * 3, blockLookups.get());
+        assertNull(index.findNearestPortal(l, 2));
+        assertEquals(3 * 3 * 3, blockLookups.get());
+
+        // Loading the chunk again without anything having changed keeps what was scanned.
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getWorld()).thenReturn(world);
+        listener.chunkLoad(new ChunkLoadEvent(chunk, false));
+        blockLookups.set(0);
+        assertNull(index.findNearestPortal(l, 2));
+        assertEquals(0, blockLookups.get());
+
+        // A portal disappeared and another appeared without an event, so the chunk is scanned again.
+        index.addPortalBlock(createBlock(3, 64, 3));
+        createPortal(9, 65, 9);
+        listener.chunkLoad(new ChunkLoadEvent(chunk, false));
+        assertEquals(new Location(world, 9.5, 65, 9.5), index.findNearestPortal(l, 2));
+        assertEquals(1, index.getPortalBlockCount(world));
+    }
+
+    @Test
+    public void skipsUnloadedChunks() {
+        createPortal(20, 64, 4);
+        when(world.isChunkLoaded(1, 0)).thenReturn(false);
+        assertNull(index.findNearestPortal(new Location(world, 17, 64, 4), 3));
+        assertEquals(0, index.getPortalBlockCount(world));
+
+        when(world.isChunkLoaded(1, 0)).thenReturn(true);
+        assertEquals(new Location(world, 20.5, 64, 4.5), index.findNearestPortal(new Location(world, 17, 64, 4), 3));
+    }
+
+    @Test
+    public void boundsTheScan() {
+        // A radius this large covers far more chunks than a single lookup scans.
+        assertNull(index.findNearestPortal(new Location(world, 0, 64, 0), 40));
+        int firstLookups = blockLookups.get();
+        assertTrue(firstLookups > 0);
+        assertTrue(firstLookups < 81 * 81 * 81);
+
+        // The next lookups go on with the chunks that weren't scanned yet.
+        blockLookups.set(0);
+        assertNull(index.findNearestPortal(new Location(world, 0, 64, 0), 40));
+        assertTrue(blockLookups.get() > 0);
+    }
+
+    @Test
+    public void followsCreatedPlacedAndBrokenPortals() {
+        CompatibilityLayer.init();
+        Block created = createPortal(5, 70, 5);
+        BlockState state = mock(BlockState.class);
+        when(state.getType()).thenReturn(Material.NETHER_PORTAL);
+        when(state.getBlock()).thenReturn(created);
+        BlockState frame = mock(BlockState.class);
+        when(frame.getType()).thenReturn(Material.OBSIDIAN);
+        listener.portalCreated(new PortalCreateEvent(Arrays.asList(state, frame), world,
+                PortalCreateEvent.CreateReason.FIRE));
+        assertEquals(1, index.getPortalBlockCount(world));
+
+        Block placed = createPortal(40, 70, 5);
+        BlockPlaceEvent placeEvent = mock(BlockPlaceEvent.class);
+        when(placeEvent.getBlockPlaced()).thenReturn(placed);
+        listener.portalBlockPlaced(placeEvent);
+        assertEquals(2, index.getPortalBlockCount(world));
+
+        // Both are found from the index, only the portal itself is looked at.
+        assertEquals(new Location(world, 5.5, 70, 5.5), index.findNearestPortal(new Location(world, 6, 70, 6), 2));
+        assertEquals(new Location(world, 40.5, 70, 5.5), index.findNearestPortal(new Location(world, 40, 71, 6), 2));
+        assertEquals(2, blockLookups.get());
+
+        // Breaking the frame takes the portal with it on the next tick.
+        portals.remove(Arrays.asList(5, 70, 5));
+        listener.portalBlockBroken(new BlockBreakEvent(createBlock(5, 69, 5), null));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleSyncDelayedTask(any(Plugin.class), task.capture(), eq(1L));
+        task.getValue().run();
+        assertEquals(1, index.getPortalBlockCount(world));
+
+        listener.worldUnload(new WorldUnloadEvent(world));
+        assertEquals(0, index.getPortalBlockCount(world));
+    }
+}
@@ -0,0 +1,174 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MVDestination;
+import com.onarandombox.MultiverseCore.api.SafeTTeleporter;
+import com.onarandombox.MultiverseCore.enums.TeleportResult;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldType;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SimpleSafeTTeleporterTest {
+    private TestInstanceCreator creator;
+    private BukkitScheduler scheduler;
+    private World world;
+    private SimpleSafeTTeleporter teleporter;
+
+    @Before
+    public void setUp() throws Exception {
+        creator = new TestInstanceCreator();
+        assertTrue(creator.setUp());
+        scheduler = creator.getServer().getScheduler();
+        // BukkitRunnables can only cancel themselves once they got a task.
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+                .thenReturn(mock(BukkitTask.class));
+        world = MockWorldFactory.makeNewMockWorld("teleporttest", World.Environment.NORMAL, WorldType.NORMAL);
+        teleporter = new SimpleSafeTTeleporter(creator.getCore());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        creator.tearDown();
+    }
+
+    private Player createPlayer() {
+        Player player = mock(Player.class);
+        when(player.getName()).thenReturn("player");
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.getWorld()).thenReturn(world);
+        when(player.isValid()).thenReturn(true);
+        when(player.teleport(any(Location.class))).thenReturn(true);
+        return player;
+    }
+
+    /**
+     * Runs the task that loads the chunks one per tick until the future is done.
+     *
+     * @return The number of ticks it took.
+     */
+    private int loadChunks(CompletableFuture<?> future) {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).runTaskTimer(any(Plugin.class), task.capture(), eq(0L), eq(1L));
+        int ticks = 0;
+        while (!future.isDone() && ticks < 100) {
+            task.getValue().run();
+            ticks++;
+        }
+        return ticks;
+    }
+
+    @Test
+    public void preloadsOneChunkPerTickWithoutAsyncChunkLoading() {
+        CompletableFuture<Void> future = teleporter.preloadChunks(new Location(world, 8, 64, 8));
+        assertFalse(future.isDone());
+        int ticks = loadChunks(future);
+        assertTrue(future.isDone());
+        assertTrue(ticks > 1);
+        verify(world, times(ticks)).loadChunk(anyInt(), anyInt());
+
+        // Nothing to do once they're loaded.
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        assertTrue(teleporter.preloadChunks(new Location(world, 8, 64, 8)).isDone());
+    }
+
+    @Test
+    public void teleportsOnceTheChunksAreLoaded() {
+        Player player = createPlayer();
+        Location location = new Location(world, 8, 64, 8);
+        CompletableFuture<TeleportResult> future = teleporter.safelyTeleportAsync(null, player, location, true);
+        assertFalse(future.isDone());
+        verify(player, never()).teleport(any(Location.class));
+
+        loadChunks(future);
+        assertEquals(TeleportResult.SUCCESS, future.join());
+        verify(player).teleport(any(Location.class));
+    }
+
+    @Test
+    public void resolvesTheDestinationOnlyOnce() {
+        Player player = createPlayer();
+        MVDestination destination = mock(MVDestination.class);
+        when(destination.getLocation(player)).thenReturn(new Location(world, 8, 64, 8));
+        when(destination.useSafeTeleporter()).thenReturn(true);
+        CompletableFuture<TeleportResult> future = teleporter.safelyTeleportAsync(creator.getCommandSender(), player,
+                destination);
+
+        loadChunks(future);
+        assertEquals(TeleportResult.SUCCESS, future.join());
+        verify(player).teleport(new Location(world, 8, 64, 8));
+        verify(destination).getLocation(player);
+    }
+
+    @Test
+    public void spreadsTeleportsOverTicksAndSkipsEntitiesThatAreGone() {
+        List<Player> players = new ArrayList<Player>();
+        for (int i = 0; i < 6; i++) {
+            players.add(createPlayer());
+        }
+        Location target = new Location(world, 8, 64, 8);
+        CompletableFuture<Integer> future = teleporter.safelyTeleportAll(null, players, target, false, 2);
+        verify(players.get(0)).teleport(target);
+        verify(players.get(1)).teleport(target);
+        verify(players.get(2), never()).teleport(any(Location.class));
+        assertFalse(future.isDone());
+
+        // One quits and one goes to another world before it's their turn, they don't take up a teleport.
+        when(players.get(2).isValid()).thenReturn(false);
+        when(players.get(3).getWorld()).thenReturn(mock(World.class));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, atLeastOnce()).runTaskTimer(any(Plugin.class), task.capture(), eq(1L), eq(1L));
+        task.getValue().run();
+        verify(players.get(2), never()).teleport(any(Location.class));
+        verify(players.get(3), never()).teleport(any(Location.class));
+        verify(players.get(4)).teleport(target);
+        verify(players.get(5)).teleport(target);
+        assertEquals(4, (int) future.join());
+    }
+
+    @Test
+    public void otherTeleportersFallBackToTeleportingRightAway() {
+        SafeTTeleporter other = mock(SafeTTeleporter.class, CALLS_REAL_METHODS);
+        Player player = createPlayer();
+        Entity entity = mock(Entity.class);
+        Location location = new Location(world, 8, 64, 8);
+        doReturn(TeleportResult.SUCCESS).when(other)
+                .safelyTeleport(isNull(), eq(player), any(Location.class), eq(false));
+        doReturn(TeleportResult.FAIL_OTHER).when(other)
+                .safelyTeleport(isNull(), eq(entity), any(Location.class), eq(false));
+
+        assertTrue(other.preloadChunks(location).isDone());
+        assertEquals(TeleportResult.SUCCESS, other.safelyTeleportAsync(null, player, location, false).join());
+        assertEquals(1, (int) other.safelyTeleportAll(null, Arrays.asList(player, entity), location, false, 1).join());
+    }
+}
@@ -0,0 +1,153 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+import com.onarandombox.MultiverseCore.api.MultiverseCoreConfig;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.bukkit.World;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SpawnGovernorTest {
+    private MultiverseCoreConfig config;
+    private World busy;
+    private World quiet;
+    private int[] busyValues;
+    private SpawnGovernor governor;
+
+    /**
+     * Creates a world that remembers its spawn limits and ticks per spawn in the given array:
+     * monster limit, animal limit, water animal limit, ambient limit, ticks per animal spawn, ticks per monster spawn.
+     */
+    private World createWorld(final int[] values) {
+        World world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getName()).thenReturn("world" + values.hashCode());
+        when(world.getMonsterSpawnLimit()).thenAnswer(invocation -> values[0]);
+        when(world.getAnimalSpawnLimit()).thenAnswer(invocation -> values[1]);
+        when(world.getWaterAnimalSpawnLimit()).thenAnswer(invocation -> values[2]);
+        when(world.getAmbientSpawnLimit()).thenAnswer(invocation -> values[3]);
+        when(world.getTicksPerAnimalSpawns()).thenAnswer(invocation -> (long) values[4]);
+        when(world.getTicksPerMonsterSpawns()).thenAnswer(invocation -> (long) values[5]);
+        doAnswer(invocation -> values[0] = invocation.getArgument(0)).when(world).setMonsterSpawnLimit(anyInt());
+        doAnswer(invocation -> values[1] = invocation.getArgument(0)).when(world).setAnimalSpawnLimit(anyInt());
+        doAnswer(invocation -> values[2] = invocation.getArgument(0)).when(world).setWaterAnimalSpawnLimit(anyInt());
+        doAnswer(invocation -> values[3] = invocation.getArgument(0)).when(world).setAmbientSpawnLimit(anyInt());
+        doAnswer(invocation -> values[4] = invocation.getArgument(0)).when(world).setTicksPerAnimalSpawns(anyInt());
+        doAnswer(invocation -> values[5] = invocation.getArgument(0)).when(world).setTicksPerMonsterSpawns(anyInt());
+        return world;
+    }
+
+    private MultiverseWorld createMVWorld(World world) {
+        MultiverseWorld mvworld = mock(MultiverseWorld.class);
+        when(mvworld.getCBWorld()).thenReturn(world);
+        return mvworld;
+    }
+
+    @Before
+    public void setUp() {
+        config = mock(MultiverseCoreConfig.class);
+        when(config.isSpawnGovernorEnabled()).thenReturn(true);
+        when(config.getGovernorSlowTick()).thenReturn(55);
+        when(config.getGovernorFastTick()).thenReturn(45);
+        when(config.getGovernorMinPercent()).thenReturn(25);
+
+        busyValues = new int[] {70, 10, 5, 15, 400, 1};
+        busy = createWorld(busyValues);
+        quiet = createWorld(new int[] {70, 10, 5, 15, 400, 1});
+        EntityCounter counter = mock(EntityCounter.class);
+        when(counter.getTotalCount(busy)).thenReturn(900);
+        when(counter.getTotalCount(quiet)).thenReturn(100);
+        MVWorldManager worldManager = mock(MVWorldManager.class);
+        when(worldManager.getMVWorlds()).thenReturn(Arrays.asList(createMVWorld(busy), createMVWorld(quiet)));
+
+        MultiverseCore plugin = mock(MultiverseCore.class);
+        when(plugin.getMVConfig()).thenReturn(config);
+        when(plugin.getMVWorldManager()).thenReturn(worldManager);
+        when(plugin.getEntityCounter()).thenReturn(counter);
+        governor = new SpawnGovernor(plugin);
+    }
+
+    @Test
+    public void throttlesBusiestWorldWithHysteresis() {
+        governor.evaluate(70D);
+        assertEquals(85, governor.getPercent(busy));
+        assertEquals(100, governor.getPercent(quiet));
+        assertEquals(59, busyValues[0]);
+        assertEquals(470, busyValues[4]);
+        assertEquals(1, busyValues[5]);
+
+        // Between the two thresholds nothing changes.
+        governor.evaluate(50D);
+        assertEquals(85, governor.getPercent(busy));
+
+        for (int i = 0; i < 10; i++) {
+            governor.evaluate(70D);
+        }
+        assertEquals(25, governor.getPercent(busy));
+        assertEquals(17, busyValues[0]);
+        assertEquals(1, busyValues[2]);
+        assertEquals(1600, busyValues[4]);
+
+        // Someone changes the spawn rate while the world is throttled, that becomes the new original.
+        busyValues[4] = 200;
+        governor.evaluate(40D);
+        assertEquals(40, governor.getPercent(busy));
+        assertEquals(500, busyValues[4]);
+
+        for (int i = 0; i < 10; i++) {
+            governor.evaluate(40D);
+        }
+        assertEquals(100, governor.getPercent(busy));
+        assertEquals(70, busyValues[0]);
+        assertEquals(5, busyValues[2]);
+        assertEquals(200, busyValues[4]);
+        assertEquals("not throttled", governor.describe(busy));
+    }
+
+    @Test
+    public void disablingRestoresWorlds() {
+        governor.evaluate(70D);
+        governor.evaluate(70D);
+        assertEquals(70, governor.getPercent(busy));
+
+        when(config.isSpawnGovernorEnabled()).thenReturn(false);
+        governor.evaluate(70D);
+        assertEquals(100, governor.getPercent(busy));
+        assertEquals(70, busyValues[0]);
+        assertEquals(400, busyValues[4]);
+        assertEquals("disabled", governor.describe(busy));
+    }
+
+    @Test
+    public void recoversWithRealisticTickLengths() {
+        // This server doesn't tell its tick times, so they're measured by the clock.
+        long now = 1000000000L;
+        for (int i = 0; i < 200; i++) {
+            governor.tick(now);
+            now += TimeUnit.MILLISECONDS.toNanos(70L);
+        }
+        assertEquals(70, governor.getPercent(busy));
+
+        // A healthy server runs a tick every 50 ms and is a bit late now and then,
+        // which is above the configured fast threshold of 45 ms.
+        for (int i = 0; i < 300; i++) {
+            governor.tick(now);
+            now += TimeUnit.MILLISECONDS.toNanos((i % 10 == 0) ? 53L : 50L);
+        }
+        assertTrue(governor.getAverageTickMillis() > 50D);
+        assertEquals(100, governor.getPercent(busy));
+        assertEquals(70, busyValues[0]);
+    }
+}
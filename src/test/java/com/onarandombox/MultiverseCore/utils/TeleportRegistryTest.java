@@ -0,0 +1,115 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TeleportRegistryTest {
+
+    private CommandSender console;
+    private Player teleporter;
+    private UUID teleportee;
+
+    @Before
+    public void setUp() {
+        console = mock(CommandSender.class);
+        when(console.getName()).thenReturn("CONSOLE");
+        teleporter = mock(Player.class);
+        when(teleporter.getName()).thenReturn("teleporter");
+        when(teleporter.getUniqueId()).thenReturn(UUID.randomUUID());
+        teleportee = UUID.randomUUID();
+    }
+
+    @Test
+    public void claimMatchingTeleport() {
+        TeleportRegistry registry = new TeleportRegistry();
+        long token = registry.register(teleporter, teleportee, new Location(null, 10.5, 64, -3.5));
+
+        TeleportRegistry.PendingTeleport pending = registry.claim(teleportee, new Location(null, 10.2, 64, -3.9));
+        assertNotNull(pending);
+        assertEquals(token, pending.getToken());
+        assertEquals("teleporter", pending.getTeleporterName());
+        assertEquals(teleporter.getUniqueId(), pending.getTeleporterId());
+
+        // Claimed entries are gone, so completing them doesn't count as a leak.
+        assertFalse(registry.complete(teleportee, token));
+        assertEquals(0, registry.size());
+        assertEquals(0, registry.getLeakedCount());
+    }
+
+    @Test
+    public void otherDestinationIsNotClaimed() {
+        TeleportRegistry registry = new TeleportRegistry();
+        long token = registry.register(console, teleportee, new Location(null, 0, 64, 0));
+
+        assertNull(registry.claim(teleportee, new Location(null, 100, 64, 0)));
+        assertTrue(registry.complete(teleportee, token));
+        assertEquals(1, registry.getLeakedCount());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void replacedEntryCountsAsLeaked() {
+        TeleportRegistry registry = new TeleportRegistry();
+        long first = registry.register(console, teleportee, null);
+        long second = registry.register(teleporter, teleportee, null);
+
+        assertEquals(1, registry.getLeakedCount());
+        // The first token no longer owns the entry.
+        assertFalse(registry.complete(teleportee, first));
+        assertEquals(second, registry.claim(teleportee, null).getToken());
+    }
+
+    @Test
+    public void entriesExpire() throws InterruptedException {
+        TeleportRegistry registry = new TeleportRegistry(1L);
+        registry.register(console, teleportee, null);
+        Thread.sleep(10L);
+
+        assertNull(registry.claim(teleportee, null));
+        assertEquals(1, registry.getExpiredCount());
+
+        registry.register(console, UUID.randomUUID(), null);
+        Thread.sleep(10L);
+        registry.purgeExpired();
+        assertEquals(2, registry.getExpiredCount());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void registeringPurgesAtMostOncePerExpiryTime() throws InterruptedException {
+        TeleportRegistry registry = new TeleportRegistry(200L);
+        UUID first = UUID.randomUUID();
+        registry.register(console, first, null);
+        Thread.sleep(100L);
+        UUID second = UUID.randomUUID();
+        registry.register(console, second, null);
+        Thread.sleep(150L);
+
+        // The first one expired and the last purge is long enough ago.
+        registry.register(console, UUID.randomUUID(), null);
+        assertEquals(1, registry.getExpiredCount());
+        assertEquals(2, registry.size());
+        Thread.sleep(100L);
+
+        // The second one expired as well, but the last purge was too recent.
+        registry.register(console, UUID.randomUUID(), null);
+        assertEquals(1, registry.getExpiredCount());
+        assertEquals(3, registry.size());
+        registry.purgeExpired();
+        assertEquals(2, registry.getExpiredCount());
+        assertNull(registry.claim(second, null));
+    }
+}
@@ -0,0 +1,131 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.enums.AllowedPortalType;
+import com.onarandombox.MultiverseCore.listeners.MVEntityListener;
+import com.onarandombox.MultiverseCore.listeners.MVWeatherListener;
+import com.onarandombox.MultiverseCore.utils.WorldFeatureTracker.Feature;
+import org.bukkit.Server;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.FoodLevelChangeEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorldFeatureTrackerTest {
+    private MultiverseWorld world;
+
+    @Before
+    public void setUp() {
+        // A world with the default properties.
+        world = mock(MultiverseWorld.class);
+        when(world.getHunger()).thenReturn(true);
+        when(world.getAutoHeal()).thenReturn(true);
+        when(world.canAnimalsSpawn()).thenReturn(true);
+        when(world.canMonstersSpawn()).thenReturn(true);
+        when(world.getAnimalList()).thenReturn(Collections.<String>emptyList());
+        when(world.getMonsterList()).thenReturn(Collections.<String>emptyList());
+        when(world.isWeatherEnabled()).thenReturn(true);
+        when(world.getAllowedPortals()).thenReturn(AllowedPortalType.ALL);
+    }
+
+    @Test
+    public void defaultWorldsNeedNothing() {
+        for (Feature feature : Feature.values()) {
+            assertFalse(feature.name(), feature.isNeededBy(world));
+        }
+    }
+
+    @Test
+    public void changedPropertiesNeedTheirFeature() {
+        when(world.getHunger()).thenReturn(false);
+        when(world.getMonsterList()).thenReturn(Arrays.asList("ZOMBIE"));
+        when(world.getAllowedPortals()).thenReturn(AllowedPortalType.NETHER);
+        assertTrue(Feature.HUNGER.isNeededBy(world));
+        assertFalse(Feature.AUTO_HEAL.isNeededBy(world));
+        assertTrue(Feature.SPAWNING.isNeededBy(world));
+        assertFalse(Feature.WEATHER.isNeededBy(world));
+        assertTrue(Feature.PORTAL_FORM.isNeededBy(world));
+
+        when(world.getMonsterList()).thenReturn(Collections.<String>emptyList());
+        when(world.canAnimalsSpawn()).thenReturn(false);
+        when(world.isWeatherEnabled()).thenReturn(false);
+        assertTrue(Feature.SPAWNING.isNeededBy(world));
+        assertTrue(Feature.WEATHER.isNeededBy(world));
+    }
+
+    @Test
+    public void registersHandlersOnlyWhileAWorldNeedsThem() throws Exception {
+        PluginManager pluginManager = mock(PluginManager.class);
+        BukkitScheduler scheduler = mock(BukkitScheduler.class);
+        Server server = mock(Server.class);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(server.getScheduler()).thenReturn(scheduler);
+        MVWorldManager worldManager = mock(MVWorldManager.class);
+        when(worldManager.getMVWorlds()).thenReturn(Collections.singletonList(world));
+        MultiverseCore plugin = mock(MultiverseCore.class);
+        when(plugin.getMVWorldManager()).thenReturn(worldManager);
+        when(plugin.getEntityListener()).thenReturn(mock(MVEntityListener.class));
+        when(plugin.getWeatherListener()).thenReturn(mock(MVWeatherListener.class));
+        // getServer() is final, so the server has to be set directly.
+        Field serverField = JavaPlugin.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        serverField.set(plugin, server);
+        WorldFeatureTracker tracker = new WorldFeatureTracker(plugin);
+
+        tracker.start();
+        for (Feature feature : Feature.values()) {
+            assertFalse(feature.name(), tracker.isRegistered(feature));
+        }
+
+        // Disabling hunger registers the handler right away, counting happens on the next tick.
+        tracker.propertyChanged(Feature.HUNGER, true);
+        assertTrue(tracker.isRegistered(Feature.HUNGER));
+        verify(pluginManager).registerEvent(eq(FoodLevelChangeEvent.class), any(Listener.class),
+                eq(EventPriority.NORMAL), any(EventExecutor.class), any(Plugin.class), anyBoolean());
+        verify(scheduler).scheduleSyncDelayedTask(eq(plugin), any(Runnable.class));
+        when(world.getHunger()).thenReturn(false);
+        tracker.update();
+        assertEquals(1, tracker.getWorldCount(Feature.HUNGER));
+        assertTrue(tracker.isRegistered(Feature.HUNGER));
+
+        // A second update doesn't register the handler again.
+        tracker.update();
+        verify(pluginManager, times(1)).registerEvent(eq(FoodLevelChangeEvent.class), any(Listener.class),
+                eq(EventPriority.NORMAL), any(EventExecutor.class), any(Plugin.class), anyBoolean());
+
+        // Once no world needs it the handler goes away.
+        when(world.getHunger()).thenReturn(true);
+        tracker.update();
+        assertEquals(0, tracker.getWorldCount(Feature.HUNGER));
+        assertFalse(tracker.isRegistered(Feature.HUNGER));
+
+        when(world.isWeatherEnabled()).thenReturn(false);
+        tracker.update();
+        assertTrue(tracker.isRegistered(Feature.WEATHER));
+        tracker.stop();
+        assertFalse(tracker.isRegistered(Feature.WEATHER));
+    }
+}
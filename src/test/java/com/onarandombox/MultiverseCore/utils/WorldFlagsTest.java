@@ -0,0 +1,56 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.enums.AllowedPortalType;
+import org.bukkit.PortalType;
+import org.bukkit.World;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorldFlagsTest {
+    @Test
+    public void packsWorldProperties() {
+        MultiverseWorld mvworld = mock(MultiverseWorld.class);
+        when(mvworld.getHunger()).thenReturn(false);
+        when(mvworld.getAutoHeal()).thenReturn(true);
+        when(mvworld.isWeatherEnabled()).thenReturn(true);
+        when(mvworld.getAllowedPortals()).thenReturn(AllowedPortalType.NETHER);
+
+        WorldFlags flags = WorldFlags.of(mvworld);
+        assertFalse(flags.is(WorldFlags.HUNGER));
+        assertTrue(flags.is(WorldFlags.AUTO_HEAL));
+        assertTrue(flags.is(WorldFlags.WEATHER));
+        assertTrue(flags.isPortalAllowed(PortalType.NETHER));
+        assertFalse(flags.isPortalAllowed(PortalType.ENDER));
+
+        WorldFlags changed = flags.with(WorldFlags.WEATHER, false).withPortals(AllowedPortalType.ALL);
+        assertFalse(changed.is(WorldFlags.WEATHER));
+        assertTrue(changed.is(WorldFlags.AUTO_HEAL));
+        assertTrue(changed.isPortalAllowed(PortalType.ENDER));
+        assertFalse(changed.withPortals(AllowedPortalType.NONE).isPortalAllowed(PortalType.NETHER));
+        // The original didn't change.
+        assertTrue(flags.is(WorldFlags.WEATHER));
+    }
+
+    @Test
+    public void tableIsIndexedByWorld() {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        MultiverseWorld mvworld = mock(MultiverseWorld.class);
+        WorldFlags flags = WorldFlags.of(mvworld);
+
+        WorldFlagTable table = new WorldFlagTable();
+        assertNull(table.get(world));
+        table.publish(world, flags);
+        assertSame(flags, table.get(world));
+        assertNull(table.get(mock(World.class)));
+        table.remove("world");
+        assertNull(table.get(world));
+    }
+}
@@ -0,0 +1,166 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import com.onarandombox.MultiverseCore.exceptions.PropertyDoesNotExistException;
+import com.onarandombox.MultiverseCore.utils.WorldGroupManager.WorldGroup;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorldGroupManagerTest {
+    private PluginManager pluginManager;
+    private WorldTravelMatrix matrix;
+    private WorldGroupManager groups;
+
+    private MultiverseWorld createWorld(String name) {
+        MultiverseWorld world = mock(MultiverseWorld.class);
+        when(world.getName()).thenReturn(name);
+        when(world.getWorldBlacklist()).thenReturn(Collections.<String>emptyList());
+        matrix.addWorld(world);
+        groups.addWorld(world);
+        return world;
+    }
+
+    private WorldGroup addGroup(String name, String... patterns) {
+        return groups.addGroup(name, Arrays.asList(patterns), Collections.<String>emptyList(),
+                Collections.<String, String>emptyMap());
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        pluginManager = mock(PluginManager.class);
+        Server server = mock(Server.class);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        matrix = new WorldTravelMatrix();
+        MultiverseCore plugin = mock(MultiverseCore.class);
+        when(plugin.getTravelMatrix()).thenReturn(matrix);
+        when(plugin.getPermissionBatch()).thenReturn(mock(PermissionBatch.class));
+        // getServer() is final, so the server has to be set directly.
+        Field serverField = JavaPlugin.class.getDeclaredField("server");
+        serverField.setAccessible(true);
+        serverField.set(plugin, server);
+        groups = new WorldGroupManager(plugin);
+    }
+
+    @Test
+    public void matchesWildcardsIgnoringCase() {
+        WorldGroup survival = addGroup("survival", "survival*", "resource_?");
+        WorldGroup old = addGroup("old", "world.old");
+        verify(pluginManager).addPermission(survival.getAccessPermission());
+        assertEquals("multiverse.access.group.survival", survival.getAccessPermission().getName());
+        assertSame(survival, groups.getGroup("SURVIVAL"));
+
+        assertEquals(Arrays.asList(survival), groups.getGroups(createWorld("survival")));
+        assertEquals(Arrays.asList(survival), groups.getGroups(createWorld("Survival_Nether")));
+        assertEquals(Arrays.asList(survival), groups.getGroups(createWorld("resource_1")));
+        assertTrue(groups.getGroups(createWorld("resource_12")).isEmpty());
+        assertTrue(groups.getGroups(createWorld("resource_")).isEmpty());
+        assertTrue(groups.getGroups(createWorld("creative")).isEmpty());
+        assertEquals(3, survival.getMemberCount());
+
+        // Everything but the wildcards is matched literally.
+        assertTrue(groups.getGroups(createWorld("worldXold")).isEmpty());
+        assertEquals(Arrays.asList(old), groups.getGroups(createWorld("WORLD.OLD")));
+    }
+
+    @Test
+    public void followsWorldsBeingAddedAndRemoved() {
+        WorldGroup survival = addGroup("survival", "survival*");
+        WorldGroup all = addGroup("all", "*");
+        MultiverseWorld first = createWorld("survival1");
+        MultiverseWorld creative = createWorld("creative");
+        assertEquals(Arrays.asList(survival, all), groups.getGroups(first));
+        assertEquals(2, all.getMemberCount());
+
+        Player player = mock(Player.class);
+        when(player.hasPermission(survival.getAccessPermission())).thenReturn(true);
+        assertTrue(groups.hasGroupAccess(player, first));
+        assertFalse(groups.hasGroupAccess(player, creative));
+        BitSet accessible = new BitSet();
+        accessible.set(matrix.getId(first));
+        assertEquals(accessible, groups.getAccessibleWorlds(player));
+
+        groups.removeWorld(first);
+        matrix.removeWorld("survival1");
+        assertTrue(groups.getGroups(first).isEmpty());
+        assertEquals(0, survival.getMemberCount());
+        assertEquals(1, all.getMemberCount());
+        assertTrue(groups.getAccessibleWorlds(player).isEmpty());
+
+        // A new world may get the id of the removed one.
+        MultiverseWorld second = createWorld("survival2");
+        accessible.clear();
+        accessible.set(matrix.getId(second));
+        assertEquals(accessible, groups.getAccessibleWorlds(player));
+
+        groups.removeAllWorlds();
+        assertEquals(0, all.getMemberCount());
+        assertTrue(groups.getGroups(creative).isEmpty());
+    }
+
+    @Test
+    public void blacklistsWholeGroups() {
+        groups.addGroup("survival", Arrays.asList("survival*"), Arrays.asList("ARENAS"),
+                Collections.<String, String>emptyMap());
+        addGroup("arenas", "arena_*");
+        MultiverseWorld survival = createWorld("survival");
+        MultiverseWorld arena = createWorld("arena_1");
+        MultiverseWorld creative = createWorld("creative");
+
+        assertTrue(groups.isBlacklisted(survival, arena));
+        assertFalse(groups.isBlacklisted(arena, survival));
+        assertFalse(groups.isBlacklisted(survival, creative));
+        assertFalse(groups.isBlacklisted(creative, arena));
+
+        // Worlds loaded later are blacklisted as well.
+        MultiverseWorld otherArena = createWorld("arena_2");
+        assertTrue(groups.isBlacklisted(survival, otherArena));
+        groups.removeWorld(arena);
+        assertFalse(groups.isBlacklisted(survival, arena));
+        assertTrue(groups.isBlacklisted(survival, otherArena));
+    }
+
+    @Test
+    public void appliesTheDefaultsOfTheGroups() throws Exception {
+        Map<String, String> defaults = new LinkedHashMap<String, String>();
+        defaults.put("gamemode", "survival");
+        defaults.put("price", "five");
+        defaults.put("nope", "true");
+        groups.addGroup("survival", Arrays.asList("survival*"), Collections.<String>emptyList(), defaults);
+        MultiverseWorld survival = createWorld("survival");
+        MultiverseWorld creative = createWorld("creative");
+        when(survival.setPropertyValue("gamemode", "survival")).thenReturn(true);
+        when(survival.setPropertyValue("price", "five")).thenReturn(false);
+        when(survival.setPropertyValue("nope", "true")).thenThrow(new PropertyDoesNotExistException("nope"));
+
+        // Invalid defaults are skipped, the others are still applied.
+        groups.applyDefaults(survival);
+        verify(survival).setPropertyValue("gamemode", "survival");
+        verify(survival).setPropertyValue("price", "five");
+        verify(survival).setPropertyValue("nope", "true");
+
+        groups.applyDefaults(creative);
+        verify(creative, never()).setPropertyValue(anyString(), anyString());
+    }
+}
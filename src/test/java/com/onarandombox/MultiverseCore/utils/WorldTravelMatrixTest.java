@@ -0,0 +1,114 @@
+package com.onarandombox.MultiverseCore.utils;
+
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WorldTravelMatrixTest {
+    private static final int WORLDS = 500;
+
+    private List<MultiverseWorld> worlds;
+    private List<List<String>> blacklists;
+
+    private MultiverseWorld createWorld(String name, List<String> blacklist, double price) {
+        MultiverseWorld world = mock(MultiverseWorld.class, withSettings().stubOnly());
+        when(world.getName()).thenReturn(name);
+        when(world.getWorldBlacklist()).thenReturn(blacklist);
+        when(world.getPrice()).thenReturn(price);
+        return world;
+    }
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42L);
+        worlds = new ArrayList<MultiverseWorld>();
+        blacklists = new ArrayList<List<String>>();
+        for (int i = 0; i < WORLDS; i++) {
+            List<String> blacklist = new ArrayList<String>();
+            for (int j = 0; j < 5; j++) {
+                int other = random.nextInt(WORLDS + 50);
+                // Some entries are worlds that don't exist, some are in the wrong case.
+                blacklist.add(random.nextBoolean() ? "world" + other : "WORLD" + other);
+            }
+            blacklists.add(blacklist);
+            worlds.add(createWorld("world" + i, blacklist, (i % 3 == 0) ? 0D : 5D));
+        }
+    }
+
+    private void assertMatchesBlacklists(WorldTravelMatrix matrix) {
+        for (MultiverseWorld from : worlds) {
+            for (MultiverseWorld to : worlds) {
+                assertEquals(from.getWorldBlacklist().contains(to.getName()), matrix.isBlacklisted(from, to));
+                boolean ignoreCase = false;
+                for (String entry : from.getWorldBlacklist()) {
+                    ignoreCase |= entry.equalsIgnoreCase(to.getName());
+                }
+                assertEquals(ignoreCase, matrix.isBlacklistedIgnoreCase(from, to.getName()));
+                assertEquals(from == to || to.getPrice() == 0D, matrix.isPriceFree(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void matchesBlacklistsForAllPairs() {
+        WorldTravelMatrix matrix = new WorldTravelMatrix();
+        for (MultiverseWorld world : worlds) {
+            matrix.addWorld(world);
+        }
+        assertEquals(WORLDS, matrix.size());
+        assertMatchesBlacklists(matrix);
+    }
+
+    @Test
+    public void followsChanges() {
+        WorldTravelMatrix matrix = new WorldTravelMatrix();
+        for (MultiverseWorld world : worlds) {
+            matrix.addWorld(world);
+        }
+        MultiverseWorld first = worlds.get(0);
+        MultiverseWorld second = worlds.get(1);
+
+        // Direct changes to the list are picked up once the world is invalidated, even those that keep its size.
+        blacklists.get(0).add(second.getName());
+        matrix.invalidate(first);
+        assertTrue(matrix.isBlacklisted(first, second));
+        blacklists.get(0).remove(second.getName());
+        matrix.invalidate(first);
+        assertFalse(matrix.isBlacklisted(first, second));
+        String replaced = blacklists.get(0).set(0, second.getName());
+        matrix.invalidate(first);
+        assertTrue(matrix.isBlacklisted(first, second));
+        blacklists.get(0).set(0, replaced);
+        matrix.invalidate(first);
+        assertFalse(matrix.isBlacklisted(first, second));
+
+        when(second.getPrice()).thenReturn(0D);
+        matrix.invalidate(second);
+        assertTrue(matrix.isPriceFree(first, second));
+
+        // Removed ids are reused by new worlds, which must pick up existing blacklist entries.
+        int id = matrix.getId(second);
+        matrix.removeWorld(second.getName());
+        assertEquals(-1, matrix.getId(second));
+        blacklists.get(0).add("newworld");
+        MultiverseWorld newWorld = createWorld("newworld", new ArrayList<String>(), 1D);
+        matrix.addWorld(newWorld);
+        assertEquals(id, matrix.getId(newWorld));
+        assertTrue(matrix.isBlacklisted(first, newWorld));
+        assertFalse(matrix.isPriceFree(first, newWorld));
+
+        worlds.set(1, newWorld);
+        assertMatchesBlacklists(matrix);
+    }
+}